@@ -0,0 +1,20 @@
+package cz.cvut.fel.pm2.FinanceMicroservice.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET endpoint whose response is determined by its request and the data of the user in its {@code userId}
+ * parameter. Such responses carry the user's data version as a strong ETag, and requests whose {@code If-None-Match}
+ * names the current version are answered with 304 before the endpoint runs.
+ *
+ * @see UserDataETagInterceptor
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UserDataETag {
+}
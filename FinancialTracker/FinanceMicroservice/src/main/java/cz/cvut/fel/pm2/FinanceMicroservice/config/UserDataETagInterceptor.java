@@ -0,0 +1,42 @@
+package cz.cvut.fel.pm2.FinanceMicroservice.config;
+
+import cz.cvut.fel.pm2.FinanceMicroservice.service.UserDataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers conditional GET requests of {@link UserDataETag} endpoints from the user's data version.
+ * The version is read before the endpoint reads any data, so a write committing in between can only make the ETag
+ * older than the response, which costs the client one more full response but never a stale one.
+ */
+public class UserDataETagInterceptor implements HandlerInterceptor {
+    private final UserDataVersionService userDataVersionService;
+
+    public UserDataETagInterceptor(UserDataVersionService userDataVersionService) {
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        if (!handlerMethod.hasMethodAnnotation(UserDataETag.class)) {
+            return true;
+        }
+        int userId;
+        try {
+            userId = Integer.parseInt(request.getParameter("userId"));
+        } catch (NumberFormatException e) {
+            // left to the endpoint, which rejects the request
+            return true;
+        }
+
+        String eTag = "\"" + userDataVersionService.currentVersion(userId) + "\"";
+        return !new ServletWebRequest(request, response).checkNotModified(eTag);
+    }
+}
@@ -1,13 +1,32 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.config;
 
+import cz.cvut.fel.pm2.FinanceMicroservice.service.UserDataVersionService;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 /**
  * Configuration class for Web MVC settings.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private final UserDataVersionService userDataVersionService;
+
+    public WebConfig(UserDataVersionService userDataVersionService) {
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    /**
+     * Registers the conditional GET handling of {@link UserDataETag} endpoints.
+     *
+     * @param registry InterceptorRegistry instance to register interceptors with
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new UserDataETagInterceptor(userDataVersionService));
+    }
+
     /**
      * Configures CORS mappings for all endpoints.
      *
@@ -18,7 +37,8 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                .allowedHeaders("authorization", "content-type", "x-auth-token")
+                .allowedHeaders("authorization", "content-type", "x-auth-token", "if-none-match")
+                .exposedHeaders(HttpHeaders.ETAG)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -1,6 +1,8 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.controller;
 
+import cz.cvut.fel.pm2.FinanceMicroservice.config.UserDataETag;
 import cz.cvut.fel.pm2.FinanceMicroservice.dto.DebtDTO;
+import cz.cvut.fel.pm2.FinanceMicroservice.dto.DebtRow;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Debt;
 import cz.cvut.fel.pm2.FinanceMicroservice.interest.CompoundInterestCalculationStrategy;
 import cz.cvut.fel.pm2.FinanceMicroservice.interest.InterestCalculator;
@@ -8,6 +10,7 @@ import cz.cvut.fel.pm2.FinanceMicroservice.interest.SimpleInterestCalculationStr
 import cz.cvut.fel.pm2.FinanceMicroservice.repository.DebtRepository;
 import cz.cvut.fel.pm2.FinanceMicroservice.service.DebtService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -40,7 +43,7 @@ public class DebtController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getDebtById(@PathVariable("id") int id, @RequestParam int userId) {
         try {
-            Debt debt = debtService.getDebtById(id, userId);
+            DebtRow debt = debtService.getDebtRowById(id, userId);
             if (debt == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Debt with id " + id + " not found");
             }
@@ -56,9 +59,10 @@ public class DebtController {
      * @return ResponseEntity containing the list of retrieved debts or an error message if none found
      */
     @GetMapping("/all")
+    @UserDataETag
     public ResponseEntity<?> getAllDebtById( @RequestParam int userId) {
         try {
-            List<Debt> debts = debtService.getAllById(userId);
+            List<DebtRow> debts = debtService.getAllById(userId);
             if (debts.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Debts was not fount");
             }
@@ -77,7 +81,7 @@ public class DebtController {
     @GetMapping("/{id}/interest-rate")
     public ResponseEntity<?> getInterestRate(@PathVariable("id") int id, @RequestParam int userId) {
         try {
-            Debt debt = debtService.getDebtById(id, userId);
+            DebtRow debt = debtService.getDebtRowById(id, userId);
             if (debt == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Debt with id " + id + " not found");
             }
@@ -137,17 +141,23 @@ public class DebtController {
      * Updates an existing debt.
      *
      * @param id          the ID of the debt to update
-     * @param updatedDebt the updated debt object
+     * @param updatedDebt the updated debt object, including the version that was read
      * @param userId      the ID of the user updating the debt
      * @return ResponseEntity indicating success or failure of the operation
      */
     @PutMapping("/{id}")
     public ResponseEntity<?> updateDebt(@PathVariable("id") int id, @RequestBody Debt updatedDebt,  @RequestParam int userId) {
-        if (!debtRepository.existsById(id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Debt with id " + id + " not found.");
+        if (updatedDebt.getVersion() == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body("The version of the debt is required.");
         }
         updatedDebt.setId(id);
-        debtService.updateDebt(updatedDebt, userId);
+        try {
+            if (!debtService.updateDebt(updatedDebt, userId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Debt with id " + id + " not found.");
+            }
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
         return ResponseEntity.ok().build();
     }
     @DeleteMapping("/{id}")
@@ -1,7 +1,9 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.controller;
 
 
+import cz.cvut.fel.pm2.FinanceMicroservice.config.UserDataETag;
 import cz.cvut.fel.pm2.FinanceMicroservice.dto.GoalDTO;
+import cz.cvut.fel.pm2.FinanceMicroservice.dto.GoalRow;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Goal;
 import cz.cvut.fel.pm2.FinanceMicroservice.repository.GoalRepository;
 import cz.cvut.fel.pm2.FinanceMicroservice.service.GoalService;
@@ -10,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -39,7 +42,7 @@ public class GoalController {
     @Cacheable(value = "goals", key = "#id")
     public ResponseEntity<?> getGoalById(@PathVariable("id") int id, @RequestParam int userId) {
         try {
-            Goal goal = goalService.getGoalById(id, userId);
+            GoalRow goal = goalService.getGoalRowById(id, userId);
             if (goal == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Goal with id " + id + " not found");
             }
@@ -68,18 +71,24 @@ public class GoalController {
      * Updates an existing goal.
      *
      * @param id          the ID of the goal to update
-     * @param updatedGoal the updated goal object
+     * @param updatedGoal the updated goal object, including the version that was read
      * @param userId      the ID of the user updating the goal
      * @return ResponseEntity indicating success or failure of the operation
      */
     @PutMapping("/{id}")
     @CacheEvict(value = "goals", key = "#id")
     public ResponseEntity<?> updateGoal(@PathVariable("id") int id, @RequestBody Goal updatedGoal,  @RequestParam int userId) {
-        if (!goalRepository.existsById(id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Goal with id " + id + " not found.");
+        if (updatedGoal.getVersion() == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body("The version of the goal is required.");
         }
         updatedGoal.setId(id);
-        goalService.updateGoal(updatedGoal, userId);
+        try {
+            if (!goalService.updateGoal(updatedGoal, userId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Goal with id " + id + " not found.");
+            }
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
         return ResponseEntity.ok().build();
     }
     /**
@@ -106,8 +115,9 @@ public class GoalController {
      * @return ResponseEntity containing the list of goals
      */
     @GetMapping("/all")
-    public ResponseEntity<List<Goal>> getAllGoals(@RequestParam int userId) {
-        List<Goal> goals = goalService.getAllGoals(userId);
+    @UserDataETag
+    public ResponseEntity<List<GoalRow>> getAllGoals(@RequestParam int userId) {
+        List<GoalRow> goals = goalService.getAllGoals(userId);
         return ResponseEntity.ok().body(goals);
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package cz.cvut.fel.pm2.FinanceMicroservice.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a debt, selected directly by the read queries without loading entities.
+ * Serialized with the same fields as {@code Debt}.
+ */
+@Getter
+public class DebtRow {
+    private final int id;
+    private final int userId;
+    private final String name;
+    private final float amount;
+    private final String nameOfPersonToGiveBack;
+    private final LocalDate fromDate;
+    private final LocalDate dueDate;
+    private final int interestRate;
+    private final long version;
+
+    public DebtRow(Integer id, Integer userId, String name, Float amount, String nameOfPersonToGiveBack,
+                   LocalDate fromDate, LocalDate dueDate, Integer interestRate, Long version) {
+        this.id = id;
+        this.userId = userId;
+        this.name = name;
+        this.amount = amount;
+        this.nameOfPersonToGiveBack = nameOfPersonToGiveBack;
+        this.fromDate = fromDate;
+        this.dueDate = dueDate;
+        this.interestRate = interestRate;
+        this.version = version;
+    }
+}
@@ -0,0 +1,24 @@
+package cz.cvut.fel.pm2.FinanceMicroservice.dto;
+
+import lombok.Getter;
+
+/**
+ * Read-only view of a goal, selected directly by the read queries without loading entities.
+ * Serialized with the same fields as {@code Goal}.
+ */
+@Getter
+public class GoalRow {
+    private final int id;
+    private final int userId;
+    private final String name;
+    private final float amount;
+    private final long version;
+
+    public GoalRow(Integer id, Integer userId, String name, Float amount, Long version) {
+        this.id = id;
+        this.userId = userId;
+        this.name = name;
+        this.amount = amount;
+        this.version = version;
+    }
+}
@@ -22,4 +22,7 @@ public abstract class Finance {
     @Basic
     @Column(name = "amount", nullable = false)
     private float amount;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -1,17 +1,51 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.repository;
 
+import cz.cvut.fel.pm2.FinanceMicroservice.dto.DebtRow;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Debt;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Reads select {@link DebtRow} projections; {@link Debt} entities are only loaded for writes.
+ */
 @Repository
 public interface DebtRepository extends JpaRepository<Debt, Integer> {
+    String ROW_SELECT = "SELECT new cz.cvut.fel.pm2.FinanceMicroservice.dto.DebtRow(e.id, e.userId, e.name, e.amount, " +
+            "e.nameOfPersonToGiveBack, e.fromDate, e.dueDate, e.interestRate, e.version) FROM Debt e ";
+
     @Query("SELECT e FROM Debt e WHERE e.id = :debtId AND e.userId = :userId")
     Optional<Debt> findByIdAndUserId(@Param("debtId") int debtId, @Param("userId") int userId);
-    List<Debt> findAllByUserId(int userId);
+
+    @Query(ROW_SELECT + "WHERE e.id = :debtId AND e.userId = :userId")
+    Optional<DebtRow> findRowByIdAndUserId(@Param("debtId") int debtId, @Param("userId") int userId);
+
+    @Query(ROW_SELECT + "WHERE e.userId = :userId")
+    List<DebtRow> findAllByUserId(@Param("userId") int userId);
+
+    @Query("SELECT COUNT(e) > 0 FROM Debt e WHERE e.id = :debtId AND e.userId = :userId")
+    boolean existsByIdAndUserId(@Param("debtId") int debtId, @Param("userId") int userId);
+
+    /**
+     * Overwrites a debt in one statement if it still has the expected version, and increments the version.
+     * The {@code debt} row is only updated if the {@code finance} row was.
+     *
+     * @return the number of updated debts, 0 if the user has no such debt or it has another version
+     */
+    @Modifying
+    @Query(value = "WITH parent AS (" +
+            "UPDATE finance f SET name = :name, amount = :amount, version = f.version + 1 FROM debt d " +
+            "WHERE d.id = f.id AND f.id = :debtId AND f.user_id = :userId AND f.version = :version RETURNING f.id) " +
+            "UPDATE debt SET name_of_person_to_give_back = :nameOfPersonToGiveBack, due_date = :dueDate " +
+            "WHERE id IN (SELECT id FROM parent)", nativeQuery = true)
+    int updateIfVersion(@Param("debtId") int debtId, @Param("userId") int userId, @Param("version") long version,
+                        @Param("name") String name, @Param("amount") float amount,
+                        @Param("nameOfPersonToGiveBack") String nameOfPersonToGiveBack,
+                        @Param("dueDate") LocalDate dueDate);
 }
@@ -1,18 +1,43 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import cz.cvut.fel.pm2.FinanceMicroservice.dto.GoalRow;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Goal;
 
 import java.util.List;
 import java.util.Optional;
+
+/**
+ * Reads select {@link GoalRow} projections; {@link Goal} entities are only loaded for writes.
+ */
 @Repository
 public interface GoalRepository extends JpaRepository<Goal, Integer> {
+    String ROW_SELECT = "SELECT new cz.cvut.fel.pm2.FinanceMicroservice.dto.GoalRow(e.id, e.userId, e.name, e.amount, e.version) FROM Goal e ";
 
-    List<Goal> findAllByUserId(int userId);
+    @Query(ROW_SELECT + "WHERE e.userId = :userId")
+    List<GoalRow> findAllByUserId(@Param("userId") int userId);
 
     @Query("SELECT e FROM Goal e WHERE e.id = :goalId AND e.userId = :userId")
     Optional<Goal> findByIdAndUserId(@Param("goalId") int goalId, @Param("userId") int userId);
+
+    @Query(ROW_SELECT + "WHERE e.id = :goalId AND e.userId = :userId")
+    Optional<GoalRow> findRowByIdAndUserId(@Param("goalId") int goalId, @Param("userId") int userId);
+
+    @Query("SELECT COUNT(e) > 0 FROM Goal e WHERE e.id = :goalId AND e.userId = :userId")
+    boolean existsByIdAndUserId(@Param("goalId") int goalId, @Param("userId") int userId);
+
+    /**
+     * Overwrites a goal in one statement if it still has the expected version, and increments the version.
+     *
+     * @return the number of updated goals, 0 if the user has no such goal or it has another version
+     */
+    @Modifying
+    @Query(value = "UPDATE finance f SET name = :name, amount = :amount, version = f.version + 1 FROM goal g " +
+            "WHERE g.id = f.id AND f.id = :goalId AND f.user_id = :userId AND f.version = :version", nativeQuery = true)
+    int updateIfVersion(@Param("goalId") int goalId, @Param("userId") int userId, @Param("version") long version,
+                        @Param("name") String name, @Param("amount") float amount);
 }
@@ -1,7 +1,9 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.service;
 
+import cz.cvut.fel.pm2.FinanceMicroservice.dto.DebtRow;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Debt;
 import cz.cvut.fel.pm2.FinanceMicroservice.repository.DebtRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,9 +15,11 @@ import java.util.Optional;
 @Transactional
 public class DebtService {
     private final DebtRepository debtRepository;
+    private final UserDataVersionService userDataVersionService;
 
-    public DebtService(DebtRepository debtRepository) {
+    public DebtService(DebtRepository debtRepository, UserDataVersionService userDataVersionService) {
         this.debtRepository = debtRepository;
+        this.userDataVersionService = userDataVersionService;
     }
     /**
      * Retrieves a debt by its ID and the user's ID.
@@ -29,15 +33,28 @@ public class DebtService {
         Optional<Debt> optionalIncome = debtRepository.findByIdAndUserId(debtId, userId);
         return optionalIncome.orElseThrow(() -> new RuntimeException("Debt not found with id: " + debtId + " for user: " + userId));
     }
+    /**
+     * Retrieves a read-only view of a debt by its ID and the user's ID.
+     *
+     * @param debtId the ID of the debt
+     * @param userId the ID of the user
+     * @return the debt with the specified ID for the specified user
+     * @throws RuntimeException if the debt is not found
+     */
+    @Transactional(readOnly = true)
+    public DebtRow getDebtRowById(int debtId, int userId){
+        Optional<DebtRow> optionalRow = debtRepository.findRowByIdAndUserId(debtId, userId);
+        return optionalRow.orElseThrow(() -> new RuntimeException("Debt not found with id: " + debtId + " for user: " + userId));
+    }
     /**
      * Retrieves all debts for a specified user.
      *
      * @param userId the ID of the user
      * @return a list of debts for the specified user
      */
-    public List<Debt> getAllById(int userId){
-        List<Debt> optionalIncome = debtRepository.findAllByUserId( userId);
-        return optionalIncome;
+    @Transactional(readOnly = true)
+    public List<DebtRow> getAllById(int userId){
+        return debtRepository.findAllByUserId(userId);
     }
     /**
      * Creates a new debt.
@@ -49,23 +66,31 @@ public class DebtService {
     public void createDebt(Debt debt) {
         Objects.requireNonNull(debt);
         debtRepository.save(debt);
+        userDataVersionService.increment(debt.getUserId());
     }
     /**
-     * Updates an existing debt.
+     * Updates an existing debt with a single statement, provided it still has the version the caller read.
      *
-     * @param updatedDebt the updated debt information
+     * @param updatedDebt the updated debt information, including its id and the version the caller read
      * @param userId      the ID of the user
-     * @throws NullPointerException if the updated debt is null
+     * @return {@code false} if the user has no debt with the given id
+     * @throws NullPointerException if the updated debt or its version is null
+     * @throws OptimisticLockingFailureException if the debt was changed since the caller read it
      */
     @Transactional
-    public void updateDebt(Debt updatedDebt,  int userId) {
+    public boolean updateDebt(Debt updatedDebt,  int userId) {
         Objects.requireNonNull(updatedDebt);
-        Debt existingDebt = getDebtById(updatedDebt.getId(), userId);
-        existingDebt.setAmount(updatedDebt.getAmount());
-        existingDebt.setName(updatedDebt.getName());
-        existingDebt.setNameOfPersonToGiveBack(updatedDebt.getNameOfPersonToGiveBack());
-        existingDebt.setDueDate(updatedDebt.getDueDate());
-        debtRepository.save(existingDebt);
+        long version = Objects.requireNonNull(updatedDebt.getVersion(), "version");
+        int updated = debtRepository.updateIfVersion(updatedDebt.getId(), userId, version, updatedDebt.getName(),
+                updatedDebt.getAmount(), updatedDebt.getNameOfPersonToGiveBack(), updatedDebt.getDueDate());
+        if (updated > 0) {
+            userDataVersionService.increment(userId);
+            return true;
+        }
+        if (debtRepository.existsByIdAndUserId(updatedDebt.getId(), userId)) {
+            throw new OptimisticLockingFailureException("Debt with id " + updatedDebt.getId() + " was changed since version " + version);
+        }
+        return false;
     }
     /**
      * Deletes a debt by its ID and the user's ID.
@@ -78,5 +103,6 @@ public class DebtService {
     public void deleteDebt(int debtId, int userId) {
         getDebtById(debtId, userId);
         debtRepository.deleteById(debtId);
+        userDataVersionService.increment(userId);
     }
 }
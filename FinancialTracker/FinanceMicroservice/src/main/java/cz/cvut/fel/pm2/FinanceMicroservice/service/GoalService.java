@@ -1,10 +1,11 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.service;
 
+import cz.cvut.fel.pm2.FinanceMicroservice.dto.GoalRow;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Goal;
 import cz.cvut.fel.pm2.FinanceMicroservice.repository.GoalRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,14 +19,17 @@ import java.util.Optional;
 @Transactional
 public class GoalService {
     private final GoalRepository goalRepository;
+    private final UserDataVersionService userDataVersionService;
     /**
-     * Constructs a new GoalService with the specified GoalRepository and GoalCaretaker.
+     * Constructs a new GoalService with the specified GoalRepository and UserDataVersionService.
      *
      * @param goalRepository the repository used to manage goals
+     * @param userDataVersionService the service versioning the data of each user
      */
     @Autowired
-    public GoalService(GoalRepository goalRepository) {
+    public GoalService(GoalRepository goalRepository, UserDataVersionService userDataVersionService) {
         this.goalRepository = goalRepository;
+        this.userDataVersionService = userDataVersionService;
     }
 
     /**
@@ -40,6 +44,19 @@ public class GoalService {
         Optional<Goal> optionalIncome = goalRepository.findByIdAndUserId(goalId, userId);
         return optionalIncome.orElseThrow(() -> new RuntimeException("Goal not found with id: " + goalId + " for user: " + userId));
     }
+    /**
+     * Retrieves a read-only view of a goal by its ID and the user's ID.
+     *
+     * @param goalId the ID of the goal
+     * @param userId the ID of the user
+     * @return the goal with the specified ID for the specified user
+     * @throws RuntimeException if the goal is not found
+     */
+    @Transactional(readOnly = true)
+    public GoalRow getGoalRowById(int goalId, int userId){
+        Optional<GoalRow> optionalRow = goalRepository.findRowByIdAndUserId(goalId, userId);
+        return optionalRow.orElseThrow(() -> new RuntimeException("Goal not found with id: " + goalId + " for user: " + userId));
+    }
     /**
      * Creates a new goal.
      *
@@ -50,22 +67,31 @@ public class GoalService {
     public void createGoal(Goal goal) {
         Objects.requireNonNull(goal);
         goalRepository.save(goal);
+        userDataVersionService.increment(goal.getUserId());
     }
     /**
-     * Updates an existing goal.
+     * Updates an existing goal with a single statement, provided it still has the version the caller read.
      *
-     * @param updatedGoal the updated goal information
+     * @param updatedGoal the updated goal information, including its id and the version the caller read
      * @param userId      the ID of the user
-     * @throws NullPointerException if the updated goal is null
+     * @return {@code false} if the user has no goal with the given id
+     * @throws NullPointerException if the updated goal or its version is null
+     * @throws OptimisticLockingFailureException if the goal was changed since the caller read it
      */
     @Transactional
-    @CachePut(value = "goals", key = "#updatedGoal.id")
-    public void updateGoal(Goal updatedGoal, int userId) {
+    public boolean updateGoal(Goal updatedGoal, int userId) {
         Objects.requireNonNull(updatedGoal);
-        Goal existingGoal = getGoalById(updatedGoal.getId(), userId);
-        existingGoal.setAmount(updatedGoal.getAmount());
-        existingGoal.setName(updatedGoal.getName());
-        goalRepository.save(existingGoal);
+        long version = Objects.requireNonNull(updatedGoal.getVersion(), "version");
+        int updated = goalRepository.updateIfVersion(updatedGoal.getId(), userId, version, updatedGoal.getName(),
+                updatedGoal.getAmount());
+        if (updated > 0) {
+            userDataVersionService.increment(userId);
+            return true;
+        }
+        if (goalRepository.existsByIdAndUserId(updatedGoal.getId(), userId)) {
+            throw new OptimisticLockingFailureException("Goal with id " + updatedGoal.getId() + " was changed since version " + version);
+        }
+        return false;
     }
     /**
      * Deletes a goal by its ID and the user's ID.
@@ -78,6 +104,7 @@ public class GoalService {
     public void deleteGoal(int goalId, int userId) {
         getGoalById(goalId, userId);
         goalRepository.deleteById(goalId);
+        userDataVersionService.increment(userId);
     }
     /**
      * Retrieves all goals for a specified user.
@@ -85,7 +112,8 @@ public class GoalService {
      * @param userId the ID of the user
      * @return a list of goals for the specified user
      */
-    public List<Goal> getAllGoals(int userId) {
+    @Transactional(readOnly = true)
+    public List<GoalRow> getAllGoals(int userId) {
         return goalRepository.findAllByUserId(userId);
     }
 }
@@ -0,0 +1,47 @@
+package cz.cvut.fel.pm2.FinanceMicroservice.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Keeps a version per user that increases with every write of the user's debts or goals.
+ * Responses computed from a user's data can be identified by this version, so a client that already holds the
+ * response for the current version does not need it again.
+ */
+@Service
+public class UserDataVersionService {
+    private static final String SELECT_SQL = "SELECT version FROM user_data_version WHERE user_id = ?";
+    private static final String INCREMENT_SQL =
+            "INSERT INTO user_data_version (user_id, version) VALUES (?, 1) " +
+            "ON CONFLICT (user_id) DO UPDATE SET version = user_data_version.version + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserDataVersionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param userId the ID of the user
+     * @return the current version of the user's data, 0 if the user has never written any
+     */
+    public long currentVersion(int userId) {
+        List<Long> versions = jdbcTemplate.queryForList(SELECT_SQL, Long.class, userId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /**
+     * Increments the version of a user's data.
+     * Runs in the writing transaction, so the new version becomes visible together with the written rows.
+     *
+     * @param userId the ID of the user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void increment(int userId) {
+        jdbcTemplate.update(INCREMENT_SQL, userId);
+    }
+}
@@ -0,0 +1,34 @@
+-- Schema as created by Hibernate before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-version=1) and skip this script.
+
+create table finance (
+    amount float4 not null,
+    id integer generated by default as identity,
+    user_id integer not null,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table debt (
+    due_date date not null,
+    from_date date not null,
+    id integer not null,
+    interest_rate integer not null,
+    name_of_person_to_give_back varchar(255) not null,
+    primary key (id)
+);
+
+create table goal (
+    id integer not null,
+    primary key (id)
+);
+
+alter table debt
+    add constraint fk_debt_finance
+    foreign key (id)
+    references finance;
+
+alter table goal
+    add constraint fk_goal_finance
+    foreign key (id)
+    references finance;
@@ -0,0 +1,5 @@
+-- user_id lives in the finance table (joined inheritance); debt and goal queries use this index
+-- and join their own table by primary key.
+
+-- findAllByUserId and findByIdAndUserId of debts and goals
+create index if not exists ix_finance_user_id on finance (user_id, id);
@@ -0,0 +1,3 @@
+-- Row version for optimistic updates: PUT of a debt or goal sends the version it read and
+-- UPDATE finance ... WHERE id = ? AND user_id = ? AND version = ? fails instead of overwriting a newer write.
+alter table finance add column version bigint not null default 0;
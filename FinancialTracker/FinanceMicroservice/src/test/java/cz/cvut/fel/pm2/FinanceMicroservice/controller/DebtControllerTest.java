@@ -1,12 +1,14 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.controller;
 
 import cz.cvut.fel.pm2.FinanceMicroservice.dto.DebtDTO;
+import cz.cvut.fel.pm2.FinanceMicroservice.dto.DebtRow;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Debt;
 import cz.cvut.fel.pm2.FinanceMicroservice.interest.InterestCalculator;
 import cz.cvut.fel.pm2.FinanceMicroservice.interest.CompoundInterestCalculationStrategy;
 import cz.cvut.fel.pm2.FinanceMicroservice.interest.SimpleInterestCalculationStrategy;
 import cz.cvut.fel.pm2.FinanceMicroservice.repository.DebtRepository;
 import cz.cvut.fel.pm2.FinanceMicroservice.service.DebtService;
+import cz.cvut.fel.pm2.FinanceMicroservice.service.UserDataVersionService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -18,6 +20,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -42,6 +45,9 @@ public class DebtControllerTest {
     @MockBean
     private DebtRepository debtRepository;
 
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
     @MockBean
     private InterestCalculator interestCalculator;
 
@@ -50,6 +56,8 @@ public class DebtControllerTest {
 
     private Debt debt;
 
+    private DebtRow debtRow;
+
     @BeforeEach
     public void setup() {
         debt = new Debt();
@@ -61,6 +69,9 @@ public class DebtControllerTest {
         debt.setFromDate(LocalDate.now());
         debt.setDueDate(LocalDate.now().plusMonths(6));
         debt.setInterestRate(5);
+        debt.setVersion(0L);
+        debtRow = new DebtRow(debt.getId(), debt.getUserId(), debt.getName(), debt.getAmount(),
+                debt.getNameOfPersonToGiveBack(), debt.getFromDate(), debt.getDueDate(), debt.getInterestRate(), debt.getVersion());
     }
 
     @Test
@@ -69,7 +80,7 @@ public class DebtControllerTest {
         int userId = 1;
         int debtId = 1;
 
-        when(debtService.getDebtById(debtId, userId)).thenReturn(debt);
+        when(debtService.getDebtRowById(debtId, userId)).thenReturn(debtRow);
 
         // Act & Assert
         mockMvc.perform(get("/finances/debts/{id}", debtId)
@@ -85,7 +96,7 @@ public class DebtControllerTest {
         int userId = 1;
         int debtId = 1;
 
-        when(debtService.getDebtById(debtId, userId)).thenReturn(null);
+        when(debtService.getDebtRowById(debtId, userId)).thenReturn(null);
 
         // Act & Assert
         mockMvc.perform(get("/finances/debts/{id}", debtId)
@@ -99,17 +110,10 @@ public class DebtControllerTest {
         // Arrange
         int userId = 1;
 
-        Debt debt2 = new Debt();
-        debt2.setId(2);
-        debt2.setUserId(userId);
-        debt2.setAmount(2000.0f);
-        debt2.setName("Car Loan");
-        debt2.setNameOfPersonToGiveBack("Jane Smith");
-        debt2.setFromDate(LocalDate.now());
-        debt2.setDueDate(LocalDate.now().plusMonths(12));
-        debt2.setInterestRate(7);
+        DebtRow debt2 = new DebtRow(2, userId, "Car Loan", 2000.0f, "Jane Smith",
+                LocalDate.now(), LocalDate.now().plusMonths(12), 7, 0L);
 
-        List<Debt> debts = Arrays.asList(debt, debt2);
+        List<DebtRow> debts = Arrays.asList(debtRow, debt2);
 
         when(debtService.getAllById(userId)).thenReturn(debts);
 
@@ -124,6 +128,41 @@ public class DebtControllerTest {
                 .andExpect(jsonPath("$[1].name").value(debt2.getName()));
     }
 
+    @Test
+    public void testGetAllDebtById_NotModified() throws Exception {
+        // Arrange
+        int userId = 1;
+
+        when(userDataVersionService.currentVersion(userId)).thenReturn(7L);
+
+        // Act & Assert
+        mockMvc.perform(get("/finances/debts/all")
+                        .param("userId", String.valueOf(userId))
+                        .header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"7\""))
+                .andExpect(content().string(""));
+
+        verify(debtService, never()).getAllById(anyInt());
+    }
+
+    @Test
+    public void testGetAllDebtById_ModifiedSinceETag() throws Exception {
+        // Arrange
+        int userId = 1;
+
+        when(userDataVersionService.currentVersion(userId)).thenReturn(8L);
+        when(debtService.getAllById(userId)).thenReturn(List.of(debtRow));
+
+        // Act & Assert
+        mockMvc.perform(get("/finances/debts/all")
+                        .param("userId", String.valueOf(userId))
+                        .header("If-None-Match", "\"7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"8\""))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
     @Test
     public void testGetAllDebtById_NotFound() throws Exception {
         // Arrange
@@ -147,7 +186,7 @@ public class DebtControllerTest {
         long daysBetween = ChronoUnit.DAYS.between(debt.getFromDate(), debt.getDueDate());
         float expectedInterest = 50.0f;
 
-        when(debtService.getDebtById(debtId, userId)).thenReturn(debt);
+        when(debtService.getDebtRowById(debtId, userId)).thenReturn(debtRow);
         when(interestCalculator.calculateInterest(debt.getAmount(), daysBetween, debt.getInterestRate()))
                 .thenReturn(expectedInterest);
 
@@ -164,7 +203,7 @@ public class DebtControllerTest {
         int userId = 1;
         int debtId = 1;
 
-        when(debtService.getDebtById(debtId, userId)).thenReturn(null);
+        when(debtService.getDebtRowById(debtId, userId)).thenReturn(null);
 
         // Act & Assert
         mockMvc.perform(get("/finances/debts/{id}/interest-rate", debtId)
@@ -260,7 +299,7 @@ public class DebtControllerTest {
         int userId = 1;
         int debtId = 1;
 
-        when(debtRepository.existsById(debtId)).thenReturn(true);
+        when(debtService.updateDebt(any(Debt.class), eq(userId))).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(put("/finances/debts/{id}", debtId)
@@ -280,7 +319,7 @@ public class DebtControllerTest {
         int userId = 1;
         int debtId = 1;
 
-        when(debtRepository.existsById(debtId)).thenReturn(false);
+        when(debtService.updateDebt(any(Debt.class), eq(userId))).thenReturn(false);
 
         // Act & Assert
         mockMvc.perform(put("/finances/debts/{id}", debtId)
@@ -289,6 +328,39 @@ public class DebtControllerTest {
                         .content(objectMapper.writeValueAsString(debt)))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("Debt with id " + debtId + " not found."));
+    }
+
+    @Test
+    public void testUpdateDebt_VersionConflict() throws Exception {
+        // Arrange
+        int userId = 1;
+        int debtId = 1;
+
+        when(debtService.updateDebt(any(Debt.class), eq(userId)))
+                .thenThrow(new OptimisticLockingFailureException("Debt with id 1 was changed since version 0"));
+
+        // Act & Assert
+        mockMvc.perform(put("/finances/debts/{id}", debtId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(debt)))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Debt with id 1 was changed since version 0"));
+    }
+
+    @Test
+    public void testUpdateDebt_WithoutVersion() throws Exception {
+        // Arrange
+        int userId = 1;
+        int debtId = 1;
+        debt.setVersion(null);
+
+        // Act & Assert
+        mockMvc.perform(put("/finances/debts/{id}", debtId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(debt)))
+                .andExpect(status().isPreconditionRequired());
 
         // Verify that the service was not called
         verify(debtService, never()).updateDebt(any(Debt.class), eq(userId));
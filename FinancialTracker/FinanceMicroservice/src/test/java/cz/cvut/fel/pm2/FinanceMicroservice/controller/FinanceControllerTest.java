@@ -4,6 +4,7 @@ import cz.cvut.fel.pm2.FinanceMicroservice.entity.Debt;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Goal;
 import cz.cvut.fel.pm2.FinanceMicroservice.repository.FinanceRepository;
 import cz.cvut.fel.pm2.FinanceMicroservice.service.FinanceService;
+import cz.cvut.fel.pm2.FinanceMicroservice.service.UserDataVersionService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -35,6 +36,9 @@ public class FinanceControllerTest {
     @MockBean
     private FinanceRepository financeRepository;
 
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
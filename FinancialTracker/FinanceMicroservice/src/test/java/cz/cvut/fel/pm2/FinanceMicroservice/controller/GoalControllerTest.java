@@ -1,9 +1,11 @@
 package cz.cvut.fel.pm2.FinanceMicroservice.controller;
 
 import cz.cvut.fel.pm2.FinanceMicroservice.dto.GoalDTO;
+import cz.cvut.fel.pm2.FinanceMicroservice.dto.GoalRow;
 import cz.cvut.fel.pm2.FinanceMicroservice.entity.Goal;
 import cz.cvut.fel.pm2.FinanceMicroservice.repository.GoalRepository;
 import cz.cvut.fel.pm2.FinanceMicroservice.service.GoalService;
+import cz.cvut.fel.pm2.FinanceMicroservice.service.UserDataVersionService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -15,6 +17,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -37,11 +40,16 @@ public class GoalControllerTest {
     @MockBean
     private GoalRepository goalRepository;
 
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Goal goal;
 
+    private GoalRow goalRow;
+
     @BeforeEach
     public void setup() {
         goal = new Goal();
@@ -49,6 +57,8 @@ public class GoalControllerTest {
         goal.setUserId(1);
         goal.setName("Vacation Fund");
         goal.setAmount(5000.0f);
+        goal.setVersion(0L);
+        goalRow = new GoalRow(goal.getId(), goal.getUserId(), goal.getName(), goal.getAmount(), goal.getVersion());
     }
 
     @Test
@@ -57,7 +67,7 @@ public class GoalControllerTest {
         int userId = 1;
         int goalId = goal.getId();
 
-        when(goalService.getGoalById(goalId, userId)).thenReturn(goal);
+        when(goalService.getGoalRowById(goalId, userId)).thenReturn(goalRow);
 
         // Act & Assert
         mockMvc.perform(get("/finances/goals/{id}", goalId)
@@ -75,7 +85,7 @@ public class GoalControllerTest {
         int userId = 1;
         int goalId = 1;
 
-        when(goalService.getGoalById(goalId, userId)).thenReturn(null);
+        when(goalService.getGoalRowById(goalId, userId)).thenReturn(null);
 
         // Act & Assert
         mockMvc.perform(get("/finances/goals/{id}", goalId)
@@ -132,7 +142,7 @@ public class GoalControllerTest {
         int userId = 1;
         int goalId = goal.getId();
 
-        when(goalRepository.existsById(goalId)).thenReturn(true);
+        when(goalService.updateGoal(any(Goal.class), eq(userId))).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(put("/finances/goals/{id}", goalId)
@@ -152,7 +162,7 @@ public class GoalControllerTest {
         int userId = 1;
         int goalId = goal.getId();
 
-        when(goalService.getGoalById(goalId, userId)).thenReturn(null);
+        when(goalService.updateGoal(any(Goal.class), eq(userId))).thenReturn(false);
 
         // Act & Assert
         mockMvc.perform(put("/finances/goals/{id}", goalId)
@@ -161,6 +171,39 @@ public class GoalControllerTest {
                         .content(objectMapper.writeValueAsString(goal)))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("Goal with id " + goalId + " not found."));
+    }
+
+    @Test
+    public void testUpdateGoal_VersionConflict() throws Exception {
+        // Arrange
+        int userId = 1;
+        int goalId = goal.getId();
+
+        when(goalService.updateGoal(any(Goal.class), eq(userId)))
+                .thenThrow(new OptimisticLockingFailureException("Goal with id 1 was changed since version 0"));
+
+        // Act & Assert
+        mockMvc.perform(put("/finances/goals/{id}", goalId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(goal)))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Goal with id 1 was changed since version 0"));
+    }
+
+    @Test
+    public void testUpdateGoal_WithoutVersion() throws Exception {
+        // Arrange
+        int userId = 1;
+        int goalId = goal.getId();
+        goal.setVersion(null);
+
+        // Act & Assert
+        mockMvc.perform(put("/finances/goals/{id}", goalId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(goal)))
+                .andExpect(status().isPreconditionRequired());
 
         // Verify that the service was not called
         verify(goalService, never()).updateGoal(any(Goal.class), eq(userId));
@@ -207,13 +250,9 @@ public class GoalControllerTest {
         // Arrange
         int userId = 1;
 
-        Goal goal2 = new Goal();
-        goal2.setId(2);
-        goal2.setUserId(userId);
-        goal2.setName("Retirement Fund");
-        goal2.setAmount(10000.0f);
+        GoalRow goal2 = new GoalRow(2, userId, "Retirement Fund", 10000.0f, 0L);
 
-        List<Goal> goals = Arrays.asList(goal, goal2);
+        List<GoalRow> goals = Arrays.asList(goalRow, goal2);
 
         when(goalService.getAllGoals(userId)).thenReturn(goals);
 
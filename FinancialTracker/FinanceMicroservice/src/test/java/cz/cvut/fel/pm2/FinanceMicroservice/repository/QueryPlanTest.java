@@ -0,0 +1,200 @@
+package cz.cvut.fel.pm2.FinanceMicroservice.repository;
+
+import cz.cvut.fel.pm2.FinanceMicroservice.EmbeddedPostgresTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks on a seeded PostgreSQL database that the SQL generated for each repository query is planned with an index
+ * on the large tables. The SQL and its bound parameters are captured from the JDBC driver and replayed with EXPLAIN.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class QueryPlanTest extends EmbeddedPostgresTest {
+
+    // an odd number of users gives every user both debts (odd ids) and goals (even ids)
+    private static final int USERS = 1_999;
+    private static final int FINANCES = 200_000;
+    private static final int USER_ID = 42;
+    private static final Pattern LARGE_TABLE =
+            Pattern.compile(" on (finance|debt|goal)\\b");
+    private static final Pattern LARGE_TABLE_SEQ_SCAN =
+            Pattern.compile("Seq Scan on (finance|debt|goal)\\b");
+
+    private static final List<CapturedStatement> capturedStatements = new CopyOnWriteArrayList<>();
+    private static boolean seeded;
+
+    @Autowired
+    private DebtRepository debtRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO finance (id, user_id, name, amount) " +
+                "SELECT g, g % ? + 1, 'Finance ' || g, g % 10000 " +
+                "FROM generate_series(1, ?) g", USERS, FINANCES);
+        jdbcTemplate.update("INSERT INTO debt (id, name_of_person_to_give_back, from_date, due_date, interest_rate) " +
+                "SELECT g, 'Person ' || g, DATE '2020-01-01' + g % 1800, DATE '2026-01-01' + g % 1800, g % 20 " +
+                "FROM generate_series(1, ?, 2) g", FINANCES);
+        jdbcTemplate.update("INSERT INTO goal (id) SELECT g FROM generate_series(2, ?, 2) g", FINANCES);
+        jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('finance', 'id'), " + FINANCES + ")");
+        jdbcTemplate.execute("ANALYZE");
+        seeded = true;
+    }
+
+    @Test
+    public void testDebtRepositoryQueriesUseIndexes() {
+        assertUsesIndex("findAllByUserId", () -> debtRepository.findAllByUserId(USER_ID));
+        assertUsesIndex("findByIdAndUserId", () -> debtRepository.findByIdAndUserId(4039, USER_ID));
+        assertUsesIndex("findRowByIdAndUserId", () -> debtRepository.findRowByIdAndUserId(4039, USER_ID));
+        assertUsesIndex("existsById", () -> debtRepository.existsById(4039));
+        assertUsesIndex("existsByIdAndUserId", () -> debtRepository.existsByIdAndUserId(4039, USER_ID));
+        assertUsesIndex("updateIfVersion", () -> debtRepository.updateIfVersion(4039, USER_ID, 0, "Loan", 10f,
+                "Person", LocalDate.of(2027, 1, 1)));
+    }
+
+    @Test
+    public void testGoalRepositoryQueriesUseIndexes() {
+        assertUsesIndex("findAllByUserId", () -> goalRepository.findAllByUserId(USER_ID));
+        assertUsesIndex("findByIdAndUserId", () -> goalRepository.findByIdAndUserId(2040, USER_ID));
+        assertUsesIndex("findRowByIdAndUserId", () -> goalRepository.findRowByIdAndUserId(2040, USER_ID));
+        assertUsesIndex("existsById", () -> goalRepository.existsById(2040));
+        assertUsesIndex("existsByIdAndUserId", () -> goalRepository.existsByIdAndUserId(2040, USER_ID));
+        assertUsesIndex("updateIfVersion", () -> goalRepository.updateIfVersion(2040, USER_ID, 0, "Savings", 10f));
+    }
+
+    /**
+     * Checks that no statement issued by a repository call scans a large table.
+     */
+    private void assertUsesIndex(String query, Runnable repositoryCall) {
+        for (String plan : explainAll(query, repositoryCall)) {
+            assertFalse(LARGE_TABLE_SEQ_SCAN.matcher(plan).find(), query + " scans a large table:\n" + plan);
+            assertTrue(plan.contains("Index"), query + " uses no index:\n" + plan);
+        }
+    }
+
+    /**
+     * Runs a repository call in a rolled back transaction and explains every statement it issued against a large table.
+     */
+    private List<String> explainAll(String query, Runnable repositoryCall) {
+        capturedStatements.clear();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            repositoryCall.run();
+            status.setRollbackOnly();
+        });
+        List<CapturedStatement> statements = new ArrayList<>(capturedStatements);
+        assertFalse(statements.isEmpty(), query + " issued no statement");
+
+        List<String> plans = new ArrayList<>();
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            if (LARGE_TABLE.matcher(plan).find()) {
+                plans.add(plan);
+            }
+        }
+        assertFalse(plans.isEmpty(), query + " issued no statement against a large table");
+        return plans;
+    }
+
+    private String explain(CapturedStatement statement) {
+        List<String> lines = jdbcTemplate.query("EXPLAIN " + statement.sql(), ps -> {
+            for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                ps.setObject(parameter.getKey(), parameter.getValue());
+            }
+        }, (rs, rowNum) -> rs.getString(1));
+        return String.join("\n", lines);
+    }
+
+    private record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    /**
+     * Wraps the data source so every prepared statement records its SQL and bound parameters when executed.
+     */
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        private static final Map<Object, String> statementSql = new ConcurrentHashMap<>();
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        private static <T> T wrap(Class<T> type, T target) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+                String name = method.getName();
+                if (target instanceof PreparedStatement && name.startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                }
+                if (target instanceof PreparedStatement && name.startsWith("execute") && (args == null || args.length == 0)) {
+                    capturedStatements.add(new CapturedStatement(statementSql.get(target), new TreeMap<>(parameters)));
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection) {
+                    return wrap(Connection.class, connection);
+                }
+                if (result instanceof PreparedStatement preparedStatement && name.equals("prepareStatement")) {
+                    statementSql.put(preparedStatement, (String) args[0]);
+                    return wrap(PreparedStatement.class, preparedStatement);
+                }
+                return result;
+            });
+            return type.cast(proxy);
+        }
+    }
+}
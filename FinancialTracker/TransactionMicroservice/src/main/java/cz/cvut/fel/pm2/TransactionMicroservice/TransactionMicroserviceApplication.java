@@ -3,9 +3,11 @@ package cz.cvut.fel.pm2.TransactionMicroservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
+@EnableScheduling
 public class TransactionMicroserviceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,269 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.cache;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Read-through cache of {@link UserLedger}s for the users that are currently active.
+ * A user's ledger is loaded from {@code ledger_entry} on first use and then follows committed expense and income writes
+ * incrementally. The least recently used ledgers are evicted once the cached ledgers together exceed the configured size.
+ * <p>
+ * Every ledger is keyed to the user data version it includes, read before its rows are loaded. Each lookup compares it
+ * with the current version, one primary key read, and reloads a ledger that is behind; writes made through other
+ * replicas are therefore never served stale. A local write is applied incrementally only when it moves the ledger
+ * exactly one version forward; a ledger that missed a version is dropped instead.
+ * <p>
+ * A ledger being loaded while a write of the same user commits is returned to its caller but not cached, because the
+ * load may have read the rows before the write. Users with a category id beyond the range of the category column are
+ * not cached at all; callers then fall back to the database.
+ */
+@Component
+public class LedgerCache {
+    private static final String LOAD_SQL =
+            "SELECT id, transaction_date - DATE '1970-01-01', amount, category_id, type = 'INCOME' " +
+            "FROM ledger_entry WHERE user_id = ? ORDER BY transaction_date, id";
+
+    private final IntFunction<UserLedger> loader;
+    private final IntToLongFunction versionReader;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, UserLedger> ledgers = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Object> loading = new HashMap<>();
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+    private final Counter evictions;
+    private final DistributionSummary userBytes;
+
+    @Autowired
+    public LedgerCache(JdbcTemplate jdbcTemplate,
+                       UserDataVersionService userDataVersionService,
+                       @Value("${ledger.cache.max-size:64MB}") DataSize maxSize,
+                       MeterRegistry meterRegistry) {
+        this(userId -> load(jdbcTemplate, userId), userDataVersionService::currentVersion, maxSize, meterRegistry);
+    }
+
+    LedgerCache(IntFunction<UserLedger> loader, IntToLongFunction versionReader, DataSize maxSize,
+                MeterRegistry meterRegistry) {
+        this.loader = loader;
+        this.versionReader = versionReader;
+        this.maxBytes = maxSize.toBytes();
+        this.hits = Counter.builder("transactions.ledger.cache.requests")
+                .description("Ledger lookups answered from memory or loaded from the database")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("transactions.ledger.cache.requests")
+                .description("Ledger lookups answered from memory or loaded from the database")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.stale = Counter.builder("transactions.ledger.cache.requests")
+                .description("Ledger lookups answered from memory or loaded from the database")
+                .tag("result", "stale")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("transactions.ledger.cache.evictions")
+                .description("Ledgers evicted to stay within the cache size")
+                .register(meterRegistry);
+        this.userBytes = DistributionSummary.builder("transactions.ledger.cache.user.size")
+                .description("Memory held by the ledger of one user when it is loaded")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("transactions.ledger.cache.size", this, LedgerCache::totalBytes)
+                .description("Memory held by all cached ledgers")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("transactions.ledger.cache.users", this, LedgerCache::userCount)
+                .description("Users whose ledger is cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the ledger of a user, loading it from the database on a miss or when the cached ledger is behind the
+     * user's current data version.
+     *
+     * @param userId the ID of the user
+     * @return the ledger, or empty if the user's transactions cannot be held in columns
+     */
+    public Optional<UserLedger> get(int userId) {
+        long version = versionReader.applyAsLong(userId);
+        Object token = new Object();
+        synchronized (this) {
+            UserLedger cached = ledgers.get(userId);
+            if (cached != null && cached.version() >= version) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            if (cached != null) {
+                stale.increment();
+                evict(userId);
+            } else {
+                misses.increment();
+            }
+            loading.put(userId, token);
+        }
+
+        UserLedger loaded;
+        try {
+            loaded = loader.apply(userId);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loading.remove(userId, token);
+            }
+            throw e;
+        }
+        long bytes = loaded == null ? 0 : loaded.estimatedBytes();
+        if (loaded != null) {
+            loaded.setVersion(version);
+            userBytes.record(bytes);
+        }
+        synchronized (this) {
+            boolean fresh = loading.remove(userId, token);
+            if (loaded == null) {
+                return Optional.empty();
+            }
+            if (fresh && !ledgers.containsKey(userId) && bytes <= maxBytes) {
+                ledgers.put(userId, loaded);
+                totalBytes += bytes;
+                evictOverflow();
+            }
+        }
+        return Optional.of(loaded);
+    }
+
+    /**
+     * Applies a batch of committed transaction changes to the cached ledgers and marks loads in flight as stale.
+     * A ledger one version behind the version recorded on the event is updated and moved to it; a ledger already at
+     * that version was loaded after the write and is left alone, and a ledger further behind is dropped.
+     * Ledgers of users that are not cached are left alone.
+     *
+     * @param event the published changes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(TransactionChangedEvent.READ_MODEL_ORDER)
+    public synchronized void onTransactionChanged(TransactionChangedEvent event) {
+        Map<Integer, Long> updated = new HashMap<>();
+        for (Integer userId : event.getUserIds()) {
+            loading.remove(userId);
+            UserLedger ledger = ledgers.get(userId);
+            if (ledger == null) {
+                continue;
+            }
+            OptionalLong version = event.getUserVersion(userId);
+            if (version.isEmpty() || ledger.version() < version.getAsLong() - 1) {
+                evict(userId);
+            } else if (ledger.version() == version.getAsLong() - 1) {
+                updated.put(userId, version.getAsLong());
+            }
+        }
+
+        for (TransactionChange change : event.getChanges()) {
+            if (change.getBefore() != null && updated.containsKey(change.getBefore().getUserId())) {
+                apply(change.getBefore().getUserId(), ledger -> {
+                    ledger.remove(change.getBefore().getId());
+                    return true;
+                });
+            }
+            TransactionSnapshot after = change.getAfter();
+            if (after != null && updated.containsKey(after.getUserId())) {
+                apply(after.getUserId(), ledger -> ledger.put(after.getId(), after.getTransactionDate(),
+                        UserLedger.toCents(after.getAmount()), after.getCategoryId(), after.getType()));
+            }
+        }
+        updated.forEach((userId, version) -> {
+            UserLedger ledger = ledgers.get(userId);
+            if (ledger != null) {
+                ledger.setVersion(version);
+            }
+        });
+        evictOverflow();
+    }
+
+    /**
+     * Drops the ledger of a user, which is reloaded on its next use.
+     *
+     * @param userId the ID of the user
+     */
+    public synchronized void evict(int userId) {
+        UserLedger removed = ledgers.remove(userId);
+        if (removed != null) {
+            totalBytes -= removed.estimatedBytes();
+        }
+        loading.remove(userId);
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int userCount() {
+        return ledgers.size();
+    }
+
+    private void apply(int userId, LedgerUpdate update) {
+        UserLedger ledger = ledgers.get(userId);
+        if (ledger == null) {
+            return;
+        }
+        long before = ledger.estimatedBytes();
+        if (update.apply(ledger)) {
+            totalBytes += ledger.estimatedBytes() - before;
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<UserLedger> eldest = ledgers.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().estimatedBytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static UserLedger load(JdbcTemplate jdbcTemplate, int userId) {
+        UserLedger ledger = new UserLedger(0);
+        boolean[] storable = {true};
+        jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> {
+            if (storable[0]) {
+                TransactionType type = rs.getBoolean(5) ? TransactionType.INCOME : TransactionType.EXPENSE;
+                storable[0] = ledger.append(rs.getInt(1), rs.getInt(2), UserLedger.toCents(rs.getFloat(3)), rs.getLong(4), type);
+            }
+        }, userId);
+        if (!storable[0]) {
+            return null;
+        }
+        ledger.trimToSize();
+        return ledger;
+    }
+
+    @FunctionalInterface
+    private interface LedgerUpdate {
+        boolean apply(UserLedger ledger);
+    }
+}
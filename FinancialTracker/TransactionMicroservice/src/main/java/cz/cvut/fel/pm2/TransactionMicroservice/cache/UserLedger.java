@@ -0,0 +1,346 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.cache;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlySummaryDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The transactions of one user held as primitive columns: epoch day, amount in cents, category id and type.
+ * Rows are kept sorted by date and id, so a date range is found by binary search and aggregated by a loop over the
+ * arrays that allocates nothing per row. All methods are synchronized; aggregations over a few thousand rows take
+ * microseconds, so readers and incremental writes of the same user do not wait for long.
+ */
+public final class UserLedger {
+    private static final byte EXPENSE = 0;
+    private static final byte INCOME = 1;
+    private static final int BYTES_PER_ROW = Integer.BYTES + Integer.BYTES + Long.BYTES + Short.BYTES + Byte.BYTES;
+    private static final int OBJECT_OVERHEAD = 48;
+    private static final int ARRAY_OVERHEAD = 16;
+    private static final int MIN_CAPACITY = 16;
+    private static final Comparator<CategoryTotal> LARGEST_FIRST = Comparator
+            .comparingDouble(CategoryTotal::getTotal).reversed()
+            .thenComparingLong(CategoryTotal::getCategoryId);
+
+    private int[] ids;
+    private int[] epochDays;
+    private long[] cents;
+    private short[] categories;
+    private byte[] types;
+    private int size;
+    private int maxCategory;
+    /**
+     * The user data version the rows are known to include; the rows may already include later writes.
+     */
+    private long version;
+
+    UserLedger(int capacity) {
+        int initial = Math.max(capacity, MIN_CAPACITY);
+        ids = new int[initial];
+        epochDays = new int[initial];
+        cents = new long[initial];
+        categories = new short[initial];
+        types = new byte[initial];
+    }
+
+    /**
+     * Converts an amount to the whole cents stored by the ledger.
+     */
+    static long toCents(float amount) {
+        return Math.round(amount * 100d);
+    }
+
+    /**
+     * Tells whether a category id fits the {@code short} column.
+     */
+    static boolean isStorableCategory(long categoryId) {
+        return categoryId >= 0 && categoryId <= Short.MAX_VALUE;
+    }
+
+    /**
+     * Adds a row read in date and id order, as the loader does. Rows arriving out of order are inserted at their place.
+     *
+     * @return {@code false} if the category id does not fit the category column, in which case the ledger is unchanged
+     */
+    synchronized boolean append(int id, int epochDay, long amountCents, long categoryId, TransactionType type) {
+        if (size > 0 && compare(size - 1, epochDay, id) >= 0) {
+            return put(id, LocalDate.ofEpochDay(epochDay), amountCents, categoryId, type);
+        }
+        if (!isStorableCategory(categoryId)) {
+            return false;
+        }
+        insert(size, id, epochDay, amountCents, categoryId, type);
+        return true;
+    }
+
+    /**
+     * Adds a transaction or replaces the row with the same id.
+     *
+     * @return {@code false} if the category id does not fit the category column, in which case the ledger is unchanged
+     */
+    synchronized boolean put(int id, LocalDate date, long amountCents, long categoryId, TransactionType type) {
+        if (!isStorableCategory(categoryId)) {
+            return false;
+        }
+        remove(id);
+        int epochDay = Math.toIntExact(date.toEpochDay());
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, epochDay, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        insert(low, id, epochDay, amountCents, categoryId, type);
+        return true;
+    }
+
+    /**
+     * Removes the row of a transaction.
+     *
+     * @return whether the ledger held the transaction
+     */
+    synchronized boolean remove(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                int moved = size - i - 1;
+                System.arraycopy(ids, i + 1, ids, i, moved);
+                System.arraycopy(epochDays, i + 1, epochDays, i, moved);
+                System.arraycopy(cents, i + 1, cents, i, moved);
+                System.arraycopy(categories, i + 1, categories, i, moved);
+                System.arraycopy(types, i + 1, types, i, moved);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases the unused capacity left after loading.
+     */
+    synchronized void trimToSize() {
+        resize(Math.max(size, MIN_CAPACITY));
+    }
+
+    synchronized long version() {
+        return version;
+    }
+
+    synchronized void setVersion(long version) {
+        this.version = version;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the approximate heap size of the ledger in bytes, including unused capacity
+     */
+    public synchronized long estimatedBytes() {
+        return OBJECT_OVERHEAD + 5L * ARRAY_OVERHEAD + (long) ids.length * BYTES_PER_ROW;
+    }
+
+    /**
+     * Computes income and expense totals per month.
+     *
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate   the last day of the range (inclusive)
+     * @return one summary per month with a non-zero total, ordered by month
+     */
+    public synchronized List<MonthlySummaryDTO> monthlySummary(LocalDate fromDate, LocalDate toDate) {
+        List<MonthlySummaryDTO> months = new ArrayList<>();
+        int end = lowerBound(toDate.toEpochDay() + 1);
+        int i = lowerBound(fromDate.toEpochDay());
+        while (i < end) {
+            YearMonth month = YearMonth.from(LocalDate.ofEpochDay(epochDays[i]));
+            long nextMonth = month.plusMonths(1).atDay(1).toEpochDay();
+            long income = 0;
+            long expense = 0;
+            for (; i < end && epochDays[i] < nextMonth; i++) {
+                if (types[i] == INCOME) {
+                    income += cents[i];
+                } else {
+                    expense += cents[i];
+                }
+            }
+            if (income != 0 || expense != 0) {
+                MonthlySummaryDTO summary = new MonthlySummaryDTO(month.toString());
+                summary.setIncome(income / 100d);
+                summary.setExpense(expense / 100d);
+                months.add(summary);
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Computes the total and count of one type of transactions per category.
+     *
+     * @param type     the type of transactions to aggregate
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate   the last day of the range (inclusive)
+     * @return one total per category with at least one transaction, largest total first
+     */
+    public synchronized List<CategoryTotal> categoryTotals(TransactionType type, LocalDate fromDate, LocalDate toDate) {
+        long[] totals = new long[maxCategory + 1];
+        long[] counts = new long[maxCategory + 1];
+        sumByCategory(type, fromDate, toDate, totals, counts);
+
+        List<CategoryTotal> result = new ArrayList<>();
+        for (int category = 0; category < counts.length; category++) {
+            if (counts[category] > 0) {
+                result.add(new CategoryTotal((long) category, totals[category] / 100d, counts[category]));
+            }
+        }
+        result.sort(LARGEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Computes the categories with the largest total of one type of transactions.
+     * The categories pass through a heap bounded to {@code limit} entries, so only the returned ones are sorted.
+     *
+     * @param type     the type of transactions to aggregate
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate   the last day of the range (inclusive)
+     * @param limit    the maximum number of categories to return
+     * @return the totals of at most {@code limit} categories, largest total first
+     */
+    public synchronized List<CategoryTotal> topCategories(TransactionType type, LocalDate fromDate, LocalDate toDate, int limit) {
+        long[] totals = new long[maxCategory + 1];
+        long[] counts = new long[maxCategory + 1];
+        sumByCategory(type, fromDate, toDate, totals, counts);
+
+        PriorityQueue<CategoryTotal> smallestFirst = new PriorityQueue<>(limit + 1, LARGEST_FIRST.reversed());
+        for (int category = 0; category < counts.length; category++) {
+            if (counts[category] > 0) {
+                smallestFirst.add(new CategoryTotal((long) category, totals[category] / 100d, counts[category]));
+                if (smallestFirst.size() > limit) {
+                    smallestFirst.poll();
+                }
+            }
+        }
+        List<CategoryTotal> result = new ArrayList<>(smallestFirst);
+        result.sort(LARGEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Finds the largest single transactions of one type.
+     * The rows pass through a heap of row positions bounded to {@code limit} entries, so only the returned ones are sorted.
+     *
+     * @param type     the type of transactions to search
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate   the last day of the range (inclusive)
+     * @param limit    the maximum number of transactions to return
+     * @return the ids of at most {@code limit} transactions, largest amount first and, for equal amounts, highest id first
+     */
+    public synchronized List<Integer> largestIds(TransactionType type, LocalDate fromDate, LocalDate toDate, int limit) {
+        byte wanted = encode(type);
+        Comparator<Integer> smallerFirst = (a, b) -> {
+            int byAmount = Long.compare(cents[a], cents[b]);
+            return byAmount != 0 ? byAmount : Integer.compare(ids[a], ids[b]);
+        };
+        PriorityQueue<Integer> smallestFirst = new PriorityQueue<>(limit + 1, smallerFirst);
+        int end = lowerBound(toDate.toEpochDay() + 1);
+        for (int i = lowerBound(fromDate.toEpochDay()); i < end; i++) {
+            if (types[i] != wanted) {
+                continue;
+            }
+            if (smallestFirst.size() < limit) {
+                smallestFirst.add(i);
+            } else if (smallerFirst.compare(smallestFirst.peek(), i) < 0) {
+                smallestFirst.poll();
+                smallestFirst.add(i);
+            }
+        }
+
+        List<Integer> rows = new ArrayList<>(smallestFirst);
+        rows.sort(smallerFirst.reversed());
+        List<Integer> result = new ArrayList<>(rows.size());
+        for (int row : rows) {
+            result.add(ids[row]);
+        }
+        return result;
+    }
+
+    private void sumByCategory(TransactionType type, LocalDate fromDate, LocalDate toDate, long[] totals, long[] counts) {
+        byte wanted = encode(type);
+        int end = lowerBound(toDate.toEpochDay() + 1);
+        for (int i = lowerBound(fromDate.toEpochDay()); i < end; i++) {
+            if (types[i] == wanted) {
+                totals[categories[i]] += cents[i];
+                counts[categories[i]]++;
+            }
+        }
+    }
+
+    private void insert(int position, int id, int epochDay, long amountCents, long categoryId, TransactionType type) {
+        if (size == ids.length) {
+            grow();
+        }
+        int moved = size - position;
+        System.arraycopy(ids, position, ids, position + 1, moved);
+        System.arraycopy(epochDays, position, epochDays, position + 1, moved);
+        System.arraycopy(cents, position, cents, position + 1, moved);
+        System.arraycopy(categories, position, categories, position + 1, moved);
+        System.arraycopy(types, position, types, position + 1, moved);
+        ids[position] = id;
+        epochDays[position] = epochDay;
+        cents[position] = amountCents;
+        categories[position] = (short) categoryId;
+        types[position] = encode(type);
+        maxCategory = Math.max(maxCategory, (int) categoryId);
+        size++;
+    }
+
+    private void grow() {
+        resize(ids.length + (ids.length >> 1));
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    private int compare(int row, int epochDay, int id) {
+        int byDate = Integer.compare(epochDays[row], epochDay);
+        return byDate != 0 ? byDate : Integer.compare(ids[row], id);
+    }
+
+    /**
+     * @return the index of the first row on or after the given day
+     */
+    private int lowerBound(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static byte encode(TransactionType type) {
+        return type == TransactionType.INCOME ? INCOME : EXPENSE;
+    }
+}
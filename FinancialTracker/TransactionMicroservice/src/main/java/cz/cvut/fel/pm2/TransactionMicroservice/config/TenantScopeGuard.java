@@ -0,0 +1,126 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.config;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.CrossTenant;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * Keeps request threads from reading the rows of all users.
+ * Repositories of entities with a {@code userId} are proxied so that, while an HTTP request is being served,
+ * calling a {@link CrossTenant} method or an unscoped {@code findAll}, {@code count} or {@code deleteAll} inherited
+ * from Spring Data fails before any SQL is sent. {@link Repository} classes that query with JDBC and declare
+ * {@link CrossTenant} methods are proxied the same way; their {@link CrossTenant} methods must therefore be public and
+ * not final. The failure surfaces as an {@link org.springframework.dao.InvalidDataAccessApiUsageException} once the
+ * repository translates it.
+ * Administrative operations that are meant to read everything run through {@link #crossTenant(Supplier)}.
+ */
+@Component
+public class TenantScopeGuard implements BeanPostProcessor {
+    private static final ThreadLocal<Boolean> CROSS_TENANT_ALLOWED = new ThreadLocal<>();
+
+    /**
+     * Runs an operation that deliberately reads the rows of all users, even on a request thread.
+     *
+     * @param operation the operation
+     * @return the result of the operation
+     */
+    public static <T> T crossTenant(Supplier<T> operation) {
+        Boolean previous = CROSS_TENANT_ALLOWED.get();
+        CROSS_TENANT_ALLOWED.set(Boolean.TRUE);
+        try {
+            return operation.get();
+        } finally {
+            if (previous == null) {
+                CROSS_TENANT_ALLOWED.remove();
+            }
+        }
+    }
+
+    /**
+     * Tells whether a repository method may return or touch the rows of more than one user.
+     *
+     * @param method the invoked repository method
+     * @return {@code true} for methods annotated with {@link CrossTenant} and for the unscoped Spring Data base methods
+     */
+    public static boolean isCrossTenant(Method method) {
+        if (AnnotatedElementUtils.hasAnnotation(method, CrossTenant.class)) {
+            return true;
+        }
+        if (!method.getDeclaringClass().getPackageName().startsWith("org.springframework.data.")) {
+            return false;
+        }
+        String name = method.getName();
+        return (name.startsWith("findAll") && !name.equals("findAllById"))
+                || name.equals("count")
+                || ((name.equals("deleteAll") || name.equals("deleteAllInBatch")) && method.getParameterCount() == 0);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> {
+                if (ReflectionUtils.findField(information.getDomainType(), "userId") != null) {
+                    proxyFactory.addAdvice(new GuardInterceptor());
+                }
+            }));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        if (!AnnotatedElementUtils.hasAnnotation(targetClass, Repository.class) || !declaresCrossTenantMethod(targetClass)) {
+            return bean;
+        }
+        // Join an existing proxy after its advice, so that exception translation applies as for Spring Data repositories
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(new GuardInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new GuardInterceptor());
+        return proxyFactory.getProxy(targetClass.getClassLoader());
+    }
+
+    /**
+     * @return whether a class declares or inherits a method annotated with {@link CrossTenant}
+     */
+    public static boolean declaresCrossTenantMethod(Class<?> type) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(type)) {
+            if (AnnotatedElementUtils.hasAnnotation(method, CrossTenant.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class GuardInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (RequestContextHolder.getRequestAttributes() != null
+                    && CROSS_TENANT_ALLOWED.get() == null
+                    && isCrossTenant(method)) {
+                throw new IllegalStateException("Cross-tenant repository method " + method.getDeclaringClass().getSimpleName()
+                        + "." + method.getName() + " must not run while serving a request");
+            }
+            return invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.config;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.YearMonth;
+import java.util.OptionalLong;
+
+/**
+ * Answers conditional GET requests of {@link UserDataETag} endpoints from the user's data version.
+ * The version is read before the endpoint reads any data, so a write committing in between can only make the ETag
+ * older than the response, which costs the client one more full response but never a stale one. This holds across
+ * instances only for endpoints whose data is read from the database or from read models that check the version
+ * themselves. While a write of the user is in flight on this instance, responses carry no ETag at all.
+ */
+public class UserDataETagInterceptor implements HandlerInterceptor {
+    private final UserDataVersionService userDataVersionService;
+
+    public UserDataETagInterceptor(UserDataVersionService userDataVersionService) {
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        UserDataETag annotation = handlerMethod.getMethodAnnotation(UserDataETag.class);
+        if (annotation == null) {
+            return true;
+        }
+        int userId;
+        try {
+            userId = Integer.parseInt(request.getParameter("userId"));
+        } catch (NumberFormatException e) {
+            // left to the endpoint, which rejects the request
+            return true;
+        }
+
+        OptionalLong version = userDataVersionService.settledVersion(userId);
+        if (version.isEmpty()) {
+            return true;
+        }
+        String eTag = "\"" + version.getAsLong() + (annotation.dependsOnCurrentMonth() ? "-" + YearMonth.now() : "") + "\"";
+        return !new ServletWebRequest(request, response).checkNotModified(eTag);
+    }
+}
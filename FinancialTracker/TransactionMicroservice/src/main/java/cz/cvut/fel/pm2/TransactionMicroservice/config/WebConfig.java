@@ -1,15 +1,34 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.config;
 
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 
 /**
- * Configuration class for setting up CORS (Cross-Origin Resource Sharing) in the Spring MVC context.
+ * Configuration class for setting up CORS (Cross-Origin Resource Sharing) and interceptors in the Spring MVC context.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private final UserDataVersionService userDataVersionService;
+
+    public WebConfig(UserDataVersionService userDataVersionService) {
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    /**
+     * Registers the conditional GET handling of {@link UserDataETag} endpoints.
+     *
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new UserDataETagInterceptor(userDataVersionService));
+    }
 
     /**
      * Configures CORS mappings.
@@ -21,7 +40,8 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                .allowedHeaders("authorization", "content-type", "x-auth-token")
+                .allowedHeaders("authorization", "content-type", "x-auth-token", "if-none-match")
+                .exposedHeaders(KeysetPage.NEXT_CURSOR_HEADER, HttpHeaders.ETAG)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
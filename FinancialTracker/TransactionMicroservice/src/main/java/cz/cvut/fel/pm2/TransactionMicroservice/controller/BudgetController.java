@@ -0,0 +1,82 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BudgetStatus;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BudgetService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * REST controller for monthly budgets per expense category.
+ */
+@RestController
+@RequestMapping("/transactions/budgets")
+public class BudgetController {
+
+    private final BudgetService budgetService;
+
+    @Autowired
+    public BudgetController(BudgetService budgetService) {
+        this.budgetService = budgetService;
+    }
+
+    /**
+     * Sets the monthly limit of a budget, creating the budget if the user has none for the category.
+     *
+     * @param categoryId the ID of the expense category
+     * @param userId the ID of the user
+     * @param limit the monthly limit
+     * @return the status of the budget in the current month, or 400 with the reason if the budget is invalid
+     */
+    @PutMapping("/{categoryId}")
+    public ResponseEntity<?> setBudget(@PathVariable("categoryId") long categoryId,
+                                       @RequestParam int userId,
+                                       @RequestParam double limit) {
+        try {
+            budgetService.setBudget(userId, categoryId, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        return ResponseEntity.of(budgetService.getStatus(userId, categoryId, LocalDate.now()));
+    }
+
+    /**
+     * Deletes a budget.
+     *
+     * @param categoryId the ID of the expense category
+     * @param userId the ID of the user
+     * @return 204, or 404 if the user has no budget for the category
+     */
+    @DeleteMapping("/{categoryId}")
+    public ResponseEntity<?> deleteBudget(@PathVariable("categoryId") long categoryId, @RequestParam int userId) {
+        if (!budgetService.deleteBudget(userId, categoryId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Budget for category " + categoryId + " not found");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Retrieves the status of all budgets of a user in one month.
+     *
+     * @param userId the ID of the user
+     * @param month the month as {@code yyyy-MM}; defaults to the current month
+     * @return the limit, spend, remaining amount and overspend flag of each budget
+     */
+    @GetMapping("/status")
+    public ResponseEntity<List<BudgetStatus>> getBudgetStatuses(@RequestParam int userId,
+                                                                @RequestParam(required = false) YearMonth month) {
+        LocalDate date = (month != null ? month : YearMonth.now()).atDay(1);
+        return ResponseEntity.ok(budgetService.getStatuses(userId, date));
+    }
+}
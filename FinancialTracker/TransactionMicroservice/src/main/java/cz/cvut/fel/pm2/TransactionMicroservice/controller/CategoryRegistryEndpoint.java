@@ -0,0 +1,37 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.service.CategoryRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint of the category registry.
+ * {@code POST /actuator/categories} reloads the registry, e.g. after categories were changed through another replica
+ * or directly in the database.
+ */
+@Component
+@Endpoint(id = "categories")
+public class CategoryRegistryEndpoint {
+
+    private final CategoryRegistry categoryRegistry;
+
+    public CategoryRegistryEndpoint(CategoryRegistry categoryRegistry) {
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Integer> sizes() {
+        return Map.of("expenseCategories", categoryRegistry.getExpenseCategories().size(),
+                "incomeCategories", categoryRegistry.getIncomeCategories().size());
+    }
+
+    @WriteOperation
+    public Map<String, Integer> reload() {
+        categoryRegistry.reload();
+        return sizes();
+    }
+}
@@ -0,0 +1,105 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExchangeRateDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.CurrencyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for base currencies of users and the daily exchange rates amounts are converted with.
+ */
+@RestController
+@RequestMapping("/transactions/currency")
+public class CurrencyController {
+
+    private final CurrencyService currencyService;
+
+    @Autowired
+    public CurrencyController(CurrencyService currencyService) {
+        this.currencyService = currencyService;
+    }
+
+    /**
+     * Returns the currency a user's amounts and statistics are expressed in.
+     *
+     * @param userId the ID of the user
+     * @return the base currency of the user
+     */
+    @GetMapping("/base")
+    public ResponseEntity<Map<String, String>> getBaseCurrency(@RequestParam int userId) {
+        return ResponseEntity.ok(Map.of("currency", currencyService.getBaseCurrency(userId)));
+    }
+
+    /**
+     * Sets the base currency of a user. It can only be changed before the user's first expense or income.
+     *
+     * @param userId the ID of the user
+     * @param currency the ISO 4217 code of the currency
+     * @return the base currency, or 400 with the reason if it cannot be set
+     */
+    @PutMapping("/base")
+    public ResponseEntity<?> setBaseCurrency(@RequestParam int userId, @RequestParam String currency) {
+        try {
+            return ResponseEntity.ok(Map.of("currency", currencyService.setBaseCurrency(userId, currency)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Loads daily exchange rates, replacing the rate of a currency pair and day that is already stored.
+     *
+     * @param rates the rates to store
+     * @return 204, or 400 with the reason if a rate is invalid
+     */
+    @PutMapping("/rates")
+    public ResponseEntity<?> saveRates(@RequestBody List<ExchangeRateDTO> rates) {
+        try {
+            currencyService.saveRates(rates);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Returns the rate an amount would be converted with.
+     *
+     * @param from the currency to convert from
+     * @param to the currency to convert to
+     * @param date the day of the conversion; defaults to the current day
+     * @return the rate, 404 if no rate on or before the day is known, or 400 for an unknown currency
+     */
+    @GetMapping("/rate")
+    public ResponseEntity<?> getRate(@RequestParam String from,
+                                     @RequestParam String to,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        String fromCurrency;
+        String toCurrency;
+        try {
+            fromCurrency = currencyService.currencyCode(from);
+            toCurrency = currencyService.currencyCode(to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        try {
+            return ResponseEntity.ok(new ExchangeRateDTO(fromCurrency, toCurrency, day,
+                    currencyService.getRate(fromCurrency, toCurrency, day)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+}
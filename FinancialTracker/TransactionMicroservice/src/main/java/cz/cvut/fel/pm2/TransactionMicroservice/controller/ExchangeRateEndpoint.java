@@ -0,0 +1,36 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.service.ExchangeRateRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint of the exchange rate registry.
+ * {@code POST /actuator/exchangerates} reloads the registry, e.g. after rates were loaded through another replica
+ * or directly into the database.
+ */
+@Component
+@Endpoint(id = "exchangerates")
+public class ExchangeRateEndpoint {
+
+    private final ExchangeRateRegistry exchangeRateRegistry;
+
+    public ExchangeRateEndpoint(ExchangeRateRegistry exchangeRateRegistry) {
+        this.exchangeRateRegistry = exchangeRateRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Integer> sizes() {
+        return Map.of("currencyPairs", exchangeRateRegistry.pairCount());
+    }
+
+    @WriteOperation
+    public Map<String, Integer> reload() {
+        exchangeRateRegistry.reload();
+        return sizes();
+    }
+}
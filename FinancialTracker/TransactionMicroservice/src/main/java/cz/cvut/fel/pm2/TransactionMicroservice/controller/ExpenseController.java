@@ -1,19 +1,28 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.controller;
 
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.PdfPCell;
-import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfWriter;
+import cz.cvut.fel.pm2.TransactionMicroservice.config.UserDataETag;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BudgetStatus;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BulkSelection;
 import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionSearchCriteria;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
-import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseCategoryRepository;
-import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BudgetService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BulkIngestService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.CategoryRegistry;
 import cz.cvut.fel.pm2.TransactionMicroservice.service.ExpenseService;
-import jakarta.servlet.ServletOutputStream;
-import jakarta.servlet.http.HttpServletResponse;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.ExportService;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.AmountCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,9 +33,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.util.Set;
 
 /**
  * REST controller for managing expenses.
@@ -43,24 +50,35 @@ public class ExpenseController {
     }
 
     @Autowired
-    private ExpenseCategoryRepository expenseCategoryRepository;
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @Autowired
+    private BudgetService budgetService;
 
     @Autowired
-    private ExpenseRepository expenseRepository;
+    private ObjectMapper objectMapper;
 
     /**
-     * Adds a new expense.
+     * Adds a new expense. An amount in another currency than the user's base currency is converted at the rate of the
+     * transaction date; 400 is returned if no rate is known.
      *
      * @param expenseDto the expense data transfer object
      * @param userId the ID of the user
-     * @return a response indicating the status of the request
+     * @return 201 with the status of the user's budget for the category in the month of the expense,
+     *         or without a body if the user has no such budget
      */
     @PostMapping("/add-expense")
     public ResponseEntity<?> addExpense(@RequestBody ExpenseDTO expenseDto, @RequestParam int userId) {
         ExpenseCategory expenseCategory = expenseDto.getExpenseCategory();
         Long expenseCategoryId = expenseDto.getExpenseCategory().getId();
 
-        Optional<ExpenseCategory> optionalExpenseCategory = expenseCategoryRepository.findById(Math.toIntExact(expenseCategoryId));
+        Optional<ExpenseCategory> optionalExpenseCategory = categoryRegistry.findExpenseCategory(expenseCategoryId);
 
 
         if (optionalExpenseCategory.isPresent()) {
@@ -83,31 +101,69 @@ public class ExpenseController {
         Expense expense = new Expense();
         expense.setUserId(userId);
         expense.setAmount(expenseDto.getAmount());
+        expense.setOriginalAmount(expenseDto.getAmount());
+        expense.setCurrency(expenseDto.getCurrency());
         expense.setName(expenseDto.getName());
         expense.setTransactionDate(expenseDto.getTransactionDate());
         expense.setExpenseCategory(expenseCategory);
 
-        expenseService.createExpense(expense);
+        try {
+            expenseService.createExpense(expense);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        Optional<BudgetStatus> budgetStatus = budgetService.getStatus(userId, expenseCategoryId, expense.getTransactionDate());
+        if (budgetStatus.isPresent()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(budgetStatus.get());
+        }
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
 
     /**
-     * Updates an existing expense.
+     * Adds many expenses at once, e.g. when importing the history of a new user.
+     * All rows are validated before any is inserted, so either the whole batch is stored or nothing.
+     *
+     * @param expenseDtos the expenses to add
+     * @param userId the ID of the user
+     * @return the number of inserted expenses, or 400 with the reason if the batch is rejected
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addBulkExpenses(@RequestBody List<ExpenseDTO> expenseDtos, @RequestParam int userId) {
+        try {
+            int inserted = bulkIngestService.ingestExpenses(userId, expenseDtos);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("inserted", inserted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Updates an existing expense if it has not changed since the caller read it.
      *
      * @param id the ID of the expense
-     * @param updatedExpense the updated expense data
+     * @param updatedExpense the updated expense data, including the version that was read; with a currency, the original
+     *                       amount is taken as entered and converted to the user's base currency
      * @param userId the ID of the user
-     * @return a response indicating the status of the request
+     * @return 200, 404 if the user has no such expense, 409 if it was changed in the meantime,
+     *         428 without a version, or 400 with the reason if the data is invalid
      */
     @PutMapping("/{id}")
     public ResponseEntity<?> updateExpense(@PathVariable("id") int id, @RequestBody Expense updatedExpense,  @RequestParam int userId) {
-        if (!expenseRepository.existsById(id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Expense with id " + id + " not found");
+        if (updatedExpense.getVersion() == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body("The version of the expense is required");
         }
         updatedExpense.setId(id);
-        expenseService.updateExpense(updatedExpense, userId);
-        return ResponseEntity.ok().build();
+        try {
+            if (!expenseService.updateExpense(updatedExpense, userId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Expense with id " + id + " not found");
+            }
+            return ResponseEntity.ok().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
     }
 
     /**
@@ -119,13 +175,50 @@ public class ExpenseController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteExpense(@PathVariable("id") int id,  @RequestParam int userId) {
-        if (!expenseRepository.existsById(id)) {
+        if (!expenseService.deleteExpense(id, userId)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Expense with id " + id + " not found");
         }
-        expenseService.deleteExpense(id, userId);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Deletes many expenses of a user at once, selected by id list and/or filters, e.g. to clean up after a bad import.
+     * The expenses are removed with a single statement.
+     *
+     * @param selection the ids and filters selecting the expenses; at least one must be given
+     * @param userId the ID of the user
+     * @return the number of deleted expenses, or 400 with the reason if the selection is rejected
+     */
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<?> deleteBulkExpenses(@RequestBody BulkSelection selection, @RequestParam int userId) {
+        try {
+            int deleted = expenseService.deleteExpenses(userId, selection);
+            return ResponseEntity.ok(Map.of("deleted", deleted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves many expenses of a user to another category at once, selected by id list and/or filters.
+     * The expenses are updated with a single statement.
+     *
+     * @param selection the ids and filters selecting the expenses; at least one must be given
+     * @param categoryId the ID of the target category
+     * @param userId the ID of the user
+     * @return the number of expenses that changed category, or 400 with the reason if the request is rejected
+     */
+    @PostMapping("/bulk-recategorize")
+    public ResponseEntity<?> recategorizeBulkExpenses(@RequestBody BulkSelection selection, @RequestParam long categoryId,
+                                                      @RequestParam int userId) {
+        try {
+            int updated = expenseService.moveExpensesToCategory(userId, selection, categoryId);
+            return ResponseEntity.ok(Map.of("updated", updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     /**
      * Retrieves an expense by its ID and user ID.
      *
@@ -136,7 +229,7 @@ public class ExpenseController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getExpenseById(@PathVariable("id") int id, @RequestParam int userId) {
         try {
-            Expense expense = expenseService.getExpenseById(id, userId);
+            ExpenseRow expense = expenseService.getExpenseRowById(id, userId);
             if (expense == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Expense with id " + id + " not found");
             }
@@ -147,27 +240,65 @@ public class ExpenseController {
     }
 
     /**
-     * Retrieves all expenses in descending order by transaction date for a user.
+     * Retrieves one page of expenses in descending order by transaction date for a user.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param userId the ID of the user
-     * @return a list of expenses in descending order by transaction date
+     * @param limit the maximum number of expenses in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of expenses in descending order by transaction date
      */
     @GetMapping("/all_expenses_desc")
-    public ResponseEntity<List<Expense>> getAllExpensesDesc(@RequestParam int userId) {
-        List<Expense> expenses = expenseService.getAllExpensesDescendingOrder(userId);
-        return ResponseEntity.ok().body(expenses);
+    @UserDataETag
+    public ResponseEntity<List<ExpenseRow>> getAllExpensesDesc(
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return KeysetPage.respond(limit, cursor, after -> expenseService.getExpensesPageDescending(userId, after, limit));
     }
 
     /**
-     * Retrieves all expenses in ascending order by transaction date for a user.
+     * Retrieves one page of expenses in ascending order by transaction date for a user.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param userId the ID of the user
-     * @return a list of expenses in ascending order by transaction date
+     * @param limit the maximum number of expenses in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of expenses in ascending order by transaction date
      */
     @GetMapping("/all_expenses_asc")
-    public ResponseEntity<List<Expense>> getAllExpensesAsc(@RequestParam int userId) {
-        List<Expense> expenses = expenseService.getAllExpensesAscendingOrder(userId);
-        return ResponseEntity.ok().body(expenses);
+    @UserDataETag
+    public ResponseEntity<List<ExpenseRow>> getAllExpensesAsc(
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return KeysetPage.respond(limit, cursor, after -> expenseService.getExpensesPageAscending(userId, after, limit));
+    }
+
+    /**
+     * Streams all expenses of a user, newest first, as newline-delimited JSON.
+     * Served instead of the paged listing when the request accepts {@value NdjsonWriter#MEDIA_TYPE}.
+     *
+     * @param userId the ID of the user
+     */
+    @GetMapping(value = "/all_expenses_desc", produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamExpensesDesc(@RequestParam int userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response, objectMapper)) {
+            expenseService.writeExpenses(userId, true, writer);
+        }
+    }
+
+    /**
+     * Streams all expenses of a user, oldest first, as newline-delimited JSON.
+     * Served instead of the paged listing when the request accepts {@value NdjsonWriter#MEDIA_TYPE}.
+     *
+     * @param userId the ID of the user
+     */
+    @GetMapping(value = "/all_expenses_asc", produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamExpensesAsc(@RequestParam int userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response, objectMapper)) {
+            expenseService.writeExpenses(userId, false, writer);
+        }
     }
 
     /**
@@ -195,58 +326,106 @@ public class ExpenseController {
     }
 
     /**
-     * Retrieves expenses by category ID and user ID.
+     * Retrieves one page of the expenses of a user in a category, newest first.
+     * Served by the combined search; the cursor of the following page is returned in the
+     * {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param categoryId the ID of the expense category
      * @param userId the ID of the user
-     * @return a list of expenses in the specified category for the specified user
+     * @param limit the maximum number of expenses in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of expenses in the specified category for the specified user
      */
     @GetMapping("/expenses-by-category/{categoryId}")
-    public ResponseEntity<List<Expense>> getExpensesByCategory(
+    @UserDataETag
+    public ResponseEntity<List<ExpenseRow>> getExpensesByCategory(
             @PathVariable("categoryId") Long categoryId,
-            @RequestParam int userId) {
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
-        Optional<ExpenseCategory> expenseCategory = expenseCategoryRepository.findById(Math.toIntExact(categoryId));
-
-        if (!expenseCategory.isPresent()) {
+        if (categoryRegistry.findExpenseCategory(categoryId).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        List<Expense> expenses = expenseService.getExpensesByExpenseCategory(expenseCategory.get(), userId);
-        return ResponseEntity.ok(expenses);
+        TransactionSearchCriteria criteria = TransactionSearchCriteria.of(userId, Set.of(categoryId), null, null,
+                null, null, null, "desc");
+        return KeysetPage.respond(limit, cursor, after -> expenseService.searchExpenses(criteria, after, limit));
     }
 
 
     /**
-     * Filters expenses by amount range for a user.
+     * Retrieves one page of the expenses of a user within an amount range, in ascending order by amount.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param fromAmount the minimum amount
      * @param toAmount the maximum amount (optional)
      * @param userId the ID of the user
-     * @return a list of expenses within the specified amount range
+     * @param limit the maximum number of expenses in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of expenses within the specified amount range
      */
     @GetMapping("/filter-by-amount")
-    public ResponseEntity<List<Expense>> filterExpensesByAmountRange(
+    @UserDataETag
+    public ResponseEntity<List<ExpenseRow>> filterExpensesByAmountRange(
             @RequestParam("from") float fromAmount,
             @RequestParam(value = "to", required = false) Float toAmount,
-            @RequestParam int userId) {
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
         if (toAmount != null && fromAmount > toAmount) {
             return ResponseEntity.badRequest().body(Collections.emptyList());
         }
 
-        List<Expense> filteredExpenses;
-        if (toAmount != null) {
-            filteredExpenses = expenseService.filterExpensesByAmountRange(userId, fromAmount, toAmount);
-        } else {
-            filteredExpenses = expenseService.filterExpensesByAmountStartingFrom(userId, fromAmount);
-        }
+        float upperAmount = toAmount != null ? toAmount : Float.MAX_VALUE;
+        return KeysetPage.respond(limit, cursor, AmountCursor::decode,
+                after -> expenseService.filterExpensesByAmountRange(userId, fromAmount, upperAmount, after, limit));
+    }
 
-        return ResponseEntity.ok().body(filteredExpenses);
+    /**
+     * Searches the expenses of a user by any combination of categories, amount range, date range and name.
+     * Omitted criteria are not applied. The cursor of the following page is returned in the
+     * {@value KeysetPage#NEXT_CURSOR_HEADER} header.
+     *
+     * @param userId the ID of the user
+     * @param categoryIds the IDs of the accepted categories (optional, repeatable)
+     * @param minAmount the minimum amount (optional)
+     * @param maxAmount the maximum amount (optional)
+     * @param fromDate the first transaction date (optional)
+     * @param toDate the last transaction date (optional)
+     * @param name a case-insensitive substring of the expense name (optional)
+     * @param sort {@code asc} or {@code desc} order by transaction date
+     * @param limit the maximum number of expenses in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of matching expenses, or 400 with an empty list for an inconsistent query
+     */
+    @GetMapping("/search")
+    @UserDataETag
+    public ResponseEntity<List<ExpenseRow>> searchExpenses(
+            @RequestParam int userId,
+            @RequestParam(value = "categoryId", required = false) Set<Long> categoryIds,
+            @RequestParam(value = "minAmount", required = false) Float minAmount,
+            @RequestParam(value = "maxAmount", required = false) Float maxAmount,
+            @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "sort", defaultValue = "desc") String sort,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        TransactionSearchCriteria criteria;
+        try {
+            criteria = TransactionSearchCriteria.of(userId, categoryIds, minAmount, maxAmount, fromDate, toDate, name, sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.emptyList());
+        }
+        return KeysetPage.respond(limit, cursor, after -> expenseService.searchExpenses(criteria, after, limit));
     }
 
     /**
      * Exports all expenses to an Excel file.
+     * The file is rendered on the request thread; clients should prefer the jobs of {@link ExportJobController}.
      */
     @GetMapping("/export/excel")
     public void exportToExcel(HttpServletResponse response, @RequestParam int userId) throws IOException {
@@ -255,106 +434,20 @@ public class ExpenseController {
         String headerValue = "attachment; filename=expenses.xlsx";
         response.setHeader(headerKey, headerValue);
 
-        List<Expense> expenses = expenseService.getAllExpensesDescendingOrder(userId);
-
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Expenses");
-        writeHeaderLine(sheet);
-        writeDataLines(expenses, sheet);
-
-        ServletOutputStream outputStream = response.getOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
-        outputStream.close();
+        exportService.exportExpensesToExcel(userId, response.getOutputStream());
     }
 
     /**
      * Exports all expenses to a PDF file.
+     * The file is rendered on the request thread; clients should prefer the jobs of {@link ExportJobController}.
      */
     @GetMapping("/export/pdf")
-    public void exportToPDF(HttpServletResponse response, @RequestParam int userId) throws IOException, DocumentException {
+    public void exportToPDF(HttpServletResponse response, @RequestParam int userId) throws IOException {
         response.setContentType("application/pdf");
         String headerKey = "Content-Disposition";
         String headerValue = "attachment; filename=expenses.pdf";
         response.setHeader(headerKey, headerValue);
 
-        List<Expense> expenses = expenseService.getAllExpensesDescendingOrder(userId);
-
-        Document document = new Document(PageSize.A4);
-        PdfWriter.getInstance(document, response.getOutputStream());
-        document.open();
-        addPDFContent(document, expenses);
-        document.close();
-    }
-
-    // Helper methods for Excel and PDF generation
-    private void writeHeaderLine(Sheet sheet) {
-        Row headerRow = sheet.createRow(0);
-        CellStyle style = sheet.getWorkbook().createCellStyle();
-        org.apache.poi.ss.usermodel.Font font = sheet.getWorkbook().createFont();
-        font.setBold(true);
-        style.setFont(font);
-
-        String[] headers = {"ID", "Name", "Amount", "Transaction Date", "Category"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(style);
-        }
-    }
-
-    private void writeDataLines(List<Expense> expenses, Sheet sheet) {
-        int rowCount = 1;
-        for (Expense expense : expenses) {
-            Row row = sheet.createRow(rowCount++);
-            int columnCount = 0;
-            row.createCell(columnCount++).setCellValue(expense.getId());
-            row.createCell(columnCount++).setCellValue(expense.getName());
-            row.createCell(columnCount++).setCellValue(expense.getAmount());
-            row.createCell(columnCount++).setCellValue(expense.getTransactionDate().toString());
-            row.createCell(columnCount++).setCellValue(expense.getExpenseCategory().getCategoryName());
-        }
-    }
-
-    private void addPDFContent(Document document, List<Expense> expenses) throws DocumentException {
-        com.itextpdf.text.Font font = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
-        font.setSize(18);
-        Paragraph title = new Paragraph("Expenses Report", font);
-        title.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(title);
-
-        PdfPTable table = new PdfPTable(5);
-        table.setWidthPercentage(100);
-        table.setSpacingBefore(10);
-
-        writePDFTableHeader(table);
-        writePDFTableData(table, expenses);
-
-        document.add(table);
-    }
-
-    private void writePDFTableHeader(PdfPTable table) {
-        PdfPCell cell = new PdfPCell();
-        cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
-        cell.setPadding(5);
-
-        com.itextpdf.text.Font font = FontFactory.getFont(FontFactory.HELVETICA);
-        font.setColor(BaseColor.WHITE);
-
-        String[] headers = {"ID", "Name", "Amount", "Transaction Date", "Category"};
-        for (String header : headers) {
-            cell.setPhrase(new Phrase(header, font));
-            table.addCell(cell);
-        }
-    }
-
-    private void writePDFTableData(PdfPTable table, List<Expense> expenses) {
-        for (Expense expense : expenses) {
-            table.addCell(String.valueOf(expense.getId()));
-            table.addCell(expense.getName());
-            table.addCell(String.valueOf(expense.getAmount()));
-            table.addCell(expense.getTransactionDate().toString());
-            table.addCell(expense.getExpenseCategory().getCategoryName());
-        }
+        exportService.exportExpensesToPdf(userId, response.getOutputStream());
     }
-}
\ No newline at end of file
+}
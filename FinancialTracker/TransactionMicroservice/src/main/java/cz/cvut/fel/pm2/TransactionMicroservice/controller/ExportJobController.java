@@ -0,0 +1,98 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExportJobDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportFormat;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportJob;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportJobStatus;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.ExportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * REST controller for asynchronous exports.
+ * A client submits a job, polls its status and downloads the file once the job has completed.
+ */
+@RestController
+@RequestMapping("/transactions/exports")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    @Autowired
+    public ExportJobController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    /**
+     * Submits an export job.
+     *
+     * @param userId the ID of the user
+     * @param type whether expenses or incomes are exported
+     * @param format the format of the exported file
+     * @return the queued job, or 503 if the export queue is full
+     */
+    @PostMapping
+    public ResponseEntity<?> submitExport(@RequestParam int userId,
+                                          @RequestParam TransactionType type,
+                                          @RequestParam ExportFormat format) {
+        try {
+            ExportJob job = exportJobService.submit(userId, type, format);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ExportJobDTO(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many exports in progress, try again later");
+        }
+    }
+
+    /**
+     * Retrieves the status of an export job.
+     *
+     * @param jobId the ID of the job
+     * @param userId the ID of the user
+     * @return the job status, or 404 if the job does not exist
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getExportStatus(@PathVariable String jobId, @RequestParam int userId) {
+        Optional<ExportJob> job = exportJobService.getJob(jobId, userId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Export job not found");
+        }
+        return ResponseEntity.ok().body(new ExportJobDTO(job.get()));
+    }
+
+    /**
+     * Downloads the file of a completed export job.
+     *
+     * @param jobId the ID of the job
+     * @param userId the ID of the user
+     * @return the exported file, 404 if the job does not exist or 409 if it has not completed
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<?> downloadExport(@PathVariable String jobId, @RequestParam int userId) {
+        Optional<ExportJob> job = exportJobService.getJob(jobId, userId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Export job not found");
+        }
+        if (job.get().getStatus() != ExportJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Export job is " + job.get().getStatus());
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.get().getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.get().getFileName())
+                .body(new FileSystemResource(job.get().getFile()));
+    }
+}
@@ -1,14 +1,25 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.controller;
 
+import cz.cvut.fel.pm2.TransactionMicroservice.config.UserDataETag;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BulkSelection;
 import cz.cvut.fel.pm2.TransactionMicroservice.dto.IncomeDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.IncomeRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionSearchCriteria;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.Income;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.IncomeCategory;
-import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeCategoryRepository;
-import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BulkIngestService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.CategoryRegistry;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.ExportService;
 import cz.cvut.fel.pm2.TransactionMicroservice.service.IncomeService;
-import jakarta.servlet.ServletOutputStream;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.AmountCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,11 +30,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.*;
+import java.util.Set;
 
 /**
  * REST controller for managing incomes.
@@ -40,14 +47,21 @@ public class IncomeController {
     }
 
     @Autowired
-    private IncomeCategoryRepository incomeCategoryRepository;
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private ExportService exportService;
 
     @Autowired
-    private IncomeRepository incomeRepository;
+    private BulkIngestService bulkIngestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
 
     /**
-     * Adds a new income.
+     * Adds a new income. An amount in another currency than the user's base currency is converted at the rate of the
+     * transaction date; 400 is returned if no rate is known.
      *
      * @param incomeDto the income data transfer object
      * @param userId the ID of the user
@@ -58,7 +72,7 @@ public class IncomeController {
         IncomeCategory incomeCategory = incomeDto.getIncomeCategory();
         Long incomeCategoryId = incomeDto.getIncomeCategory().getId();
 
-        Optional<IncomeCategory> optionalIncomeCategory = incomeCategoryRepository.findById(Math.toIntExact(incomeCategoryId));
+        Optional<IncomeCategory> optionalIncomeCategory = categoryRegistry.findIncomeCategory(incomeCategoryId);
 
         // Check if the IncomeCategory exists and if its categoryName matches
         if (optionalIncomeCategory.isPresent()) {
@@ -82,30 +96,64 @@ public class IncomeController {
         Income income = new Income();
         income.setUserId(userId);
         income.setAmount(incomeDto.getAmount());
+        income.setOriginalAmount(incomeDto.getAmount());
+        income.setCurrency(incomeDto.getCurrency());
         income.setName(incomeDto.getName());
         income.setTransactionDate(incomeDto.getTransactionDate());
         income.setIncomeCategory(incomeCategory);
 
-        incomeService.createIncome(income);
+        try {
+            incomeService.createIncome(income);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
     /**
-     * Updates an existing income.
+     * Adds many incomes at once, e.g. when importing the history of a new user.
+     * All rows are validated before any is inserted, so either the whole batch is stored or nothing.
+     *
+     * @param incomeDtos the incomes to add
+     * @param userId the ID of the user
+     * @return the number of inserted incomes, or 400 with the reason if the batch is rejected
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addBulkIncomes(@RequestBody List<IncomeDTO> incomeDtos, @RequestParam int userId) {
+        try {
+            int inserted = bulkIngestService.ingestIncomes(userId, incomeDtos);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("inserted", inserted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Updates an existing income if it has not changed since the caller read it.
      *
      * @param id the ID of the income
-     * @param updatedIncome the updated income data
+     * @param updatedIncome the updated income data, including the version that was read; with a currency, the original
+     *                       amount is taken as entered and converted to the user's base currency
      * @param userId the ID of the user
-     * @return a response indicating the status of the request
+     * @return 200, 404 if the user has no such income, 409 if it was changed in the meantime,
+     *         428 without a version, or 400 with the reason if the data is invalid
      */
     @PutMapping("/{id}")
     public ResponseEntity<?> updateIncome(@PathVariable("id") int id, @RequestBody Income updatedIncome,  @RequestParam int userId) {
-        if (!incomeRepository.existsById(id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Income with id " + id + " not found");
+        if (updatedIncome.getVersion() == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body("The version of the income is required");
         }
         updatedIncome.setId(id);
-        incomeService.updateIncome(updatedIncome, userId);
-        return ResponseEntity.ok().build();
+        try {
+            if (!incomeService.updateIncome(updatedIncome, userId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Income with id " + id + " not found");
+            }
+            return ResponseEntity.ok().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
     }
 
     /**
@@ -117,13 +165,50 @@ public class IncomeController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteIncome(@PathVariable("id") int id, @RequestParam int userId) {
-        if (!incomeRepository.existsById(id)) {
+        if (!incomeService.deleteIncome(id, userId)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Income with id " + id + " not found");
         }
-        incomeService.deleteIncome(id, userId);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Deletes many incomes of a user at once, selected by id list and/or filters, e.g. to clean up after a bad import.
+     * The incomes are removed with a single statement.
+     *
+     * @param selection the ids and filters selecting the incomes; at least one must be given
+     * @param userId the ID of the user
+     * @return the number of deleted incomes, or 400 with the reason if the selection is rejected
+     */
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<?> deleteBulkIncomes(@RequestBody BulkSelection selection, @RequestParam int userId) {
+        try {
+            int deleted = incomeService.deleteIncomes(userId, selection);
+            return ResponseEntity.ok(Map.of("deleted", deleted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves many incomes of a user to another category at once, selected by id list and/or filters.
+     * The incomes are updated with a single statement.
+     *
+     * @param selection the ids and filters selecting the incomes; at least one must be given
+     * @param categoryId the ID of the target category
+     * @param userId the ID of the user
+     * @return the number of incomes that changed category, or 400 with the reason if the request is rejected
+     */
+    @PostMapping("/bulk-recategorize")
+    public ResponseEntity<?> recategorizeBulkIncomes(@RequestBody BulkSelection selection, @RequestParam long categoryId,
+                                                     @RequestParam int userId) {
+        try {
+            int updated = incomeService.moveIncomesToCategory(userId, selection, categoryId);
+            return ResponseEntity.ok(Map.of("updated", updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     /**
      * Retrieves an income by its ID and user ID.
      *
@@ -134,7 +219,7 @@ public class IncomeController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getIncomeById(@PathVariable("id") int id, @RequestParam int userId) {
         try {
-            Income income = incomeService.getIncomeById(id, userId);
+            IncomeRow income = incomeService.getIncomeRowById(id, userId);
             if (income == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Income with id " + id + " not found");
             }
@@ -145,27 +230,65 @@ public class IncomeController {
     }
 
     /**
-     * Retrieves all incomes in descending order by transaction date for a user.
+     * Retrieves one page of incomes in descending order by transaction date for a user.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param userId the ID of the user
-     * @return a list of incomes in descending order by transaction date
+     * @param limit the maximum number of incomes in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of incomes in descending order by transaction date
      */
     @GetMapping("/all_incomes_desc")
-    public ResponseEntity<List<Income>> getAllIncomesDesc(@RequestParam int userId) {
-        List<Income> incomes = incomeService.getAllExpensesDescendingOrder(userId);
-        return ResponseEntity.ok().body(incomes);
+    @UserDataETag
+    public ResponseEntity<List<IncomeRow>> getAllIncomesDesc(
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return KeysetPage.respond(limit, cursor, after -> incomeService.getIncomesPageDescending(userId, after, limit));
     }
 
     /**
-     * Retrieves all incomes in ascending order by transaction date for a user.
+     * Retrieves one page of incomes in ascending order by transaction date for a user.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param userId the ID of the user
-     * @return a list of incomes in ascending order by transaction date
+     * @param limit the maximum number of incomes in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of incomes in ascending order by transaction date
      */
     @GetMapping("/all_incomes_asc")
-    public ResponseEntity<List<Income>> getAllIncomesAsc(@RequestParam int userId) {
-        List<Income> incomes = incomeService.getAllExpensesAscendingOrder(userId);
-        return ResponseEntity.ok().body(incomes);
+    @UserDataETag
+    public ResponseEntity<List<IncomeRow>> getAllIncomesAsc(
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return KeysetPage.respond(limit, cursor, after -> incomeService.getIncomesPageAscending(userId, after, limit));
+    }
+
+    /**
+     * Streams all incomes of a user, newest first, as newline-delimited JSON.
+     * Served instead of the paged listing when the request accepts {@value NdjsonWriter#MEDIA_TYPE}.
+     *
+     * @param userId the ID of the user
+     */
+    @GetMapping(value = "/all_incomes_desc", produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamIncomesDesc(@RequestParam int userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response, objectMapper)) {
+            incomeService.writeIncomes(userId, true, writer);
+        }
+    }
+
+    /**
+     * Streams all incomes of a user, oldest first, as newline-delimited JSON.
+     * Served instead of the paged listing when the request accepts {@value NdjsonWriter#MEDIA_TYPE}.
+     *
+     * @param userId the ID of the user
+     */
+    @GetMapping(value = "/all_incomes_asc", produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamIncomesAsc(@RequestParam int userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response, objectMapper)) {
+            incomeService.writeIncomes(userId, false, writer);
+        }
     }
 
     /**
@@ -195,57 +318,105 @@ public class IncomeController {
 
 
     /**
-     * Retrieves incomes by category ID and user ID.
+     * Retrieves one page of the incomes of a user in a category, newest first.
+     * Served by the combined search; the cursor of the following page is returned in the
+     * {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param categoryId the ID of the income category
      * @param userId the ID of the user
-     * @return a list of incomes in the specified category for the specified user
+     * @param limit the maximum number of incomes in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of incomes in the specified category for the specified user
      */
     @GetMapping("/incomes-by-category/{categoryId}")
-    public ResponseEntity<List<Income>> getIncomesByCategory(
+    @UserDataETag
+    public ResponseEntity<List<IncomeRow>> getIncomesByCategory(
             @PathVariable("categoryId") Long categoryId,
-            @RequestParam int userId) {
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
-        Optional<IncomeCategory> incomeCategory = incomeCategoryRepository.findById(Math.toIntExact(categoryId));
-
-        if (!incomeCategory.isPresent()) {
+        if (categoryRegistry.findIncomeCategory(categoryId).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        List<Income> incomes = incomeService.getIncomesByIncomeCategoryAndUserId(incomeCategory.get(), userId);
-        return ResponseEntity.ok(incomes);
+        TransactionSearchCriteria criteria = TransactionSearchCriteria.of(userId, Set.of(categoryId), null, null,
+                null, null, null, "desc");
+        return KeysetPage.respond(limit, cursor, after -> incomeService.searchIncomes(criteria, after, limit));
     }
 
     /**
-     * Filters incomes by amount range for a user.
+     * Retrieves one page of the incomes of a user within an amount range, in ascending order by amount.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param fromAmount the minimum amount
      * @param toAmount the maximum amount (optional)
      * @param userId the ID of the user
-     * @return a list of incomes within the specified amount range
+     * @param limit the maximum number of incomes in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of incomes within the specified amount range
      */
     @GetMapping("/filter-by-amount")
-    public ResponseEntity<List<Income>> filterIncomesByAmountRange(
+    @UserDataETag
+    public ResponseEntity<List<IncomeRow>> filterIncomesByAmountRange(
             @RequestParam("from") float fromAmount,
             @RequestParam(value = "to", required = false) Float toAmount,
-            @RequestParam int userId) {
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
         if (toAmount != null && fromAmount > toAmount) {
             return ResponseEntity.badRequest().body(Collections.emptyList());
         }
 
-        List<Income> filteredIncomes;
-        if (toAmount != null) {
-            filteredIncomes = incomeService.filterIncomesByAmountRange(userId, fromAmount, toAmount);
-        } else {
-            filteredIncomes = incomeService.filterIncomesByAmountStartingFrom(userId, fromAmount);
-        }
+        float upperAmount = toAmount != null ? toAmount : Float.MAX_VALUE;
+        return KeysetPage.respond(limit, cursor, AmountCursor::decode,
+                after -> incomeService.filterIncomesByAmountRange(userId, fromAmount, upperAmount, after, limit));
+    }
 
-        return ResponseEntity.ok().body(filteredIncomes);
+    /**
+     * Searches the incomes of a user by any combination of categories, amount range, date range and name.
+     * Omitted criteria are not applied. The cursor of the following page is returned in the
+     * {@value KeysetPage#NEXT_CURSOR_HEADER} header.
+     *
+     * @param userId the ID of the user
+     * @param categoryIds the IDs of the accepted categories (optional, repeatable)
+     * @param minAmount the minimum amount (optional)
+     * @param maxAmount the maximum amount (optional)
+     * @param fromDate the first transaction date (optional)
+     * @param toDate the last transaction date (optional)
+     * @param name a case-insensitive substring of the income name (optional)
+     * @param sort {@code asc} or {@code desc} order by transaction date
+     * @param limit the maximum number of incomes in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of matching incomes, or 400 with an empty list for an inconsistent query
+     */
+    @GetMapping("/search")
+    @UserDataETag
+    public ResponseEntity<List<IncomeRow>> searchIncomes(
+            @RequestParam int userId,
+            @RequestParam(value = "categoryId", required = false) Set<Long> categoryIds,
+            @RequestParam(value = "minAmount", required = false) Float minAmount,
+            @RequestParam(value = "maxAmount", required = false) Float maxAmount,
+            @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "sort", defaultValue = "desc") String sort,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        TransactionSearchCriteria criteria;
+        try {
+            criteria = TransactionSearchCriteria.of(userId, categoryIds, minAmount, maxAmount, fromDate, toDate, name, sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.emptyList());
+        }
+        return KeysetPage.respond(limit, cursor, after -> incomeService.searchIncomes(criteria, after, limit));
     }
 
     /**
      * Exports all incomes to an Excel file.
+     * The file is rendered on the request thread; clients should prefer the jobs of {@link ExportJobController}.
      */
     @GetMapping("/export/excel")
     public void exportToExcel(HttpServletResponse response, @RequestParam int userId) throws IOException {
@@ -254,106 +425,20 @@ public class IncomeController {
         String headerValue = "attachment; filename=incomes.xlsx";
         response.setHeader(headerKey, headerValue);
 
-        List<Income> incomes = incomeService.getAllExpensesDescendingOrder(userId);
-
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Incomes");
-        writeHeaderLine(sheet);
-        writeDataLines(incomes, sheet);
-
-        ServletOutputStream outputStream = response.getOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
-        outputStream.close();
+        exportService.exportIncomesToExcel(userId, response.getOutputStream());
     }
 
     /**
      * Exports all incomes to a PDF file.
+     * The file is rendered on the request thread; clients should prefer the jobs of {@link ExportJobController}.
      */
     @GetMapping("/export/pdf")
-    public void exportToPDF(HttpServletResponse response, @RequestParam int userId) throws IOException, DocumentException {
+    public void exportToPDF(HttpServletResponse response, @RequestParam int userId) throws IOException {
         response.setContentType("application/pdf");
         String headerKey = "Content-Disposition";
         String headerValue = "attachment; filename=incomes.pdf";
         response.setHeader(headerKey, headerValue);
 
-        List<Income> incomes = incomeService.getAllExpensesDescendingOrder(userId);
-
-        Document document = new Document(PageSize.A4);
-        PdfWriter.getInstance(document, response.getOutputStream());
-        document.open();
-        addPDFContent(document, incomes);
-        document.close();
-    }
-
-    // Helper methods for Excel and PDF generation
-    private void writeHeaderLine(Sheet sheet) {
-        Row headerRow = sheet.createRow(0);
-        CellStyle style = sheet.getWorkbook().createCellStyle();
-        org.apache.poi.ss.usermodel.Font font = sheet.getWorkbook().createFont();
-        font.setBold(true);
-        style.setFont(font);
-
-        String[] headers = {"ID", "Name", "Amount", "Transaction Date", "Category"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(style);
-        }
-    }
-
-    private void writeDataLines(List<Income> incomes, Sheet sheet) {
-        int rowCount = 1;
-        for (Income income : incomes) {
-            Row row = sheet.createRow(rowCount++);
-            int columnCount = 0;
-            row.createCell(columnCount++).setCellValue(income.getId());
-            row.createCell(columnCount++).setCellValue(income.getName());
-            row.createCell(columnCount++).setCellValue(income.getAmount());
-            row.createCell(columnCount++).setCellValue(income.getTransactionDate().toString());
-            row.createCell(columnCount++).setCellValue(income.getIncomeCategory().getCategoryName());
-        }
-    }
-
-    private void addPDFContent(Document document, List<Income> incomes) throws DocumentException {
-        com.itextpdf.text.Font font = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
-        font.setSize(18);
-        Paragraph title = new Paragraph("Incomes Report", font);
-        title.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(title);
-
-        PdfPTable table = new PdfPTable(5);
-        table.setWidthPercentage(100);
-        table.setSpacingBefore(10);
-
-        writePDFTableHeader(table);
-        writePDFTableData(table, incomes);
-
-        document.add(table);
-    }
-
-    private void writePDFTableHeader(PdfPTable table) {
-        PdfPCell cell = new PdfPCell();
-        cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
-        cell.setPadding(5);
-
-        com.itextpdf.text.Font font = FontFactory.getFont(FontFactory.HELVETICA);
-        font.setColor(BaseColor.WHITE);
-
-        String[] headers = {"ID", "Name", "Amount", "Transaction Date", "Category"};
-        for (String header : headers) {
-            cell.setPhrase(new Phrase(header, font));
-            table.addCell(cell);
-        }
-    }
-
-    private void writePDFTableData(PdfPTable table, List<Income> incomes) {
-        for (Income income : incomes) {
-            table.addCell(String.valueOf(income.getId()));
-            table.addCell(income.getName());
-            table.addCell(String.valueOf(income.getAmount()));
-            table.addCell(income.getTransactionDate().toString());
-            table.addCell(income.getIncomeCategory().getCategoryName());
-        }
+        exportService.exportIncomesToPdf(userId, response.getOutputStream());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.RecurringTemplate;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.RecurringTemplateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for recurring templates, such as rent, salary or subscriptions.
+ * The occurrences of a template are inserted as expenses or incomes by a daily background run.
+ */
+@RestController
+@RequestMapping("/transactions/recurring")
+public class RecurringTemplateController {
+
+    private final RecurringTemplateService templateService;
+
+    @Autowired
+    public RecurringTemplateController(RecurringTemplateService templateService) {
+        this.templateService = templateService;
+    }
+
+    /**
+     * Adds a new recurring template.
+     *
+     * @param template the template: type, name, amount, category id, frequency, start date and optional end date
+     * @param userId the ID of the user
+     * @return the stored template, or 400 with the reason if it is invalid
+     */
+    @PostMapping("/add-template")
+    public ResponseEntity<?> addTemplate(@RequestBody RecurringTemplate template, @RequestParam int userId) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(templateService.createTemplate(userId, template));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves all recurring templates of a user.
+     *
+     * @param userId the ID of the user
+     * @return the templates, including the date of their next occurrence
+     */
+    @GetMapping("/all")
+    public ResponseEntity<List<RecurringTemplate>> getAllTemplates(@RequestParam int userId) {
+        return ResponseEntity.ok(templateService.getTemplates(userId));
+    }
+
+    /**
+     * Deletes a recurring template. Occurrences already inserted are kept.
+     *
+     * @param id the ID of the template
+     * @param userId the ID of the user
+     * @return 204, or 404 if the user has no such template
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteTemplate(@PathVariable("id") long id, @RequestParam int userId) {
+        if (!templateService.deleteTemplate(id, userId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Recurring template with id " + id + " not found");
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,39 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.config.TenantScopeGuard;
+import cz.cvut.fel.pm2.TransactionMicroservice.search.TransactionNameIndex;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.TransactionNameIndexer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint of the transaction name index.
+ * {@code POST /actuator/searchindex} rebuilds the index from the database, e.g. after transactions were changed
+ * directly in the database.
+ */
+@Component
+@Endpoint(id = "searchindex")
+public class SearchIndexEndpoint {
+
+    private final TransactionNameIndex index;
+    private final TransactionNameIndexer indexer;
+
+    public SearchIndexEndpoint(TransactionNameIndex index, TransactionNameIndexer indexer) {
+        this.index = index;
+        this.indexer = indexer;
+    }
+
+    @ReadOperation
+    public Map<String, Long> size() {
+        return Map.of("documents", index.size());
+    }
+
+    @WriteOperation
+    public Map<String, Long> rebuild() {
+        return Map.of("documents", TenantScopeGuard.crossTenant(indexer::rebuild));
+    }
+}
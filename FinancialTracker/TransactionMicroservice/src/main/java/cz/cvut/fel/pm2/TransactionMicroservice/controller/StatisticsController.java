@@ -0,0 +1,115 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.config.UserDataETag;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlySummaryDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TopStatisticsDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.StatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * REST controller serving aggregated transaction statistics.
+ */
+@RestController
+@RequestMapping("/transactions/stats")
+public class StatisticsController {
+
+    private static final LocalDate EARLIEST_TRANSACTION_DATE = LocalDate.of(2000, 1, 1);
+    private static final int MAX_TOP_LIMIT = 100;
+
+    private final StatisticsService statisticsService;
+
+    @Autowired
+    public StatisticsController(StatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
+    }
+
+    /**
+     * Retrieves income and expense totals per month for a user.
+     *
+     * @param userId the ID of the user
+     * @param from the first day of the range (optional, defaults to the earliest allowed transaction date)
+     * @param to the last day of the range (optional, defaults to the end of the current month)
+     * @return one summary per month in the range, ordered by month
+     */
+    @GetMapping("/monthly")
+    @UserDataETag(dependsOnCurrentMonth = true)
+    public ResponseEntity<List<MonthlySummaryDTO>> getMonthlySummary(
+            @RequestParam int userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate fromDate = from != null ? from : EARLIEST_TRANSACTION_DATE;
+        LocalDate toDate = to != null ? to : YearMonth.now().atEndOfMonth();
+        if (fromDate.isAfter(toDate)) {
+            return ResponseEntity.badRequest().body(Collections.emptyList());
+        }
+
+        List<MonthlySummaryDTO> summary = statisticsService.getMonthlySummary(userId, fromDate, toDate);
+        return ResponseEntity.ok().body(summary);
+    }
+
+    /**
+     * Retrieves the total and count of a user's expenses or incomes per category.
+     *
+     * @param userId the ID of the user
+     * @param type {@code EXPENSE} or {@code INCOME} (optional, defaults to {@code EXPENSE})
+     * @param from the first day of the range (optional, defaults to the earliest allowed transaction date)
+     * @param to the last day of the range (optional, defaults to the end of the current month)
+     * @return one total per category with at least one transaction, largest total first
+     */
+    @GetMapping("/categories")
+    @UserDataETag(dependsOnCurrentMonth = true)
+    public ResponseEntity<List<CategoryTotal>> getCategoryTotals(
+            @RequestParam int userId,
+            @RequestParam(value = "type", defaultValue = "EXPENSE") TransactionType type,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate fromDate = from != null ? from : EARLIEST_TRANSACTION_DATE;
+        LocalDate toDate = to != null ? to : YearMonth.now().atEndOfMonth();
+        if (fromDate.isAfter(toDate)) {
+            return ResponseEntity.badRequest().body(Collections.emptyList());
+        }
+
+        return ResponseEntity.ok().body(statisticsService.getCategoryTotals(userId, type, fromDate, toDate));
+    }
+
+    /**
+     * Retrieves the categories with the largest totals and the largest single transactions of a user.
+     *
+     * @param userId the ID of the user
+     * @param type {@code EXPENSE} or {@code INCOME} (optional, defaults to {@code EXPENSE})
+     * @param k the number of categories and of transactions to return, between 1 and 100 (optional, defaults to 5)
+     * @param from the first day of the range (optional, defaults to the earliest allowed transaction date)
+     * @param to the last day of the range (optional, defaults to the end of the current month)
+     * @return the top categories, largest total first, and the largest transactions, largest amount first;
+     *         400 if the range or {@code k} is invalid
+     */
+    @GetMapping("/top")
+    @UserDataETag(dependsOnCurrentMonth = true)
+    public ResponseEntity<TopStatisticsDTO> getTop(
+            @RequestParam int userId,
+            @RequestParam(value = "type", defaultValue = "EXPENSE") TransactionType type,
+            @RequestParam(value = "k", defaultValue = "5") int k,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate fromDate = from != null ? from : EARLIEST_TRANSACTION_DATE;
+        LocalDate toDate = to != null ? to : YearMonth.now().atEndOfMonth();
+        if (fromDate.isAfter(toDate) || k < 1 || k > MAX_TOP_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok().body(statisticsService.getTop(userId, type, fromDate, toDate, k));
+    }
+}
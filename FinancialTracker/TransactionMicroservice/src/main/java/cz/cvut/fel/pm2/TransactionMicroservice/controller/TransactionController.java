@@ -1,21 +1,45 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.controller;
 
-import cz.cvut.fel.pm2.TransactionMicroservice.entity.Transaction;
+import cz.cvut.fel.pm2.TransactionMicroservice.config.UserDataETag;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BalancePoint;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BalanceService;
 import cz.cvut.fel.pm2.TransactionMicroservice.service.TransactionService;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.AmountCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * REST controller for reads over expenses and incomes together.
+ * Transactions are returned as flat ledger entries carrying their type and category id.
+ */
 @RestController
 @RequestMapping(path = "/transactions")
 public class TransactionController {
 
     private final TransactionService transactionService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BalanceService balanceService;
+
     @Autowired
     public TransactionController(TransactionService transactionService) {
         this.transactionService = transactionService;
@@ -32,7 +56,7 @@ public class TransactionController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getTransactionById(@PathVariable("id") int id,  @RequestParam int userId) {
         try {
-            Transaction transaction = transactionService.getTransactionById(id, userId);
+            TransactionRow transaction = transactionService.getTransactionById(id, userId);
             return ResponseEntity.ok(transaction);
         } catch (RuntimeException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
@@ -40,59 +64,169 @@ public class TransactionController {
     }
 
     /**
-     * Retrieves all transactions in descending order by transaction date for a user.
+     * Retrieves one page of transactions in descending order by transaction date for a user.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param userId the ID of the user
-     * @return a list of transactions in descending order by transaction date
+     * @param limit the maximum number of transactions in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of transactions in descending order by transaction date
      */
     @GetMapping("/all_transactions_desc")
-    public ResponseEntity<List<Transaction>> getAllTransactionsDesc(@RequestParam int userId) {
-        List<Transaction> transactions = transactionService.getAllExpensesDescendingOrder(userId);
-        return ResponseEntity.ok().body(transactions);
+    @UserDataETag
+    public ResponseEntity<List<TransactionRow>> getAllTransactionsDesc(
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return KeysetPage.respond(limit, cursor, after -> transactionService.getTransactionsPageDescending(userId, after, limit));
     }
 
     /**
-     * Retrieves all transactions in ascending order by transaction date for a user.
+     * Retrieves one page of transactions in ascending order by transaction date for a user.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param userId the ID of the user
-     * @return a list of transactions in ascending order by transaction date
+     * @param limit the maximum number of transactions in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of transactions in ascending order by transaction date
      */
     @GetMapping("/all_transactions_asc")
-    public ResponseEntity<List<Transaction>> getAllTransactionsAsc(@RequestParam int userId) {
-        List<Transaction> transactions = transactionService.getAllExpensesAscendingOrder(userId);
-        return ResponseEntity.ok().body(transactions);
+    @UserDataETag
+    public ResponseEntity<List<TransactionRow>> getAllTransactionsAsc(
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return KeysetPage.respond(limit, cursor, after -> transactionService.getTransactionsPageAscending(userId, after, limit));
+    }
+
+    /**
+     * Streams all transactions of a user, newest first, as newline-delimited JSON.
+     * Served instead of the paged listing when the request accepts {@value NdjsonWriter#MEDIA_TYPE}.
+     *
+     * @param userId the ID of the user
+     */
+    @GetMapping(value = "/all_transactions_desc", produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamTransactionsDesc(@RequestParam int userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response, objectMapper)) {
+            transactionService.writeTransactions(userId, true, writer);
+        }
+    }
+
+    /**
+     * Streams all transactions of a user, oldest first, as newline-delimited JSON.
+     * Served instead of the paged listing when the request accepts {@value NdjsonWriter#MEDIA_TYPE}.
+     *
+     * @param userId the ID of the user
+     */
+    @GetMapping(value = "/all_transactions_asc", produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamTransactionsAsc(@RequestParam int userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response, objectMapper)) {
+            transactionService.writeTransactions(userId, false, writer);
+        }
     }
 
 
 
     /**
-     * Retrieves all transactions for a user.
+     * Retrieves one page of all transactions for a user, newest first.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param userId the ID of the user
-     * @return a list of all transactions for the user
+     * @param limit the maximum number of transactions in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of transactions for the user
      */
     @GetMapping("/all")
-    public ResponseEntity<List<Transaction>> getAllTransactions(@RequestParam int userId) {
-        List<Transaction> transactions = transactionService.getAllTransactions(userId);
-        return ResponseEntity.ok().body(transactions);
+    @UserDataETag
+    public ResponseEntity<List<TransactionRow>> getAllTransactions(
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return KeysetPage.respond(limit, cursor, after -> transactionService.getTransactionsPageDescending(userId, after, limit));
+    }
+
+    /**
+     * Streams all transactions of a user, newest first, as newline-delimited JSON.
+     * Served instead of the paged listing when the request accepts {@value NdjsonWriter#MEDIA_TYPE}.
+     *
+     * @param userId the ID of the user
+     */
+    @GetMapping(value = "/all", produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamAllTransactions(@RequestParam int userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = NdjsonWriter.forResponse(request, response, objectMapper)) {
+            transactionService.writeTransactions(userId, true, writer);
+        }
     }
 
     /**
-     * Filters transactions by amount range.
+     * Retrieves one page of the transactions of a user within an amount range, in ascending order by amount.
+     * The cursor of the following page is returned in the {@value KeysetPage#NEXT_CURSOR_HEADER} header.
      *
      * @param fromAmount the minimum amount
      * @param toAmount the maximum amount
-     * @return a list of transactions within the specified amount range
+     * @param userId the ID of the user
+     * @param limit the maximum number of transactions in the page
+     * @param cursor the cursor returned with the previous page, omitted for the first page
+     * @return a page of transactions within the specified amount range
      */
     @GetMapping("/filter-by-amount")
-    public ResponseEntity<List<Transaction>> filterTransactionsByAmountRange(@RequestParam("from") float fromAmount,
-                                                                             @RequestParam("to") float toAmount) {
+    @UserDataETag
+    public ResponseEntity<List<TransactionRow>> filterTransactionsByAmountRange(
+            @RequestParam("from") float fromAmount,
+            @RequestParam("to") float toAmount,
+            @RequestParam int userId,
+            @RequestParam(value = "limit", defaultValue = KeysetPage.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         if (fromAmount > toAmount) {
             return ResponseEntity.badRequest().body(Collections.emptyList());
         }
+        return KeysetPage.respond(limit, cursor, AmountCursor::decode,
+                after -> transactionService.filterTransactionsByAmountRange(userId, fromAmount, toAmount, after, limit));
+    }
 
-        List<Transaction> filteredTransactions = transactionService.filterTransactionsByAmountRange(fromAmount, toAmount);
+    /**
+     * Searches the transactions of a user by name. Every word of the query has to match a word of the name,
+     * either exactly, as a prefix or with a small typo.
+     *
+     * @param userId the ID of the user
+     * @param query the words to look for
+     * @param type {@code EXPENSE} or {@code INCOME} to search one type only (optional)
+     * @param limit the maximum number of transactions returned
+     * @return the matching transactions, best match first
+     */
+    @GetMapping("/search-by-name")
+    @UserDataETag
+    public ResponseEntity<List<TransactionRow>> searchTransactionsByName(
+            @RequestParam int userId,
+            @RequestParam("q") String query,
+            @RequestParam(value = "type", required = false) TransactionType type,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (query.isBlank() || limit <= 0 || limit > KeysetPage.MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(Collections.emptyList());
+        }
+        return ResponseEntity.ok(transactionService.searchByName(userId, query, type, limit));
+    }
 
-        return ResponseEntity.ok().body(filteredTransactions);
+    /**
+     * Retrieves the running balance of a user, all incomes minus all expenses, over a date range.
+     *
+     * @param userId the ID of the user
+     * @param from the first day of the range (optional, defaults to the first day of the current month)
+     * @param to the last day of the range (optional, defaults to the last day of the current month)
+     * @return the balance at the end of the first day, followed by the balance at the end of every later day with
+     * transactions, in date order
+     */
+    @GetMapping("/balance")
+    @UserDataETag(dependsOnCurrentMonth = true)
+    public ResponseEntity<List<BalancePoint>> getRunningBalance(
+            @RequestParam int userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate fromDate = from != null ? from : YearMonth.now().atDay(1);
+        LocalDate toDate = to != null ? to : YearMonth.now().atEndOfMonth();
+        if (fromDate.isAfter(toDate)) {
+            return ResponseEntity.badRequest().body(Collections.emptyList());
+        }
+        return ResponseEntity.ok(balanceService.getRunningBalance(userId, fromDate, toDate));
     }
-}
\ No newline at end of file
+}
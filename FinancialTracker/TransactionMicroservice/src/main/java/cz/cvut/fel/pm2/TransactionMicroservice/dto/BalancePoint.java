@@ -0,0 +1,19 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Balance of a user, all incomes minus all expenses, at the end of one day.
+ */
+@Getter
+public class BalancePoint {
+    private final LocalDate date;
+    private final double balance;
+
+    public BalancePoint(LocalDate date, double balance) {
+        this.date = date;
+        this.balance = balance;
+    }
+}
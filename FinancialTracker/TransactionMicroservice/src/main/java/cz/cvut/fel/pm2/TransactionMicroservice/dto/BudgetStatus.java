@@ -0,0 +1,30 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Spend of one user in one expense category and month, measured against the user's budget for the category.
+ */
+@Getter
+public class BudgetStatus {
+    private final long categoryId;
+    /**
+     * First day of the month the spend belongs to.
+     */
+    private final LocalDate month;
+    private final double limit;
+    private final double spent;
+    private final double remaining;
+    private final boolean overspent;
+
+    public BudgetStatus(long categoryId, LocalDate month, double limit, double spent) {
+        this.categoryId = categoryId;
+        this.month = month;
+        this.limit = limit;
+        this.spent = spent;
+        this.remaining = limit - spent;
+        this.overspent = spent > limit;
+    }
+}
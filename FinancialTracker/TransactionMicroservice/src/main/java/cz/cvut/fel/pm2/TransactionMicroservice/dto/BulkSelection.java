@@ -0,0 +1,63 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Selects the expenses or incomes of one user affected by a bulk delete or re-categorization.
+ * Every filter left {@code null} or empty is not applied; all given filters must match.
+ * At least one filter is required, so an empty body never selects every transaction of the user.
+ */
+@Getter
+@Setter
+public class BulkSelection {
+    private List<Integer> ids;
+    private Set<Long> categoryIds;
+    private Float minAmount;
+    private Float maxAmount;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    public static BulkSelection ofIds(List<Integer> ids) {
+        BulkSelection selection = new BulkSelection();
+        selection.setIds(ids);
+        return selection;
+    }
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasCategoryIds() {
+        return categoryIds != null && !categoryIds.isEmpty();
+    }
+
+    /**
+     * Checks that the selection is bounded and consistent.
+     *
+     * @param maxIds the maximum number of ids that may be listed
+     * @throws IllegalArgumentException if no filter is given, too many ids are listed or a range ends before it starts
+     */
+    public void validate(int maxIds) {
+        if (!hasIds() && !hasCategoryIds() && minAmount == null && maxAmount == null && fromDate == null && toDate == null) {
+            throw new IllegalArgumentException("At least one of ids, categoryIds, minAmount, maxAmount, fromDate or toDate is required");
+        }
+        if (hasIds() && ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be listed");
+        }
+        if (hasIds() && ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("ids must not contain null");
+        }
+        if (minAmount != null && maxAmount != null && minAmount > maxAmount) {
+            throw new IllegalArgumentException("minAmount must not be greater than maxAmount");
+        }
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+    }
+}
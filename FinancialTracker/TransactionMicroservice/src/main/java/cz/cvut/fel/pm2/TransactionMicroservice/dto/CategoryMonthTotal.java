@@ -0,0 +1,23 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+/**
+ * Sum and count of one user's transactions in one category and calendar month, computed from the raw rows.
+ */
+@Getter
+public class CategoryMonthTotal {
+    private final int year;
+    private final int month;
+    private final long categoryId;
+    private final double total;
+    private final long count;
+
+    public CategoryMonthTotal(Integer year, Integer month, Long categoryId, Double total, Long count) {
+        this.year = year;
+        this.month = month;
+        this.categoryId = categoryId;
+        this.total = total == null ? 0 : total;
+        this.count = count == null ? 0 : count;
+    }
+}
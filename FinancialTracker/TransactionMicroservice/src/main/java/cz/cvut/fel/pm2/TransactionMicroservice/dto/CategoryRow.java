@@ -0,0 +1,17 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+/**
+ * Id and name of the category of an {@link ExpenseRow} or {@link IncomeRow}, serialized like the category entities.
+ */
+@Getter
+public class CategoryRow {
+    private final long id;
+    private final String categoryName;
+
+    public CategoryRow(Long id, String categoryName) {
+        this.id = id;
+        this.categoryName = categoryName;
+    }
+}
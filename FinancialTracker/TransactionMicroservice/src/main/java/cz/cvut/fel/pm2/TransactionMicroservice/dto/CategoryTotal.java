@@ -0,0 +1,19 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+/**
+ * Sum and count of one user's transactions in one category over a date range.
+ */
+@Getter
+public class CategoryTotal {
+    private final long categoryId;
+    private final double total;
+    private final long count;
+
+    public CategoryTotal(Long categoryId, Double total, Long count) {
+        this.categoryId = categoryId;
+        this.total = total == null ? 0 : total;
+        this.count = count == null ? 0 : count;
+    }
+}
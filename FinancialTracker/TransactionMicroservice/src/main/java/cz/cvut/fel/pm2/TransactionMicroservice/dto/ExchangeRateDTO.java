@@ -0,0 +1,29 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Exchange rate of one day: one unit of {@code fromCurrency} is worth {@code rate} units of {@code toCurrency}.
+ */
+@Getter
+@Setter
+public class ExchangeRateDTO {
+    private String fromCurrency;
+    private String toCurrency;
+    private LocalDate date;
+    private BigDecimal rate;
+
+    public ExchangeRateDTO() {
+    }
+
+    public ExchangeRateDTO(String fromCurrency, String toCurrency, LocalDate date, BigDecimal rate) {
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.date = date;
+        this.rate = rate;
+    }
+}
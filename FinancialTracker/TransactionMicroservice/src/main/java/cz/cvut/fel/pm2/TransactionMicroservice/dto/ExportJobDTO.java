@@ -0,0 +1,32 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportFormat;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportJob;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportJobStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+public class ExportJobDTO {
+    private String id;
+    private TransactionType type;
+    private ExportFormat format;
+    private ExportJobStatus status;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private String error;
+
+    public ExportJobDTO(ExportJob job) {
+        this.id = job.getId();
+        this.type = job.getType();
+        this.format = job.getFormat();
+        this.status = job.getStatus();
+        this.createdAt = job.getCreatedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.error = job.getError();
+    }
+}
@@ -0,0 +1,36 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * One line of an expense or income export, selected directly by the export queries without loading entities.
+ */
+@Getter
+public class ExportRow {
+    private final int id;
+    private final String name;
+    /**
+     * Amount in the user's base currency.
+     */
+    private final float amount;
+    /**
+     * Amount as entered, in {@link #currency}.
+     */
+    private final float originalAmount;
+    private final String currency;
+    private final LocalDate transactionDate;
+    private final String categoryName;
+
+    public ExportRow(Integer id, String name, Float amount, Float originalAmount, String currency,
+                     LocalDate transactionDate, String categoryName) {
+        this.id = id;
+        this.name = name;
+        this.amount = amount;
+        this.originalAmount = originalAmount;
+        this.currency = currency;
+        this.transactionDate = transactionDate;
+        this.categoryName = categoryName;
+    }
+}
@@ -11,6 +11,10 @@ import java.time.LocalDate;
 public class IncomeDTO {
     private int id;
     private float amount;
+    /**
+     * Currency of {@link #amount}, or {@code null} for the user's base currency.
+     */
+    private String currency;
     private String name;
     private LocalDate transactionDate;
     private IncomeCategory incomeCategory;
@@ -0,0 +1,35 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only view of an income, selected directly by the read queries without loading entities.
+ * Serialized with the same fields as {@code Income}.
+ */
+@Getter
+public class IncomeRow {
+    private final int id;
+    private final int userId;
+    private final String name;
+    private final float amount;
+    private final float originalAmount;
+    private final String currency;
+    private final LocalDate transactionDate;
+    private final CategoryRow incomeCategory;
+    private final long version;
+
+    public IncomeRow(Integer id, Integer userId, String name, Float amount, Float originalAmount, String currency,
+                      LocalDate transactionDate, Long categoryId, String categoryName, Long version) {
+        this.id = id;
+        this.userId = userId;
+        this.name = name;
+        this.amount = amount;
+        this.originalAmount = originalAmount;
+        this.currency = currency;
+        this.transactionDate = transactionDate;
+        this.incomeCategory = new CategoryRow(categoryId, categoryName);
+        this.version = version;
+    }
+}
@@ -0,0 +1,95 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.PageCursor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated transaction listing.
+ * The page body is sent as a plain JSON array and the cursor of the next page travels in the {@value #NEXT_CURSOR_HEADER} header.
+ *
+ * @param <T> the type of row in the page
+ */
+@Getter
+public class KeysetPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String DEFAULT_LIMIT = "100";
+    public static final int MAX_LIMIT = 500;
+
+    private final List<T> items;
+    private final String next;
+
+    private KeysetPage(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code limit + 1}.
+     * The extra row only signals that another page exists and is not returned.
+     *
+     * @param rows     the fetched rows
+     * @param limit    the requested page size
+     * @param cursorOf creates the cursor pointing at a row
+     * @return the page
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<? super T, ? extends PageCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+
+    /**
+     * Validates the paging parameters of a request, loads the page and converts it to an HTTP response.
+     * An out-of-range limit or a malformed cursor results in {@code 400 Bad Request} with an empty list.
+     *
+     * @param limit  the requested page size
+     * @param cursor the encoded cursor of the previous page, may be {@code null}
+     * @param loader loads the page following the decoded cursor
+     * @return the HTTP response for the page
+     */
+    public static <T> ResponseEntity<List<T>> respond(int limit, String cursor,
+                                                    Function<KeysetCursor, KeysetPage<T>> loader) {
+        return respond(limit, cursor, KeysetCursor::decode, loader);
+    }
+
+    /**
+     * Like {@link #respond(int, String, Function)} for listings that are not ordered by transaction date.
+     *
+     * @param decoder decodes the cursor, returning {@code null} for a missing one and throwing
+     *                {@link IllegalArgumentException} for a malformed one
+     */
+    public static <C, T> ResponseEntity<List<T>> respond(int limit, String cursor, Function<String, C> decoder,
+                                                       Function<C, KeysetPage<T>> loader) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(Collections.emptyList());
+        }
+        C after;
+        try {
+            after = decoder.apply(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.emptyList());
+        }
+        return loader.apply(after).toResponseEntity();
+    }
+
+    /**
+     * Creates the HTTP response for this page.
+     *
+     * @return a response with the items as body and the next cursor header when more rows exist
+     */
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (next != null) {
+            builder.header(NEXT_CURSOR_HEADER, next);
+        }
+        return builder.body(items);
+    }
+}
@@ -0,0 +1,16 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class MonthlySummaryDTO {
+    private String month;
+    private double income;
+    private double expense;
+
+    public MonthlySummaryDTO(String month) {
+        this.month = month;
+    }
+}
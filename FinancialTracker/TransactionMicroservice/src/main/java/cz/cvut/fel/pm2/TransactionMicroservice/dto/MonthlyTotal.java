@@ -0,0 +1,19 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+/**
+ * Sum of transaction amounts in one calendar month, as produced by the repository aggregation queries.
+ */
+@Getter
+public class MonthlyTotal {
+    private final int year;
+    private final int month;
+    private final double total;
+
+    public MonthlyTotal(Integer year, Integer month, Double total) {
+        this.year = year;
+        this.month = month;
+        this.total = total == null ? 0 : total;
+    }
+}
@@ -0,0 +1,23 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a rollup reconciliation run.
+ */
+@Getter
+public class RollupDriftReport {
+    private final int usersChecked;
+    private final int usersWithDrift;
+    private final int rowsWithDrift;
+    private final List<Integer> failedUsers;
+
+    public RollupDriftReport(int usersChecked, int usersWithDrift, int rowsWithDrift, List<Integer> failedUsers) {
+        this.usersChecked = usersChecked;
+        this.usersWithDrift = usersWithDrift;
+        this.rowsWithDrift = rowsWithDrift;
+        this.failedUsers = List.copyOf(failedUsers);
+    }
+}
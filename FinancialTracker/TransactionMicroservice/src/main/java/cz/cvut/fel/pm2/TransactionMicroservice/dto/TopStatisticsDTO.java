@@ -0,0 +1,19 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The categories with the largest totals and the largest single transactions of a user over a date range.
+ */
+@Getter
+public class TopStatisticsDTO {
+    private final List<CategoryTotal> categories;
+    private final List<TransactionRow> transactions;
+
+    public TopStatisticsDTO(List<CategoryTotal> categories, List<TransactionRow> transactions) {
+        this.categories = categories;
+        this.transactions = transactions;
+    }
+}
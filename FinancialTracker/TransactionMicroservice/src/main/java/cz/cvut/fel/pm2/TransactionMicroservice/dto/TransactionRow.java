@@ -0,0 +1,36 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a ledger entry, selected directly by the read queries without loading entities.
+ * Serialized with the same fields as {@code LedgerEntry}.
+ */
+@Getter
+public class TransactionRow {
+    private final int id;
+    private final int userId;
+    private final TransactionType type;
+    private final float amount;
+    private final float originalAmount;
+    private final String currency;
+    private final LocalDate transactionDate;
+    private final String name;
+    private final long categoryId;
+
+    public TransactionRow(Integer id, Integer userId, TransactionType type, Float amount, Float originalAmount,
+                          String currency, LocalDate transactionDate, String name, Long categoryId) {
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.amount = amount;
+        this.originalAmount = originalAmount;
+        this.currency = currency;
+        this.transactionDate = transactionDate;
+        this.name = name;
+        this.categoryId = categoryId;
+    }
+}
@@ -0,0 +1,54 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Filters of a transaction search. Every filter left {@code null} or empty is not applied;
+ * all given filters must match.
+ */
+@Getter
+@Setter
+public class TransactionSearchCriteria {
+    private int userId;
+    private Set<Long> categoryIds;
+    private Float minAmount;
+    private Float maxAmount;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private String name;
+    private boolean ascending;
+
+    /**
+     * Builds the criteria of a search request.
+     *
+     * @param sort {@code asc} or {@code desc}
+     * @return the criteria
+     * @throws IllegalArgumentException if the sort order is unknown or a range ends before it starts
+     */
+    public static TransactionSearchCriteria of(int userId, Set<Long> categoryIds, Float minAmount, Float maxAmount,
+                                               LocalDate fromDate, LocalDate toDate, String name, String sort) {
+        if (!"asc".equalsIgnoreCase(sort) && !"desc".equalsIgnoreCase(sort)) {
+            throw new IllegalArgumentException("Unknown sort order " + sort);
+        }
+        if (minAmount != null && maxAmount != null && minAmount > maxAmount) {
+            throw new IllegalArgumentException("minAmount must not be greater than maxAmount");
+        }
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        TransactionSearchCriteria criteria = new TransactionSearchCriteria();
+        criteria.setUserId(userId);
+        criteria.setCategoryIds(categoryIds);
+        criteria.setMinAmount(minAmount);
+        criteria.setMaxAmount(maxAmount);
+        criteria.setFromDate(fromDate);
+        criteria.setToDate(toDate);
+        criteria.setName(name == null || name.isBlank() ? null : name.trim());
+        criteria.setAscending("asc".equalsIgnoreCase(sort));
+        return criteria;
+    }
+}
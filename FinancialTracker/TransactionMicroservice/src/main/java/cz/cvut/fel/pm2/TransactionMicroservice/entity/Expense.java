@@ -1,6 +1,7 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -13,7 +14,7 @@ import lombok.Setter;
 @Table(name="expense")
 public class Expense extends Transaction {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "expense_category_id", nullable = false)
     private ExpenseCategory expenseCategory;
 }
@@ -0,0 +1,46 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Flat copy of one expense or income in a single table, used for reads that mix both kinds.
+ * Rows share the id of their transaction and are written by {@code LedgerService} whenever a transaction changes.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "ledger_entry")
+public class LedgerEntry {
+    @Id
+    @Column(name = "id", nullable = false)
+    private int id;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 16)
+    private TransactionType type;
+
+    @Column(name = "amount", nullable = false)
+    private float amount;
+
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "category_id", nullable = false)
+    private long categoryId;
+
+    @Column(name = "original_amount", nullable = false)
+    private float originalAmount;
+
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+}
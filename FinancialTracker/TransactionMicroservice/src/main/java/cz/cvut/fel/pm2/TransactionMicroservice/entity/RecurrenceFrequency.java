@@ -0,0 +1,30 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.entity;
+
+import java.time.LocalDate;
+
+/**
+ * How often a {@link RecurringTemplate} repeats.
+ */
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    /**
+     * Computes an occurrence from the start date rather than from the previous occurrence, so a template starting on
+     * the 31st falls on the last day of shorter months and returns to the 31st afterwards.
+     *
+     * @param startDate the date of the first occurrence
+     * @param index     the zero-based number of the occurrence
+     * @return the date of the occurrence
+     */
+    public LocalDate occurrence(LocalDate startDate, int index) {
+        return switch (this) {
+            case DAILY -> startDate.plusDays(index);
+            case WEEKLY -> startDate.plusWeeks(index);
+            case MONTHLY -> startDate.plusMonths(index);
+            case YEARLY -> startDate.plusYears(index);
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * An expense or income that repeats, such as rent, salary or a subscription.
+ * Its occurrences are inserted as ordinary expenses or incomes by the recurring transaction generator.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "recurring_template")
+public class RecurringTemplate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 16)
+    private TransactionType type;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "amount", nullable = false)
+    private float amount;
+
+    /**
+     * ISO 4217 code of the currency of {@link #amount}; each occurrence is converted to the user's base currency on
+     * the day it falls on.
+     */
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "category_id", nullable = false)
+    private long categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", nullable = false, length = 16)
+    private RecurrenceFrequency frequency;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    /**
+     * Last day an occurrence may fall on, or {@code null} if the template repeats indefinitely.
+     */
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    /**
+     * Date of the next occurrence to generate, or {@code null} once the template has ended.
+     */
+    @Column(name = "next_date")
+    private LocalDate nextDate;
+
+    /**
+     * Number of occurrences generated so far.
+     */
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences;
+}
@@ -22,16 +22,34 @@ public abstract class Transaction {
     @Column(name = "id", nullable = false)
     private int id;
 
+    /**
+     * Amount in the user's base currency, converted from {@link #originalAmount} when the transaction was written.
+     */
     @Basic
     @Column(name = "amount", nullable = false)
     private float amount;
 
+    /**
+     * Amount as entered, in {@link #currency}. Requests that leave it out entered {@link #amount} in that currency.
+     */
+    @Column(name = "original_amount", nullable = false)
+    private Float originalAmount;
+
+    /**
+     * ISO 4217 code of the currency the transaction was entered in.
+     */
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
     @Basic
     @Column(name = "name", nullable = false)
     private String name;
     @Column(name = "transaction_date", nullable = false)
     private LocalDate transactionDate;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 
 
 }
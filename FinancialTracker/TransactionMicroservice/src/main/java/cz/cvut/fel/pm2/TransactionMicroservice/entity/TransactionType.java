@@ -0,0 +1,9 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.entity;
+
+/**
+ * Kind of a transaction, used wherever expenses and incomes are stored or aggregated together.
+ */
+public enum TransactionType {
+    EXPENSE,
+    INCOME
+}
@@ -0,0 +1,49 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated totals of one user's transactions in one category and calendar month.
+ * Maintained incrementally on every write and periodically reconciled against the raw rows.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "user_month_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_month_rollup",
+                columnNames = {"user_id", "month", "category_type", "category_id"}))
+public class UserMonthRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    /**
+     * First day of the month the totals belong to.
+     */
+    @Column(name = "month", nullable = false)
+    private LocalDate month;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category_type", nullable = false, length = 16)
+    private TransactionType categoryType;
+
+    @Column(name = "category_id", nullable = false)
+    private long categoryId;
+
+    @Column(name = "income_sum", nullable = false)
+    private double incomeSum;
+
+    @Column(name = "expense_sum", nullable = false)
+    private double expenseSum;
+
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+}
@@ -0,0 +1,29 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.event;
+
+import lombok.Getter;
+
+/**
+ * A single write to a transaction: {@code before} is {@code null} for a creation and {@code after} is {@code null} for a deletion.
+ */
+@Getter
+public final class TransactionChange {
+    private final TransactionSnapshot before;
+    private final TransactionSnapshot after;
+
+    private TransactionChange(TransactionSnapshot before, TransactionSnapshot after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public static TransactionChange created(TransactionSnapshot after) {
+        return new TransactionChange(null, after);
+    }
+
+    public static TransactionChange updated(TransactionSnapshot before, TransactionSnapshot after) {
+        return new TransactionChange(before, after);
+    }
+
+    public static TransactionChange deleted(TransactionSnapshot before) {
+        return new TransactionChange(before, null);
+    }
+}
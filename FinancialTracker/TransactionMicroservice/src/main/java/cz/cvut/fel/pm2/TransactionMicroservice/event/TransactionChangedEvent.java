@@ -0,0 +1,75 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Published by the transaction services after expenses or incomes were written.
+ * Two kinds of listener consume it. Plain event listeners, such as the rollup and ledger_entry maintainers, run
+ * synchronously inside the writing database transaction, so derived tables commit or roll back together with the rows.
+ * Transactional event listeners, such as the in-memory ledger cache and the name index, run after the transaction
+ * commits and never see changes that were rolled back.
+ */
+@Getter
+public class TransactionChangedEvent {
+    /**
+     * Order of the after-commit listeners that apply the changes to in-memory read models. They run before the
+     * user data version of the changed users is released to conditional requests, which happens last.
+     */
+    public static final int READ_MODEL_ORDER = 0;
+
+    private final List<TransactionChange> changes;
+    @Getter(AccessLevel.NONE)
+    private final Map<Integer, Long> userVersions = new ConcurrentHashMap<>();
+
+    public TransactionChangedEvent(List<TransactionChange> changes) {
+        this.changes = List.copyOf(changes);
+    }
+
+    public static TransactionChangedEvent of(TransactionChange change) {
+        return new TransactionChangedEvent(List.of(change));
+    }
+
+    /**
+     * @return the IDs of the users whose transactions changed, in ascending order
+     */
+    public SortedSet<Integer> getUserIds() {
+        SortedSet<Integer> userIds = new TreeSet<>();
+        for (TransactionChange change : changes) {
+            if (change.getBefore() != null) {
+                userIds.add(change.getBefore().getUserId());
+            }
+            if (change.getAfter() != null) {
+                userIds.add(change.getAfter().getUserId());
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * Records the data version a user reached with these changes. Called in the writing transaction, before any
+     * after-commit listener runs.
+     *
+     * @param userId  the ID of the user
+     * @param version the user data version including these changes
+     */
+    public void recordUserVersion(int userId, long version) {
+        userVersions.put(userId, version);
+    }
+
+    /**
+     * @param userId the ID of the user
+     * @return the data version the user reached with these changes, or empty if none was recorded
+     */
+    public OptionalLong getUserVersion(int userId) {
+        Long version = userVersions.get(userId);
+        return version == null ? OptionalLong.empty() : OptionalLong.of(version);
+    }
+}
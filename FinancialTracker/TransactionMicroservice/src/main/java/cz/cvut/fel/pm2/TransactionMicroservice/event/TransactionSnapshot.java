@@ -0,0 +1,76 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.event;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Income;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Transaction;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the state of a transaction at one point in time.
+ * Snapshots are taken before an entity is modified so listeners can compute deltas.
+ */
+@Getter
+public final class TransactionSnapshot {
+    private final int id;
+    private final int userId;
+    private final TransactionType type;
+    private final long categoryId;
+    /**
+     * Amount in the user's base currency; this is the amount every total derived from transactions adds up.
+     */
+    private final float amount;
+    private final LocalDate transactionDate;
+    private final String name;
+    /**
+     * Amount as entered, in {@link #currency}.
+     */
+    private final float originalAmount;
+    /**
+     * Currency the transaction was entered in, or {@code null} if the snapshot was taken from a read model that
+     * only holds the base amount.
+     */
+    private final String currency;
+
+    public TransactionSnapshot(int id, int userId, TransactionType type, long categoryId,
+                               float amount, LocalDate transactionDate, String name) {
+        this(id, userId, type, categoryId, amount, transactionDate, name, amount, null);
+    }
+
+    public TransactionSnapshot(int id, int userId, TransactionType type, long categoryId,
+                               float amount, LocalDate transactionDate, String name,
+                               float originalAmount, String currency) {
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.categoryId = categoryId;
+        this.amount = amount;
+        this.transactionDate = transactionDate;
+        this.name = name;
+        this.originalAmount = originalAmount;
+        this.currency = currency;
+    }
+
+    /**
+     * Takes a snapshot of an expense or income.
+     *
+     * @param transaction the transaction to copy
+     * @return the snapshot
+     * @throws IllegalArgumentException if the transaction is neither an expense nor an income
+     */
+    public static TransactionSnapshot of(Transaction transaction) {
+        if (transaction instanceof Expense expense) {
+            return new TransactionSnapshot(expense.getId(), expense.getUserId(), TransactionType.EXPENSE,
+                    expense.getExpenseCategory().getId(), expense.getAmount(), expense.getTransactionDate(), expense.getName(),
+                    expense.getOriginalAmount(), expense.getCurrency());
+        }
+        if (transaction instanceof Income income) {
+            return new TransactionSnapshot(income.getId(), income.getUserId(), TransactionType.INCOME,
+                    income.getIncomeCategory().getId(), income.getAmount(), income.getTransactionDate(), income.getName(),
+                    income.getOriginalAmount(), income.getCurrency());
+        }
+        throw new IllegalArgumentException("Unsupported transaction type: " + transaction.getClass().getName());
+    }
+}
@@ -0,0 +1,73 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.export;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExportRow;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming Excel report writer.
+ * Only the last {@value #ROW_ACCESS_WINDOW} rows are kept in memory, older rows are flushed to a compressed temporary file,
+ * so heap use does not depend on the number of rows.
+ */
+public class ExcelReportWriter implements ReportWriter {
+    static final int ROW_ACCESS_WINDOW = 100;
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final SXSSFSheet sheet;
+    private int rowCount;
+
+    public ExcelReportWriter(OutputStream out, String sheetName) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet(sheetName);
+        writeHeaderLine();
+    }
+
+    private void writeHeaderLine() {
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        headerStyle.setFont(font);
+
+        Row headerRow = sheet.createRow(rowCount++);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+        }
+    }
+
+    @Override
+    public void writeRow(ExportRow exportRow) {
+        Row row = sheet.createRow(rowCount++);
+        int columnCount = 0;
+        row.createCell(columnCount++).setCellValue(exportRow.getId());
+        row.createCell(columnCount++).setCellValue(exportRow.getName());
+        row.createCell(columnCount++).setCellValue(exportRow.getAmount());
+        row.createCell(columnCount++).setCellValue(exportRow.getOriginalAmount());
+        row.createCell(columnCount++).setCellValue(exportRow.getCurrency());
+        row.createCell(columnCount++).setCellValue(exportRow.getTransactionDate().toString());
+        row.createCell(columnCount).setCellValue(exportRow.getCategoryName());
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+}
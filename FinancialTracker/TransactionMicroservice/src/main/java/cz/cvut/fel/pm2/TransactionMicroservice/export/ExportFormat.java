@@ -0,0 +1,20 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.export;
+
+import lombok.Getter;
+
+/**
+ * File format of an export.
+ */
+@Getter
+public enum ExportFormat {
+    EXCEL("xlsx", "application/octet-stream"),
+    PDF("pdf", "application/pdf");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+}
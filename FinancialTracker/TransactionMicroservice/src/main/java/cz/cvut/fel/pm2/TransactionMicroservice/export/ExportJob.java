@@ -0,0 +1,58 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.export;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Asynchronous export of one user's expenses or incomes into a file on local disk.
+ * The job is created by a request thread and then updated by a single export worker.
+ */
+@Getter
+public class ExportJob {
+    private final String id;
+    private final int userId;
+    private final TransactionType type;
+    private final ExportFormat format;
+    private final Instant createdAt;
+    private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+    private volatile Path file;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ExportJob(String id, int userId, TransactionType type, ExportFormat format, Instant createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.format = format;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Name under which the finished file is offered for download.
+     *
+     * @return the download file name
+     */
+    public String getFileName() {
+        String prefix = type == TransactionType.EXPENSE ? "expenses" : "incomes";
+        return prefix + "." + format.getExtension();
+    }
+
+    public void markRunning() {
+        status = ExportJobStatus.RUNNING;
+    }
+
+    public void markCompleted(Path file, Instant finishedAt) {
+        this.file = file;
+        this.finishedAt = finishedAt;
+        status = ExportJobStatus.COMPLETED;
+    }
+
+    public void markFailed(String error, Instant finishedAt) {
+        this.error = error;
+        this.finishedAt = finishedAt;
+        status = ExportJobStatus.FAILED;
+    }
+}
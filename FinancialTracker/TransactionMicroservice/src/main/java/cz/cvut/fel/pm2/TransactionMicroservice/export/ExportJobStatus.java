@@ -0,0 +1,11 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.export;
+
+/**
+ * Lifecycle state of an asynchronous export job.
+ */
+public enum ExportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,122 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.export;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.SplitCharacter;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExportRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming PDF report writer.
+ * The table is marked incomplete and handed to the document every {@value #CHUNK_ROWS} rows, so iText lays out
+ * and writes finished pages right away and drops the rows it has rendered.
+ */
+public class PdfReportWriter implements ReportWriter {
+    static final int CHUNK_ROWS = 500;
+
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
+    private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA, Font.DEFAULTSIZE, BaseColor.WHITE);
+    private static final Font BODY_FONT = FontFactory.getFont(FontFactory.HELVETICA);
+    // iText's default split rule runs a date regex over the cell text for every character it checks,
+    // which dominates layout time for large tables; body cells only wrap at whitespace
+    private static final SplitCharacter BODY_SPLIT_CHARACTER = (start, current, end, cc, ck) -> cc[current] <= ' ';
+
+    private final Document document;
+    private final PdfWriter pdfWriter;
+    private final PdfPTable table;
+    private final PdfPCell bodyCell;
+    private int rowsInChunk;
+
+    public PdfReportWriter(OutputStream out, String title) throws IOException {
+        this.document = new Document(PageSize.A4);
+        try {
+            this.pdfWriter = PdfWriter.getInstance(document, out);
+            // The caller owns the output stream
+            this.pdfWriter.setCloseStream(false);
+            document.open();
+
+            Paragraph titleParagraph = new Paragraph(title, TITLE_FONT);
+            titleParagraph.setAlignment(Paragraph.ALIGN_CENTER);
+            document.add(titleParagraph);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to start PDF report", e);
+        }
+
+        this.table = new PdfPTable(HEADERS.length);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(10);
+        table.setComplete(false);
+        table.setHeaderRows(1);
+        writeHeaderLine();
+
+        this.bodyCell = new PdfPCell(table.getDefaultCell());
+    }
+
+    private void writeHeaderLine() {
+        PdfPCell headerCell = new PdfPCell();
+        headerCell.setBackgroundColor(BaseColor.LIGHT_GRAY);
+        headerCell.setPadding(5);
+        for (String header : HEADERS) {
+            headerCell.setPhrase(new Phrase(header, HEADER_FONT));
+            table.addCell(headerCell);
+        }
+    }
+
+    @Override
+    public void writeRow(ExportRow row) throws IOException {
+        addBodyCell(String.valueOf(row.getId()));
+        addBodyCell(row.getName());
+        addBodyCell(String.valueOf(row.getAmount()));
+        addBodyCell(String.valueOf(row.getOriginalAmount()));
+        addBodyCell(row.getCurrency());
+        addBodyCell(row.getTransactionDate().toString());
+        addBodyCell(row.getCategoryName());
+
+        if (++rowsInChunk == CHUNK_ROWS) {
+            flushChunk();
+        }
+    }
+
+    private void addBodyCell(String text) {
+        Chunk chunk = new Chunk(text, BODY_FONT);
+        chunk.setSplitCharacter(BODY_SPLIT_CHARACTER);
+        bodyCell.setPhrase(new Phrase(chunk));
+        table.addCell(bodyCell);
+    }
+
+    private void flushChunk() throws IOException {
+        try {
+            document.add(table);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to write PDF report", e);
+        }
+        pdfWriter.flush();
+        rowsInChunk = 0;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        table.setComplete(true);
+        flushChunk();
+        document.close();
+    }
+
+    @Override
+    public void close() {
+        if (document.isOpen()) {
+            document.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.export;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExportRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes an export report row by row without keeping the rows in memory.
+ */
+public interface ReportWriter extends Closeable {
+
+    /**
+     * Column titles shared by all report formats.
+     */
+    String[] HEADERS = {"ID", "Name", "Amount", "Original Amount", "Currency", "Transaction Date", "Category"};
+
+    /**
+     * Appends one row to the report.
+     *
+     * @param row the row to write
+     * @throws IOException if the report cannot be written
+     */
+    void writeRow(ExportRow row) throws IOException;
+
+    /**
+     * Completes the report and writes any remaining content to the output.
+     *
+     * @throws IOException if the report cannot be written
+     */
+    void finish() throws IOException;
+}
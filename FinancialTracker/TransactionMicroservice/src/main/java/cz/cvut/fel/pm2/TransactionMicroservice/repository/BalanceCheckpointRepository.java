@@ -0,0 +1,127 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads and maintains the {@code user_balance_checkpoint} table with plain SQL.
+ * Amounts are converted to cents the way {@link Math#round(double)} does, so sums computed here and deltas computed
+ * in Java agree to the cent.
+ */
+@Repository
+public class BalanceCheckpointRepository {
+    private static final String SIGNED_CENTS =
+            "CASE WHEN type = 'INCOME' THEN 1 ELSE -1 END * floor(amount::float8 * 100 + 0.5)::bigint";
+    private static final String LATEST_SQL =
+            "SELECT month, balance_cents FROM user_balance_checkpoint WHERE user_id = ? ORDER BY month DESC LIMIT 1";
+    private static final String NET_BY_MONTH_SQL =
+            "SELECT date_trunc('month', transaction_date)::date, SUM(" + SIGNED_CENTS + ") FROM ledger_entry " +
+            "WHERE user_id = ? AND transaction_date >= ? AND transaction_date < ? GROUP BY 1 ORDER BY 1";
+    private static final String INSERT_SQL =
+            "INSERT INTO user_balance_checkpoint (user_id, month, balance_cents) VALUES (?, ?, ?) " +
+            "ON CONFLICT (user_id, month) DO NOTHING";
+    private static final String SHIFT_SQL =
+            "UPDATE user_balance_checkpoint SET balance_cents = balance_cents + ? WHERE user_id = ? AND month > ?";
+    private static final String DAILY_NET_SQL =
+            "WITH checkpoint AS (" +
+            "SELECT month, balance_cents FROM user_balance_checkpoint " +
+            "WHERE user_id = ? AND month <= ? ORDER BY month DESC LIMIT 1) " +
+            "SELECT month - 1, balance_cents FROM checkpoint " +
+            "UNION ALL " +
+            "SELECT transaction_date, SUM(" + SIGNED_CENTS + ") FROM ledger_entry " +
+            "WHERE user_id = ? AND transaction_date >= COALESCE((SELECT month FROM checkpoint), DATE '-infinity') " +
+            "AND transaction_date <= ? GROUP BY transaction_date " +
+            "ORDER BY 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Serializes checkpoint maintenance of one user until the end of the current database transaction.
+     */
+    public void lockUser(int namespace, int userId) {
+        jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(?, ?)", Integer.class, namespace, userId);
+    }
+
+    /**
+     * @return the checkpoint of the user's latest month, or empty if the user has none
+     */
+    public Optional<DailyNet> findLatest(int userId) {
+        return jdbcTemplate.query(LATEST_SQL, (rs, rowNum) -> new DailyNet(rs.getObject(1, LocalDate.class), rs.getLong(2)), userId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Sums the incomes minus expenses of a user per month.
+     *
+     * @param fromDate the first day to include, or {@code null} for the user's whole history
+     * @param toDate   the first day not to include
+     * @return one net per month with transactions, dated the first day of the month, in month order
+     */
+    public List<DailyNet> sumNetByMonth(int userId, LocalDate fromDate, LocalDate toDate) {
+        LocalDate from = fromDate != null ? fromDate : LocalDate.of(1, 1, 1);
+        return jdbcTemplate.query(NET_BY_MONTH_SQL,
+                (rs, rowNum) -> new DailyNet(rs.getObject(1, LocalDate.class), rs.getLong(2)),
+                userId, Date.valueOf(from), Date.valueOf(toDate));
+    }
+
+    /**
+     * Inserts checkpoints of one user, keeping existing ones.
+     *
+     * @param checkpoints the balance in cents at the start of each month, keyed by the first day of the month
+     */
+    public void insert(int userId, Map<LocalDate, Long> checkpoints) {
+        List<Object[]> args = new ArrayList<>(checkpoints.size());
+        checkpoints.forEach((month, cents) -> args.add(new Object[]{userId, Date.valueOf(month), cents}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * Adds a change of the balance at the end of a day to every checkpoint after that day.
+     *
+     * @param shifts the change in cents per user and day
+     */
+    public void shiftAfter(List<Shift> shifts) {
+        jdbcTemplate.batchUpdate(SHIFT_SQL, shifts, shifts.size(), (ps, shift) -> {
+            ps.setLong(1, shift.cents());
+            ps.setInt(2, shift.userId());
+            ps.setDate(3, Date.valueOf(shift.date()));
+        });
+    }
+
+    /**
+     * Reads the latest checkpoint on or before a day and the net of every later day up to another one, in one statement.
+     * The checkpoint comes first and is dated the day before its month, as it holds the net of all days up to then.
+     *
+     * @param fromDate the day the checkpoint has to precede or start
+     * @param toDate   the last day to read
+     * @return the checkpoint, if any, followed by the net of each day with transactions, in date order
+     */
+    public List<DailyNet> findCheckpointAndDailyNets(int userId, LocalDate fromDate, LocalDate toDate) {
+        return jdbcTemplate.query(DAILY_NET_SQL,
+                (rs, rowNum) -> new DailyNet(rs.getObject(1, LocalDate.class), rs.getLong(2)),
+                userId, Date.valueOf(fromDate), userId, Date.valueOf(toDate));
+    }
+
+    /**
+     * Net amount in cents of a user's transactions, attributed to one day.
+     */
+    public record DailyNet(LocalDate date, long cents) {
+    }
+
+    /**
+     * Change in cents of one user's balance at the end of one day.
+     */
+    public record Shift(int userId, LocalDate date, long cents) {
+    }
+}
@@ -0,0 +1,71 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BudgetStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and maintains the {@code user_budget} table with plain SQL.
+ * The spend of a budget is the expense sum of the matching {@code user_month_rollup} row, so a status is evaluated
+ * with one primary key lookup per table, however many expenses the month holds.
+ */
+@Repository
+public class BudgetRepository {
+    private static final String UPSERT_SQL =
+            "INSERT INTO user_budget (user_id, category_id, monthly_limit) VALUES (?, ?, ?) " +
+            "ON CONFLICT (user_id, category_id) DO UPDATE SET monthly_limit = EXCLUDED.monthly_limit";
+    private static final String DELETE_SQL = "DELETE FROM user_budget WHERE user_id = ? AND category_id = ?";
+    private static final String STATUS_SQL =
+            "SELECT b.category_id, b.monthly_limit, COALESCE(r.expense_sum, 0) FROM user_budget b " +
+            "LEFT JOIN user_month_rollup r ON r.user_id = b.user_id AND r.month = ? " +
+            "AND r.category_type = 'EXPENSE' AND r.category_id = b.category_id " +
+            "WHERE b.user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BudgetRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the monthly limit of a user's budget for a category, creating the budget if it does not exist yet.
+     */
+    public void upsert(int userId, long categoryId, double monthlyLimit) {
+        jdbcTemplate.update(UPSERT_SQL, userId, categoryId, monthlyLimit);
+    }
+
+    /**
+     * @return {@code false} if the user has no budget for the category
+     */
+    public boolean delete(int userId, long categoryId) {
+        return jdbcTemplate.update(DELETE_SQL, userId, categoryId) > 0;
+    }
+
+    /**
+     * @param month the first day of the month
+     * @return the status of every budget of the user in the month, in category order
+     */
+    public List<BudgetStatus> findStatuses(int userId, LocalDate month) {
+        return jdbcTemplate.query(STATUS_SQL + " ORDER BY b.category_id", statusMapper(month), Date.valueOf(month), userId);
+    }
+
+    /**
+     * @param month the first day of the month
+     * @return the status of the user's budget for the category in the month, or empty if the user has no such budget
+     */
+    public Optional<BudgetStatus> findStatus(int userId, long categoryId, LocalDate month) {
+        return jdbcTemplate.query(STATUS_SQL + " AND b.category_id = ?", statusMapper(month),
+                        Date.valueOf(month), userId, categoryId)
+                .stream().findFirst();
+    }
+
+    private static RowMapper<BudgetStatus> statusMapper(LocalDate month) {
+        return (rs, rowNum) -> new BudgetStatus(rs.getLong(1), month, rs.getDouble(2), rs.getDouble(3));
+    }
+}
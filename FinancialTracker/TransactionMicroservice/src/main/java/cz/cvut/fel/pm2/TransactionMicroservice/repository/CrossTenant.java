@@ -0,0 +1,19 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a repository method that reads the rows of all users. Such methods are reserved for background jobs
+ * and rebuilds; {@code TenantScopeGuard} rejects them on request threads.
+ * The guard covers Spring Data repositories of per-user entities and {@code @Repository} classes; the annotation has
+ * no effect anywhere else.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CrossTenant {
+}
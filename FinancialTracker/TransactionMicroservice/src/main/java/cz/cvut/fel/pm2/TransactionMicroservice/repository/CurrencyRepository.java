@@ -0,0 +1,94 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExchangeRateDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads and maintains the {@code exchange_rate} and {@code user_currency} tables with plain SQL.
+ */
+@Repository
+public class CurrencyRepository {
+    private static final String ALL_RATES_SQL =
+            "SELECT from_currency, to_currency, rate_date, rate FROM exchange_rate " +
+            "ORDER BY from_currency, to_currency, rate_date";
+    private static final String UPSERT_RATE_SQL =
+            "INSERT INTO exchange_rate (from_currency, to_currency, rate_date, rate) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (from_currency, to_currency, rate_date) DO UPDATE SET rate = EXCLUDED.rate";
+    private static final String BASE_CURRENCY_SQL = "SELECT base_currency FROM user_currency WHERE user_id = ?";
+    private static final String BASE_CURRENCIES_SQL =
+            "SELECT user_id, base_currency FROM user_currency WHERE user_id = ANY(?)";
+    private static final String UPSERT_BASE_CURRENCY_SQL =
+            "INSERT INTO user_currency (user_id, base_currency) VALUES (?, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET base_currency = EXCLUDED.base_currency";
+    private static final String HAS_TRANSACTIONS_SQL =
+            "SELECT EXISTS (SELECT 1 FROM transaction WHERE user_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CurrencyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reads every stored exchange rate, ordered by currency pair and date.
+     *
+     * @param handler receives one row at a time: from currency, to currency, date and rate
+     */
+    public void forEachRate(RowCallbackHandler handler) {
+        jdbcTemplate.query(ALL_RATES_SQL, handler);
+    }
+
+    /**
+     * Stores exchange rates, replacing the rate of a pair and day that is already stored.
+     */
+    public void upsertRates(List<ExchangeRateDTO> rates) {
+        jdbcTemplate.batchUpdate(UPSERT_RATE_SQL, rates, rates.size(), (ps, rate) -> {
+            ps.setString(1, rate.getFromCurrency());
+            ps.setString(2, rate.getToCurrency());
+            ps.setDate(3, Date.valueOf(rate.getDate()));
+            ps.setBigDecimal(4, rate.getRate());
+        });
+    }
+
+    /**
+     * @return the base currency the user chose, or empty if the user never chose one
+     */
+    public Optional<String> findBaseCurrency(int userId) {
+        return jdbcTemplate.queryForList(BASE_CURRENCY_SQL, String.class, userId).stream().findFirst();
+    }
+
+    /**
+     * @return the base currencies chosen by the given users, keyed by user id; users without a choice are missing
+     */
+    @CrossTenant
+    public Map<Integer, String> findBaseCurrencies(Collection<Integer> userIds) {
+        Map<Integer, String> currencies = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(BASE_CURRENCIES_SQL);
+            ps.setArray(1, connection.createArrayOf("integer", userIds.toArray(new Integer[0])));
+            return ps;
+        }, (RowCallbackHandler) rs -> currencies.put(rs.getInt(1), rs.getString(2)));
+        return currencies;
+    }
+
+    public void saveBaseCurrency(int userId, String currency) {
+        jdbcTemplate.update(UPSERT_BASE_CURRENCY_SQL, userId, currency);
+    }
+
+    /**
+     * Tells whether the user has any expense or income.
+     */
+    public boolean hasTransactions(int userId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_TRANSACTIONS_SQL, Boolean.class, userId));
+    }
+}
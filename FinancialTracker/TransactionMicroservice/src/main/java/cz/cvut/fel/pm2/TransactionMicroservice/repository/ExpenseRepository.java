@@ -1,40 +1,102 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.repository;
 
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryMonthTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExportRow;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Read queries select {@link ExpenseRow} projections with the category joined in the same statement, so listings
+ * neither register entities in the persistence context nor load categories one by one.
+ * Entity queries serve the writes and fetch the category in the same statement too.
+ */
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Integer> {
+    String EXPORT_FETCH_SIZE = "500";
+    String ROW_SELECT = "SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseRow(e.id, e.userId, e.name, e.amount, e.originalAmount, e.currency, e.transactionDate, c.id, c.categoryName, e.version) " +
+            "FROM Expense e JOIN e.expenseCategory c ";
+
+    @Override
+    @CrossTenant
+    @EntityGraph(attributePaths = "expenseCategory")
+    List<Expense> findAll();
+
+    @CrossTenant
+    @EntityGraph(attributePaths = "expenseCategory")
     List<Expense> findByExpenseCategory(ExpenseCategory expenseCategory);
 
-    @Query("SELECT e FROM Expense e WHERE e.id = :expenseId AND e.userId = :userId")
+    @Query("SELECT e FROM Expense e JOIN FETCH e.expenseCategory WHERE e.id = :expenseId AND e.userId = :userId")
     Optional<Expense> findByIdAndUserId(@Param("expenseId") int expenseId, @Param("userId") int userId);
 
-    @Query("SELECT e FROM Expense e WHERE e.userId = :userId ORDER BY e.transactionDate DESC")
-    List<Expense> findAllByOrderByTransactionDateDesc(@Param("userId") int userId);
+    @Query("SELECT e.currency FROM Expense e WHERE e.id = :expenseId AND e.userId = :userId")
+    Optional<String> findCurrencyByIdAndUserId(@Param("expenseId") int expenseId, @Param("userId") int userId);
 
-    @Query("SELECT i FROM Expense i WHERE i.expenseCategory = :expenseCategory AND i.userId = :userId")
-    List<Expense> findByExpenseCategoryAndUserId(@Param("expenseCategory") ExpenseCategory expenseCategory, @Param("userId") int userId);
+    @Query(ROW_SELECT + "WHERE e.id = :expenseId AND e.userId = :userId")
+    Optional<ExpenseRow> findRowByIdAndUserId(@Param("expenseId") int expenseId, @Param("userId") int userId);
 
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND e.amount BETWEEN :fromAmount AND :toAmount ORDER BY e.amount ASC, e.id ASC")
+    List<ExpenseRow> findAmountPageByUserId(@Param("userId") int userId, @Param("fromAmount") float fromAmount,
+                                            @Param("toAmount") float toAmount, Limit limit);
 
-    @Query("SELECT e FROM Expense e WHERE e.userId = :userId ORDER BY e.transactionDate ASC")
-    List<Expense> findAllByOrderByTransactionDateAsc(@Param("userId") int userId);
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND e.amount <= :toAmount " +
+            "AND (e.amount > :amount OR (e.amount = :amount AND e.id > :id)) ORDER BY e.amount ASC, e.id ASC")
+    List<ExpenseRow> findAmountPageByUserIdAfter(@Param("userId") int userId, @Param("toAmount") float toAmount,
+                                                 @Param("amount") float amount, @Param("id") int id, Limit limit);
 
-    @Query("SELECT e FROM Expense e WHERE e.amount BETWEEN :fromAmount AND :toAmount ORDER BY e.amount ASC")
-    List<Expense> findByAmountBetweenOrderByAmountAsc(float fromAmount, float toAmount);
+    @Query(ROW_SELECT + "WHERE e.userId = :userId ORDER BY e.transactionDate DESC, e.id DESC")
+    List<ExpenseRow> findPageByUserIdDesc(@Param("userId") int userId, Limit limit);
 
-    @Query("SELECT e FROM Expense e WHERE e.userId = :userId AND e.amount BETWEEN :fromAmount AND :toAmount ORDER BY e.amount ASC")
-    List<Expense> findByAmountBetweenOrderByAmountAsc(@Param("userId") int userId, @Param("fromAmount") float fromAmount, @Param("toAmount") float toAmount);
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND (e.transactionDate < :date OR (e.transactionDate = :date AND e.id < :id)) ORDER BY e.transactionDate DESC, e.id DESC")
+    List<ExpenseRow> findPageByUserIdDescAfter(@Param("userId") int userId, @Param("date") LocalDate date, @Param("id") int id, Limit limit);
 
+    @Query(ROW_SELECT + "WHERE e.userId = :userId ORDER BY e.transactionDate ASC, e.id ASC")
+    List<ExpenseRow> findPageByUserIdAsc(@Param("userId") int userId, Limit limit);
 
-    @Query("SELECT i FROM Expense i WHERE i.userId = :userId AND i.amount >= :fromAmount ORDER BY i.amount ASC")
-    List<Expense> findByAmountGreaterThanEqualOrderByAmountAsc(@Param("userId") int userId, @Param("fromAmount") float fromAmount);
-}
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND (e.transactionDate > :date OR (e.transactionDate = :date AND e.id > :id)) ORDER BY e.transactionDate ASC, e.id ASC")
+    List<ExpenseRow> findPageByUserIdAscAfter(@Param("userId") int userId, @Param("date") LocalDate date, @Param("id") int id, Limit limit);
+
+    @Query("SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryMonthTotal(YEAR(e.transactionDate), MONTH(e.transactionDate), e.expenseCategory.id, SUM(CAST(e.amount AS Double)), COUNT(e)) " +
+            "FROM Expense e WHERE e.userId = :userId " +
+            "GROUP BY YEAR(e.transactionDate), MONTH(e.transactionDate), e.expenseCategory.id")
+    List<CategoryMonthTotal> sumAmountByMonthAndCategory(@Param("userId") int userId);
 
+    /**
+     * Streams all expenses of a user newest first, fetched from a database cursor in batches of {@value #EXPORT_FETCH_SIZE}.
+     * The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(ROW_SELECT + "WHERE e.userId = :userId ORDER BY e.transactionDate DESC, e.id DESC")
+    Stream<ExpenseRow> streamByUserIdDesc(@Param("userId") int userId);
+
+    /**
+     * Streams all expenses of a user oldest first, fetched from a database cursor in batches of {@value #EXPORT_FETCH_SIZE}.
+     * The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(ROW_SELECT + "WHERE e.userId = :userId ORDER BY e.transactionDate ASC, e.id ASC")
+    Stream<ExpenseRow> streamByUserIdAsc(@Param("userId") int userId);
+
+    /**
+     * Streams the export rows of a user, newest first. Rows are fetched from a database cursor in batches
+     * of {@value #EXPORT_FETCH_SIZE}; the stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.ExportRow(e.id, e.name, e.amount, e.originalAmount, e.currency, e.transactionDate, c.categoryName) " +
+            "FROM Expense e JOIN e.expenseCategory c WHERE e.userId = :userId ORDER BY e.transactionDate DESC, e.id DESC")
+    Stream<ExportRow> streamExportRows(@Param("userId") int userId);
+}
@@ -0,0 +1,116 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlyTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.LedgerEntry;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Reads select {@link TransactionRow} projections; ledger entries are written by {@code LedgerService} with plain SQL.
+ */
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Integer> {
+    String ROW_SELECT = "SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow(e.id, e.userId, e.type, e.amount, e.originalAmount, e.currency, e.transactionDate, e.name, e.categoryId) " +
+            "FROM LedgerEntry e ";
+    String REBUILD_FETCH_SIZE = "1000";
+    String STREAM_FETCH_SIZE = "500";
+
+    @Query(ROW_SELECT + "WHERE e.id = :id AND e.userId = :userId")
+    Optional<TransactionRow> findByIdAndUserId(@Param("id") int id, @Param("userId") int userId);
+
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND e.id IN :ids")
+    List<TransactionRow> findAllByUserIdAndIdIn(@Param("userId") int userId, @Param("ids") Collection<Integer> ids);
+
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND e.amount BETWEEN :fromAmount AND :toAmount ORDER BY e.amount ASC, e.id ASC")
+    List<TransactionRow> findAmountPageByUserId(@Param("userId") int userId, @Param("fromAmount") float fromAmount,
+                                                @Param("toAmount") float toAmount, Limit limit);
+
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND e.amount <= :toAmount " +
+            "AND (e.amount > :amount OR (e.amount = :amount AND e.id > :id)) ORDER BY e.amount ASC, e.id ASC")
+    List<TransactionRow> findAmountPageByUserIdAfter(@Param("userId") int userId, @Param("toAmount") float toAmount,
+                                                     @Param("amount") float amount, @Param("id") int id, Limit limit);
+
+    @Query(ROW_SELECT + "WHERE e.userId = :userId ORDER BY e.transactionDate DESC, e.id DESC")
+    List<TransactionRow> findPageByUserIdDesc(@Param("userId") int userId, Limit limit);
+
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND (e.transactionDate < :date OR (e.transactionDate = :date AND e.id < :id)) ORDER BY e.transactionDate DESC, e.id DESC")
+    List<TransactionRow> findPageByUserIdDescAfter(@Param("userId") int userId, @Param("date") LocalDate date, @Param("id") int id, Limit limit);
+
+    @Query(ROW_SELECT + "WHERE e.userId = :userId ORDER BY e.transactionDate ASC, e.id ASC")
+    List<TransactionRow> findPageByUserIdAsc(@Param("userId") int userId, Limit limit);
+
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND (e.transactionDate > :date OR (e.transactionDate = :date AND e.id > :id)) ORDER BY e.transactionDate ASC, e.id ASC")
+    List<TransactionRow> findPageByUserIdAscAfter(@Param("userId") int userId, @Param("date") LocalDate date, @Param("id") int id, Limit limit);
+
+    @Query("SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlyTotal(YEAR(e.transactionDate), MONTH(e.transactionDate), SUM(CAST(e.amount AS Double))) " +
+            "FROM LedgerEntry e WHERE e.userId = :userId AND e.type = :type AND e.transactionDate BETWEEN :fromDate AND :toDate " +
+            "GROUP BY YEAR(e.transactionDate), MONTH(e.transactionDate)")
+    List<MonthlyTotal> sumAmountByMonth(@Param("userId") int userId, @Param("type") TransactionType type,
+                                        @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal(e.categoryId, SUM(CAST(e.amount AS Double)), COUNT(e)) " +
+            "FROM LedgerEntry e WHERE e.userId = :userId AND e.type = :type AND e.transactionDate BETWEEN :fromDate AND :toDate " +
+            "GROUP BY e.categoryId ORDER BY SUM(CAST(e.amount AS Double)) DESC, e.categoryId")
+    List<CategoryTotal> sumAmountByCategory(@Param("userId") int userId, @Param("type") TransactionType type,
+                                            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * Computes the categories with the largest totals; only the per-category groups are sorted, not the rows.
+     */
+    @Query("SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal(e.categoryId, SUM(CAST(e.amount AS Double)), COUNT(e)) " +
+            "FROM LedgerEntry e WHERE e.userId = :userId AND e.type = :type AND e.transactionDate BETWEEN :fromDate AND :toDate " +
+            "GROUP BY e.categoryId ORDER BY SUM(CAST(e.amount AS Double)) DESC, e.categoryId")
+    List<CategoryTotal> sumAmountByCategory(@Param("userId") int userId, @Param("type") TransactionType type,
+                                            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+                                            Limit limit);
+
+    /**
+     * Finds the largest single transactions, read backwards from the {@code (user_id, amount, id)} index until the
+     * limit is reached, so the rows are never sorted.
+     */
+    @Query(ROW_SELECT + "WHERE e.userId = :userId AND e.type = :type AND e.transactionDate BETWEEN :fromDate AND :toDate " +
+            "ORDER BY e.amount DESC, e.id DESC")
+    List<TransactionRow> findLargestByUserId(@Param("userId") int userId, @Param("type") TransactionType type,
+                                             @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+                                             Limit limit);
+
+    /**
+     * Streams all transactions of a user newest first, fetched from a database cursor in batches of {@value #STREAM_FETCH_SIZE}.
+     * The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(ROW_SELECT + "WHERE e.userId = :userId ORDER BY e.transactionDate DESC, e.id DESC")
+    Stream<TransactionRow> streamByUserIdDesc(@Param("userId") int userId);
+
+    /**
+     * Streams all transactions of a user oldest first, fetched from a database cursor in batches of {@value #STREAM_FETCH_SIZE}.
+     * The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(ROW_SELECT + "WHERE e.userId = :userId ORDER BY e.transactionDate ASC, e.id ASC")
+    Stream<TransactionRow> streamByUserIdAsc(@Param("userId") int userId);
+
+    /**
+     * Reads every ledger entry through a database cursor, used to rebuild derived indexes.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @CrossTenant
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REBUILD_FETCH_SIZE))
+    @Query(ROW_SELECT)
+    Stream<TransactionRow> streamAll();
+}
@@ -0,0 +1,168 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.RecurrenceFrequency;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.RecurringTemplate;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Claims due recurring templates and records the progress of generation runs with plain SQL.
+ * Templates are walked in {@code (user_id, id)} order within a user id range, so each range is one index scan
+ * that a restarted run can resume from its last committed position.
+ */
+@Repository
+public class RecurringGenerationRepository {
+    private static final String CLAIM_DUE_SQL =
+            "SELECT id, user_id, type, name, amount, category_id, frequency, start_date, end_date, next_date, occurrences, " +
+            "currency " +
+            "FROM recurring_template " +
+            "WHERE (user_id, id) > (?, ?) AND user_id <= ? AND next_date <= ? " +
+            "ORDER BY user_id, id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String ADVANCE_SQL =
+            "UPDATE recurring_template SET next_date = ?, occurrences = ? WHERE id = ?";
+    private static final String DUE_USER_RANGE_SQL =
+            "SELECT min(user_id), max(user_id) FROM recurring_template WHERE next_date <= ?";
+    private static final String FIND_RANGES_SQL =
+            "SELECT range_start, range_end, last_user_id, last_template_id, completed " +
+            "FROM recurring_generation_range WHERE run_date = ? ORDER BY range_start";
+    private static final String INSERT_RANGE_SQL =
+            "INSERT INTO recurring_generation_range (run_date, range_start, range_end, last_user_id, last_template_id, completed) " +
+            "VALUES (?, ?, ?, ?, ?, false) ON CONFLICT (run_date, range_start) DO NOTHING";
+    private static final String SAVE_PROGRESS_SQL =
+            "UPDATE recurring_generation_range SET last_user_id = ?, last_template_id = ?, completed = completed OR ? " +
+            "WHERE run_date = ? AND range_start = ? AND (last_user_id, last_template_id) <= (?, ?)";
+    private static final String DELETE_RANGES_BEFORE_SQL =
+            "DELETE FROM recurring_generation_range WHERE run_date < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecurringGenerationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Locks the next due templates of a range until the end of the current database transaction.
+     * Templates locked by another transaction, such as a concurrent run or a user deleting the template, are skipped
+     * instead of waited for; they are still due and are caught up by the next run.
+     *
+     * @param range the range being generated, positioned after the last template handled
+     * @param today the last day to generate occurrences for
+     * @param limit the maximum number of templates to claim
+     * @return the claimed templates in {@code (user_id, id)} order; they are not attached to a persistence context
+     */
+    @CrossTenant
+    public List<RecurringTemplate> claimDue(GenerationRange range, LocalDate today, int limit) {
+        return jdbcTemplate.query(CLAIM_DUE_SQL, (rs, rowNum) -> {
+            RecurringTemplate template = new RecurringTemplate();
+            template.setId(rs.getLong(1));
+            template.setUserId(rs.getInt(2));
+            template.setType(TransactionType.valueOf(rs.getString(3)));
+            template.setName(rs.getString(4));
+            template.setAmount(rs.getFloat(5));
+            template.setCategoryId(rs.getLong(6));
+            template.setFrequency(RecurrenceFrequency.valueOf(rs.getString(7)));
+            template.setStartDate(rs.getObject(8, LocalDate.class));
+            template.setEndDate(rs.getObject(9, LocalDate.class));
+            template.setNextDate(rs.getObject(10, LocalDate.class));
+            template.setOccurrences(rs.getInt(11));
+            template.setCurrency(rs.getString(12));
+            return template;
+        }, range.lastUserId(), range.lastTemplateId(), range.rangeEnd(), Date.valueOf(today), limit);
+    }
+
+    /**
+     * Stores the next date and occurrence count of claimed templates.
+     */
+    public void advance(List<RecurringTemplate> templates) {
+        jdbcTemplate.batchUpdate(ADVANCE_SQL, templates, templates.size(), (ps, template) -> {
+            ps.setDate(1, template.getNextDate() == null ? null : Date.valueOf(template.getNextDate()));
+            ps.setInt(2, template.getOccurrences());
+            ps.setLong(3, template.getId());
+        });
+    }
+
+    /**
+     * @return the lowest and highest user id with a due template, or {@code null} if no template is due
+     */
+    @CrossTenant
+    public int[] findDueUserRange(LocalDate today) {
+        return jdbcTemplate.query(DUE_USER_RANGE_SQL,
+                rs -> rs.next() && rs.getObject(1) != null ? new int[]{rs.getInt(1), rs.getInt(2)} : null,
+                Date.valueOf(today));
+    }
+
+    /**
+     * @return the ranges a run was split into, with their progress, in range order
+     */
+    public List<GenerationRange> findRanges(LocalDate runDate) {
+        return jdbcTemplate.query(FIND_RANGES_SQL, (rs, rowNum) -> new GenerationRange(
+                rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getLong(4), rs.getBoolean(5)), Date.valueOf(runDate));
+    }
+
+    /**
+     * Records the ranges of a run, keeping the ones another instance has already recorded.
+     */
+    public void insertRanges(LocalDate runDate, List<GenerationRange> ranges) {
+        jdbcTemplate.batchUpdate(INSERT_RANGE_SQL, ranges, ranges.size(), (ps, range) -> {
+            ps.setDate(1, Date.valueOf(runDate));
+            ps.setInt(2, range.rangeStart());
+            ps.setInt(3, range.rangeEnd());
+            ps.setInt(4, range.lastUserId());
+            ps.setLong(5, range.lastTemplateId());
+        });
+    }
+
+    /**
+     * Moves the position of a range forward. A position behind the stored one is ignored, so instances running the
+     * same range concurrently never move it back.
+     */
+    public void saveProgress(LocalDate runDate, GenerationRange range) {
+        jdbcTemplate.update(SAVE_PROGRESS_SQL, range.lastUserId(), range.lastTemplateId(), range.completed(),
+                Date.valueOf(runDate), range.rangeStart(), range.lastUserId(), range.lastTemplateId());
+    }
+
+    /**
+     * Forgets the progress of runs before the given day.
+     */
+    public void deleteRangesBefore(LocalDate runDate) {
+        jdbcTemplate.update(DELETE_RANGES_BEFORE_SQL, Date.valueOf(runDate));
+    }
+
+    /**
+     * A range of user ids of one generation run and the position of the last template handled in it.
+     *
+     * @param rangeStart     the lowest user id of the range
+     * @param rangeEnd       the highest user id of the range
+     * @param lastUserId     the user of the last template handled
+     * @param lastTemplateId the id of the last template handled, 0 before the first one
+     * @param completed      whether the whole range has been handled
+     */
+    public record GenerationRange(int rangeStart, int rangeEnd, int lastUserId, long lastTemplateId, boolean completed) {
+
+        /**
+         * @return a range positioned before its first template
+         */
+        public static GenerationRange of(int rangeStart, int rangeEnd) {
+            return new GenerationRange(rangeStart, rangeEnd, rangeStart, 0, false);
+        }
+
+        /**
+         * @return this range positioned after the given template
+         */
+        public GenerationRange after(RecurringTemplate template, boolean completed) {
+            return new GenerationRange(rangeStart, rangeEnd, template.getUserId(), template.getId(), completed);
+        }
+
+        /**
+         * @return this range, marked as handled
+         */
+        public GenerationRange complete() {
+            return new GenerationRange(rangeStart, rangeEnd, lastUserId, lastTemplateId, true);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.RecurringTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RecurringTemplateRepository extends JpaRepository<RecurringTemplate, Long> {
+
+    List<RecurringTemplate> findAllByUserIdOrderById(int userId);
+
+    @Modifying
+    @Query("DELETE FROM RecurringTemplate t WHERE t.id = :id AND t.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") long id, @Param("userId") int userId);
+}
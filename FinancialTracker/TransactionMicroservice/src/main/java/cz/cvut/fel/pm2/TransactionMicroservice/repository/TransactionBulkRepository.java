@@ -0,0 +1,225 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BulkSelection;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Updates, deletes or re-categorizes expenses or incomes of one user with a single statement each.
+ * The statements return the affected rows as they were before the change, so the caller can publish the
+ * {@code TransactionChangedEvent} that keeps the ledger, the rollups and the search index in step without reading
+ * the rows first. Every statement is constrained to one user, and every statement that changes a row increments its
+ * {@code version}.
+ */
+@Repository
+public class TransactionBulkRepository {
+    private static final Kind EXPENSE = new Kind(TransactionType.EXPENSE, "expense", "expense_category_id");
+    private static final Kind INCOME = new Kind(TransactionType.INCOME, "income", "income_category_id");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the deleted expenses
+     */
+    public List<TransactionSnapshot> deleteExpenses(int userId, BulkSelection selection) {
+        return delete(EXPENSE, userId, selection);
+    }
+
+    /**
+     * @return the deleted incomes
+     */
+    public List<TransactionSnapshot> deleteIncomes(int userId, BulkSelection selection) {
+        return delete(INCOME, userId, selection);
+    }
+
+    /**
+     * Overwrites an expense with the given values if it still has the expected version.
+     *
+     * @param after   the new values of the expense, including its id, user and currency
+     * @param version the version the caller read
+     * @return the change, or empty if the user has no such expense or it has another version
+     */
+    public Optional<TransactionChange> updateExpense(TransactionSnapshot after, long version) {
+        return update(EXPENSE, after, version);
+    }
+
+    /**
+     * Overwrites an income with the given values if it still has the expected version.
+     *
+     * @param after   the new values of the income, including its id, user and currency
+     * @param version the version the caller read
+     * @return the change, or empty if the user has no such income or it has another version
+     */
+    public Optional<TransactionChange> updateIncome(TransactionSnapshot after, long version) {
+        return update(INCOME, after, version);
+    }
+
+    /**
+     * Tells whether a user has an expense with the given id, whatever its version.
+     */
+    public boolean expenseExists(int userId, int id) {
+        return exists(EXPENSE, userId, id);
+    }
+
+    /**
+     * Tells whether a user has an income with the given id, whatever its version.
+     */
+    public boolean incomeExists(int userId, int id) {
+        return exists(INCOME, userId, id);
+    }
+
+    /**
+     * Moves the selected expenses to another category. Expenses already in that category are left alone.
+     *
+     * @return one change per moved expense
+     */
+    public List<TransactionChange> moveExpenses(int userId, BulkSelection selection, long categoryId) {
+        return move(EXPENSE, userId, selection, categoryId);
+    }
+
+    /**
+     * Moves the selected incomes to another category. Incomes already in that category are left alone.
+     *
+     * @return one change per moved income
+     */
+    public List<TransactionChange> moveIncomes(int userId, BulkSelection selection, long categoryId) {
+        return move(INCOME, userId, selection, categoryId);
+    }
+
+    /**
+     * Deletes the subtype rows and their {@code transaction} rows in one statement; the foreign key from the subtype
+     * to {@code transaction} is checked at the end of the statement, after both deletes.
+     */
+    private List<TransactionSnapshot> delete(Kind kind, int userId, BulkSelection selection) {
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+        String sql = "WITH target AS (" +
+                "DELETE FROM " + kind.table() + " s USING transaction t " +
+                "WHERE s.id = t.id AND t.user_id = ?" + filters(kind, selection, params) + " " +
+                "RETURNING t.id, t.user_id, t.amount, t.transaction_date, t.name, s." + kind.categoryColumn() + " AS category_id, " +
+                "t.original_amount, t.currency), " +
+                "parent AS (DELETE FROM transaction WHERE id IN (SELECT id FROM target)) " +
+                "SELECT id, user_id, amount, transaction_date, name, category_id, original_amount, currency FROM target";
+        return query(sql, params, (rs, rowNum) -> snapshot(kind, rs, rs.getLong(6)));
+    }
+
+    /**
+     * Updates the {@code transaction} row only if it has the expected version, and the subtype row only if the
+     * {@code transaction} row was updated. The self joins return the values before the update; they cannot be stale,
+     * because a concurrent write of the row changes its version and the re-checked condition then fails.
+     */
+    private Optional<TransactionChange> update(Kind kind, TransactionSnapshot after, long version) {
+        List<Object> params = List.of(after.getAmount(), after.getOriginalAmount(), after.getCurrency(), after.getName(),
+                after.getTransactionDate(), after.getId(), after.getUserId(), version, after.getCategoryId());
+        String sql = "WITH parent AS (" +
+                "UPDATE transaction t SET amount = ?, original_amount = ?, currency = ?, name = ?, transaction_date = ?, " +
+                "version = t.version + 1 " +
+                "FROM transaction old, " + kind.table() + " s " +
+                "WHERE t.id = ? AND t.user_id = ? AND t.version = ? AND old.id = t.id AND s.id = t.id " +
+                "RETURNING t.id, t.user_id, old.amount, old.transaction_date, old.name, s." + kind.categoryColumn() + " AS category_id, " +
+                "old.original_amount, old.currency), " +
+                "child AS (UPDATE " + kind.table() + " SET " + kind.categoryColumn() + " = ? WHERE id IN (SELECT id FROM parent)) " +
+                "SELECT id, user_id, amount, transaction_date, name, category_id, original_amount, currency FROM parent";
+        return query(sql, params, (rs, rowNum) -> TransactionChange.updated(snapshot(kind, rs, rs.getLong(6)), after))
+                .stream()
+                .findFirst();
+    }
+
+    private boolean exists(Kind kind, int userId, int id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + kind.table() + " s JOIN transaction t ON t.id = s.id " +
+                "WHERE t.id = ? AND t.user_id = ?)", Boolean.class, id, userId));
+    }
+
+    /**
+     * Updates the category column and increments the version of the moved rows; the self join on the subtype table
+     * returns the category before the update.
+     */
+    private List<TransactionChange> move(Kind kind, int userId, BulkSelection selection, long categoryId) {
+        List<Object> params = new ArrayList<>();
+        params.add(categoryId);
+        params.add(userId);
+        params.add(categoryId);
+        String sql = "WITH moved AS (" +
+                "UPDATE " + kind.table() + " s SET " + kind.categoryColumn() + " = ? " +
+                "FROM transaction t, " + kind.table() + " old " +
+                "WHERE s.id = t.id AND old.id = s.id AND t.user_id = ? AND s." + kind.categoryColumn() + " <> ?" +
+                filters(kind, selection, params) + " " +
+                "RETURNING t.id, t.user_id, t.amount, t.transaction_date, t.name, old." + kind.categoryColumn() + " AS category_id, " +
+                "t.original_amount, t.currency), " +
+                "bumped AS (UPDATE transaction SET version = version + 1 WHERE id IN (SELECT id FROM moved)) " +
+                "SELECT id, user_id, amount, transaction_date, name, category_id, original_amount, currency FROM moved";
+        return query(sql, params, (rs, rowNum) -> TransactionChange.updated(
+                snapshot(kind, rs, rs.getLong(6)), snapshot(kind, rs, categoryId)));
+    }
+
+    private String filters(Kind kind, BulkSelection selection, List<Object> params) {
+        StringBuilder sql = new StringBuilder();
+        if (selection.hasIds()) {
+            sql.append(" AND t.id = ANY(?)");
+            params.add(selection.getIds().toArray(new Integer[0]));
+        }
+        if (selection.hasCategoryIds()) {
+            sql.append(" AND s.").append(kind.categoryColumn()).append(" = ANY(?)");
+            params.add(selection.getCategoryIds().toArray(new Long[0]));
+        }
+        if (selection.getMinAmount() != null) {
+            sql.append(" AND t.amount >= ?");
+            params.add(selection.getMinAmount());
+        }
+        if (selection.getMaxAmount() != null) {
+            sql.append(" AND t.amount <= ?");
+            params.add(selection.getMaxAmount());
+        }
+        if (selection.getFromDate() != null) {
+            sql.append(" AND t.transaction_date >= ?");
+            params.add(selection.getFromDate());
+        }
+        if (selection.getToDate() != null) {
+            sql.append(" AND t.transaction_date <= ?");
+            params.add(selection.getToDate());
+        }
+        return sql.toString();
+    }
+
+    private <T> List<T> query(String sql, List<Object> params, RowMapper<T> rowMapper) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            for (int i = 0; i < params.size(); i++) {
+                Object param = params.get(i);
+                if (param instanceof Integer[] ints) {
+                    ps.setArray(i + 1, connection.createArrayOf("integer", ints));
+                } else if (param instanceof Long[] longs) {
+                    ps.setArray(i + 1, connection.createArrayOf("bigint", longs));
+                } else {
+                    ps.setObject(i + 1, param);
+                }
+            }
+            return ps;
+        }, rowMapper);
+    }
+
+    private static TransactionSnapshot snapshot(Kind kind, ResultSet rs, long categoryId) throws SQLException {
+        return new TransactionSnapshot(rs.getInt(1), rs.getInt(2), kind.type(), categoryId, rs.getFloat(3),
+                rs.getObject(4, LocalDate.class), rs.getString(5), rs.getFloat(7), rs.getString(8));
+    }
+
+    private record Kind(TransactionType type, String table, String categoryColumn) {
+    }
+}
@@ -15,17 +15,10 @@ public interface TransactionRepository extends JpaRepository<Transaction, Intege
     @Override
     boolean existsById(Integer id);
 
-    List<Transaction> findAllByUserId(int userId);
     @Query("SELECT e FROM Transaction e WHERE e.id = :transactionId AND e.userId = :userId")
     Optional<Transaction> findByIdAndUserId(@Param("transactionId") int expenseId, @Param("userId") int userId);
 
-    @Query("SELECT e FROM Transaction e WHERE e.userId = :userId ORDER BY e.transactionDate DESC")
-    List<Transaction> findAllByOrderByTransactionDateDesc(@Param("userId") int userId);
-
-    @Query("SELECT e FROM Transaction e WHERE e.userId = :userId ORDER BY e.transactionDate ASC")
-    List<Transaction> findAllByOrderByTransactionDateAsc(@Param("userId") int userId);
-
-    @Query("SELECT e FROM Transaction e WHERE e.amount BETWEEN :fromAmount AND :toAmount ORDER BY e.amount ASC")
-    List<Transaction> findByAmountBetweenOrderByAmountAsc(float fromAmount, float toAmount);
+    @CrossTenant
+    @Query("SELECT DISTINCT e.userId FROM Transaction e")
+    List<Integer> findDistinctUserIds();
 }
-
@@ -0,0 +1,98 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.IncomeRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionSearchCriteria;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Income;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Transaction;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multi-criteria search over expenses and incomes.
+ * The query is built from the filters that are actually set and always constrains the user, so it is answered
+ * from the {@code (user_id, transaction_date, id)} index; the remaining filters are applied to that range.
+ * Results are ordered by {@code (transaction_date, id)} and paged with a keyset cursor.
+ */
+@Repository
+public class TransactionSearchRepository {
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<ExpenseRow> searchExpenses(TransactionSearchCriteria criteria, KeysetCursor after, int maxResults) {
+        return search(Expense.class, "expenseCategory", ExpenseRow.class, criteria, after, maxResults);
+    }
+
+    public List<IncomeRow> searchIncomes(TransactionSearchCriteria criteria, KeysetCursor after, int maxResults) {
+        return search(Income.class, "incomeCategory", IncomeRow.class, criteria, after, maxResults);
+    }
+
+    private <T extends Transaction, R> List<R> search(Class<T> entityType, String categoryAttribute, Class<R> rowType,
+                                                       TransactionSearchCriteria criteria, KeysetCursor after, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(rowType);
+        Root<T> root = query.from(entityType);
+        Join<T, ?> category = root.join(categoryAttribute);
+        Path<Integer> id = root.get("id");
+        Path<LocalDate> date = root.get("transactionDate");
+        Path<Float> amount = root.get("amount");
+
+        query.select(cb.construct(rowType, id, root.get("userId"), root.get("name"), amount,
+                root.get("originalAmount"), root.get("currency"), date,
+                category.get("id"), category.get("categoryName"), root.get("version")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("userId"), criteria.getUserId()));
+        if (criteria.getCategoryIds() != null && !criteria.getCategoryIds().isEmpty()) {
+            predicates.add(category.get("id").in(criteria.getCategoryIds()));
+        }
+        if (criteria.getMinAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(amount, criteria.getMinAmount()));
+        }
+        if (criteria.getMaxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(amount, criteria.getMaxAmount()));
+        }
+        if (criteria.getFromDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, criteria.getFromDate()));
+        }
+        if (criteria.getToDate() != null) {
+            predicates.add(cb.lessThanOrEqualTo(date, criteria.getToDate()));
+        }
+        if (criteria.getName() != null && !criteria.getName().isBlank()) {
+            String pattern = "%" + escapeLike(criteria.getName().trim().toLowerCase()) + "%";
+            predicates.add(cb.like(cb.lower(root.get("name")), pattern, LIKE_ESCAPE));
+        }
+        if (after != null) {
+            predicates.add(criteria.isAscending()
+                    ? cb.or(cb.greaterThan(date, after.getTransactionDate()),
+                            cb.and(cb.equal(date, after.getTransactionDate()), cb.greaterThan(id, after.getId())))
+                    : cb.or(cb.lessThan(date, after.getTransactionDate()),
+                            cb.and(cb.equal(date, after.getTransactionDate()), cb.lessThan(id, after.getId()))));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(criteria.isAscending()
+                ? List.of(cb.asc(date), cb.asc(id))
+                : List.of(cb.desc(date), cb.desc(id)));
+
+        return entityManager.createQuery(query).setMaxResults(maxResults).getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
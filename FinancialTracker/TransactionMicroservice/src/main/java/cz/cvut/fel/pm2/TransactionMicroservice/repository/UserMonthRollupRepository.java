@@ -0,0 +1,58 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlyTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.UserMonthRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserMonthRollupRepository extends JpaRepository<UserMonthRollup, Long> {
+
+    /**
+     * Adds the given deltas to a rollup row, creating the row if it does not exist yet.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_month_rollup (user_id, month, category_type, category_id, income_sum, expense_sum, transaction_count) " +
+            "VALUES (:userId, :month, :categoryType, :categoryId, :incomeDelta, :expenseDelta, :countDelta) " +
+            "ON CONFLICT (user_id, month, category_type, category_id) DO UPDATE SET " +
+            "income_sum = user_month_rollup.income_sum + EXCLUDED.income_sum, " +
+            "expense_sum = user_month_rollup.expense_sum + EXCLUDED.expense_sum, " +
+            "transaction_count = user_month_rollup.transaction_count + EXCLUDED.transaction_count",
+            nativeQuery = true)
+    void applyDelta(@Param("userId") int userId, @Param("month") LocalDate month,
+                    @Param("categoryType") String categoryType, @Param("categoryId") long categoryId,
+                    @Param("incomeDelta") double incomeDelta, @Param("expenseDelta") double expenseDelta,
+                    @Param("countDelta") long countDelta);
+
+    /**
+     * Serializes rollup maintenance of one user until the end of the current database transaction.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:namespace, :userId)", nativeQuery = true)
+    Integer lockUser(@Param("namespace") int namespace, @Param("userId") int userId);
+
+    List<UserMonthRollup> findAllByUserId(int userId);
+
+    @Modifying
+    @Query("DELETE FROM UserMonthRollup r WHERE r.userId = :userId")
+    void deleteAllByUserId(@Param("userId") int userId);
+
+    @CrossTenant
+    @Query("SELECT DISTINCT r.userId FROM UserMonthRollup r")
+    List<Integer> findDistinctUserIds();
+
+    @Query("SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlyTotal(YEAR(r.month), MONTH(r.month), SUM(r.incomeSum)) " +
+            "FROM UserMonthRollup r WHERE r.userId = :userId AND r.month BETWEEN :fromMonth AND :toMonth " +
+            "GROUP BY YEAR(r.month), MONTH(r.month)")
+    List<MonthlyTotal> sumIncomeByMonth(@Param("userId") int userId, @Param("fromMonth") LocalDate fromMonth, @Param("toMonth") LocalDate toMonth);
+
+    @Query("SELECT new cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlyTotal(YEAR(r.month), MONTH(r.month), SUM(r.expenseSum)) " +
+            "FROM UserMonthRollup r WHERE r.userId = :userId AND r.month BETWEEN :fromMonth AND :toMonth " +
+            "GROUP BY YEAR(r.month), MONTH(r.month)")
+    List<MonthlyTotal> sumExpenseByMonth(@Param("userId") int userId, @Param("fromMonth") LocalDate fromMonth, @Param("toMonth") LocalDate toMonth);
+}
@@ -0,0 +1,228 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.search;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link TransactionNameIndex} held in memory by an in-process Lucene index.
+ * Writes are serialized and made visible to searches as soon as they are applied; searches never block.
+ * The index is not persisted and has to be rebuilt from the database after a restart.
+ */
+@Component
+public class LuceneTransactionNameIndex implements TransactionNameIndex {
+    private static final String ID = "id";
+    private static final String USER_ID = "userId";
+    private static final String TYPE = "type";
+    private static final String NAME = "name";
+    private static final int FUZZY_PREFIX_LENGTH = 2;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory = new ByteBuffersDirectory();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public LuceneTransactionNameIndex() {
+        try {
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the transaction name index", e);
+        }
+    }
+
+    @Override
+    public synchronized void upsert(Collection<TransactionSnapshot> transactions) {
+        try {
+            for (TransactionSnapshot transaction : transactions) {
+                writer.updateDocument(idTerm(transaction.getId()), toDocument(transaction));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not update the transaction name index", e);
+        }
+    }
+
+    @Override
+    public synchronized void delete(Collection<Integer> ids) {
+        try {
+            for (Integer id : ids) {
+                writer.deleteDocuments(idTerm(id));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not update the transaction name index", e);
+        }
+    }
+
+    /**
+     * Clears the index and adds all transactions in one writer session. The searcher is only refreshed at the end,
+     * so searches see either the old or the new content.
+     */
+    @Override
+    public synchronized long rebuild(Stream<TransactionSnapshot> transactions) {
+        try {
+            writer.deleteAll();
+            long count = 0;
+            Iterator<TransactionSnapshot> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                writer.addDocument(toDocument(iterator.next()));
+                count++;
+            }
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rebuild the transaction name index", e);
+        }
+    }
+
+    @Override
+    public synchronized void replaceUser(int userId, Collection<TransactionSnapshot> transactions) {
+        try {
+            writer.deleteDocuments(new Term(USER_ID, String.valueOf(userId)));
+            for (TransactionSnapshot transaction : transactions) {
+                writer.addDocument(toDocument(transaction));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not update the transaction name index", e);
+        }
+    }
+
+    @Override
+    public List<Integer> search(int userId, String query, TransactionType type, int limit) {
+        List<String> words = analyze(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(USER_ID, String.valueOf(userId))), BooleanClause.Occur.FILTER);
+        if (type != null) {
+            builder.add(new TermQuery(new Term(TYPE, type.name())), BooleanClause.Occur.FILTER);
+        }
+        for (String word : words) {
+            builder.add(wordQuery(word), BooleanClause.Occur.MUST);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(builder.build(), limit);
+                StoredFields storedFields = searcher.storedFields();
+                List<Integer> ids = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    ids.add(Integer.valueOf(storedFields.document(scoreDoc.doc).get(ID)));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not search the transaction name index", e);
+        }
+    }
+
+    @Override
+    public long size() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the transaction name index", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Matches a word exactly, as the prefix of a longer word or with up to two typos, scoring in that order.
+     * Short words are too ambiguous for fuzzy matching, and typos in the first two letters are not corrected,
+     * which keeps the fuzzy term enumeration small.
+     */
+    private BooleanQuery wordQuery(String word) {
+        Term term = new Term(NAME, word);
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(new BoostQuery(new TermQuery(term), 3f), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(term), 2f), BooleanClause.Occur.SHOULD);
+        int maxEdits = word.length() < 3 ? 0 : word.length() <= 5 ? 1 : 2;
+        if (maxEdits > 0) {
+            builder.add(new FuzzyQuery(term, maxEdits, FUZZY_PREFIX_LENGTH), BooleanClause.Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        try (TokenStream tokens = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                words.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not analyze the search query", e);
+        }
+        return words;
+    }
+
+    private static Document toDocument(TransactionSnapshot transaction) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(transaction.getId()), Field.Store.YES));
+        document.add(new StringField(USER_ID, String.valueOf(transaction.getUserId()), Field.Store.NO));
+        document.add(new StringField(TYPE, transaction.getType().name(), Field.Store.NO));
+        document.add(new TextField(NAME, transaction.getName() == null ? "" : transaction.getName(), Field.Store.NO));
+        return document;
+    }
+
+    private static Term idTerm(int id) {
+        return new Term(ID, String.valueOf(id));
+    }
+}
@@ -0,0 +1,62 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.search;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Full-text index over the names of expenses and incomes.
+ * The index only answers which transactions match; the rows themselves are read from the database.
+ */
+public interface TransactionNameIndex {
+
+    /**
+     * Adds transactions to the index or replaces their previous versions.
+     *
+     * @param transactions the current state of the transactions
+     */
+    void upsert(Collection<TransactionSnapshot> transactions);
+
+    /**
+     * Removes transactions from the index. Unknown ids are ignored.
+     *
+     * @param ids the IDs of the deleted transactions
+     */
+    void delete(Collection<Integer> ids);
+
+    /**
+     * Replaces the whole content of the index. Searches keep seeing the previous content until the rebuild completes.
+     *
+     * @param transactions all transactions to index
+     * @return the number of indexed transactions
+     */
+    long rebuild(Stream<TransactionSnapshot> transactions);
+
+    /**
+     * Replaces the transactions of one user. Searches see either the previous or the new transactions of the user.
+     *
+     * @param userId the ID of the user
+     * @param transactions all transactions of the user
+     */
+    void replaceUser(int userId, Collection<TransactionSnapshot> transactions);
+
+    /**
+     * Finds the transactions of a user whose name matches every word of the query,
+     * either exactly, as a prefix or with a small typo.
+     *
+     * @param userId the ID of the user
+     * @param query the words to look for
+     * @param type the type of transactions to search, or {@code null} for both
+     * @param limit the maximum number of results
+     * @return the IDs of the matching transactions, best match first
+     */
+    List<Integer> search(int userId, String query, TransactionType type, int limit);
+
+    /**
+     * @return the number of transactions visible to searches
+     */
+    long size();
+}
@@ -0,0 +1,182 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BalancePoint;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.BalanceCheckpointRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.BalanceCheckpointRepository.DailyNet;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.BalanceCheckpointRepository.Shift;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Computes running balances from per-user checkpoints holding the balance at the start of each month.
+ * A balance query reads the latest checkpoint before its range and the daily nets from there on, so its cost does not
+ * grow with the user's history. Checkpoints of past months are shifted in the transaction of every later write dated
+ * before them. The first query of a month creates the missing ones in a short transaction of its own, so the queries
+ * themselves run read-only and never wait for the lock of the user.
+ */
+@Service
+public class BalanceService {
+    /**
+     * Namespace of the advisory locks serializing checkpoint creation with writes of the same user.
+     */
+    public static final int BALANCE_LOCK_NAMESPACE = 0x42414C41;
+
+    private static final Comparator<DayKey> KEY_ORDER = Comparator
+            .comparingInt(DayKey::userId)
+            .thenComparing(DayKey::date);
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate checkpointTransaction;
+
+    public BalanceService(BalanceCheckpointRepository checkpointRepository, PlatformTransactionManager transactionManager) {
+        this.checkpointRepository = checkpointRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.checkpointTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Computes the balance of a user, all incomes minus all expenses, over a date range.
+     *
+     * @param userId   the ID of the user
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate   the last day of the range (inclusive)
+     * @return the balance at the end of {@code fromDate}, followed by the balance at the end of every later day in the
+     * range with transactions, in date order
+     */
+    public List<BalancePoint> getRunningBalance(int userId, LocalDate fromDate, LocalDate toDate) {
+        LocalDate currentMonth = YearMonth.now().atDay(1);
+        List<BalancePoint> points = readTransaction.execute(status ->
+                isMissingCheckpoints(userId, currentMonth) ? null : runningBalance(userId, fromDate, toDate));
+        if (points != null) {
+            return points;
+        }
+        checkpointTransaction.executeWithoutResult(status -> createMissingCheckpoints(userId, currentMonth));
+        return readTransaction.execute(status -> runningBalance(userId, fromDate, toDate));
+    }
+
+    private List<BalancePoint> runningBalance(int userId, LocalDate fromDate, LocalDate toDate) {
+        List<BalancePoint> points = new ArrayList<>();
+        long cents = 0;
+        for (DailyNet day : checkpointRepository.findCheckpointAndDailyNets(userId, fromDate, toDate)) {
+            if (points.isEmpty() && day.date().isAfter(fromDate)) {
+                points.add(new BalancePoint(fromDate, cents / 100d));
+            }
+            cents += day.cents();
+            if (!day.date().isBefore(fromDate)) {
+                points.add(new BalancePoint(day.date(), cents / 100d));
+            }
+        }
+        if (points.isEmpty()) {
+            points.add(new BalancePoint(fromDate, cents / 100d));
+        }
+        return points;
+    }
+
+    /**
+     * Shifts the checkpoints after the days touched by a batch of transaction changes.
+     * Runs in the transaction that published the event and holds the lock of every touched user until it ends, so a
+     * checkpoint created concurrently either already includes the change or is shifted by it.
+     *
+     * @param event the published changes
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Map<DayKey, Long> shifts = new TreeMap<>(KEY_ORDER);
+        for (TransactionChange change : event.getChanges()) {
+            accumulate(shifts, change.getBefore(), -1);
+            accumulate(shifts, change.getAfter(), 1);
+        }
+
+        TreeSet<Integer> users = new TreeSet<>();
+        List<Shift> nonZero = new ArrayList<>();
+        shifts.forEach((key, cents) -> {
+            if (cents != 0) {
+                users.add(key.userId());
+                nonZero.add(new Shift(key.userId(), key.date(), cents));
+            }
+        });
+        users.forEach(userId -> checkpointRepository.lockUser(BALANCE_LOCK_NAMESPACE, userId));
+        if (!nonZero.isEmpty()) {
+            checkpointRepository.shiftAfter(nonZero);
+        }
+    }
+
+    /**
+     * Tells whether a user has transactions before the current month that are not covered by a checkpoint yet.
+     */
+    private boolean isMissingCheckpoints(int userId, LocalDate currentMonth) {
+        Optional<DailyNet> latest = checkpointRepository.findLatest(userId);
+        if (latest.isEmpty()) {
+            return !checkpointRepository.sumNetByMonth(userId, null, currentMonth).isEmpty();
+        }
+        return latest.get().date().isBefore(currentMonth);
+    }
+
+    /**
+     * Creates the missing checkpoints of a user up to the current month, continuing from the latest one.
+     * The month nets are summed while holding the user's lock, so no write can commit in between unnoticed.
+     */
+    private void createMissingCheckpoints(int userId, LocalDate currentMonth) {
+        checkpointRepository.lockUser(BALANCE_LOCK_NAMESPACE, userId);
+        Optional<DailyNet> latest = checkpointRepository.findLatest(userId);
+        if (latest.isPresent() && !latest.get().date().isBefore(currentMonth)) {
+            return;
+        }
+
+        LocalDate since = latest.map(DailyNet::date).orElse(null);
+        Iterator<DailyNet> nets = checkpointRepository.sumNetByMonth(userId, since, currentMonth).iterator();
+        DailyNet net = nets.hasNext() ? nets.next() : null;
+        if (since == null) {
+            if (net == null) {
+                return;
+            }
+            since = net.date();
+        }
+
+        Map<LocalDate, Long> checkpoints = new LinkedHashMap<>();
+        long cents = latest.map(DailyNet::cents).orElse(0L);
+        for (LocalDate month = since; month.isBefore(currentMonth); month = month.plusMonths(1)) {
+            if (net != null && net.date().equals(month)) {
+                cents += net.cents();
+                net = nets.hasNext() ? nets.next() : null;
+            }
+            checkpoints.put(month.plusMonths(1), cents);
+        }
+        checkpointRepository.insert(userId, checkpoints);
+    }
+
+    private void accumulate(Map<DayKey, Long> shifts, TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null) {
+            return;
+        }
+        long cents = Math.round(snapshot.getAmount() * 100d);
+        long signed = snapshot.getType() == TransactionType.INCOME ? cents : -cents;
+        shifts.merge(new DayKey(snapshot.getUserId(), snapshot.getTransactionDate()), sign * signed, Long::sum);
+    }
+
+    private record DayKey(int userId, LocalDate date) {
+    }
+}
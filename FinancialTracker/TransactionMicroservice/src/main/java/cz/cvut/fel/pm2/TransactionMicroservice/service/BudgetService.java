@@ -0,0 +1,66 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BudgetStatus;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.BudgetRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Manages monthly budgets per user and expense category and evaluates them against the monthly rollups, which
+ * {@link RollupService} keeps in step with every expense write.
+ */
+@Service
+@Transactional
+public class BudgetService {
+    private final BudgetRepository budgetRepository;
+    private final CategoryRegistry categoryRegistry;
+
+    public BudgetService(BudgetRepository budgetRepository, CategoryRegistry categoryRegistry) {
+        this.budgetRepository = budgetRepository;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    /**
+     * Sets the monthly limit of a user's budget for an expense category.
+     *
+     * @throws IllegalArgumentException if the category does not exist or the limit is not positive
+     */
+    public void setBudget(int userId, long categoryId, double monthlyLimit) {
+        if (categoryRegistry.findExpenseCategory(categoryId).isEmpty()) {
+            throw new IllegalArgumentException("Invalid expenseCategory id");
+        }
+        if (!(monthlyLimit > 0)) {
+            throw new IllegalArgumentException("The monthly limit must be positive");
+        }
+        budgetRepository.upsert(userId, categoryId, monthlyLimit);
+    }
+
+    /**
+     * @return {@code false} if the user has no budget for the category
+     */
+    public boolean deleteBudget(int userId, long categoryId) {
+        return budgetRepository.delete(userId, categoryId);
+    }
+
+    /**
+     * @param date any day of the month to evaluate
+     * @return the status of every budget of the user in the month of {@code date}
+     */
+    @Transactional(readOnly = true)
+    public List<BudgetStatus> getStatuses(int userId, LocalDate date) {
+        return budgetRepository.findStatuses(userId, date.withDayOfMonth(1));
+    }
+
+    /**
+     * @param date any day of the month to evaluate
+     * @return the status of the user's budget for the category in the month of {@code date}, or empty if there is none
+     */
+    @Transactional(readOnly = true)
+    public Optional<BudgetStatus> getStatus(int userId, long categoryId, LocalDate date) {
+        return budgetRepository.findStatus(userId, categoryId, date.withDayOfMonth(1));
+    }
+}
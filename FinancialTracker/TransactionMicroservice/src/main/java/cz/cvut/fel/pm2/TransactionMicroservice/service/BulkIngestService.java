@@ -0,0 +1,241 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.IncomeDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.IncomeCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Inserts large batches of expenses or incomes in one database transaction.
+ * Rows bypass Hibernate: ids are reserved in one round trip from the sequence behind {@code transaction.id}
+ * and the rows are written with batched JDBC statements, which the driver rewrites into multi-row inserts.
+ * Amounts in other currencies are converted to the user's base currency with the rates held in memory.
+ */
+@Service
+@Transactional
+public class BulkIngestService {
+    static final int JDBC_BATCH_SIZE = 1000;
+
+    private static final LocalDate EARLIEST_TRANSACTION_DATE = LocalDate.of(2000, 1, 1);
+    private static final String ALLOCATE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('transaction', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO transaction (id, user_id, amount, name, transaction_date, original_amount, currency) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_EXPENSE_SQL = "INSERT INTO expense (id, expense_category_id) VALUES (?, ?)";
+    private static final String INSERT_INCOME_SQL = "INSERT INTO income (id, income_category_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryRegistry categoryRegistry;
+    private final CurrencyService currencyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxRows;
+
+    public BulkIngestService(JdbcTemplate jdbcTemplate,
+                             CategoryRegistry categoryRegistry,
+                             CurrencyService currencyService,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${bulk.ingest.max-rows:10000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryRegistry = categoryRegistry;
+        this.currencyService = currencyService;
+        this.eventPublisher = eventPublisher;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Validates and inserts a batch of expenses of one user. Either all rows are inserted or none.
+     *
+     * @param userId   the ID of the user
+     * @param expenses the expenses to insert
+     * @return the number of inserted expenses
+     * @throws IllegalArgumentException if the batch is too large or a row is invalid
+     */
+    public int ingestExpenses(int userId, List<ExpenseDTO> expenses) {
+        List<BulkRow> rows = new ArrayList<>(expenses.size());
+        for (ExpenseDTO expense : expenses) {
+            ExpenseCategory category = expense.getExpenseCategory();
+            rows.add(new BulkRow(category == null ? null : category.getId(), category == null ? null : category.getCategoryName(),
+                    expense.getName(), expense.getTransactionDate(), expense.getAmount(), expense.getCurrency()));
+        }
+        return ingest(userId, TransactionType.EXPENSE, rows);
+    }
+
+    /**
+     * Validates and inserts a batch of incomes of one user. Either all rows are inserted or none.
+     *
+     * @param userId  the ID of the user
+     * @param incomes the incomes to insert
+     * @return the number of inserted incomes
+     * @throws IllegalArgumentException if the batch is too large or a row is invalid
+     */
+    public int ingestIncomes(int userId, List<IncomeDTO> incomes) {
+        List<BulkRow> rows = new ArrayList<>(incomes.size());
+        for (IncomeDTO income : incomes) {
+            IncomeCategory category = income.getIncomeCategory();
+            rows.add(new BulkRow(category == null ? null : category.getId(), category == null ? null : category.getCategoryName(),
+                    income.getName(), income.getTransactionDate(), income.getAmount(), income.getCurrency()));
+        }
+        return ingest(userId, TransactionType.INCOME, rows);
+    }
+
+    /**
+     * Validates a batch of one type, converts its amounts to the user's base currency and inserts it.
+     */
+    private int ingest(int userId, TransactionType type, List<BulkRow> bulkRows) {
+        checkBatchSize(bulkRows.size());
+
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (BulkRow row : bulkRows) {
+            if (row.categoryId() != null) {
+                findCategoryName(type, row.categoryId()).ifPresent(name -> categoryNames.put(row.categoryId(), name));
+            }
+        }
+
+        String baseCurrency = currencyService.getBaseCurrency(userId);
+        String[] currencies = new String[bulkRows.size()];
+        float[] amounts = new float[bulkRows.size()];
+        for (int i = 0; i < bulkRows.size(); i++) {
+            BulkRow row = bulkRows.get(i);
+            checkRow(i, row, categoryNames);
+            currencies[i] = rowCurrency(i, row.currency(), baseCurrency);
+            amounts[i] = toBaseAmount(i, row.amount(), currencies[i], baseCurrency, row.transactionDate());
+        }
+
+        List<Integer> ids = allocateIds(bulkRows.size());
+        List<TransactionSnapshot> rows = new ArrayList<>(bulkRows.size());
+        for (int i = 0; i < bulkRows.size(); i++) {
+            BulkRow row = bulkRows.get(i);
+            rows.add(new TransactionSnapshot(ids.get(i), userId, type, row.categoryId(), amounts[i],
+                    row.transactionDate(), row.name(), row.amount(), currencies[i]));
+        }
+
+        insert(rows);
+        return rows.size();
+    }
+
+    private Optional<String> findCategoryName(TransactionType type, long categoryId) {
+        return type == TransactionType.EXPENSE
+                ? categoryRegistry.findExpenseCategory(categoryId).map(ExpenseCategory::getCategoryName)
+                : categoryRegistry.findIncomeCategory(categoryId).map(IncomeCategory::getCategoryName);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0 || size > maxRows) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + maxRows + " rows");
+        }
+    }
+
+    private void checkRow(int index, BulkRow row, Map<Long, String> categoryNames) {
+        if (row.categoryId() == null || !categoryNames.containsKey(row.categoryId())) {
+            throw new IllegalArgumentException("Row " + index + ": invalid category id");
+        }
+        if (!categoryNames.get(row.categoryId()).equals(row.categoryName())) {
+            throw new IllegalArgumentException("Row " + index + ": invalid category name for the given id");
+        }
+        if (row.name() == null) {
+            throw new IllegalArgumentException("Row " + index + ": name is required");
+        }
+        LocalDate transactionDate = row.transactionDate();
+        LocalDate currentDate = LocalDate.now();
+        if (transactionDate == null || transactionDate.isAfter(currentDate) || transactionDate.isBefore(EARLIEST_TRANSACTION_DATE)) {
+            throw new IllegalArgumentException("Row " + index + ": transaction date must be between 2000 and the current date");
+        }
+    }
+
+    /**
+     * @return the currency of a row, the user's base currency if the row has none
+     */
+    private String rowCurrency(int index, String currency, String baseCurrency) {
+        if (currency == null) {
+            return baseCurrency;
+        }
+        try {
+            return currencyService.currencyCode(currency);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Row " + index + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converts the amount of a row to the user's base currency with the rates held in memory.
+     */
+    private float toBaseAmount(int index, float amount, String currency, String baseCurrency, LocalDate transactionDate) {
+        try {
+            return currencyService.convert(amount, currency, baseCurrency, transactionDate);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Row " + index + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reserves ids for new expenses or incomes.
+     *
+     * @param count the number of ids to reserve
+     * @return the ids, in ascending order
+     */
+    List<Integer> allocateIds(int count) {
+        return jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Integer.class, count);
+    }
+
+    /**
+     * Inserts expenses and incomes with ids from {@link #allocateIds(int)} in the caller's transaction and publishes
+     * their creation. The rows are not validated.
+     *
+     * @param rows the rows to insert, of any users and types, with their amounts already in the users' base currencies
+     */
+    void insert(List<TransactionSnapshot> rows) {
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, rows, JDBC_BATCH_SIZE, (ps, row) -> {
+            ps.setInt(1, row.getId());
+            ps.setInt(2, row.getUserId());
+            ps.setFloat(3, row.getAmount());
+            ps.setString(4, row.getName());
+            ps.setDate(5, Date.valueOf(row.getTransactionDate()));
+            ps.setFloat(6, row.getOriginalAmount());
+            ps.setString(7, row.getCurrency());
+        });
+        insertSubtype(INSERT_EXPENSE_SQL, rows, TransactionType.EXPENSE);
+        insertSubtype(INSERT_INCOME_SQL, rows, TransactionType.INCOME);
+
+        List<TransactionChange> changes = new ArrayList<>(rows.size());
+        for (TransactionSnapshot row : rows) {
+            changes.add(TransactionChange.created(row));
+        }
+        eventPublisher.publishEvent(new TransactionChangedEvent(changes));
+    }
+
+    private void insertSubtype(String insertSubtypeSql, List<TransactionSnapshot> rows, TransactionType type) {
+        List<TransactionSnapshot> subtypeRows = rows.stream().filter(row -> row.getType() == type).toList();
+        if (subtypeRows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(insertSubtypeSql, subtypeRows, JDBC_BATCH_SIZE, (ps, row) -> {
+            ps.setInt(1, row.getId());
+            ps.setLong(2, row.getCategoryId());
+        });
+    }
+
+    /**
+     * An expense or income of a batch, as received.
+     */
+    private record BulkRow(Long categoryId, String categoryName, String name, LocalDate transactionDate,
+                           float amount, String currency) {
+    }
+}
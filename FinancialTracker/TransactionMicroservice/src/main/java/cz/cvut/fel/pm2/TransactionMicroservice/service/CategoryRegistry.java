@@ -0,0 +1,184 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.IncomeCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseCategoryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeCategoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-process copy of the expense and income categories, used to validate new transactions and to list categories
+ * without a database round trip.
+ * The registry is loaded at startup and updated when a category is added through this instance. Categories added by
+ * other replicas are picked up on the first lookup of their id, on the periodic reload, or when {@link #reload()} is
+ * triggered through the {@code categories} actuator endpoint.
+ */
+@Slf4j
+@Component
+public class CategoryRegistry {
+    private final CategoryCache<ExpenseCategory> expenseCategories;
+    private final CategoryCache<IncomeCategory> incomeCategories;
+    private final Counter reloadCounter;
+
+    public CategoryRegistry(ExpenseCategoryRepository expenseCategoryRepository,
+                            IncomeCategoryRepository incomeCategoryRepository,
+                            MeterRegistry meterRegistry) {
+        this.expenseCategories = new CategoryCache<>("expense", ExpenseCategory::getId,
+                expenseCategoryRepository::findAll, id -> expenseCategoryRepository.findById(Math.toIntExact(id)), meterRegistry);
+        this.incomeCategories = new CategoryCache<>("income", IncomeCategory::getId,
+                incomeCategoryRepository::findAll, id -> incomeCategoryRepository.findById(Math.toIntExact(id)), meterRegistry);
+        this.reloadCounter = Counter.builder("transactions.categories.reloads")
+                .description("Full reloads of the category registry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replaces the registry contents with the categories currently stored in the database.
+     */
+    @PostConstruct
+    public void reload() {
+        expenseCategories.reload();
+        incomeCategories.reload();
+        reloadCounter.increment();
+        log.debug("Category registry reloaded");
+    }
+
+    /**
+     * Periodic reload that bounds how long categories added by other replicas are missing from the lists.
+     */
+    @Scheduled(fixedDelayString = "${categories.registry.reload-interval:PT5M}",
+            initialDelayString = "${categories.registry.reload-interval:PT5M}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    public Optional<ExpenseCategory> findExpenseCategory(long id) {
+        return expenseCategories.find(id);
+    }
+
+    public Optional<IncomeCategory> findIncomeCategory(long id) {
+        return incomeCategories.find(id);
+    }
+
+    public List<ExpenseCategory> getExpenseCategories() {
+        return expenseCategories.all();
+    }
+
+    public List<IncomeCategory> getIncomeCategories() {
+        return incomeCategories.all();
+    }
+
+    /**
+     * Adds a newly saved expense category. Inside a transaction the category becomes visible once it commits.
+     *
+     * @param category the saved category
+     */
+    public void registerExpenseCategory(ExpenseCategory category) {
+        afterCommit(() -> expenseCategories.put(category));
+    }
+
+    /**
+     * Adds a newly saved income category. Inside a transaction the category becomes visible once it commits.
+     *
+     * @param category the saved category
+     */
+    public void registerIncomeCategory(IncomeCategory category) {
+        afterCommit(() -> incomeCategories.put(category));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Categories of one kind, held in an immutable snapshot that is swapped on every change.
+     */
+    private static final class CategoryCache<C> {
+        private final Function<C, Long> idOf;
+        private final Supplier<List<C>> loadAll;
+        private final Function<Long, Optional<C>> loadOne;
+        private final Counter hits;
+        private final Counter misses;
+        private volatile Snapshot<C> snapshot = new Snapshot<>(Collections.emptyMap());
+
+        CategoryCache(String type, Function<C, Long> idOf, Supplier<List<C>> loadAll,
+                      Function<Long, Optional<C>> loadOne, MeterRegistry meterRegistry) {
+            this.idOf = idOf;
+            this.loadAll = loadAll;
+            this.loadOne = loadOne;
+            this.hits = Counter.builder("transactions.categories.lookups")
+                    .description("Category lookups answered by the registry or the database")
+                    .tag("type", type).tag("result", "hit")
+                    .register(meterRegistry);
+            this.misses = Counter.builder("transactions.categories.lookups")
+                    .description("Category lookups answered by the registry or the database")
+                    .tag("type", type).tag("result", "miss")
+                    .register(meterRegistry);
+            Gauge.builder("transactions.categories.size", this, cache -> cache.snapshot.byId().size())
+                    .description("Categories held by the registry")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+
+        Optional<C> find(long id) {
+            C category = snapshot.byId().get(id);
+            if (category != null) {
+                hits.increment();
+                return Optional.of(category);
+            }
+            misses.increment();
+            Optional<C> loaded = loadOne.apply(id);
+            loaded.ifPresent(this::put);
+            return loaded;
+        }
+
+        List<C> all() {
+            return snapshot.all();
+        }
+
+        synchronized void reload() {
+            Map<Long, C> byId = new TreeMap<>();
+            for (C category : loadAll.get()) {
+                byId.put(idOf.apply(category), category);
+            }
+            snapshot = new Snapshot<>(byId);
+        }
+
+        synchronized void put(C category) {
+            Map<Long, C> byId = new TreeMap<>(snapshot.byId());
+            byId.put(idOf.apply(category), category);
+            snapshot = new Snapshot<>(byId);
+        }
+    }
+
+    private record Snapshot<C>(Map<Long, C> byId, List<C> all) {
+        Snapshot(Map<Long, C> byId) {
+            this(Collections.unmodifiableMap(byId), List.copyOf(byId.values()));
+        }
+    }
+}
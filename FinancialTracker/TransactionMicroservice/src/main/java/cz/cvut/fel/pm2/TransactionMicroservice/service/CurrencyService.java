@@ -0,0 +1,171 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExchangeRateDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Transaction;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.CurrencyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts amounts to the base currency of their user and manages base currencies and exchange rates.
+ * Transactions are converted once, when they are written, and store the converted amount next to the amount as
+ * entered; totals, rollups, balances and exports then add up amounts of one currency. Rates come from
+ * {@link ExchangeRateRegistry}, so converting a batch of rows costs no database round trip per row.
+ */
+@Service
+@Transactional
+public class CurrencyService {
+    private final CurrencyRepository currencyRepository;
+    private final ExchangeRateRegistry exchangeRateRegistry;
+    private final String defaultBaseCurrency;
+
+    public CurrencyService(CurrencyRepository currencyRepository, ExchangeRateRegistry exchangeRateRegistry,
+                           @Value("${currency.default-base:CZK}") String defaultBaseCurrency) {
+        this.currencyRepository = currencyRepository;
+        this.exchangeRateRegistry = exchangeRateRegistry;
+        this.defaultBaseCurrency = defaultBaseCurrency;
+    }
+
+    /**
+     * @return the currency the user's amounts are totalled in
+     */
+    @Transactional(readOnly = true)
+    public String getBaseCurrency(int userId) {
+        return currencyRepository.findBaseCurrency(userId).orElse(defaultBaseCurrency);
+    }
+
+    /**
+     * Looks up the base currencies of several users with one query.
+     *
+     * @return the base currency of every given user, keyed by user id
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, String> getBaseCurrencies(Collection<Integer> userIds) {
+        Map<Integer, String> currencies = new HashMap<>(currencyRepository.findBaseCurrencies(userIds));
+        for (Integer userId : userIds) {
+            currencies.putIfAbsent(userId, defaultBaseCurrency);
+        }
+        return currencies;
+    }
+
+    /**
+     * Sets the base currency of a user. Stored amounts are in the current base currency, so it can only be changed
+     * before the user's first expense or income.
+     *
+     * @return the normalized currency code
+     * @throws IllegalArgumentException if the code is not a known currency or the user already has transactions
+     */
+    public String setBaseCurrency(int userId, String currency) {
+        String code = currencyCode(currency);
+        if (code.equals(getBaseCurrency(userId))) {
+            return code;
+        }
+        if (currencyRepository.hasTransactions(userId)) {
+            throw new IllegalArgumentException("The base currency cannot be changed once the user has transactions");
+        }
+        currencyRepository.saveBaseCurrency(userId, code);
+        return code;
+    }
+
+    /**
+     * Validates and stores exchange rates, replacing the rate of a pair and day that is already stored.
+     *
+     * @throws IllegalArgumentException if a rate is incomplete, not positive or between unknown currencies
+     */
+    public void saveRates(List<ExchangeRateDTO> rates) {
+        if (rates == null || rates.isEmpty()) {
+            throw new IllegalArgumentException("At least one rate is required");
+        }
+        for (int i = 0; i < rates.size(); i++) {
+            ExchangeRateDTO rate = rates.get(i);
+            if (rate.getDate() == null || rate.getRate() == null || rate.getRate().signum() <= 0) {
+                throw new IllegalArgumentException("Rate " + i + ": a date and a positive rate are required");
+            }
+            rate.setFromCurrency(currencyCode(rate.getFromCurrency()));
+            rate.setToCurrency(currencyCode(rate.getToCurrency()));
+            if (rate.getFromCurrency().equals(rate.getToCurrency())) {
+                throw new IllegalArgumentException("Rate " + i + ": the currencies must differ");
+            }
+        }
+        currencyRepository.upsertRates(rates);
+        exchangeRateRegistry.register(rates);
+    }
+
+    /**
+     * @return the value of one unit of {@code fromCurrency} in {@code toCurrency} on the given day
+     * @throws IllegalArgumentException if no rate on or before the day is known; the caller's transaction stays usable
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, noRollbackFor = IllegalArgumentException.class)
+    public BigDecimal getRate(String fromCurrency, String toCurrency, LocalDate date) {
+        return exchangeRateRegistry.findRate(fromCurrency, toCurrency, date)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No " + fromCurrency + "/" + toCurrency + " exchange rate on or before " + date));
+    }
+
+    /**
+     * Converts an amount at the rate of a day, rounded to cents.
+     *
+     * @throws IllegalArgumentException if no rate on or before the day is known; the caller's transaction stays usable
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, noRollbackFor = IllegalArgumentException.class)
+    public float convert(float amount, String fromCurrency, String toCurrency, LocalDate date) {
+        if (fromCurrency.equals(toCurrency)) {
+            return amount;
+        }
+        return BigDecimal.valueOf(amount)
+                .multiply(getRate(fromCurrency, toCurrency, date))
+                .setScale(2, RoundingMode.HALF_UP)
+                .floatValue();
+    }
+
+    /**
+     * Sets the amount of a transaction about to be written to its value in the user's base currency.
+     * A transaction without a currency was entered in the base currency, and one without an original amount was entered
+     * as its amount. The original amount is then converted at the rate of the transaction's date.
+     *
+     * @throws IllegalArgumentException if the currency is unknown or no rate for the date is known
+     */
+    public void applyBaseAmount(Transaction transaction) {
+        String baseCurrency = getBaseCurrency(transaction.getUserId());
+        transaction.setCurrency(transaction.getCurrency() == null ? baseCurrency : currencyCode(transaction.getCurrency()));
+        if (transaction.getOriginalAmount() == null) {
+            transaction.setOriginalAmount(transaction.getAmount());
+        }
+        if (transaction.getCurrency().equals(baseCurrency)) {
+            transaction.setAmount(transaction.getOriginalAmount());
+            return;
+        }
+        if (transaction.getTransactionDate() == null) {
+            throw new IllegalArgumentException("Transaction date is required");
+        }
+        transaction.setAmount(convert(transaction.getOriginalAmount(), transaction.getCurrency(), baseCurrency,
+                transaction.getTransactionDate()));
+    }
+
+    /**
+     * @return the ISO 4217 code of a currency, in upper case
+     * @throws IllegalArgumentException if the code is missing or not a known currency
+     */
+    public String currencyCode(String currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        try {
+            return Currency.getInstance(currency.trim().toUpperCase(Locale.ROOT)).getCurrencyCode();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown currency: " + currency);
+        }
+    }
+}
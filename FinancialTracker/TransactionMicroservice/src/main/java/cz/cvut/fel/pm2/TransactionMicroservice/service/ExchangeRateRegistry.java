@@ -0,0 +1,171 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExchangeRateDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.CurrencyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * In-process copy of the {@code exchange_rate} table, held as one date-sorted map per currency pair, so converting an
+ * amount is a map lookup instead of a database round trip.
+ * A lookup takes the latest rate on or before the requested day, so days without a published rate, such as weekends,
+ * use the last one before them. A pair without rates of its own is answered from the inverse pair or crossed through
+ * the reference currency.
+ * The registry is loaded at startup and updated when rates are stored through this instance. Rates stored by other
+ * replicas are picked up on the periodic reload, or when {@link #reload()} is triggered through the
+ * {@code exchangerates} actuator endpoint.
+ */
+@Slf4j
+@Component
+public class ExchangeRateRegistry {
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+
+    private final CurrencyRepository currencyRepository;
+    private final String referenceCurrency;
+    private final Counter reloadCounter;
+    /**
+     * Rates by currency pair and date. Neither the map nor its values are modified once published; changes are
+     * applied to copies that are swapped in.
+     */
+    private volatile Map<String, NavigableMap<LocalDate, BigDecimal>> rates = Collections.emptyMap();
+
+    public ExchangeRateRegistry(CurrencyRepository currencyRepository,
+                                @Value("${currency.rates.reference:CZK}") String referenceCurrency,
+                                MeterRegistry meterRegistry) {
+        this.currencyRepository = currencyRepository;
+        this.referenceCurrency = referenceCurrency;
+        this.reloadCounter = Counter.builder("transactions.currency.rates.reloads")
+                .description("Full reloads of the exchange rate registry")
+                .register(meterRegistry);
+        Gauge.builder("transactions.currency.rates.pairs", this, ExchangeRateRegistry::pairCount)
+                .description("Currency pairs held by the exchange rate registry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replaces the registry contents with the rates currently stored in the database.
+     */
+    @PostConstruct
+    public synchronized void reload() {
+        Map<String, NavigableMap<LocalDate, BigDecimal>> loaded = new HashMap<>();
+        currencyRepository.forEachRate(rs -> loaded
+                .computeIfAbsent(pair(rs.getString(1), rs.getString(2)), key -> new TreeMap<>())
+                .put(rs.getObject(3, LocalDate.class), rs.getBigDecimal(4)));
+        rates = Map.copyOf(loaded);
+        reloadCounter.increment();
+        log.debug("Exchange rate registry reloaded with {} currency pairs", loaded.size());
+    }
+
+    /**
+     * Periodic reload that bounds how long rates stored by other replicas are missing.
+     */
+    @Scheduled(fixedDelayString = "${currency.rates.reload-interval:PT1H}",
+            initialDelayString = "${currency.rates.reload-interval:PT1H}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Adds newly stored rates. Inside a transaction the rates become visible once it commits.
+     *
+     * @param stored the stored rates, with normalized currency codes
+     */
+    public void register(List<ExchangeRateDTO> stored) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(stored);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(stored);
+            }
+        });
+    }
+
+    /**
+     * Finds the rate converting one currency to another on a day.
+     *
+     * @param fromCurrency the currency to convert from
+     * @param toCurrency   the currency to convert to
+     * @param date         the day of the conversion
+     * @return the value of one unit of {@code fromCurrency} in {@code toCurrency}, or empty if no rate on or before
+     * the day is known
+     */
+    public Optional<BigDecimal> findRate(String fromCurrency, String toCurrency, LocalDate date) {
+        if (fromCurrency.equals(toCurrency)) {
+            return Optional.of(BigDecimal.ONE);
+        }
+        Map<String, NavigableMap<LocalDate, BigDecimal>> current = rates;
+        BigDecimal rate = lookup(current, fromCurrency, toCurrency, date);
+        if (rate == null && !fromCurrency.equals(referenceCurrency) && !toCurrency.equals(referenceCurrency)) {
+            BigDecimal toReference = lookup(current, fromCurrency, referenceCurrency, date);
+            BigDecimal fromReference = lookup(current, referenceCurrency, toCurrency, date);
+            if (toReference != null && fromReference != null) {
+                rate = toReference.multiply(fromReference, PRECISION);
+            }
+        }
+        return Optional.ofNullable(rate);
+    }
+
+    /**
+     * @return the number of currency pairs with stored rates
+     */
+    public int pairCount() {
+        return rates.size();
+    }
+
+    private synchronized void put(List<ExchangeRateDTO> stored) {
+        Map<String, NavigableMap<LocalDate, BigDecimal>> updated = new HashMap<>(rates);
+        Map<String, NavigableMap<LocalDate, BigDecimal>> copied = new HashMap<>();
+        for (ExchangeRateDTO rate : stored) {
+            String pair = pair(rate.getFromCurrency(), rate.getToCurrency());
+            copied.computeIfAbsent(pair, key -> {
+                NavigableMap<LocalDate, BigDecimal> copy = new TreeMap<>(updated.getOrDefault(key, Collections.emptyNavigableMap()));
+                updated.put(key, copy);
+                return copy;
+            }).put(rate.getDate(), rate.getRate());
+        }
+        rates = Map.copyOf(updated);
+    }
+
+    /**
+     * Takes the latest direct or inverse rate of a pair on or before a day, whichever was published later.
+     */
+    private static BigDecimal lookup(Map<String, NavigableMap<LocalDate, BigDecimal>> rates,
+                                     String fromCurrency, String toCurrency, LocalDate date) {
+        Map.Entry<LocalDate, BigDecimal> direct = floor(rates.get(pair(fromCurrency, toCurrency)), date);
+        Map.Entry<LocalDate, BigDecimal> inverse = floor(rates.get(pair(toCurrency, fromCurrency)), date);
+        if (inverse != null && (direct == null || inverse.getKey().isAfter(direct.getKey()))) {
+            return BigDecimal.ONE.divide(inverse.getValue(), PRECISION);
+        }
+        return direct == null ? null : direct.getValue();
+    }
+
+    private static Map.Entry<LocalDate, BigDecimal> floor(NavigableMap<LocalDate, BigDecimal> byDate, LocalDate date) {
+        return byDate == null ? null : byDate.floorEntry(date);
+    }
+
+    private static String pair(String fromCurrency, String toCurrency) {
+        return fromCurrency + "/" + toCurrency;
+    }
+}
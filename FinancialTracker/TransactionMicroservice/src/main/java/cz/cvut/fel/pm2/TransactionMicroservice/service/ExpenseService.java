@@ -1,26 +1,61 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.service;
 
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BulkSelection;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionSearchCriteria;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
 import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseCategoryRepository;
 import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.TransactionBulkRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.TransactionSearchRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.AmountCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.NdjsonWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class ExpenseService  {
     private final ExpenseRepository expenseRepository;
     private final ExpenseCategoryRepository expenseCategoryRepository;
-
-
-    public ExpenseService(ExpenseRepository expenseRepository, ExpenseCategoryRepository expenseCategoryRepository) {
+    private final CategoryRegistry categoryRegistry;
+    private final TransactionSearchRepository searchRepository;
+    private final TransactionBulkRepository bulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CurrencyService currencyService;
+    private final int maxBulkIds;
+
+
+    public ExpenseService(ExpenseRepository expenseRepository, ExpenseCategoryRepository expenseCategoryRepository,
+                          CategoryRegistry categoryRegistry, TransactionSearchRepository searchRepository,
+                          TransactionBulkRepository bulkRepository, ApplicationEventPublisher eventPublisher,
+                          CurrencyService currencyService,
+                          @Value("${bulk.ingest.max-rows:10000}") int maxBulkIds) {
         this.expenseRepository = expenseRepository;
         this.expenseCategoryRepository = expenseCategoryRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.searchRepository = searchRepository;
+        this.bulkRepository = bulkRepository;
+        this.eventPublisher = eventPublisher;
+        this.currencyService = currencyService;
+        this.maxBulkIds = maxBulkIds;
     }
 
 
@@ -29,29 +64,114 @@ public class ExpenseService  {
         return optionalExpense.orElseThrow(() -> new RuntimeException("Expense not found with id: " + expenseId + " for user: " + userId));
     }
 
+    @Transactional(readOnly = true)
+    public ExpenseRow getExpenseRowById(int expenseId, int userId) {
+        Optional<ExpenseRow> optionalRow = expenseRepository.findRowByIdAndUserId(expenseId, userId);
+        return optionalRow.orElseThrow(() -> new RuntimeException("Expense not found with id: " + expenseId + " for user: " + userId));
+    }
+
 
+    /**
+     * Updates an expense of a user with a single statement, provided it still has the version the caller read.
+     *
+     * @param updatedExpense the new values of the expense, including its id and the version the caller read; without a
+     *                       currency it keeps the stored one, and without an original amount its amount is taken
+     *                       as entered in that currency
+     * @param userId the ID of the user
+     * @return {@code false} if the user has no expense with the given id
+     * @throws OptimisticLockingFailureException if the expense was changed since the caller read it
+     * @throws IllegalArgumentException if the version is missing, the category does not exist or the amount cannot be
+     * converted to the user's base currency
+     */
     @Transactional
-    public void updateExpense(Expense updatedExpense, int userId) {
+    public boolean updateExpense(Expense updatedExpense, int userId) {
         Objects.requireNonNull(updatedExpense);
-        Expense existingExpense = getExpenseById(updatedExpense.getId(), userId);
-        existingExpense.setAmount(updatedExpense.getAmount());
-        existingExpense.setName(updatedExpense.getName());
-        existingExpense.setTransactionDate(updatedExpense.getTransactionDate());
-        existingExpense.setExpenseCategory(updatedExpense.getExpenseCategory());
-        expenseRepository.save(existingExpense);
+        if (updatedExpense.getVersion() == null) {
+            throw new IllegalArgumentException("The version of the expense is required");
+        }
+        ExpenseCategory category = updatedExpense.getExpenseCategory();
+        if (category == null || category.getId() == null || categoryRegistry.findExpenseCategory(category.getId()).isEmpty()) {
+            throw new IllegalArgumentException("Invalid expenseCategory id");
+        }
+        updatedExpense.setUserId(userId);
+        if (updatedExpense.getCurrency() == null) {
+            expenseRepository.findCurrencyByIdAndUserId(updatedExpense.getId(), userId).ifPresent(updatedExpense::setCurrency);
+        }
+        currencyService.applyBaseAmount(updatedExpense);
+        Optional<TransactionChange> change = bulkRepository.updateExpense(
+                TransactionSnapshot.of(updatedExpense), updatedExpense.getVersion());
+        if (change.isEmpty()) {
+            if (bulkRepository.expenseExists(userId, updatedExpense.getId())) {
+                throw new OptimisticLockingFailureException("Expense with id " + updatedExpense.getId()
+                        + " was changed since version " + updatedExpense.getVersion());
+            }
+            return false;
+        }
+        eventPublisher.publishEvent(TransactionChangedEvent.of(change.get()));
+        return true;
     }
 
 
+    /**
+     * Stores a new expense. Its amount is converted to the user's base currency if the expense has another currency.
+     *
+     * @throws IllegalArgumentException if no exchange rate for the expense's date is known
+     */
     @Transactional
     public void createExpense(Expense expense){
         Objects.requireNonNull(expense);
+        currencyService.applyBaseAmount(expense);
         expenseRepository.save(expense);
+        eventPublisher.publishEvent(TransactionChangedEvent.of(TransactionChange.created(TransactionSnapshot.of(expense))));
+    }
+
+    /**
+     * Deletes one expense of a user with a single statement.
+     *
+     * @return {@code false} if the user has no expense with the given id
+     */
+    @Transactional
+    public boolean deleteExpense(int expenseId, int userId) {
+        return deleteExpenses(userId, BulkSelection.ofIds(List.of(expenseId))) > 0;
+    }
+
+    /**
+     * Deletes the selected expenses of a user with a single statement.
+     *
+     * @return the number of deleted expenses
+     * @throws IllegalArgumentException if the selection is empty, too large or inconsistent
+     */
+    @Transactional
+    public int deleteExpenses(int userId, BulkSelection selection) {
+        selection.validate(maxBulkIds);
+        List<TransactionSnapshot> deleted = bulkRepository.deleteExpenses(userId, selection);
+        if (!deleted.isEmpty()) {
+            List<TransactionChange> changes = new ArrayList<>(deleted.size());
+            for (TransactionSnapshot snapshot : deleted) {
+                changes.add(TransactionChange.deleted(snapshot));
+            }
+            eventPublisher.publishEvent(new TransactionChangedEvent(changes));
+        }
+        return deleted.size();
     }
 
+    /**
+     * Moves the selected expenses of a user to another category with a single statement.
+     *
+     * @return the number of expenses that changed category
+     * @throws IllegalArgumentException if the category does not exist or the selection is empty, too large or inconsistent
+     */
     @Transactional
-    public void deleteExpense(int expenseId, int userId) {
-        getExpenseById(expenseId, userId);
-        expenseRepository.deleteById(expenseId);
+    public int moveExpensesToCategory(int userId, BulkSelection selection, long categoryId) {
+        selection.validate(maxBulkIds);
+        if (categoryRegistry.findExpenseCategory(categoryId).isEmpty()) {
+            throw new IllegalArgumentException("Invalid category id " + categoryId);
+        }
+        List<TransactionChange> changes = bulkRepository.moveExpenses(userId, selection, categoryId);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new TransactionChangedEvent(changes));
+        }
+        return changes.size();
     }
 
 
@@ -65,39 +185,59 @@ public class ExpenseService  {
         ExpenseCategory expenseCategory = new ExpenseCategory();
         expenseCategory.setCategoryName(categoryName);
         expenseCategoryRepository.save(expenseCategory);
+        categoryRegistry.registerExpenseCategory(expenseCategory);
     }
 
 
     @Transactional(readOnly = true)
     public List<ExpenseCategory> getAllExpenseCategories() {
-        return expenseCategoryRepository.findAll();
+        return categoryRegistry.getExpenseCategories();
     }
 
-    public List<Expense> getExpensesByExpenseCategory(ExpenseCategory expenseCategory, int userId) {
-        return expenseRepository.findByExpenseCategoryAndUserId(expenseCategory, userId);
+    @Transactional(readOnly = true)
+    public KeysetPage<ExpenseRow> getExpensesPageDescending(int userId, KeysetCursor after, int limit) {
+        List<ExpenseRow> rows = after == null
+                ? expenseRepository.findPageByUserIdDesc(userId, Limit.of(limit + 1))
+                : expenseRepository.findPageByUserIdDescAfter(userId, after.getTransactionDate(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, KeysetCursor::of);
     }
 
-    public List<Expense> getAllExpensesDescendingOrder(int userId) {
-        return expenseRepository.findAllByOrderByTransactionDateDesc(userId);
+    @Transactional(readOnly = true)
+    public KeysetPage<ExpenseRow> getExpensesPageAscending(int userId, KeysetCursor after, int limit) {
+        List<ExpenseRow> rows = after == null
+                ? expenseRepository.findPageByUserIdAsc(userId, Limit.of(limit + 1))
+                : expenseRepository.findPageByUserIdAscAfter(userId, after.getTransactionDate(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, KeysetCursor::of);
     }
 
-
-    public List<Expense> getAllExpensesAscendingOrder(int userId) {
-        return expenseRepository.findAllByOrderByTransactionDateAsc(userId);
-    }
-    public List<Expense> filterExpensesByAmountRange(int userId, float fromAmount, float toAmount) {
-        return expenseRepository.findByAmountBetweenOrderByAmountAsc(userId, fromAmount, toAmount);
+    /**
+     * Writes all expenses of a user as NDJSON, reading them from a database cursor while they are written.
+     *
+     * @param userId     the ID of the user
+     * @param descending whether the newest expense comes first
+     * @param writer     the writer receiving the rows
+     * @return the number of expenses written
+     * @throws IOException if a row cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long writeExpenses(int userId, boolean descending, NdjsonWriter writer) throws IOException {
+        try (Stream<ExpenseRow> rows = descending ? expenseRepository.streamByUserIdDesc(userId) : expenseRepository.streamByUserIdAsc(userId)) {
+            return writer.writeAll(rows);
+        }
     }
 
-
     @Transactional(readOnly = true)
-    public List<Expense> getExpensesByExpenseCategoryAndUserId(ExpenseCategory expenseCategory, int userId) {
-        return expenseRepository.findByExpenseCategoryAndUserId(expenseCategory, userId);
+    public KeysetPage<ExpenseRow> filterExpensesByAmountRange(int userId, float fromAmount, float toAmount,
+                                                              AmountCursor after, int limit) {
+        List<ExpenseRow> rows = after == null
+                ? expenseRepository.findAmountPageByUserId(userId, fromAmount, toAmount, Limit.of(limit + 1))
+                : expenseRepository.findAmountPageByUserIdAfter(userId, toAmount, after.getAmount(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, AmountCursor::of);
     }
 
-    public List<Expense> filterExpensesByAmountStartingFrom(int userId, float fromAmount) {
-        return expenseRepository.findByAmountGreaterThanEqualOrderByAmountAsc(userId, fromAmount);
+    @Transactional(readOnly = true)
+    public KeysetPage<ExpenseRow> searchExpenses(TransactionSearchCriteria criteria, KeysetCursor after, int limit) {
+        List<ExpenseRow> rows = searchRepository.searchExpenses(criteria, after, limit + 1);
+        return KeysetPage.of(rows, limit, KeysetCursor::of);
     }
-
 }
-
@@ -0,0 +1,187 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportFormat;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportJob;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportJobStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs exports in the background so request threads return immediately.
+ * Jobs are rendered by a fixed number of workers into files on local disk; the worker count caps the CPU and memory
+ * spent on exports and the bounded queue caps the backlog. Finished files are deleted once they expire.
+ * Job state and files live in this instance only, so a status poll or download routed to another replica answers
+ * 404. Run the service as a single replica, or route {@code /transactions/exports} with sticky sessions.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final ExportService exportService;
+    private final Path directory;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(ExportService exportService,
+                            MeterRegistry meterRegistry,
+                            @Value("${export.jobs.threads:2}") int threads,
+                            @Value("${export.jobs.queue-capacity:50}") int queueCapacity,
+                            @Value("${export.jobs.directory:${java.io.tmpdir}/finance-tracker-exports}") Path directory,
+                            @Value("${export.jobs.ttl:PT1H}") Duration ttl) {
+        this.exportService = exportService;
+        this.directory = directory;
+        this.ttl = ttl;
+
+        AtomicInteger workerCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "export-worker-" + workerCount.incrementAndGet()));
+
+        Gauge.builder("transactions.export.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Export jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("transactions.export.jobs.running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Export jobs being rendered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates the export directory and removes job files left behind by a previous run, whose jobs are gone.
+     * Only regular files named like job files are deleted; anything else in the directory is left alone.
+     *
+     * @throws IOException if the directory cannot be prepared
+     */
+    @PostConstruct
+    public void prepareDirectory() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, jobFileGlob())) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues an export of a user's expenses or incomes.
+     *
+     * @param userId the ID of the user
+     * @param type   whether expenses or incomes are exported
+     * @param format the format of the report
+     * @return the queued job
+     * @throws RejectedExecutionException if the export queue is full
+     */
+    public ExportJob submit(int userId, TransactionType type, ExportFormat format) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), userId, type, format, Instant.now());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Retrieves an export job of a user.
+     *
+     * @param jobId  the ID of the job
+     * @param userId the ID of the user
+     * @return the job, or empty if it does not exist, has expired or belongs to another user
+     */
+    public Optional<ExportJob> getJob(String jobId, int userId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.getUserId() == userId);
+    }
+
+    private void render(ExportJob job) {
+        job.markRunning();
+        Path partial = directory.resolve(job.getId() + PARTIAL_SUFFIX);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                exportService.export(job.getUserId(), job.getType(), job.getFormat(), out);
+            }
+            Path file = Files.move(partial, directory.resolve(job.getId() + "." + job.getFormat().getExtension()),
+                    StandardCopyOption.ATOMIC_MOVE);
+            job.markCompleted(file, Instant.now());
+        } catch (Exception e) {
+            log.error("Export job {} of user {} failed", job.getId(), job.getUserId(), e);
+            deleteQuietly(partial);
+            job.markFailed("Export failed", Instant.now());
+        }
+    }
+
+    /**
+     * Forgets finished jobs older than the configured time to live and deletes their files.
+     */
+    @Scheduled(fixedDelayString = "${export.jobs.cleanup-interval:PT10M}")
+    public void removeExpiredJobs() {
+        Instant expiredBefore = Instant.now().minus(ttl);
+        for (ExportJob job : jobs.values()) {
+            boolean finished = job.getStatus() == ExportJobStatus.COMPLETED || job.getStatus() == ExportJobStatus.FAILED;
+            if (finished && job.getFinishedAt().isBefore(expiredBefore)) {
+                jobs.remove(job.getId());
+                if (job.getFile() != null) {
+                    deleteQuietly(job.getFile());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a glob matching partial and finished job files, e.g. {@code *.{part,xlsx,pdf}}
+     */
+    private static String jobFileGlob() {
+        StringJoiner extensions = new StringJoiner(",", "*.{", "}");
+        extensions.add(PARTIAL_SUFFIX.substring(1));
+        for (ExportFormat format : ExportFormat.values()) {
+            extensions.add(format.getExtension());
+        }
+        return extensions.toString();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExportRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExcelReportWriter;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportFormat;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.PdfReportWriter;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ReportWriter;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service exporting a user's expenses and incomes.
+ * Rows are streamed from a database cursor straight into the report writer, so memory use does not grow with the row count.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+
+    public ExportService(ExpenseRepository expenseRepository, IncomeRepository incomeRepository) {
+        this.expenseRepository = expenseRepository;
+        this.incomeRepository = incomeRepository;
+    }
+
+    /**
+     * Writes all expenses of a user to an Excel workbook.
+     *
+     * @param userId the ID of the user
+     * @param out    the stream receiving the workbook
+     * @throws IOException if the workbook cannot be written
+     */
+    public void exportExpensesToExcel(int userId, OutputStream out) throws IOException {
+        export(userId, TransactionType.EXPENSE, ExportFormat.EXCEL, out);
+    }
+
+    /**
+     * Writes all incomes of a user to an Excel workbook.
+     *
+     * @param userId the ID of the user
+     * @param out    the stream receiving the workbook
+     * @throws IOException if the workbook cannot be written
+     */
+    public void exportIncomesToExcel(int userId, OutputStream out) throws IOException {
+        export(userId, TransactionType.INCOME, ExportFormat.EXCEL, out);
+    }
+
+    /**
+     * Writes all expenses of a user to a PDF report.
+     *
+     * @param userId the ID of the user
+     * @param out    the stream receiving the report
+     * @throws IOException if the report cannot be written
+     */
+    public void exportExpensesToPdf(int userId, OutputStream out) throws IOException {
+        export(userId, TransactionType.EXPENSE, ExportFormat.PDF, out);
+    }
+
+    /**
+     * Writes all incomes of a user to a PDF report.
+     *
+     * @param userId the ID of the user
+     * @param out    the stream receiving the report
+     * @throws IOException if the report cannot be written
+     */
+    public void exportIncomesToPdf(int userId, OutputStream out) throws IOException {
+        export(userId, TransactionType.INCOME, ExportFormat.PDF, out);
+    }
+
+    /**
+     * Writes all transactions of one type of a user in the given format.
+     *
+     * @param userId the ID of the user
+     * @param type   whether expenses or incomes are exported
+     * @param format the format of the report
+     * @param out    the stream receiving the report
+     * @throws IOException if the report cannot be written
+     */
+    public void export(int userId, TransactionType type, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ExportRow> rows = streamRows(userId, type);
+             ReportWriter writer = createWriter(type, format, out)) {
+            Iterator<ExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeRow(iterator.next());
+            }
+            writer.finish();
+        }
+    }
+
+    private Stream<ExportRow> streamRows(int userId, TransactionType type) {
+        return type == TransactionType.EXPENSE
+                ? expenseRepository.streamExportRows(userId)
+                : incomeRepository.streamExportRows(userId);
+    }
+
+    private ReportWriter createWriter(TransactionType type, ExportFormat format, OutputStream out) throws IOException {
+        String title = type == TransactionType.EXPENSE ? "Expenses" : "Incomes";
+        return format == ExportFormat.EXCEL
+                ? new ExcelReportWriter(out, title)
+                : new PdfReportWriter(out, title + " Report");
+    }
+}
@@ -1,14 +1,33 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.service;
 
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BulkSelection;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.IncomeRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionSearchCriteria;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.Income;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.IncomeCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
 import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeCategoryRepository;
 import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.TransactionBulkRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.TransactionSearchRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.AmountCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.NdjsonWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 @Service
@@ -17,10 +36,26 @@ public class IncomeService  {
 
     private final IncomeRepository incomeRepository;
     private final IncomeCategoryRepository incomeCategoryRepository;
-
-    public IncomeService(IncomeRepository incomeRepository, IncomeCategoryRepository incomeCategoryRepository) {
+    private final CategoryRegistry categoryRegistry;
+    private final TransactionSearchRepository searchRepository;
+    private final TransactionBulkRepository bulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CurrencyService currencyService;
+    private final int maxBulkIds;
+
+    public IncomeService(IncomeRepository incomeRepository, IncomeCategoryRepository incomeCategoryRepository,
+                         CategoryRegistry categoryRegistry, TransactionSearchRepository searchRepository,
+                         TransactionBulkRepository bulkRepository, ApplicationEventPublisher eventPublisher,
+                         CurrencyService currencyService,
+                         @Value("${bulk.ingest.max-rows:10000}") int maxBulkIds) {
         this.incomeRepository = incomeRepository;
         this.incomeCategoryRepository = incomeCategoryRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.searchRepository = searchRepository;
+        this.bulkRepository = bulkRepository;
+        this.eventPublisher = eventPublisher;
+        this.currencyService = currencyService;
+        this.maxBulkIds = maxBulkIds;
     }
 
 
@@ -28,6 +63,7 @@ public class IncomeService  {
         IncomeCategory incomeCategory = new IncomeCategory();
         incomeCategory.setCategoryName(categoryName);
         incomeCategoryRepository.save(incomeCategory);
+        categoryRegistry.registerIncomeCategory(incomeCategory);
     }
 
 
@@ -36,36 +72,115 @@ public class IncomeService  {
         return optionalIncome.orElseThrow(() -> new RuntimeException("Income not found with id: " + incomeId + " for user: " + userId));
     }
 
+    @Transactional(readOnly = true)
+    public IncomeRow getIncomeRowById(int incomeId, int userId) {
+        Optional<IncomeRow> optionalRow = incomeRepository.findRowByIdAndUserId(incomeId, userId);
+        return optionalRow.orElseThrow(() -> new RuntimeException("Income not found with id: " + incomeId + " for user: " + userId));
+    }
+
 
+    /**
+     * Updates an income of a user with a single statement, provided it still has the version the caller read.
+     *
+     * @param updatedIncome the new values of the income, including its id and the version the caller read; without a
+     *                       currency it keeps the stored one, and without an original amount its amount is taken
+     *                       as entered in that currency
+     * @param userId the ID of the user
+     * @return {@code false} if the user has no income with the given id
+     * @throws OptimisticLockingFailureException if the income was changed since the caller read it
+     * @throws IllegalArgumentException if the version is missing, the category does not exist or the amount cannot be
+     * converted to the user's base currency
+     */
     @Transactional
-    public void updateIncome(Income updatedIncome, int userId) {
+    public boolean updateIncome(Income updatedIncome, int userId) {
         Objects.requireNonNull(updatedIncome);
-        Income existingIncome = getIncomeById(updatedIncome.getId(), userId);
-        existingIncome.setAmount(updatedIncome.getAmount());
-        existingIncome.setName(updatedIncome.getName());
-        existingIncome.setTransactionDate(updatedIncome.getTransactionDate());
-        existingIncome.setIncomeCategory(updatedIncome.getIncomeCategory());
-        incomeRepository.save(existingIncome);
+        if (updatedIncome.getVersion() == null) {
+            throw new IllegalArgumentException("The version of the income is required");
+        }
+        IncomeCategory category = updatedIncome.getIncomeCategory();
+        if (category == null || category.getId() == null || categoryRegistry.findIncomeCategory(category.getId()).isEmpty()) {
+            throw new IllegalArgumentException("Invalid incomeCategory id");
+        }
+        updatedIncome.setUserId(userId);
+        if (updatedIncome.getCurrency() == null) {
+            incomeRepository.findCurrencyByIdAndUserId(updatedIncome.getId(), userId).ifPresent(updatedIncome::setCurrency);
+        }
+        currencyService.applyBaseAmount(updatedIncome);
+        Optional<TransactionChange> change = bulkRepository.updateIncome(
+                TransactionSnapshot.of(updatedIncome), updatedIncome.getVersion());
+        if (change.isEmpty()) {
+            if (bulkRepository.incomeExists(userId, updatedIncome.getId())) {
+                throw new OptimisticLockingFailureException("Income with id " + updatedIncome.getId()
+                        + " was changed since version " + updatedIncome.getVersion());
+            }
+            return false;
+        }
+        eventPublisher.publishEvent(TransactionChangedEvent.of(change.get()));
+        return true;
     }
 
 
+    /**
+     * Stores a new income. Its amount is converted to the user's base currency if the income has another currency.
+     *
+     * @throws IllegalArgumentException if no exchange rate for the income's date is known
+     */
     @Transactional
     public void createIncome(Income income){
         Objects.requireNonNull(income);
+        currencyService.applyBaseAmount(income);
         incomeRepository.save(income);
+        eventPublisher.publishEvent(TransactionChangedEvent.of(TransactionChange.created(TransactionSnapshot.of(income))));
     }
 
+    /**
+     * Deletes one income of a user with a single statement.
+     *
+     * @return {@code false} if the user has no income with the given id
+     */
     @Transactional
-    public void deleteIncome(int incomeId, int userId) {
-        getIncomeById(incomeId, userId);
-        incomeRepository.deleteById(incomeId);
+    public boolean deleteIncome(int incomeId, int userId) {
+        return deleteIncomes(userId, BulkSelection.ofIds(List.of(incomeId))) > 0;
     }
 
-    @Transactional(readOnly = true)
-    public List<Income> getIncomesByIncomeCategoryAndUserId(IncomeCategory incomeCategory, int userId) {
-        return incomeRepository.findByIncomeCategoryAndUserId(incomeCategory, userId);
+    /**
+     * Deletes the selected incomes of a user with a single statement.
+     *
+     * @return the number of deleted incomes
+     * @throws IllegalArgumentException if the selection is empty, too large or inconsistent
+     */
+    @Transactional
+    public int deleteIncomes(int userId, BulkSelection selection) {
+        selection.validate(maxBulkIds);
+        List<TransactionSnapshot> deleted = bulkRepository.deleteIncomes(userId, selection);
+        if (!deleted.isEmpty()) {
+            List<TransactionChange> changes = new ArrayList<>(deleted.size());
+            for (TransactionSnapshot snapshot : deleted) {
+                changes.add(TransactionChange.deleted(snapshot));
+            }
+            eventPublisher.publishEvent(new TransactionChangedEvent(changes));
+        }
+        return deleted.size();
     }
 
+    /**
+     * Moves the selected incomes of a user to another category with a single statement.
+     *
+     * @return the number of incomes that changed category
+     * @throws IllegalArgumentException if the category does not exist or the selection is empty, too large or inconsistent
+     */
+    @Transactional
+    public int moveIncomesToCategory(int userId, BulkSelection selection, long categoryId) {
+        selection.validate(maxBulkIds);
+        if (categoryRegistry.findIncomeCategory(categoryId).isEmpty()) {
+            throw new IllegalArgumentException("Invalid category id " + categoryId);
+        }
+        List<TransactionChange> changes = bulkRepository.moveIncomes(userId, selection, categoryId);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new TransactionChangedEvent(changes));
+        }
+        return changes.size();
+    }
 
     @Transactional(readOnly = true)
     public List<Income> getAllIncomes() {
@@ -75,7 +190,7 @@ public class IncomeService  {
 
     @Transactional(readOnly = true)
     public List<IncomeCategory> getAllIncomeCategories() {
-        return incomeCategoryRepository.findAll();
+        return categoryRegistry.getIncomeCategories();
     }
 
 
@@ -83,20 +198,50 @@ public class IncomeService  {
         return incomeRepository.findByIncomeCategory(incomeCategory);
     }
 
-    public List<Income> getAllExpensesDescendingOrder(int userId) {
-        return incomeRepository.findAllByOrderByTransactionDateDesc(userId);
+    @Transactional(readOnly = true)
+    public KeysetPage<IncomeRow> getIncomesPageDescending(int userId, KeysetCursor after, int limit) {
+        List<IncomeRow> rows = after == null
+                ? incomeRepository.findPageByUserIdDesc(userId, Limit.of(limit + 1))
+                : incomeRepository.findPageByUserIdDescAfter(userId, after.getTransactionDate(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, KeysetCursor::of);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<IncomeRow> getIncomesPageAscending(int userId, KeysetCursor after, int limit) {
+        List<IncomeRow> rows = after == null
+                ? incomeRepository.findPageByUserIdAsc(userId, Limit.of(limit + 1))
+                : incomeRepository.findPageByUserIdAscAfter(userId, after.getTransactionDate(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, KeysetCursor::of);
     }
 
-    public List<Income> getAllExpensesAscendingOrder(int userId) {
-        return incomeRepository.findAllByOrderByTransactionDateAsc(userId);
+    /**
+     * Writes all incomes of a user as NDJSON, reading them from a database cursor while they are written.
+     *
+     * @param userId     the ID of the user
+     * @param descending whether the newest income comes first
+     * @param writer     the writer receiving the rows
+     * @return the number of incomes written
+     * @throws IOException if a row cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long writeIncomes(int userId, boolean descending, NdjsonWriter writer) throws IOException {
+        try (Stream<IncomeRow> rows = descending ? incomeRepository.streamByUserIdDesc(userId) : incomeRepository.streamByUserIdAsc(userId)) {
+            return writer.writeAll(rows);
+        }
     }
 
-    public List<Income> filterIncomesByAmountRange(int userId, float fromAmount, float toAmount) {
-        return incomeRepository.findByAmountBetweenOrderByAmountAsc(userId, fromAmount, toAmount);
+    @Transactional(readOnly = true)
+    public KeysetPage<IncomeRow> filterIncomesByAmountRange(int userId, float fromAmount, float toAmount,
+                                                            AmountCursor after, int limit) {
+        List<IncomeRow> rows = after == null
+                ? incomeRepository.findAmountPageByUserId(userId, fromAmount, toAmount, Limit.of(limit + 1))
+                : incomeRepository.findAmountPageByUserIdAfter(userId, toAmount, after.getAmount(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, AmountCursor::of);
     }
 
-    public List<Income> filterIncomesByAmountStartingFrom(int userId, float fromAmount) {
-        return incomeRepository.findByAmountGreaterThanEqualOrderByAmountAsc(userId, fromAmount);
+    @Transactional(readOnly = true)
+    public KeysetPage<IncomeRow> searchIncomes(TransactionSearchCriteria criteria, KeysetCursor after, int limit) {
+        List<IncomeRow> rows = searchRepository.searchIncomes(criteria, after, limit + 1);
+        return KeysetPage.of(rows, limit, KeysetCursor::of);
     }
 }
-
@@ -0,0 +1,73 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the {@code ledger_entry} read model in step with expense and income writes.
+ * Created and updated transactions are upserted and deleted ones removed, with batched statements in the writer's transaction.
+ */
+@Service
+public class LedgerService {
+    private static final String UPSERT_SQL =
+            "INSERT INTO ledger_entry (id, user_id, type, amount, transaction_date, name, category_id, original_amount, currency) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET user_id = EXCLUDED.user_id, type = EXCLUDED.type, amount = EXCLUDED.amount, " +
+            "transaction_date = EXCLUDED.transaction_date, name = EXCLUDED.name, category_id = EXCLUDED.category_id, " +
+            "original_amount = EXCLUDED.original_amount, currency = EXCLUDED.currency";
+    private static final String DELETE_SQL = "DELETE FROM ledger_entry WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Applies a batch of transaction changes to the ledger.
+     * Runs in the transaction that published the event, so the ledger commits or rolls back together with the rows.
+     *
+     * @param event the published changes
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        List<TransactionSnapshot> upserts = new ArrayList<>();
+        List<TransactionSnapshot> deletes = new ArrayList<>();
+        for (TransactionChange change : event.getChanges()) {
+            if (change.getAfter() != null) {
+                upserts.add(change.getAfter());
+            } else {
+                deletes.add(change.getBefore());
+            }
+        }
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes, BulkIngestService.JDBC_BATCH_SIZE,
+                    (ps, row) -> ps.setInt(1, row.getId()));
+        }
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, upserts, BulkIngestService.JDBC_BATCH_SIZE, (ps, row) -> {
+                ps.setInt(1, row.getId());
+                ps.setInt(2, row.getUserId());
+                ps.setString(3, row.getType().name());
+                ps.setFloat(4, row.getAmount());
+                ps.setDate(5, Date.valueOf(row.getTransactionDate()));
+                ps.setString(6, row.getName());
+                ps.setLong(7, row.getCategoryId());
+                ps.setFloat(8, row.getOriginalAmount());
+                ps.setString(9, row.getCurrency());
+            });
+        }
+    }
+}
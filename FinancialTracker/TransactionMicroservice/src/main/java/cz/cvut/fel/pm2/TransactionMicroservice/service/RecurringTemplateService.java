@@ -0,0 +1,88 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.RecurringTemplate;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.RecurringTemplateRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Manages the recurring templates of users. Their occurrences are inserted by {@link RecurringTransactionGenerator}.
+ */
+@Service
+@Transactional
+public class RecurringTemplateService {
+    private static final LocalDate EARLIEST_START_DATE = LocalDate.of(2000, 1, 1);
+
+    private final RecurringTemplateRepository templateRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final CurrencyService currencyService;
+
+    public RecurringTemplateService(RecurringTemplateRepository templateRepository, CategoryRegistry categoryRegistry,
+                                    CurrencyService currencyService) {
+        this.templateRepository = templateRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.currencyService = currencyService;
+    }
+
+    /**
+     * Validates and stores a new template of a user. Its first occurrence is due on its start date; occurrences up to
+     * the current day are inserted by the next generation run. A template without a currency is in the user's base
+     * currency.
+     *
+     * @param userId   the ID of the user
+     * @param template the template to store
+     * @return the stored template
+     * @throws IllegalArgumentException if the template is invalid or no exchange rate to the user's base currency is known
+     *                                  on its start date
+     */
+    public RecurringTemplate createTemplate(int userId, RecurringTemplate template) {
+        if (template.getType() == null || template.getFrequency() == null) {
+            throw new IllegalArgumentException("Type and frequency are required");
+        }
+        boolean categoryExists = template.getType() == TransactionType.EXPENSE
+                ? categoryRegistry.findExpenseCategory(template.getCategoryId()).isPresent()
+                : categoryRegistry.findIncomeCategory(template.getCategoryId()).isPresent();
+        if (!categoryExists) {
+            throw new IllegalArgumentException("Invalid category id");
+        }
+        if (template.getName() == null) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        if (template.getStartDate() == null || template.getStartDate().isBefore(EARLIEST_START_DATE)) {
+            throw new IllegalArgumentException("Start date must not be before 2000");
+        }
+        if (template.getEndDate() != null && template.getEndDate().isBefore(template.getStartDate())) {
+            throw new IllegalArgumentException("End date must not be before the start date");
+        }
+
+        String baseCurrency = currencyService.getBaseCurrency(userId);
+        template.setCurrency(template.getCurrency() == null ? baseCurrency : currencyService.currencyCode(template.getCurrency()));
+        if (!template.getCurrency().equals(baseCurrency)) {
+            // occurrences take the latest rate on or before their date, so one on the start date covers all of them
+            currencyService.getRate(template.getCurrency(), baseCurrency, template.getStartDate());
+        }
+        template.setId(null);
+        template.setUserId(userId);
+        template.setOccurrences(0);
+        template.setNextDate(template.getStartDate());
+        return templateRepository.save(template);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecurringTemplate> getTemplates(int userId) {
+        return templateRepository.findAllByUserIdOrderById(userId);
+    }
+
+    /**
+     * Deletes a template of a user. Occurrences already inserted are kept.
+     *
+     * @return {@code false} if the user has no such template
+     */
+    public boolean deleteTemplate(long id, int userId) {
+        return templateRepository.deleteByIdAndUserId(id, userId) > 0;
+    }
+}
@@ -0,0 +1,242 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.RecurringTemplate;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.RecurringGenerationRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.RecurringGenerationRepository.GenerationRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Inserts the due occurrences of all recurring templates as expenses and incomes.
+ * A run splits the user ids with due templates into ranges that are generated in parallel. Each range is walked in
+ * batches of templates; a batch inserts its occurrences, advances its templates and records the position of the range
+ * in one database transaction, so a crashed run neither loses nor duplicates occurrences and a restarted run resumes
+ * after the last committed batch. Batches lock only the templates they claim, so request traffic is not blocked.
+ * Each occurrence is converted to the base currency of its user at the rate of its own date, with the base currencies
+ * of a batch read in one query and the rates held in memory. A template with an occurrence that cannot be converted is
+ * skipped and left due, so it is generated by a later run once the rate is known, without holding up its batch.
+ */
+@Slf4j
+@Component
+public class RecurringTransactionGenerator {
+    /**
+     * Upper bound of the occurrences inserted for one template per run; a template further behind catches up over
+     * the following runs.
+     */
+    static final int MAX_OCCURRENCES_PER_RUN = 366;
+    private static final int PROGRESS_RETENTION_DAYS = 7;
+
+    private final RecurringGenerationRepository generationRepository;
+    private final BulkIngestService bulkIngestService;
+    private final CurrencyService currencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter generatedCounter;
+    private final int partitions;
+    private final int threads;
+    private final int batchSize;
+
+    public RecurringTransactionGenerator(RecurringGenerationRepository generationRepository,
+                                         BulkIngestService bulkIngestService,
+                                         CurrencyService currencyService,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${recurring.generate.partitions:16}") int partitions,
+                                         @Value("${recurring.generate.threads:2}") int threads,
+                                         @Value("${recurring.generate.batch-size:500}") int batchSize) {
+        this.generationRepository = generationRepository;
+        this.bulkIngestService = bulkIngestService;
+        this.currencyService = currencyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.generatedCounter = Counter.builder("transactions.recurring.generated")
+                .description("Expenses and incomes inserted from recurring templates")
+                .register(meterRegistry);
+        this.partitions = partitions;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Daily generation of the occurrences due up to the current day.
+     * Holds a scheduler thread until the run has finished; see {@code spring.task.scheduling.pool.size}.
+     */
+    @Scheduled(cron = "${recurring.generate.cron:0 15 0 * * *}")
+    public void scheduledGenerate() {
+        generateDue(LocalDate.now());
+    }
+
+    /**
+     * Generates the occurrences of all templates due up to a day, resuming a run of the same day if one was
+     * interrupted.
+     *
+     * @param today the last day to generate occurrences for
+     * @return the number of inserted expenses and incomes
+     */
+    public long generateDue(LocalDate today) {
+        List<GenerationRange> ranges = planRanges(today);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<GenerationRange, Future<Long>> results = new LinkedHashMap<>();
+            for (GenerationRange range : ranges) {
+                if (!range.completed()) {
+                    results.put(range, executor.submit(() -> generateRange(today, range)));
+                }
+            }
+
+            long generated = 0;
+            List<Integer> failedRanges = new ArrayList<>();
+            for (Map.Entry<GenerationRange, Future<Long>> result : results.entrySet()) {
+                try {
+                    generated += result.getValue().get();
+                } catch (ExecutionException e) {
+                    log.error("Recurring generation failed for users {} to {}",
+                            result.getKey().rangeStart(), result.getKey().rangeEnd(), e.getCause());
+                    failedRanges.add(result.getKey().rangeStart());
+                }
+            }
+            log.info("Recurring generation for {} inserted {} transactions in {} ranges, {} failures",
+                    today, generated, results.size(), failedRanges.size());
+            return generated;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recurring generation interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the ranges of the day's run, splitting the user ids with due templates into equal ranges if the run has
+     * not been planned yet.
+     */
+    private List<GenerationRange> planRanges(LocalDate today) {
+        return transactionTemplate.execute(status -> {
+            generationRepository.deleteRangesBefore(today.minusDays(PROGRESS_RETENTION_DAYS));
+            List<GenerationRange> ranges = generationRepository.findRanges(today);
+            if (!ranges.isEmpty()) {
+                return ranges;
+            }
+            int[] userRange = generationRepository.findDueUserRange(today);
+            if (userRange == null) {
+                return List.of();
+            }
+
+            long width = Math.max(1, ((long) userRange[1] - userRange[0] + partitions) / partitions);
+            List<GenerationRange> planned = new ArrayList<>();
+            for (long start = userRange[0]; start <= userRange[1]; start += width) {
+                planned.add(GenerationRange.of((int) start, (int) Math.min(start + width - 1, userRange[1])));
+            }
+            generationRepository.insertRanges(today, planned);
+            return generationRepository.findRanges(today);
+        });
+    }
+
+    private long generateRange(LocalDate today, GenerationRange range) {
+        long generated = 0;
+        GenerationRange position = range;
+        while (!position.completed()) {
+            Batch batch = generateBatch(today, position);
+            generated += batch.generated();
+            position = batch.position();
+        }
+        return generated;
+    }
+
+    /**
+     * Claims the next templates of a range and, in the same transaction, inserts their due occurrences, advances them
+     * and records the new position of the range.
+     */
+    private Batch generateBatch(LocalDate today, GenerationRange position) {
+        Batch batch = transactionTemplate.execute(status -> {
+            List<RecurringTemplate> templates = generationRepository.claimDue(position, today, batchSize);
+            if (templates.isEmpty()) {
+                GenerationRange completed = position.complete();
+                generationRepository.saveProgress(today, completed);
+                return new Batch(completed, 0);
+            }
+
+            Map<Integer, String> baseCurrencies = currencyService.getBaseCurrencies(
+                    templates.stream().map(RecurringTemplate::getUserId).distinct().toList());
+            List<Occurrence> occurrences = new ArrayList<>();
+            for (RecurringTemplate template : templates) {
+                addOccurrences(template, today, baseCurrencies.get(template.getUserId()), occurrences);
+            }
+
+            List<Integer> ids = bulkIngestService.allocateIds(occurrences.size());
+            List<TransactionSnapshot> rows = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Occurrence occurrence = occurrences.get(i);
+                RecurringTemplate template = occurrence.template();
+                rows.add(new TransactionSnapshot(ids.get(i), template.getUserId(), template.getType(), template.getCategoryId(),
+                        occurrence.amount(), occurrence.date(), template.getName(), template.getAmount(), template.getCurrency()));
+            }
+            if (!rows.isEmpty()) {
+                bulkIngestService.insert(rows);
+            }
+            generationRepository.advance(templates);
+
+            GenerationRange next = position.after(templates.get(templates.size() - 1), templates.size() < batchSize);
+            generationRepository.saveProgress(today, next);
+            return new Batch(next, rows.size());
+        });
+        generatedCounter.increment(batch.generated());
+        return batch;
+    }
+
+    /**
+     * Converts the due occurrences of a template and advances it past them. If an occurrence cannot be converted, the
+     * template keeps its position and none of its occurrences are added.
+     */
+    private void addOccurrences(RecurringTemplate template, LocalDate today, String baseCurrency, List<Occurrence> occurrences) {
+        int first = occurrences.size();
+        int occurrenceCount = template.getOccurrences();
+        LocalDate nextDate = template.getNextDate();
+        try {
+            for (int i = 0; i < MAX_OCCURRENCES_PER_RUN && template.getNextDate() != null
+                    && !template.getNextDate().isAfter(today); i++) {
+                LocalDate date = template.getNextDate();
+                float amount = currencyService.convert(template.getAmount(), template.getCurrency(), baseCurrency, date);
+                occurrences.add(new Occurrence(template, date, amount));
+                advance(template);
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipped recurring template {} of user {}: {}", template.getId(), template.getUserId(), e.getMessage());
+            occurrences.subList(first, occurrences.size()).clear();
+            template.setOccurrences(occurrenceCount);
+            template.setNextDate(nextDate);
+        }
+    }
+
+    /**
+     * Moves a template to its next occurrence, or ends it once the occurrence is past its end date.
+     */
+    private static void advance(RecurringTemplate template) {
+        int occurrences = template.getOccurrences() + 1;
+        LocalDate next = template.getFrequency().occurrence(template.getStartDate(), occurrences);
+        template.setOccurrences(occurrences);
+        template.setNextDate(template.getEndDate() != null && next.isAfter(template.getEndDate()) ? null : next);
+    }
+
+    private record Batch(GenerationRange position, int generated) {
+    }
+
+    private record Occurrence(RecurringTemplate template, LocalDate date, float amount) {
+    }
+}
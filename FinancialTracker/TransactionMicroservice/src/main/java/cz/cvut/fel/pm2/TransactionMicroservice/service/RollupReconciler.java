@@ -0,0 +1,204 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryMonthTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.RollupDriftReport;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.UserMonthRollup;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.TransactionRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.UserMonthRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recomputes the monthly rollups from the raw expense and income rows and repairs any drift.
+ * Users are reconciled in parallel, each one in its own database transaction.
+ */
+@Slf4j
+@Component
+public class RollupReconciler {
+    private static final double TOLERANCE = 0.005;
+
+    private final TransactionRepository transactionRepository;
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final UserMonthRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter driftCounter;
+    private final int threads;
+
+    public RollupReconciler(TransactionRepository transactionRepository,
+                            ExpenseRepository expenseRepository,
+                            IncomeRepository incomeRepository,
+                            UserMonthRollupRepository rollupRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${rollup.reconcile.threads:4}") int threads) {
+        this.transactionRepository = transactionRepository;
+        this.expenseRepository = expenseRepository;
+        this.incomeRepository = incomeRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.driftCounter = Counter.builder("transactions.rollup.drift")
+                .description("Rollup rows found out of step with the raw transactions")
+                .register(meterRegistry);
+        this.threads = threads;
+    }
+
+    /**
+     * Builds the rollups on first start, when the table is still empty but transactions exist.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0 && transactionRepository.count() > 0) {
+            log.info("Rollup table is empty, rebuilding it from raw transactions");
+            reconcileAll();
+        }
+    }
+
+    /**
+     * Nightly reconciliation of all users.
+     */
+    @Scheduled(cron = "${rollup.reconcile.cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        reconcileAll();
+    }
+
+    /**
+     * Reconciles the rollups of every user that has transactions or rollup rows.
+     *
+     * @return the drift found and repaired
+     */
+    public RollupDriftReport reconcileAll() {
+        TreeSet<Integer> userIds = new TreeSet<>(transactionRepository.findDistinctUserIds());
+        userIds.addAll(rollupRepository.findDistinctUserIds());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<Integer, Future<Integer>> results = new HashMap<>();
+            for (Integer userId : userIds) {
+                results.put(userId, executor.submit(() -> reconcileUser(userId)));
+            }
+
+            int usersWithDrift = 0;
+            int rowsWithDrift = 0;
+            List<Integer> failedUsers = new ArrayList<>();
+            for (Map.Entry<Integer, Future<Integer>> result : results.entrySet()) {
+                try {
+                    int drift = result.getValue().get();
+                    if (drift > 0) {
+                        usersWithDrift++;
+                        rowsWithDrift += drift;
+                    }
+                } catch (ExecutionException e) {
+                    log.error("Rollup reconciliation failed for user {}", result.getKey(), e.getCause());
+                    failedUsers.add(result.getKey());
+                }
+            }
+            RollupDriftReport report = new RollupDriftReport(userIds.size(), usersWithDrift, rowsWithDrift, failedUsers);
+            log.info("Rollup reconciliation checked {} users, repaired {} rows for {} users, {} failures",
+                    report.getUsersChecked(), report.getRowsWithDrift(), report.getUsersWithDrift(), failedUsers.size());
+            return report;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup reconciliation interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Recomputes the rollups of one user and replaces the stored rows when they differ.
+     *
+     * @param userId the ID of the user
+     * @return the number of rollup rows that were missing, extra or wrong
+     */
+    public int reconcileUser(int userId) {
+        Integer drift = transactionTemplate.execute(status -> {
+            rollupRepository.lockUser(RollupService.ROLLUP_LOCK_NAMESPACE, userId);
+
+            Map<String, UserMonthRollup> expected = new HashMap<>();
+            for (CategoryMonthTotal total : expenseRepository.sumAmountByMonthAndCategory(userId)) {
+                UserMonthRollup rollup = newRollup(userId, TransactionType.EXPENSE, total);
+                rollup.setExpenseSum(total.getTotal());
+                expected.put(keyOf(rollup), rollup);
+            }
+            for (CategoryMonthTotal total : incomeRepository.sumAmountByMonthAndCategory(userId)) {
+                UserMonthRollup rollup = newRollup(userId, TransactionType.INCOME, total);
+                rollup.setIncomeSum(total.getTotal());
+                expected.put(keyOf(rollup), rollup);
+            }
+
+            int driftedRows = 0;
+            Map<String, UserMonthRollup> stored = new HashMap<>();
+            for (UserMonthRollup rollup : rollupRepository.findAllByUserId(userId)) {
+                stored.put(keyOf(rollup), rollup);
+                if (!matches(rollup, expected.get(keyOf(rollup)))) {
+                    driftedRows++;
+                }
+            }
+            for (String key : expected.keySet()) {
+                if (!stored.containsKey(key)) {
+                    driftedRows++;
+                }
+            }
+
+            if (driftedRows > 0) {
+                log.warn("Rollups of user {} drifted in {} rows, rebuilding them", userId, driftedRows);
+                rollupRepository.deleteAllByUserId(userId);
+                rollupRepository.flush();
+                rollupRepository.saveAll(expected.values());
+            }
+            return driftedRows;
+        });
+        int driftedRows = Objects.requireNonNullElse(drift, 0);
+        driftCounter.increment(driftedRows);
+        return driftedRows;
+    }
+
+    private UserMonthRollup newRollup(int userId, TransactionType type, CategoryMonthTotal total) {
+        UserMonthRollup rollup = new UserMonthRollup();
+        rollup.setUserId(userId);
+        rollup.setMonth(LocalDate.of(total.getYear(), total.getMonth(), 1));
+        rollup.setCategoryType(type);
+        rollup.setCategoryId(total.getCategoryId());
+        rollup.setTransactionCount(total.getCount());
+        return rollup;
+    }
+
+    private String keyOf(UserMonthRollup rollup) {
+        return rollup.getMonth() + "|" + rollup.getCategoryType() + "|" + rollup.getCategoryId();
+    }
+
+    private boolean matches(UserMonthRollup actual, UserMonthRollup expected) {
+        if (expected == null) {
+            return actual.getTransactionCount() == 0
+                    && Math.abs(actual.getIncomeSum()) < TOLERANCE
+                    && Math.abs(actual.getExpenseSum()) < TOLERANCE;
+        }
+        return actual.getTransactionCount() == expected.getTransactionCount()
+                && Math.abs(actual.getIncomeSum() - expected.getIncomeSum()) < TOLERANCE
+                && Math.abs(actual.getExpenseSum() - expected.getExpenseSum()) < TOLERANCE;
+    }
+}
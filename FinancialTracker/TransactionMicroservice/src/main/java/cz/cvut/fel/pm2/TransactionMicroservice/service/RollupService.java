@@ -0,0 +1,89 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.UserMonthRollupRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps the {@code user_month_rollup} table in step with expense and income writes.
+ * Each write is turned into deltas per (user, month, category) which are applied with an upsert in the writer's transaction.
+ */
+@Service
+public class RollupService {
+    /**
+     * Namespace of the advisory locks taken per user, shared with {@link RollupReconciler}.
+     */
+    static final int ROLLUP_LOCK_NAMESPACE = 0x524F4C4C;
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+            .comparingInt(RollupKey::userId)
+            .thenComparing(RollupKey::month)
+            .thenComparing(RollupKey::type)
+            .thenComparingLong(RollupKey::categoryId);
+
+    private final UserMonthRollupRepository rollupRepository;
+
+    public RollupService(UserMonthRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Applies the rollup deltas of a batch of transaction changes.
+     * Runs in the transaction that published the event, so rollups commit or roll back together with the rows.
+     *
+     * @param event the published changes
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Map<RollupKey, double[]> deltas = new TreeMap<>(KEY_ORDER);
+        for (TransactionChange change : event.getChanges()) {
+            accumulate(deltas, change.getBefore(), -1);
+            accumulate(deltas, change.getAfter(), 1);
+        }
+
+        TreeSet<Integer> users = new TreeSet<>();
+        deltas.keySet().forEach(key -> users.add(key.userId()));
+        users.forEach(userId -> rollupRepository.lockUser(ROLLUP_LOCK_NAMESPACE, userId));
+
+        deltas.forEach((key, delta) -> {
+            if (delta[0] == 0 && delta[1] == 0 && delta[2] == 0) {
+                return;
+            }
+            rollupRepository.applyDelta(key.userId(), key.month(), key.type().name(), key.categoryId(),
+                    delta[0], delta[1], (long) delta[2]);
+        });
+    }
+
+    private void accumulate(Map<RollupKey, double[]> deltas, TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null) {
+            return;
+        }
+        Objects.requireNonNull(snapshot.getTransactionDate());
+        RollupKey key = new RollupKey(snapshot.getUserId(), snapshot.getTransactionDate().withDayOfMonth(1),
+                snapshot.getType(), snapshot.getCategoryId());
+        double[] delta = deltas.computeIfAbsent(key, k -> new double[3]);
+        if (snapshot.getType() == TransactionType.INCOME) {
+            delta[0] += sign * (double) snapshot.getAmount();
+        } else {
+            delta[1] += sign * (double) snapshot.getAmount();
+        }
+        delta[2] += sign;
+    }
+
+    private record RollupKey(int userId, LocalDate month, TransactionType type, long categoryId) {
+    }
+}
@@ -0,0 +1,159 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.cache.LedgerCache;
+import cz.cvut.fel.pm2.TransactionMicroservice.cache.UserLedger;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlySummaryDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlyTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TopStatisticsDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.LedgerEntryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.UserMonthRollupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Service computing aggregated statistics over a user's transactions.
+ * Statistics are computed from the user's {@link UserLedger} held by the {@link LedgerCache}, without a database round
+ * trip once the ledger is cached. Users whose ledger cannot be cached are answered by the database: whole-month ranges
+ * from the {@code user_month_rollup} table, other ranges aggregated from the {@code ledger_entry} table.
+ */
+@Service
+public class StatisticsService {
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final UserMonthRollupRepository rollupRepository;
+    private final LedgerCache ledgerCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Timer monthlySummaryTimer;
+    private final Timer categoryTotalsTimer;
+    private final Timer topTimer;
+
+    public StatisticsService(LedgerEntryRepository ledgerEntryRepository, UserMonthRollupRepository rollupRepository,
+                             LedgerCache ledgerCache, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.rollupRepository = rollupRepository;
+        this.ledgerCache = ledgerCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.monthlySummaryTimer = Timer.builder("transactions.stats.monthly")
+                .description("Time to compute the monthly income/expense summary")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.categoryTotalsTimer = Timer.builder("transactions.stats.categories")
+                .description("Time to compute the per-category totals")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.topTimer = Timer.builder("transactions.stats.top")
+                .description("Time to find the top categories and largest transactions")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Computes income and expense totals per month for a user.
+     *
+     * @param userId   the ID of the user
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate   the last day of the range (inclusive)
+     * @return one summary per month that has at least one transaction, ordered by month
+     */
+    public List<MonthlySummaryDTO> getMonthlySummary(int userId, LocalDate fromDate, LocalDate toDate) {
+        return monthlySummaryTimer.record(() -> ledgerCache.get(userId)
+                .map(ledger -> ledger.monthlySummary(fromDate, toDate))
+                .orElseGet(() -> readOnlyTransaction.execute(status -> monthlySummaryFromDatabase(userId, fromDate, toDate))));
+    }
+
+    /**
+     * Computes the total and count of a user's expenses or incomes per category.
+     *
+     * @param userId   the ID of the user
+     * @param type     the type of transactions to aggregate
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate   the last day of the range (inclusive)
+     * @return one total per category with at least one transaction, largest total first
+     */
+    public List<CategoryTotal> getCategoryTotals(int userId, TransactionType type, LocalDate fromDate, LocalDate toDate) {
+        return categoryTotalsTimer.record(() -> ledgerCache.get(userId)
+                .map(ledger -> ledger.categoryTotals(type, fromDate, toDate))
+                .orElseGet(() -> readOnlyTransaction.execute(status ->
+                        ledgerEntryRepository.sumAmountByCategory(userId, type, fromDate, toDate))));
+    }
+
+    /**
+     * Finds the categories with the largest totals and the largest single transactions of one type.
+     * Cached ledgers keep only the top entries in bounded heaps and fetch the rows of the largest transactions by id;
+     * otherwise the database reads the largest transactions in index order and stops at the limit.
+     *
+     * @param userId   the ID of the user
+     * @param type     the type of transactions
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate   the last day of the range (inclusive)
+     * @param limit    the maximum number of categories and of transactions
+     * @return the top categories, largest total first, and the largest transactions, largest amount first
+     */
+    public TopStatisticsDTO getTop(int userId, TransactionType type, LocalDate fromDate, LocalDate toDate, int limit) {
+        return topTimer.record(() -> ledgerCache.get(userId)
+                .map(ledger -> new TopStatisticsDTO(ledger.topCategories(type, fromDate, toDate, limit),
+                        rowsInOrder(userId, ledger.largestIds(type, fromDate, toDate, limit))))
+                .orElseGet(() -> readOnlyTransaction.execute(status -> new TopStatisticsDTO(
+                        ledgerEntryRepository.sumAmountByCategory(userId, type, fromDate, toDate, Limit.of(limit)),
+                        ledgerEntryRepository.findLargestByUserId(userId, type, fromDate, toDate, Limit.of(limit))))));
+    }
+
+    private List<TransactionRow> rowsInOrder(int userId, List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, TransactionRow> rows = new HashMap<>();
+        for (TransactionRow row : readOnlyTransaction.execute(status -> ledgerEntryRepository.findAllByUserIdAndIdIn(userId, ids))) {
+            rows.put(row.getId(), row);
+        }
+        return ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<MonthlySummaryDTO> monthlySummaryFromDatabase(int userId, LocalDate fromDate, LocalDate toDate) {
+        List<MonthlyTotal> incomes;
+        List<MonthlyTotal> expenses;
+        if (isWholeMonths(fromDate, toDate)) {
+            incomes = rollupRepository.sumIncomeByMonth(userId, fromDate, toDate);
+            expenses = rollupRepository.sumExpenseByMonth(userId, fromDate, toDate);
+        } else {
+            incomes = ledgerEntryRepository.sumAmountByMonth(userId, TransactionType.INCOME, fromDate, toDate);
+            expenses = ledgerEntryRepository.sumAmountByMonth(userId, TransactionType.EXPENSE, fromDate, toDate);
+        }
+
+        Map<YearMonth, MonthlySummaryDTO> months = new TreeMap<>();
+        for (MonthlyTotal total : incomes) {
+            summaryFor(months, total).setIncome(total.getTotal());
+        }
+        for (MonthlyTotal total : expenses) {
+            summaryFor(months, total).setExpense(total.getTotal());
+        }
+        months.values().removeIf(summary -> summary.getIncome() == 0 && summary.getExpense() == 0);
+        return new ArrayList<>(months.values());
+    }
+
+    private boolean isWholeMonths(LocalDate fromDate, LocalDate toDate) {
+        return fromDate.getDayOfMonth() == 1 && toDate.equals(YearMonth.from(toDate).atEndOfMonth());
+    }
+
+    private MonthlySummaryDTO summaryFor(Map<YearMonth, MonthlySummaryDTO> months, MonthlyTotal total) {
+        YearMonth month = YearMonth.of(total.getYear(), total.getMonth());
+        return months.computeIfAbsent(month, m -> new MonthlySummaryDTO(m.toString()));
+    }
+}
@@ -0,0 +1,158 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.LedgerEntryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.search.TransactionNameIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link TransactionNameIndex} in step with expense and income writes.
+ * Changes are applied once the writing transaction has committed, so rolled back writes never reach the index.
+ * The index is built from {@code ledger_entry} at startup and can be rebuilt through the {@code searchindex} actuator endpoint.
+ * <p>
+ * Writes through other instances never reach this listener. Like the ledger cache, the indexer therefore remembers the
+ * {@link UserDataVersionService data version} it has indexed per user and reindexes a user whose version has moved on
+ * before searching the user's transactions. A write applied here advances the indexed version only if it follows
+ * directly on it; users not indexed since the last rebuild are reindexed on their first search.
+ */
+@Slf4j
+@Component
+public class TransactionNameIndexer {
+    private final TransactionNameIndex index;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final UserDataVersionService userDataVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Integer, Long> indexedVersions = new ConcurrentHashMap<>();
+    private final Counter reindexes;
+
+    public TransactionNameIndexer(TransactionNameIndex index,
+                                  LedgerEntryRepository ledgerEntryRepository,
+                                  UserDataVersionService userDataVersionService,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.index = index;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.userDataVersionService = userDataVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.reindexes = Counter.builder("transactions.search.reindexes")
+                .description("Users reindexed because their data changed outside this instance's index")
+                .register(meterRegistry);
+        Gauge.builder("transactions.search.documents", index, TransactionNameIndex::size)
+                .description("Transactions held by the name search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Replaces the index content with all ledger entries.
+     *
+     * @return the number of indexed transactions
+     */
+    public long rebuild() {
+        long started = System.nanoTime();
+        Long indexed = transactionTemplate.execute(status -> {
+            try (Stream<TransactionRow> rows = ledgerEntryRepository.streamAll()) {
+                return index.rebuild(rows.map(TransactionNameIndexer::toSnapshot));
+            }
+        });
+        synchronized (this) {
+            indexedVersions.clear();
+        }
+        long count = Objects.requireNonNullElse(indexed, 0L);
+        log.info("Transaction name index rebuilt with {} transactions in {} ms", count, (System.nanoTime() - started) / 1_000_000);
+        return count;
+    }
+
+    /**
+     * Reindexes a user whose data has changed since the indexed version, e.g. through another instance.
+     * Joins the caller's transaction if there is one.
+     *
+     * @param userId the ID of the user about to be searched
+     */
+    public void ensureCurrent(int userId) {
+        long version = userDataVersionService.currentVersion(userId);
+        Long indexed = indexedVersions.get(userId);
+        if (indexed != null && indexed >= version) {
+            return;
+        }
+
+        List<TransactionSnapshot> transactions = transactionTemplate.execute(status -> {
+            try (Stream<TransactionRow> rows = ledgerEntryRepository.streamByUserIdAsc(userId)) {
+                return rows.map(TransactionNameIndexer::toSnapshot).toList();
+            }
+        });
+        synchronized (this) {
+            index.replaceUser(userId, Objects.requireNonNullElse(transactions, List.of()));
+            indexedVersions.put(userId, version);
+        }
+        reindexes.increment();
+        log.debug("Reindexed the transactions of user {} at version {}", userId, version);
+    }
+
+    /**
+     * Applies a batch of committed transaction changes to the index.
+     * Changes published outside a transaction are applied immediately.
+     *
+     * @param event the published changes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(TransactionChangedEvent.READ_MODEL_ORDER)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        List<TransactionSnapshot> upserts = new ArrayList<>();
+        List<Integer> deletes = new ArrayList<>();
+        for (TransactionChange change : event.getChanges()) {
+            if (change.getAfter() != null) {
+                upserts.add(change.getAfter());
+            } else {
+                deletes.add(change.getBefore().getId());
+            }
+        }
+
+        synchronized (this) {
+            if (!deletes.isEmpty()) {
+                index.delete(deletes);
+            }
+            if (!upserts.isEmpty()) {
+                index.upsert(upserts);
+            }
+            for (Integer userId : event.getUserIds()) {
+                OptionalLong version = event.getUserVersion(userId);
+                if (version.isPresent()) {
+                    indexedVersions.computeIfPresent(userId,
+                            (id, indexed) -> indexed == version.getAsLong() - 1 ? version.getAsLong() : indexed);
+                }
+            }
+        }
+    }
+
+    private static TransactionSnapshot toSnapshot(TransactionRow row) {
+        return new TransactionSnapshot(row.getId(), row.getUserId(), row.getType(), row.getCategoryId(),
+                row.getAmount(), row.getTransactionDate(), row.getName());
+    }
+}
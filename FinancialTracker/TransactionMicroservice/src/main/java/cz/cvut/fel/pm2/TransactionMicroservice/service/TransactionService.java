@@ -1,28 +1,61 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.service;
 
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.Transaction;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.LedgerEntryRepository;
 import cz.cvut.fel.pm2.TransactionMicroservice.repository.TransactionRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.search.TransactionNameIndex;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.AmountCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.NdjsonWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Service for reads and writes that treat expenses and incomes alike.
+ * Reads are served from the flat {@code ledger_entry} table, which is kept in sync by {@link LedgerService}.
+ */
 @Service
 @Transactional
 public class TransactionService {
     private final TransactionRepository transactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionNameIndex nameIndex;
+    private final TransactionNameIndexer nameIndexer;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public TransactionService(TransactionRepository transactionRepository) {
+    public TransactionService(TransactionRepository transactionRepository, LedgerEntryRepository ledgerEntryRepository,
+                              TransactionNameIndex nameIndex, TransactionNameIndexer nameIndexer,
+                              ApplicationEventPublisher eventPublisher) {
         this.transactionRepository = transactionRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.nameIndex = nameIndex;
+        this.nameIndexer = nameIndexer;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Transaction getTransactionById(int transactionId, int userId) {
-        Optional<Transaction> optionalTransaction = transactionRepository.findByIdAndUserId(transactionId, userId);
-        return optionalTransaction.orElseThrow(() -> new RuntimeException("Transaction not found with id: " + transactionId + " for user: " + userId));
+    @Transactional(readOnly = true)
+    public TransactionRow getTransactionById(int transactionId, int userId) {
+        Optional<TransactionRow> optionalRow = ledgerEntryRepository.findByIdAndUserId(transactionId, userId);
+        return optionalRow.orElseThrow(() -> new RuntimeException("Transaction not found with id: " + transactionId + " for user: " + userId));
     }
 
     @Transactional
@@ -33,39 +66,99 @@ public class TransactionService {
                 throw new IllegalArgumentException("Transaction with ID " + transaction.getId() + " already exists.");
             } else {
                 transactionRepository.save(transaction);
+                eventPublisher.publishEvent(TransactionChangedEvent.of(TransactionChange.created(TransactionSnapshot.of(transaction))));
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    public List<Transaction> getAllExpensesDescendingOrder(int userId) {
-        return transactionRepository.findAllByOrderByTransactionDateDesc(userId);
+    @Transactional(readOnly = true)
+    public KeysetPage<TransactionRow> getTransactionsPageDescending(int userId, KeysetCursor after, int limit) {
+        List<TransactionRow> rows = after == null
+                ? ledgerEntryRepository.findPageByUserIdDesc(userId, Limit.of(limit + 1))
+                : ledgerEntryRepository.findPageByUserIdDescAfter(userId, after.getTransactionDate(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, KeysetCursor::of);
     }
 
-    public List<Transaction> getAllExpensesAscendingOrder(int userId) {
-        return transactionRepository.findAllByOrderByTransactionDateAsc(userId);
+    @Transactional(readOnly = true)
+    public KeysetPage<TransactionRow> getTransactionsPageAscending(int userId, KeysetCursor after, int limit) {
+        List<TransactionRow> rows = after == null
+                ? ledgerEntryRepository.findPageByUserIdAsc(userId, Limit.of(limit + 1))
+                : ledgerEntryRepository.findPageByUserIdAscAfter(userId, after.getTransactionDate(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, KeysetCursor::of);
+    }
+
+    /**
+     * Writes all transactions of a user as NDJSON, reading them from a database cursor while they are written.
+     *
+     * @param userId     the ID of the user
+     * @param descending whether the newest transaction comes first
+     * @param writer     the writer receiving the rows
+     * @return the number of transactions written
+     * @throws IOException if a row cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long writeTransactions(int userId, boolean descending, NdjsonWriter writer) throws IOException {
+        try (Stream<TransactionRow> rows = descending ? ledgerEntryRepository.streamByUserIdDesc(userId) : ledgerEntryRepository.streamByUserIdAsc(userId)) {
+            return writer.writeAll(rows);
+        }
     }
 
     @Transactional
     public Transaction updateTransaction(Transaction updatedTransaction, int userId) {
         Objects.requireNonNull(updatedTransaction);
-        Transaction existingTransaction = getTransactionById(updatedTransaction.getId(), userId);
+        Transaction existingTransaction = findTransaction(updatedTransaction.getId(), userId);
         transactionRepository.save(existingTransaction);
         return existingTransaction;
     }
 
     @Transactional
     public void deleteTransaction(int transactionId, int userId) {
-        getTransactionById(transactionId, userId);
+        Transaction existingTransaction = findTransaction(transactionId, userId);
         transactionRepository.deleteById(transactionId);
+        eventPublisher.publishEvent(TransactionChangedEvent.of(TransactionChange.deleted(TransactionSnapshot.of(existingTransaction))));
     }
 
-    public List<Transaction> getAllTransactions(int userId) {
-        return transactionRepository.findAllByUserId(userId);
+    @Transactional(readOnly = true)
+    public KeysetPage<TransactionRow> filterTransactionsByAmountRange(int userId, float fromAmount, float toAmount,
+                                                                      AmountCursor after, int limit) {
+        List<TransactionRow> rows = after == null
+                ? ledgerEntryRepository.findAmountPageByUserId(userId, fromAmount, toAmount, Limit.of(limit + 1))
+                : ledgerEntryRepository.findAmountPageByUserIdAfter(userId, toAmount, after.getAmount(), after.getId(), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, AmountCursor::of);
     }
 
-    public List<Transaction> filterTransactionsByAmountRange(float fromAmount, float toAmount) {
-        return transactionRepository.findByAmountBetweenOrderByAmountAsc(fromAmount, toAmount);
+    /**
+     * Finds transactions by words of their name with the full-text index, then reads the matches from the ledger.
+     * The user is reindexed first if the index has not seen all of the user's writes.
+     *
+     * @param type the type of transactions to search, or {@code null} for both
+     * @return the matching transactions, best match first
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionRow> searchByName(int userId, String query, TransactionType type, int limit) {
+        nameIndexer.ensureCurrent(userId);
+        List<Integer> ids = nameIndex.search(userId, query, type, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, TransactionRow> rowsById = new HashMap<>();
+        for (TransactionRow row : ledgerEntryRepository.findAllByUserIdAndIdIn(userId, ids)) {
+            rowsById.put(row.getId(), row);
+        }
+        List<TransactionRow> rows = new ArrayList<>(rowsById.size());
+        for (Integer id : ids) {
+            TransactionRow row = rowsById.get(id);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private Transaction findTransaction(int transactionId, int userId) {
+        Optional<Transaction> optionalTransaction = transactionRepository.findByIdAndUserId(transactionId, userId);
+        return optionalTransaction.orElseThrow(() -> new RuntimeException("Transaction not found with id: " + transactionId + " for user: " + userId));
     }
 }
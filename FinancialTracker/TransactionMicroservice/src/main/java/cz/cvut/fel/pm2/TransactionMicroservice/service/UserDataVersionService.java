@@ -0,0 +1,106 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a version per user that increases with every write of the user's expenses or incomes.
+ * Responses computed from a user's data can be identified by this version, so a client that already holds the
+ * response for the current version does not need it again.
+ * <p>
+ * The ledger cache and the search index of this instance follow a write only after it has committed. Until they have,
+ * the new version is already visible in the database but responses may still be computed from the old data, so the
+ * version of a user with a write in flight here is not handed out. Writes through other instances are not tracked:
+ * the ledger cache and the name indexer compare the version they hold with the current one before serving a user.
+ */
+@Service
+public class UserDataVersionService {
+    private static final String SELECT_SQL = "SELECT version FROM user_data_version WHERE user_id = ?";
+    private static final String INCREMENT_SQL =
+            "INSERT INTO user_data_version (user_id, version) SELECT user_id, 1 FROM unnest(?::integer[]) AS u(user_id) " +
+            "ON CONFLICT (user_id) DO UPDATE SET version = user_data_version.version + 1 RETURNING user_id, version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Integer, Integer> writesInFlight = new ConcurrentHashMap<>();
+
+    public UserDataVersionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param userId the ID of the user
+     * @return the current version of the user's data, 0 if the user has never written any
+     */
+    public long currentVersion(int userId) {
+        List<Long> versions = jdbcTemplate.queryForList(SELECT_SQL, Long.class, userId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /**
+     * Reads the version of a user's data that all read models have caught up with.
+     * The version is read before checking for writes in flight: a write that committed before the read is either
+     * still in flight or fully applied.
+     *
+     * @param userId the ID of the user
+     * @return the current version, or empty while a write of the user is committing
+     */
+    public OptionalLong settledVersion(int userId) {
+        long version = currentVersion(userId);
+        return writesInFlight.containsKey(userId) ? OptionalLong.empty() : OptionalLong.of(version);
+    }
+
+    /**
+     * Increments the version of every user touched by a batch of transaction changes and records the new versions on
+     * the event, so after-commit listeners know which version the changes bring a user to.
+     * Runs in the transaction that published the event, so the new version becomes visible together with the rows.
+     * Users are incremented in id order, so concurrent writers touching several users cannot deadlock.
+     * The users count as having a write in flight until the transaction has completed and the after-commit listeners
+     * ordered {@link TransactionChangedEvent#READ_MODEL_ORDER} have run.
+     *
+     * @param event the published changes
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        SortedSet<Integer> userIds = event.getUserIds();
+        if (userIds.isEmpty()) {
+            return;
+        }
+        for (Integer userId : userIds) {
+            writesInFlight.merge(userId, 1, Integer::sum);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                for (Integer userId : userIds) {
+                    writesInFlight.computeIfPresent(userId, (id, writes) -> writes > 1 ? writes - 1 : null);
+                }
+            }
+        });
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INCREMENT_SQL);
+            ps.setArray(1, connection.createArrayOf("integer", userIds.toArray(new Integer[0])));
+            return ps;
+        }, (RowCallbackHandler) rs -> event.recordUserVersion(rs.getInt(1), rs.getLong(2)));
+    }
+}
@@ -0,0 +1,87 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.util;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.IncomeRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position in a list of transactions ordered by {@code (transaction_date, id)}.
+ * The cursor is handed to clients as a URL-safe Base64 string and points at the last row of the previous page.
+ */
+@Getter
+public final class KeysetCursor implements PageCursor {
+    private final LocalDate transactionDate;
+    private final int id;
+
+    public KeysetCursor(LocalDate transactionDate, int id) {
+        this.transactionDate = transactionDate;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor pointing at the given expense.
+     *
+     * @param row the last expense of a page
+     * @return the cursor for the following page
+     */
+    public static KeysetCursor of(ExpenseRow row) {
+        return new KeysetCursor(row.getTransactionDate(), row.getId());
+    }
+
+    /**
+     * Creates a cursor pointing at the given income.
+     *
+     * @param row the last income of a page
+     * @return the cursor for the following page
+     */
+    public static KeysetCursor of(IncomeRow row) {
+        return new KeysetCursor(row.getTransactionDate(), row.getId());
+    }
+
+    /**
+     * Creates a cursor pointing at the given ledger entry.
+     *
+     * @param row the last ledger entry of a page
+     * @return the cursor for the following page
+     */
+    public static KeysetCursor of(TransactionRow row) {
+        return new KeysetCursor(row.getTransactionDate(), row.getId());
+    }
+
+    @Override
+    public String encode() {
+        String raw = transactionDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param encoded the encoded cursor, may be {@code null} for the first page
+     * @return the decoded cursor or {@code null} if none was given
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static KeysetCursor decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + encoded);
+            }
+            LocalDate date = LocalDate.parse(raw.substring(0, separator));
+            int id = Integer.parseInt(raw.substring(separator + 1));
+            return new KeysetCursor(date, id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + encoded, e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows as newline-delimited JSON, one object per line.
+ * Rows pass through the fixed-size buffer of the JSON generator and, if the client accepts it, a gzip stream, so memory
+ * use does not grow with the number of rows. The first row is flushed as soon as it is written, so clients see data
+ * before the rest of the rows has been read from the database.
+ */
+public final class NdjsonWriter implements Closeable {
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final JsonGenerator generator;
+    private final OutputStream out;
+    private long rows;
+
+    public NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        this.out = out;
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Prepares an NDJSON response and opens a writer on its body, gzip-compressed if the request accepts gzip.
+     *
+     * @param request      the request being answered
+     * @param response     the response to write
+     * @param objectMapper the mapper serializing the rows
+     * @return the writer, which has to be closed to complete the response
+     * @throws IOException if the response body cannot be opened
+     */
+    public static NdjsonWriter forResponse(HttpServletRequest request, HttpServletResponse response,
+                                           ObjectMapper objectMapper) throws IOException {
+        response.setContentType(MEDIA_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || !acceptEncoding.toLowerCase().contains("gzip")) {
+            return new NdjsonWriter(response.getOutputStream(), objectMapper);
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return new NdjsonWriter(new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE, true), objectMapper);
+    }
+
+    /**
+     * Writes one row as a line of JSON.
+     *
+     * @param row the row to write
+     * @throws IOException if the row cannot be written
+     */
+    public void write(Object row) throws IOException {
+        generator.writeObject(row);
+        generator.writeRaw('\n');
+        if (++rows == 1) {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Writes every row of a stream, consuming it in order.
+     *
+     * @param rows the rows to write
+     * @return the number of rows written
+     * @throws IOException if a row cannot be written
+     */
+    public long writeAll(Stream<?> rows) throws IOException {
+        long written = 0;
+        Iterator<?> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            write(iterator.next());
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Flushes the remaining rows and completes the gzip stream, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+        out.close();
+    }
+}
@@ -0,0 +1,14 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.util;
+
+/**
+ * Position in a keyset-paginated listing that can be handed to clients as an opaque string.
+ */
+public interface PageCursor {
+
+    /**
+     * Encodes the cursor into its opaque string form.
+     *
+     * @return the encoded cursor
+     */
+    String encode();
+}
@@ -0,0 +1,10 @@
+-- Monthly spending limit of a user per expense category.
+-- The spend of a month is read from user_month_rollup, which every expense write already updates in its transaction,
+-- so evaluating a budget is one lookup of each table.
+create table user_budget (
+    user_id integer not null,
+    category_id bigint not null,
+    monthly_limit float8 not null check (monthly_limit > 0),
+    primary key (user_id, category_id),
+    constraint fk_user_budget_category foreign key (category_id) references expense_category
+);
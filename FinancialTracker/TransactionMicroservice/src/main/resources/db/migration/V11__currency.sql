@@ -0,0 +1,29 @@
+-- Transactions keep the amount as entered together with its currency. transaction.amount holds the amount converted
+-- to the user's base currency when the transaction was written, so every total, rollup and checkpoint derived from it
+-- adds up amounts of one currency. Existing rows were entered in the default base currency.
+alter table transaction add column currency varchar(3) not null default 'CZK';
+alter table transaction add column original_amount float4;
+update transaction set original_amount = amount;
+alter table transaction alter column original_amount set not null;
+alter table transaction alter column currency drop default;
+
+-- Occurrences of a template are converted on the day they fall on
+alter table recurring_template add column currency varchar(3) not null default 'CZK';
+alter table recurring_template alter column currency drop default;
+
+-- Base currency of a user; users without a row use the configured default
+create table user_currency (
+    user_id integer not null,
+    base_currency varchar(3) not null,
+    primary key (user_id)
+);
+
+-- Daily exchange rates: one unit of from_currency is worth rate units of to_currency on rate_date.
+-- The table is read whole into memory; a lookup takes the latest rate on or before the transaction date.
+create table exchange_rate (
+    from_currency varchar(3) not null,
+    to_currency varchar(3) not null,
+    rate_date date not null,
+    rate numeric(19, 8) not null check (rate > 0),
+    primary key (from_currency, to_currency, rate_date)
+);
@@ -0,0 +1,6 @@
+-- Expense and income amount filters are paged by (amount, id) like the ledger ones:
+-- WHERE user_id = ? AND amount BETWEEN ? AND ? [AND (amount, id) > (?, ?)] ORDER BY amount, id
+create index if not exists ix_transaction_user_amount_id on transaction (user_id, amount, id);
+
+-- Superseded by the index above
+drop index if exists ix_transaction_user_amount;
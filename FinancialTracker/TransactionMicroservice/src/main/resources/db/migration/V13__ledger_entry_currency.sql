@@ -0,0 +1,7 @@
+-- Listings read from ledger_entry show the amount as entered and its currency next to the converted amount,
+-- so a client can send them back unchanged when it updates a transaction.
+alter table ledger_entry add column original_amount float4;
+alter table ledger_entry add column currency varchar(3);
+update ledger_entry l set original_amount = t.original_amount, currency = t.currency from transaction t where t.id = l.id;
+alter table ledger_entry alter column original_amount set not null;
+alter table ledger_entry alter column currency set not null;
@@ -0,0 +1,55 @@
+-- Schema as created by Hibernate before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-version=1) and skip this script.
+
+create table expense_category (
+    id bigint generated by default as identity,
+    expense_category_name varchar(255) not null,
+    primary key (id)
+);
+
+create table income_category (
+    id bigint generated by default as identity,
+    income_category_name varchar(255) not null,
+    primary key (id)
+);
+
+create table transaction (
+    amount float4 not null,
+    id integer generated by default as identity,
+    transaction_date date not null,
+    user_id integer not null,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table expense (
+    id integer not null,
+    expense_category_id bigint not null,
+    primary key (id)
+);
+
+create table income (
+    id integer not null,
+    income_category_id bigint not null,
+    primary key (id)
+);
+
+alter table expense
+    add constraint FKhuho44ssbmqywb3nfmm4ljfmk
+    foreign key (expense_category_id)
+    references expense_category;
+
+alter table expense
+    add constraint FKpjkh4g79gl5arx0oyjdy63ymy
+    foreign key (id)
+    references transaction;
+
+alter table income
+    add constraint FKexikice0carufifesu0q5iaqx
+    foreign key (income_category_id)
+    references income_category;
+
+alter table income
+    add constraint FKo0cqlyxhy7geulnuli8hidwc8
+    foreign key (id)
+    references transaction;
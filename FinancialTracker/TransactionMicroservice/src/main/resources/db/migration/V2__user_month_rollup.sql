@@ -0,0 +1,14 @@
+-- Monthly rollups per user and category. The table may already exist where Hibernate created it.
+
+create table if not exists user_month_rollup (
+    expense_sum float(53) not null,
+    income_sum float(53) not null,
+    month date not null,
+    user_id integer not null,
+    category_id bigint not null,
+    id bigint generated by default as identity,
+    transaction_count bigint not null,
+    category_type varchar(16) not null check (category_type in ('EXPENSE','INCOME')),
+    primary key (id),
+    constraint uk_user_month_rollup unique (user_id, month, category_type, category_id)
+);
@@ -0,0 +1,15 @@
+-- Indexes for the repository query shapes. user_id and transaction_date live in the transaction table
+-- (joined inheritance), so expense and income queries use these indexes and join their own table by primary key.
+
+-- Listings, keyset pages, exports and monthly sums: WHERE user_id = ? [AND transaction_date ...] ORDER BY transaction_date, id
+create index if not exists ix_transaction_user_date_id on transaction (user_id, transaction_date, id);
+
+-- Amount filters of one user: WHERE user_id = ? AND amount BETWEEN ? AND ? ORDER BY amount
+create index if not exists ix_transaction_user_amount on transaction (user_id, amount);
+
+-- Amount filters across all users: WHERE amount BETWEEN ? AND ? ORDER BY amount
+create index if not exists ix_transaction_amount on transaction (amount);
+
+-- Lookups by category and the foreign keys to the category tables
+create index if not exists ix_expense_category on expense (expense_category_id);
+create index if not exists ix_income_category on income (income_category_id);
@@ -0,0 +1,29 @@
+-- One flat row per expense and income, so mixed listings and aggregations read a single table
+-- instead of joining transaction with expense and income.
+-- The foreign key is checked at commit because ledger rows may be written before Hibernate flushes the transaction row.
+
+create table ledger_entry (
+    id integer not null,
+    user_id integer not null,
+    type varchar(16) not null check (type in ('EXPENSE','INCOME')),
+    amount float4 not null,
+    transaction_date date not null,
+    name varchar(255) not null,
+    category_id bigint not null,
+    primary key (id),
+    constraint fk_ledger_entry_transaction foreign key (id) references transaction on delete cascade
+        deferrable initially deferred
+);
+
+-- per-user listings, keyset pages and monthly sums
+create index ix_ledger_entry_user_date_id on ledger_entry (user_id, transaction_date, id);
+-- amount range filter
+create index ix_ledger_entry_amount on ledger_entry (amount);
+
+insert into ledger_entry (id, user_id, type, amount, transaction_date, name, category_id)
+select t.id, t.user_id, 'EXPENSE', t.amount, t.transaction_date, t.name, e.expense_category_id
+from transaction t join expense e on e.id = t.id;
+
+insert into ledger_entry (id, user_id, type, amount, transaction_date, name, category_id)
+select t.id, t.user_id, 'INCOME', t.amount, t.transaction_date, t.name, i.income_category_id
+from transaction t join income i on i.id = t.id;
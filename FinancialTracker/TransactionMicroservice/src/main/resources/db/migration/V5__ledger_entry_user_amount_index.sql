@@ -0,0 +1,7 @@
+-- Amount filters are always scoped to one user and paged by (amount, id):
+-- WHERE user_id = ? AND amount BETWEEN ? AND ? [AND (amount, id) > (?, ?)] ORDER BY amount, id
+create index if not exists ix_ledger_entry_user_amount_id on ledger_entry (user_id, amount, id);
+
+-- The unscoped amount filters these indexes served are gone
+drop index if exists ix_ledger_entry_amount;
+drop index if exists ix_transaction_amount;
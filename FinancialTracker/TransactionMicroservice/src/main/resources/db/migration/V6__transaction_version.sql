@@ -0,0 +1,3 @@
+-- Row version for optimistic updates: PUT of an expense or income sends the version it read and
+-- UPDATE transaction ... WHERE id = ? AND user_id = ? AND version = ? fails instead of overwriting a newer write.
+alter table transaction add column version bigint not null default 0;
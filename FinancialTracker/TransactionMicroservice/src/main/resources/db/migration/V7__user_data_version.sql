@@ -0,0 +1,7 @@
+-- Per-user data version, incremented in the transaction of every expense or income write.
+-- List and statistics endpoints return it as their ETag and answer If-None-Match with 304 from this table alone.
+create table user_data_version (
+    user_id integer not null,
+    version bigint not null,
+    primary key (user_id)
+);
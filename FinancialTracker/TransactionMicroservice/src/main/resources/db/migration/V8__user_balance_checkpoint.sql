@@ -0,0 +1,10 @@
+-- Balance of a user at the start of a month: all incomes minus all expenses dated before it, in cents.
+-- Created for past months on the first balance query of a month and shifted in the transaction of every write
+-- dated before them, so a running balance reads one checkpoint plus at most the rows of the requested range
+-- and of the month before it.
+create table user_balance_checkpoint (
+    user_id integer not null,
+    month date not null,
+    balance_cents bigint not null,
+    primary key (user_id, month)
+);
@@ -0,0 +1,32 @@
+-- Recurring expenses and incomes. The generator materializes every occurrence up to the current day and advances
+-- next_date in the same database transaction, so an occurrence is inserted exactly once; next_date is null once the
+-- template has passed its end date.
+create table recurring_template (
+    id bigint generated by default as identity,
+    user_id integer not null,
+    type varchar(16) not null check (type in ('EXPENSE','INCOME')),
+    name varchar(255) not null,
+    amount float4 not null,
+    category_id bigint not null,
+    frequency varchar(16) not null check (frequency in ('DAILY','WEEKLY','MONTHLY','YEARLY')),
+    start_date date not null,
+    end_date date,
+    next_date date,
+    occurrences integer not null,
+    primary key (id)
+);
+
+-- per-user listings and the generator's keyset walk through a user id range
+create index ix_recurring_template_user_id on recurring_template (user_id, id);
+
+-- Progress of a generation run: the user id ranges it was split into and, per range, the last template handled by a
+-- committed batch. A run restarted on the same day resumes after that template.
+create table recurring_generation_range (
+    run_date date not null,
+    range_start integer not null,
+    range_end integer not null,
+    last_user_id integer not null,
+    last_template_id bigint not null,
+    completed boolean not null,
+    primary key (run_date, range_start)
+);
@@ -0,0 +1,230 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.cache;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChange;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionChangedEvent;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerCacheTest {
+
+    private static final LocalDate FROM = LocalDate.of(2000, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2099, 12, 31);
+
+    private final List<Integer> loads = new ArrayList<>();
+    private final Map<Integer, Long> versions = new HashMap<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void testLoadsOnceAndCountsHits() {
+        // Arrange
+        LedgerCache cache = new LedgerCache(this::load, this::version, DataSize.ofMegabytes(1), meterRegistry);
+
+        // Act
+        UserLedger first = cache.get(1).orElseThrow();
+        UserLedger second = cache.get(1).orElseThrow();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(List.of(1), loads);
+        assertEquals(1.0, requests("hit"));
+        assertEquals(1.0, requests("miss"));
+        assertEquals(first.estimatedBytes(), cache.totalBytes());
+        assertEquals(cache.totalBytes(), meterRegistry.get("transactions.ledger.cache.size").gauge().value());
+        assertEquals(1, meterRegistry.get("transactions.ledger.cache.user.size").summary().count());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedBeyondMaxSize() {
+        // Arrange
+        long ledgerBytes = load(0).estimatedBytes();
+        loads.clear();
+        LedgerCache cache = new LedgerCache(this::load, this::version, DataSize.ofBytes(ledgerBytes * 2), meterRegistry);
+
+        // Act
+        cache.get(1);
+        cache.get(2);
+        cache.get(1);
+        cache.get(3);
+        cache.get(1);
+        cache.get(2);
+
+        // Assert
+        assertEquals(List.of(1, 2, 3, 2), loads);
+        assertEquals(2, cache.userCount());
+        assertTrue(cache.totalBytes() <= ledgerBytes * 2);
+        assertEquals(2.0, meterRegistry.get("transactions.ledger.cache.evictions").counter().count());
+    }
+
+    @Test
+    public void testCommittedWritesUpdateCachedLedgers() {
+        // Arrange
+        LedgerCache cache = new LedgerCache(this::load, this::version, DataSize.ofMegabytes(1), meterRegistry);
+        UserLedger ledger = cache.get(1).orElseThrow();
+        TransactionSnapshot before = snapshot(100, 1, 5, 12.5f);
+        TransactionSnapshot moved = snapshot(100, 2, 5, 12.5f);
+
+        // Act
+        cache.onTransactionChanged(committed(1, new TransactionChangedEvent(List.of(
+                TransactionChange.created(before),
+                TransactionChange.created(snapshot(101, 1, 6, 0.1f))))));
+
+        // Assert
+        assertEquals(4, ledger.size());
+        assertEquals(12.5, ledger.categoryTotals(TransactionType.EXPENSE, FROM, TO).stream()
+                .filter(total -> total.getCategoryId() == 5).findFirst().orElseThrow().getTotal());
+
+        // Act
+        cache.onTransactionChanged(committed(2, TransactionChangedEvent.of(TransactionChange.updated(before, moved))));
+
+        // Assert
+        assertEquals(3, ledger.size());
+        assertEquals(1, cache.userCount());
+        assertSame(ledger, cache.get(1).orElseThrow());
+        assertEquals(List.of(1), loads);
+    }
+
+    @Test
+    public void testWriteThroughAnotherReplicaReloadsTheLedger() {
+        // Arrange
+        LedgerCache cache = new LedgerCache(this::load, this::version, DataSize.ofMegabytes(1), meterRegistry);
+        UserLedger first = cache.get(1).orElseThrow();
+
+        // Act; the version moves without this instance seeing the write
+        versions.put(1, 1L);
+        UserLedger second = cache.get(1).orElseThrow();
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(List.of(1, 1), loads);
+        assertEquals(1.0, requests("stale"));
+        assertSame(second, cache.get(1).orElseThrow());
+    }
+
+    @Test
+    public void testWriteAlreadyLoadedIsNotCountedTwice() {
+        // Arrange; the ledger is loaded after the write committed but before its listener ran
+        LedgerCache cache = new LedgerCache(this::load, this::version, DataSize.ofMegabytes(1), meterRegistry);
+        versions.put(1, 1L);
+        UserLedger ledger = cache.get(1).orElseThrow();
+
+        // Act
+        cache.onTransactionChanged(committed(1, TransactionChangedEvent.of(TransactionChange.created(snapshot(100, 1, 5, 1f)))));
+        versions.put(1, 2L);
+
+        // Assert
+        assertEquals(2, ledger.size());
+        assertNotSame(ledger, cache.get(1).orElseThrow());
+        assertEquals(List.of(1, 1), loads);
+    }
+
+    @Test
+    public void testWriteAfterAMissedVersionEvictsTheUser() {
+        // Arrange
+        LedgerCache cache = new LedgerCache(this::load, this::version, DataSize.ofMegabytes(1), meterRegistry);
+        cache.get(1);
+
+        // Act
+        cache.onTransactionChanged(committed(2, TransactionChangedEvent.of(TransactionChange.created(snapshot(100, 1, 5, 1f)))));
+
+        // Assert
+        assertEquals(0, cache.userCount());
+    }
+
+    @Test
+    public void testWriteDuringLoadKeepsTheLoadOutOfTheCache() {
+        // Arrange
+        AtomicReference<LedgerCache> cache = new AtomicReference<>();
+        cache.set(new LedgerCache(userId -> {
+            UserLedger loaded = load(userId);
+            if (loads.size() > 1) {
+                return loaded;
+            }
+            cache.get().onTransactionChanged(committed(1, TransactionChangedEvent.of(TransactionChange.created(snapshot(100, userId, 5, 1f)))));
+            return loaded;
+        }, this::version, DataSize.ofMegabytes(1), meterRegistry));
+
+        // Act
+        cache.get().get(1);
+        int cachedAfterFirstLoad = cache.get().userCount();
+        cache.get().get(1);
+
+        // Assert
+        assertEquals(0, cachedAfterFirstLoad);
+        assertEquals(List.of(1, 1), loads);
+        assertEquals(1, cache.get().userCount());
+    }
+
+    @Test
+    public void testUncacheableUsersAreNotCached() {
+        // Arrange
+        LedgerCache cache = new LedgerCache(userId -> null, this::version, DataSize.ofMegabytes(1), meterRegistry);
+
+        // Act & Assert
+        assertTrue(cache.get(1).isEmpty());
+        assertEquals(0, cache.userCount());
+    }
+
+    @Test
+    public void testWriteWithUnstorableCategoryEvictsTheUser() {
+        // Arrange
+        LedgerCache cache = new LedgerCache(this::load, this::version, DataSize.ofMegabytes(1), meterRegistry);
+        cache.get(1);
+
+        // Act
+        cache.onTransactionChanged(committed(1, TransactionChangedEvent.of(TransactionChange.created(snapshot(100, 1, 100_000, 1f)))));
+
+        // Assert
+        assertEquals(0, cache.userCount());
+        assertEquals(0, cache.totalBytes());
+    }
+
+    private UserLedger load(int userId) {
+        loads.add(userId);
+        UserLedger ledger = new UserLedger(0);
+        ledger.append(userId * 10, (int) LocalDate.of(2024, 1, 1).toEpochDay(), 500, 1, TransactionType.EXPENSE);
+        ledger.append(userId * 10 + 1, (int) LocalDate.of(2024, 1, 2).toEpochDay(), 1000, 1, TransactionType.INCOME);
+        ledger.trimToSize();
+        return ledger;
+    }
+
+    private long version(int userId) {
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Records the versions the writing transaction would have given the users of an event.
+     */
+    private TransactionChangedEvent committed(long version, TransactionChangedEvent event) {
+        for (Integer userId : event.getUserIds()) {
+            event.recordUserVersion(userId, version);
+            versions.put(userId, version);
+        }
+        return event;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("transactions.ledger.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static TransactionSnapshot snapshot(int id, int userId, long categoryId, float amount) {
+        return new TransactionSnapshot(id, userId, TransactionType.EXPENSE, categoryId, amount, LocalDate.of(2024, 1, 3), "Expense");
+    }
+}
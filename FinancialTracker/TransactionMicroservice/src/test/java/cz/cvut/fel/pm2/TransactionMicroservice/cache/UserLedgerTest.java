@@ -0,0 +1,137 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.cache;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlySummaryDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserLedgerTest {
+
+    private static final LocalDate FROM = LocalDate.of(2000, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2099, 12, 31);
+
+    private UserLedger ledger;
+
+    @BeforeEach
+    public void setUp() {
+        ledger = new UserLedger(0);
+        ledger.append(1, (int) LocalDate.of(2024, 1, 5).toEpochDay(), 1000, 1, TransactionType.EXPENSE);
+        ledger.append(2, (int) LocalDate.of(2024, 1, 20).toEpochDay(), 250_000, 7, TransactionType.INCOME);
+        ledger.append(3, (int) LocalDate.of(2024, 2, 1).toEpochDay(), 4550, 2, TransactionType.EXPENSE);
+        ledger.append(4, (int) LocalDate.of(2024, 3, 31).toEpochDay(), 1, 1, TransactionType.EXPENSE);
+    }
+
+    @Test
+    public void testMonthlySummary() {
+        // Act
+        List<MonthlySummaryDTO> months = ledger.monthlySummary(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 3, 30));
+
+        // Assert
+        assertEquals(List.of("2024-01", "2024-02"), months.stream().map(MonthlySummaryDTO::getMonth).toList());
+        assertEquals(2500.0, months.get(0).getIncome());
+        assertEquals(0.0, months.get(0).getExpense());
+        assertEquals(45.5, months.get(1).getExpense());
+    }
+
+    @Test
+    public void testCategoryTotalsLargestFirst() {
+        // Arrange
+        ledger.put(5, LocalDate.of(2024, 2, 2), 9000, 1, TransactionType.EXPENSE);
+
+        // Act
+        List<CategoryTotal> totals = ledger.categoryTotals(TransactionType.EXPENSE, FROM, TO);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), totals.stream().map(CategoryTotal::getCategoryId).toList());
+        assertEquals(100.01, totals.get(0).getTotal(), 1e-9);
+        assertEquals(3, totals.get(0).getCount());
+        assertEquals(List.of(7L), ledger.categoryTotals(TransactionType.INCOME, FROM, TO).stream()
+                .map(CategoryTotal::getCategoryId).toList());
+    }
+
+    @Test
+    public void testTopCategoriesAndLargestIdsAreBounded() {
+        // Arrange
+        ledger.put(5, LocalDate.of(2024, 2, 2), 9000, 3, TransactionType.EXPENSE);
+        ledger.put(6, LocalDate.of(2024, 2, 3), 4550, 2, TransactionType.EXPENSE);
+
+        // Act
+        List<CategoryTotal> top = ledger.topCategories(TransactionType.EXPENSE, FROM, TO, 2);
+        List<Integer> largest = ledger.largestIds(TransactionType.EXPENSE, FROM, TO, 3);
+
+        // Assert
+        assertEquals(List.of(2L, 3L), top.stream().map(CategoryTotal::getCategoryId).toList());
+        assertEquals(91.0, top.get(0).getTotal(), 1e-9);
+        assertEquals(List.of(5, 6, 3), largest);
+        assertEquals(List.of(3), ledger.largestIds(TransactionType.EXPENSE, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 1), 3));
+        assertEquals(List.of(2), ledger.largestIds(TransactionType.INCOME, FROM, TO, 3));
+    }
+
+    @Test
+    public void testPutReplacesAndRemoveDeletes() {
+        // Act
+        assertTrue(ledger.put(3, LocalDate.of(2023, 12, 31), 700, 2, TransactionType.EXPENSE));
+        assertTrue(ledger.remove(4));
+        assertFalse(ledger.remove(4));
+
+        // Assert
+        assertEquals(3, ledger.size());
+        List<MonthlySummaryDTO> months = ledger.monthlySummary(FROM, TO);
+        assertEquals(List.of("2023-12", "2024-01"), months.stream().map(MonthlySummaryDTO::getMonth).toList());
+        assertEquals(7.0, months.get(0).getExpense());
+    }
+
+    @Test
+    public void testRejectsCategoriesBeyondTheColumn() {
+        assertFalse(ledger.put(9, LocalDate.of(2024, 1, 1), 100, Short.MAX_VALUE + 1L, TransactionType.EXPENSE));
+        assertFalse(ledger.append(9, (int) LocalDate.of(2025, 1, 1).toEpochDay(), 100, -1, TransactionType.EXPENSE));
+        assertEquals(4, ledger.size());
+    }
+
+    @Test
+    public void testMatchesANaiveAggregationAfterRandomWrites() {
+        // Arrange
+        Random random = new Random(7);
+        long[] expected = new long[10];
+        int[] categoryOf = new int[500];
+        long[] centsOf = new long[500];
+        boolean[] present = new boolean[500];
+        UserLedger randomLedger = new UserLedger(0);
+
+        // Act
+        for (int step = 0; step < 5000; step++) {
+            int id = random.nextInt(500);
+            if (present[id]) {
+                expected[categoryOf[id]] -= centsOf[id];
+            }
+            if (random.nextInt(4) == 0) {
+                randomLedger.remove(id);
+                present[id] = false;
+                continue;
+            }
+            categoryOf[id] = random.nextInt(10);
+            centsOf[id] = random.nextInt(100_000);
+            present[id] = true;
+            expected[categoryOf[id]] += centsOf[id];
+            randomLedger.put(id, FROM.plusDays(random.nextInt(3000)), centsOf[id], categoryOf[id], TransactionType.EXPENSE);
+        }
+
+        // Assert
+        for (CategoryTotal total : randomLedger.categoryTotals(TransactionType.EXPENSE, FROM, TO)) {
+            assertEquals(expected[(int) total.getCategoryId()] / 100d, total.getTotal(), 1e-6);
+        }
+        double monthly = randomLedger.monthlySummary(FROM, TO).stream().mapToDouble(MonthlySummaryDTO::getExpense).sum();
+        long all = 0;
+        for (long categoryTotal : expected) {
+            all += categoryTotal;
+        }
+        assertEquals(all / 100d, monthly, 1e-6);
+    }
+}
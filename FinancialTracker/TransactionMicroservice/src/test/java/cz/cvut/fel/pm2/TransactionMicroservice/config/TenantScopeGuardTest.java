@@ -0,0 +1,92 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.config;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.EmbeddedPostgresTest;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.CurrencyRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseCategoryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.LedgerEntryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.RecurringGenerationRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "EUREKA_SERVER_URL=http://localhost:0/eureka",
+        "spring.cloud.discovery.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+public class TenantScopeGuardTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private ExpenseCategoryRepository expenseCategoryRepository;
+
+    @Autowired
+    private RecurringGenerationRepository recurringGenerationRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testCrossTenantMethodsAreRejectedWhileServingARequest() {
+        // Arrange
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // Act & Assert
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> expenseRepository.findAll());
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> transactionRepository.count());
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> transactionRepository.findDistinctUserIds());
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> ledgerEntryRepository.streamAll());
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> recurringGenerationRepository.findDueUserRange(LocalDate.now()));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> currencyRepository.findBaseCurrencies(List.of(1, 2)));
+    }
+
+    @Test
+    public void testScopedMethodsRunWhileServingARequest() {
+        // Arrange
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // Act & Assert
+        assertTrue(transactionRepository.findByIdAndUserId(1, 1).isEmpty());
+        assertFalse(transactionRepository.existsById(1));
+        assertNotNull(expenseCategoryRepository.findAll());
+        assertTrue(currencyRepository.findBaseCurrency(1).isEmpty());
+    }
+
+    @Test
+    public void testCrossTenantMethodsRunOutsideRequestsOrWhenAllowed() {
+        // The test context binds a mock request to the test thread; scheduled jobs and startup code run without one
+        RequestContextHolder.resetRequestAttributes();
+        assertEquals(0, transactionRepository.count());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals(0, TenantScopeGuard.crossTenant(() -> transactionRepository.count()));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> transactionRepository.count());
+        assertNull(TenantScopeGuard.crossTenant(() -> recurringGenerationRepository.findDueUserRange(LocalDate.now())));
+    }
+}
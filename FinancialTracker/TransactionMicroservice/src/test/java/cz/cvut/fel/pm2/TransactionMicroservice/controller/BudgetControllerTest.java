@@ -0,0 +1,72 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BudgetStatus;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BudgetService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BudgetController.class)
+public class BudgetControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BudgetService budgetService;
+
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
+    @Test
+    public void testSetBudget_InvalidLimit() throws Exception {
+        // Arrange
+        doThrow(new IllegalArgumentException("The monthly limit must be positive"))
+                .when(budgetService).setBudget(1, 3L, -5.0);
+
+        // Act & Assert
+        mockMvc.perform(put("/transactions/budgets/3").param("userId", "1").param("limit", "-5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("The monthly limit must be positive"));
+    }
+
+    @Test
+    public void testGetBudgetStatuses_ForMonth() throws Exception {
+        // Arrange
+        LocalDate month = LocalDate.of(2024, 2, 1);
+        when(budgetService.getStatuses(1, month))
+                .thenReturn(List.of(new BudgetStatus(3L, month, 200.0, 120.0)));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/budgets/status").param("userId", "1").param("month", "2024-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].categoryId").value(3))
+                .andExpect(jsonPath("$[0].month").value("2024-02-01"))
+                .andExpect(jsonPath("$[0].remaining").value(80.0))
+                .andExpect(jsonPath("$[0].overspent").value(false));
+    }
+
+    @Test
+    public void testDeleteBudget_NotFound() throws Exception {
+        // Arrange
+        when(budgetService.deleteBudget(1, 3L)).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(delete("/transactions/budgets/3").param("userId", "1"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,81 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.service.CurrencyService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CurrencyController.class)
+public class CurrencyControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CurrencyService currencyService;
+
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
+    @Test
+    public void testSetBaseCurrency_UserHasTransactions() throws Exception {
+        // Arrange
+        when(currencyService.setBaseCurrency(1, "EUR"))
+                .thenThrow(new IllegalArgumentException("The base currency cannot be changed once the user has transactions"));
+
+        // Act & Assert
+        mockMvc.perform(put("/transactions/currency/base").param("userId", "1").param("currency", "EUR"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("The base currency cannot be changed once the user has transactions"));
+    }
+
+    @Test
+    public void testSaveRates_Invalid() throws Exception {
+        // Arrange
+        doThrow(new IllegalArgumentException("Rate 0: a date and a positive rate are required"))
+                .when(currencyService).saveRates(anyList());
+
+        // Act & Assert
+        mockMvc.perform(put("/transactions/currency/rates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"fromCurrency\":\"EUR\",\"toCurrency\":\"CZK\",\"date\":\"2024-03-01\",\"rate\":-1}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Rate 0: a date and a positive rate are required"));
+    }
+
+    @Test
+    public void testGetRate() throws Exception {
+        // Arrange
+        LocalDate date = LocalDate.of(2024, 3, 2);
+        when(currencyService.currencyCode("eur")).thenReturn("EUR");
+        when(currencyService.currencyCode("CZK")).thenReturn("CZK");
+        when(currencyService.getRate("EUR", "CZK", date)).thenReturn(new BigDecimal("25.30"));
+        when(currencyService.getRate("CZK", "EUR", date))
+                .thenThrow(new IllegalArgumentException("No CZK/EUR exchange rate on or before 2024-03-02"));
+        when(currencyService.currencyCode("EUR")).thenReturn("EUR");
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/currency/rate").param("from", "eur").param("to", "CZK").param("date", "2024-03-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromCurrency").value("EUR"))
+                .andExpect(jsonPath("$.rate").value(25.30));
+        mockMvc.perform(get("/transactions/currency/rate").param("from", "CZK").param("to", "EUR").param("date", "2024-03-02"))
+                .andExpect(status().isNotFound());
+    }
+}
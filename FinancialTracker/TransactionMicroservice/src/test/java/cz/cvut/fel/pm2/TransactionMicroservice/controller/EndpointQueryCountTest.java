@@ -0,0 +1,705 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.EmbeddedPostgresTest;
+import cz.cvut.fel.pm2.TransactionMicroservice.config.TenantScopeGuard;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Income;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.IncomeCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.LedgerEntryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BalanceService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.CategoryRegistry;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.ExpenseService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.IncomeService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.RecurringTransactionGenerator;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.RollupReconciler;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.NdjsonWriter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements Hibernate prepares for each read endpoint, so a list spanning many categories
+ * is still answered by a single query and no endpoint loads associations one row at a time.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "EUREKA_SERVER_URL=http://localhost:0/eureka",
+        "spring.cloud.discovery.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"
+})
+@AutoConfigureMockMvc
+public class EndpointQueryCountTest extends EmbeddedPostgresTest {
+
+    private static final int USER_ID = 42;
+    private static final int CATEGORIES = 5;
+    private static final int ROWS_PER_CATEGORY = 4;
+
+    private static boolean seeded;
+    private static int expenseId;
+    private static int incomeId;
+    private static long expenseCategoryId;
+    private static long incomeCategoryId;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private IncomeService incomeService;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private RollupReconciler rollupReconciler;
+
+    @Autowired
+    private RecurringTransactionGenerator recurringGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @BeforeEach
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        for (int c = 1; c <= CATEGORIES; c++) {
+            expenseService.addExpenseCategory("Expense category " + c);
+            incomeService.addIncomeCategory("Income category " + c);
+        }
+        categoryRegistry.reload();
+        List<ExpenseCategory> expenseCategories = categoryRegistry.getExpenseCategories();
+        List<IncomeCategory> incomeCategories = categoryRegistry.getIncomeCategories();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < CATEGORIES * ROWS_PER_CATEGORY; i++) {
+                LocalDate date = LocalDate.of(2023, 1, 1).plusDays(i * 7L);
+
+                Expense expense = new Expense();
+                expense.setUserId(USER_ID);
+                expense.setAmount(10 + i);
+                expense.setName("Expense " + i);
+                expense.setTransactionDate(date);
+                expense.setExpenseCategory(expenseCategories.get(i % CATEGORIES));
+                expenseService.createExpense(expense);
+                expenseId = expense.getId();
+
+                Income income = new Income();
+                income.setUserId(USER_ID);
+                income.setAmount(100 + i);
+                income.setName("Income " + i);
+                income.setTransactionDate(date);
+                income.setIncomeCategory(incomeCategories.get(i % CATEGORIES));
+                incomeService.createIncome(income);
+                incomeId = income.getId();
+            }
+        });
+        expenseCategoryId = expenseCategories.get(0).getId();
+        incomeCategoryId = incomeCategories.get(0).getId();
+        seeded = true;
+    }
+
+    @Test
+    public void testOpenSessionInViewIsDisabled() {
+        assertFalse(applicationContext.containsBean("openEntityManagerInViewInterceptor"));
+    }
+
+    @Test
+    public void testExpenseEndpointsIssueOneQuery() throws Exception {
+        assertStatements(1, "/transactions/expenses/all_expenses_desc");
+        assertStatements(1, "/transactions/expenses/all_expenses_asc");
+        assertStatements(1, "/transactions/expenses/" + expenseId);
+        assertStatements(1, "/transactions/expenses/expenses-by-category/" + expenseCategoryId);
+        assertStatements(1, "/transactions/expenses/filter-by-amount?from=0&to=1000");
+        assertStatements(1, "/transactions/expenses/filter-by-amount?from=0");
+        assertStatements(1, "/transactions/expenses/search?categoryId=" + expenseCategoryId + "&minAmount=0&name=expense");
+        assertStatements(0, "/transactions/expenses/categories");
+    }
+
+    @Test
+    public void testIncomeEndpointsIssueOneQuery() throws Exception {
+        assertStatements(1, "/transactions/incomes/all_incomes_desc");
+        assertStatements(1, "/transactions/incomes/all_incomes_asc");
+        assertStatements(1, "/transactions/incomes/" + incomeId);
+        assertStatements(1, "/transactions/incomes/incomes-by-category/" + incomeCategoryId);
+        assertStatements(1, "/transactions/incomes/filter-by-amount?from=0&to=1000");
+        assertStatements(1, "/transactions/incomes/filter-by-amount?from=0");
+        assertStatements(1, "/transactions/incomes/search?categoryId=" + incomeCategoryId + "&minAmount=0&name=income");
+        assertStatements(0, "/transactions/incomes/categories");
+    }
+
+    @Test
+    public void testTransactionEndpointsIssueOneQuery() throws Exception {
+        assertStatements(1, "/transactions/all_transactions_desc");
+        assertStatements(1, "/transactions/all_transactions_asc");
+        assertStatements(1, "/transactions/all");
+        assertStatements(1, "/transactions/" + expenseId);
+        assertStatements(1, "/transactions/filter-by-amount?from=0&to=1000");
+        // the first search of a user after startup indexes the user's transactions
+        mockMvc.perform(get("/transactions/search-by-name").param("userId", String.valueOf(USER_ID)).param("q", "expens"));
+        assertStatements(1, "/transactions/search-by-name?q=expens");
+    }
+
+    @Test
+    public void testNameSearchSeesCommittedWrites() throws Exception {
+        mockMvc.perform(get("/transactions/search-by-name").param("userId", String.valueOf(USER_ID))
+                        .param("q", "incme 7").param("type", "INCOME"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Income 7"))
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    public void testNameSearchSeesWritesThroughOtherInstances() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 13;
+        Expense expense = new Expense();
+        expense.setUserId(otherUserId);
+        expense.setAmount(30);
+        expense.setName("Bakery");
+        expense.setTransactionDate(LocalDate.of(2023, 7, 1));
+        expense.setExpenseCategory(categoryRegistry.getExpenseCategories().get(0));
+        expenseService.createExpense(expense);
+        mockMvc.perform(get("/transactions/search-by-name").param("userId", String.valueOf(otherUserId)).param("q", "bakery"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        // Act; a rename committed by another instance, which this instance's listeners never see
+        jdbcTemplate.update("UPDATE ledger_entry SET name = 'Butcher' WHERE id = ?", expense.getId());
+        jdbcTemplate.update("UPDATE user_data_version SET version = version + 1 WHERE user_id = ?", otherUserId);
+
+        // Assert
+        mockMvc.perform(get("/transactions/search-by-name").param("userId", String.valueOf(otherUserId)).param("q", "butcher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Butcher"));
+        mockMvc.perform(get("/transactions/search-by-name").param("userId", String.valueOf(otherUserId)).param("q", "bakery"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void testCategoryStatisticsFollowCommittedWrites() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/transactions/stats/categories").param("userId", String.valueOf(USER_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(CATEGORIES))
+                .andExpect(jsonPath("$[0].total").value(86.0))
+                .andExpect(jsonPath("$[0].count").value(ROWS_PER_CATEGORY));
+
+        Expense expense = new Expense();
+        expense.setUserId(USER_ID);
+        expense.setAmount(100.25f);
+        expense.setName("Late expense");
+        expense.setTransactionDate(LocalDate.of(2023, 1, 1));
+        expense.setExpenseCategory(categoryRegistry.findExpenseCategory(expenseCategoryId).orElseThrow());
+
+        // Act & Assert
+        expenseService.createExpense(expense);
+        mockMvc.perform(get("/transactions/stats/categories").param("userId", String.valueOf(USER_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].categoryId").value(expenseCategoryId))
+                .andExpect(jsonPath("$[0].total").value(170.25))
+                .andExpect(jsonPath("$[0].count").value(ROWS_PER_CATEGORY + 1));
+
+        expenseService.deleteExpense(expense.getId(), USER_ID);
+        mockMvc.perform(get("/transactions/stats/categories").param("userId", String.valueOf(USER_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].total").value(86.0));
+    }
+
+    @Test
+    public void testBulkEditsKeepDerivedDataInStep() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 1;
+        List<ExpenseCategory> categories = categoryRegistry.getExpenseCategories();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Expense expense = new Expense();
+            expense.setUserId(otherUserId);
+            expense.setAmount(10 * (i + 1));
+            expense.setName("Bulk " + i);
+            expense.setTransactionDate(LocalDate.of(2023, 3, i + 1));
+            expense.setExpenseCategory(categories.get(0));
+            expenseService.createExpense(expense);
+            ids.add(expense.getId());
+        }
+        long targetCategoryId = categories.get(1).getId();
+        String firstTwo = "{\"ids\":[" + ids.get(0) + "," + ids.get(1) + "]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/bulk-recategorize").param("userId", String.valueOf(otherUserId))
+                        .param("categoryId", String.valueOf(targetCategoryId))
+                        .contentType(MediaType.APPLICATION_JSON).content(firstTwo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+        mockMvc.perform(post("/transactions/expenses/bulk-delete").param("userId", String.valueOf(USER_ID))
+                        .contentType(MediaType.APPLICATION_JSON).content(firstTwo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(0));
+        mockMvc.perform(get("/transactions/stats/categories").param("userId", String.valueOf(otherUserId)))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].categoryId").value(categories.get(0).getId()))
+                .andExpect(jsonPath("$[0].total").value(70.0));
+
+        mockMvc.perform(post("/transactions/expenses/bulk-delete").param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryIds\":[" + targetCategoryId + "],\"maxAmount\":15}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+        mockMvc.perform(get("/transactions/search-by-name").param("userId", String.valueOf(otherUserId)).param("q", "bulk"))
+                .andExpect(jsonPath("$.length()").value(3));
+        mockMvc.perform(get("/transactions/all").param("userId", String.valueOf(otherUserId)))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].categoryId").value(targetCategoryId));
+        assertEquals(0, rollupReconciler.reconcileUser(otherUserId));
+    }
+
+    @Test
+    public void testUpdatesAreCheckedAgainstTheVersionRead() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 2;
+        List<ExpenseCategory> categories = categoryRegistry.getExpenseCategories();
+        Expense expense = new Expense();
+        expense.setUserId(otherUserId);
+        expense.setAmount(25);
+        expense.setName("Versioned");
+        expense.setTransactionDate(LocalDate.of(2023, 5, 1));
+        expense.setExpenseCategory(categories.get(0));
+        expenseService.createExpense(expense);
+        String uri = "/transactions/expenses/" + expense.getId();
+        String body = "{\"amount\":40,\"name\":\"Versioned\",\"transactionDate\":\"2023-05-02\"," +
+                "\"expenseCategory\":{\"id\":" + categories.get(1).getId() + "},\"version\":%d}";
+
+        // Act & Assert
+        mockMvc.perform(get(uri).param("userId", String.valueOf(otherUserId)))
+                .andExpect(jsonPath("$.version").value(0));
+        mockMvc.perform(put(uri).param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON).content(body.formatted(0)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(uri).param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON).content(body.formatted(0)))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put(uri).param("userId", String.valueOf(USER_ID))
+                        .contentType(MediaType.APPLICATION_JSON).content(body.formatted(1)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/transactions/incomes/" + expense.getId()).param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":1,\"name\":\"x\",\"transactionDate\":\"2023-05-02\"," +
+                                "\"incomeCategory\":{\"id\":" + categoryRegistry.getIncomeCategories().get(0).getId() + "},\"version\":1}"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get(uri).param("userId", String.valueOf(otherUserId)))
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.amount").value(40.0))
+                .andExpect(jsonPath("$.expenseCategory.id").value(categories.get(1).getId()));
+        mockMvc.perform(get("/transactions/stats/categories").param("userId", String.valueOf(otherUserId))
+                        .param("from", "2023-05-01").param("to", "2023-05-31"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].categoryId").value(categories.get(1).getId()))
+                .andExpect(jsonPath("$[0].total").value(40.0));
+        assertEquals(0, rollupReconciler.reconcileUser(otherUserId));
+    }
+
+    @Test
+    public void testListsAreNotModifiedUntilTheUserWrites() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 3;
+        String uri = "/transactions/expenses/all_expenses_desc";
+        String eTag = mockMvc.perform(get(uri).param("userId", String.valueOf(otherUserId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(eTag);
+
+        // Act & Assert
+        mockMvc.perform(get(uri).param("userId", String.valueOf(otherUserId)).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        expenseService.createExpense(expense(otherUserId + 1));
+        mockMvc.perform(get(uri).param("userId", String.valueOf(otherUserId)).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        expenseService.createExpense(expense(otherUserId));
+        String newETag = mockMvc.perform(get(uri).param("userId", String.valueOf(otherUserId)).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(eTag, newETag);
+        mockMvc.perform(get("/transactions/stats/categories").param("userId", String.valueOf(otherUserId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].total").value(5.0));
+    }
+
+    @Test
+    public void testRunningBalanceStartsFromACheckpoint() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 5;
+        IncomeCategory incomeCategory = categoryRegistry.getIncomeCategories().get(0);
+        incomeService.createIncome(income(otherUserId, 1000, LocalDate.of(2023, 1, 10), incomeCategory));
+        expenseService.createExpense(expense(otherUserId, 200, LocalDate.of(2023, 2, 5)));
+        expenseService.createExpense(expense(otherUserId, 50.5f, LocalDate.of(2023, 3, 15)));
+        incomeService.createIncome(income(otherUserId, 10, LocalDate.of(2023, 3, 20), incomeCategory));
+        String sql = "SELECT balance_cents FROM user_balance_checkpoint WHERE user_id = ? AND month = DATE '2023-03-01'";
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/balance").param("userId", String.valueOf(otherUserId))
+                        .param("from", "2023-03-01").param("to", "2023-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].date").value("2023-03-01"))
+                .andExpect(jsonPath("$[0].balance").value(800.0))
+                .andExpect(jsonPath("$[1].date").value("2023-03-15"))
+                .andExpect(jsonPath("$[1].balance").value(749.5))
+                .andExpect(jsonPath("$[2].balance").value(759.5));
+        assertEquals(80000L, jdbcTemplate.queryForObject(sql, Long.class, otherUserId));
+
+        Expense late = expense(otherUserId, 100, LocalDate.of(2023, 1, 20));
+        expenseService.createExpense(late);
+        assertEquals(70000L, jdbcTemplate.queryForObject(sql, Long.class, otherUserId));
+        mockMvc.perform(get("/transactions/balance").param("userId", String.valueOf(otherUserId))
+                        .param("from", "2023-03-16").param("to", "2023-03-19"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].date").value("2023-03-16"))
+                .andExpect(jsonPath("$[0].balance").value(649.5));
+
+        expenseService.deleteExpense(late.getId(), otherUserId);
+        assertEquals(80000L, jdbcTemplate.queryForObject(sql, Long.class, otherUserId));
+    }
+
+    @Test
+    public void testRunningBalanceWithCurrentCheckpointsTakesNoLock() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 10;
+        IncomeCategory incomeCategory = categoryRegistry.getIncomeCategories().get(0);
+        incomeService.createIncome(income(otherUserId, 100, LocalDate.of(2023, 1, 10), incomeCategory));
+        RequestBuilder request = get("/transactions/balance").param("userId", String.valueOf(otherUserId))
+                .param("from", "2023-02-01").param("to", "2023-02-28");
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        // Act & Assert; another transaction holds the lock of the user throughout
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(?, ?)", Integer.class,
+                        BalanceService.BALANCE_LOCK_NAMESPACE, otherUserId);
+                Future<MvcResult> response = executor.submit(() -> mockMvc.perform(request).andReturn());
+                MvcResult result = assertDoesNotThrow(() -> response.get(10, TimeUnit.SECONDS));
+                assertEquals(200, result.getResponse().getStatus());
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRecurringOccurrencesAreGeneratedOnce() throws Exception {
+        // Arrange
+        int rentUserId = USER_ID + 6;
+        int salaryUserId = USER_ID + 7;
+        mockMvc.perform(post("/transactions/recurring/add-template").param("userId", String.valueOf(rentUserId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"EXPENSE\",\"name\":\"Rent\",\"amount\":500,\"categoryId\":" + expenseCategoryId +
+                                ",\"frequency\":\"MONTHLY\",\"startDate\":\"2024-01-31\",\"endDate\":\"2024-04-30\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/transactions/recurring/add-template").param("userId", String.valueOf(salaryUserId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"INCOME\",\"name\":\"Salary\",\"amount\":300,\"categoryId\":" + incomeCategoryId +
+                                ",\"frequency\":\"WEEKLY\",\"startDate\":\"2024-04-01\"}"))
+                .andExpect(status().isCreated());
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        String datesSql = "SELECT transaction_date FROM ledger_entry WHERE user_id = ? ORDER BY transaction_date";
+
+        // Act & Assert; the scheduler runs without a request, while this thread is bound to a mock one
+        assertEquals(9, TenantScopeGuard.crossTenant(() -> recurringGenerator.generateDue(today)));
+        assertEquals(List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31), LocalDate.of(2024, 4, 30)),
+                jdbcTemplate.queryForList(datesSql, LocalDate.class, rentUserId));
+        assertEquals(5, jdbcTemplate.queryForList(datesSql, LocalDate.class, salaryUserId).size());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM recurring_generation_range WHERE run_date = ? AND NOT completed", Integer.class, today));
+        mockMvc.perform(get("/transactions/recurring/all").param("userId", String.valueOf(salaryUserId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].occurrences").value(5))
+                .andExpect(jsonPath("$[0].nextDate").value("2024-05-06"));
+
+        assertEquals(0, TenantScopeGuard.crossTenant(() -> recurringGenerator.generateDue(today)));
+        jdbcTemplate.update("DELETE FROM recurring_generation_range WHERE run_date = ?", today);
+        assertEquals(0, TenantScopeGuard.crossTenant(() -> recurringGenerator.generateDue(today)));
+        assertEquals(1, TenantScopeGuard.crossTenant(() -> recurringGenerator.generateDue(today.plusDays(5))));
+        assertEquals(6, jdbcTemplate.queryForList(datesSql, LocalDate.class, salaryUserId).size());
+    }
+
+    @Test
+    public void testRecurringTemplateWithoutRateIsSkipped() throws Exception {
+        // Arrange; templates from before rates were checked at creation may still lack one
+        int otherUserId = USER_ID + 12;
+        LocalDate today = LocalDate.of(2023, 6, 1);
+        mockMvc.perform(post("/transactions/recurring/add-template").param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"EXPENSE\",\"name\":\"Gym\",\"amount\":20,\"currency\":\"GBP\",\"categoryId\":" +
+                                expenseCategoryId + ",\"frequency\":\"MONTHLY\",\"startDate\":\"2023-06-01\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("No GBP/CZK exchange rate on or before 2023-06-01"));
+        jdbcTemplate.update("INSERT INTO recurring_template (user_id, type, name, amount, currency, category_id, frequency, start_date, next_date, occurrences) " +
+                "VALUES (?, 'EXPENSE', 'Gym', 20, 'GBP', ?, 'MONTHLY', ?, ?, 0)", otherUserId, expenseCategoryId, today, today);
+        mockMvc.perform(post("/transactions/recurring/add-template").param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"EXPENSE\",\"name\":\"Rent\",\"amount\":500,\"categoryId\":" + expenseCategoryId +
+                                ",\"frequency\":\"MONTHLY\",\"startDate\":\"2023-06-01\",\"endDate\":\"2023-06-30\"}"))
+                .andExpect(status().isCreated());
+
+        // Act
+        long generated = TenantScopeGuard.crossTenant(() -> recurringGenerator.generateDue(today));
+
+        // Assert
+        assertEquals(1, generated);
+        assertEquals(List.of("Rent"), jdbcTemplate.queryForList("SELECT name FROM ledger_entry WHERE user_id = ?", String.class, otherUserId));
+        assertEquals(today, jdbcTemplate.queryForObject(
+                "SELECT next_date FROM recurring_template WHERE user_id = ? AND name = 'Gym'", LocalDate.class, otherUserId));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM recurring_generation_range WHERE run_date = ? AND NOT completed", Integer.class, today));
+    }
+
+    @Test
+    public void testBudgetStatusFollowsExpenseWrites() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 8;
+        ExpenseCategory category = categoryRegistry.getExpenseCategories().get(0);
+        LocalDate today = LocalDate.now();
+        mockMvc.perform(put("/transactions/budgets/" + category.getId()).param("userId", String.valueOf(otherUserId))
+                        .param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.spent").value(0.0));
+        String expense = "{\"amount\":80,\"name\":\"Groceries\",\"transactionDate\":\"" + today + "\"," +
+                "\"expenseCategory\":{\"id\":" + category.getId() + ",\"categoryName\":\"" + category.getCategoryName() + "\"}}";
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/add-expense").param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON).content(expense))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.spent").value(80.0))
+                .andExpect(jsonPath("$.overspent").value(false));
+        mockMvc.perform(post("/transactions/expenses/add-expense").param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON).content(expense))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.spent").value(160.0))
+                .andExpect(jsonPath("$.remaining").value(-60.0))
+                .andExpect(jsonPath("$.overspent").value(true));
+
+        expenseService.deleteExpense(expenseService.getExpensesPageDescending(otherUserId, null, 1).getItems().get(0).getId(), otherUserId);
+        mockMvc.perform(get("/transactions/budgets/status").param("userId", String.valueOf(otherUserId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].spent").value(80.0))
+                .andExpect(jsonPath("$[0].overspent").value(false));
+    }
+
+    @Test
+    public void testForeignCurrencyExpenseIsStoredInTheBaseCurrency() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 9;
+        ExpenseCategory category = categoryRegistry.getExpenseCategories().get(0);
+        mockMvc.perform(put("/transactions/currency/rates").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"fromCurrency\":\"EUR\",\"toCurrency\":\"CZK\",\"date\":\"2024-03-01\",\"rate\":25.30}]"))
+                .andExpect(status().isNoContent());
+        String expense = "{\"amount\":10,\"currency\":\"eur\",\"name\":\"Museum\",\"transactionDate\":\"2024-03-02\"," +
+                "\"expenseCategory\":{\"id\":" + category.getId() + ",\"categoryName\":\"" + category.getCategoryName() + "\"}}";
+
+        // Act
+        mockMvc.perform(post("/transactions/expenses/add-expense").param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON).content(expense))
+                .andExpect(status().isCreated());
+
+        // Assert
+        Map<String, Object> stored = jdbcTemplate.queryForMap(
+                "SELECT amount, original_amount, currency FROM transaction WHERE user_id = ?", otherUserId);
+        assertEquals(253.0f, ((Number) stored.get("amount")).floatValue());
+        assertEquals(10.0f, ((Number) stored.get("original_amount")).floatValue());
+        assertEquals("EUR", stored.get("currency"));
+        mockMvc.perform(put("/transactions/currency/base").param("userId", String.valueOf(otherUserId)).param("currency", "EUR"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/transactions/expenses/add-expense").param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON).content(expense.replace("eur", "GBP")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("No GBP/CZK exchange rate on or before 2024-03-02"));
+    }
+
+    @Test
+    public void testForeignCurrencyExpenseKeepsItsCurrencyOnUpdate() throws Exception {
+        // Arrange
+        int otherUserId = USER_ID + 11;
+        ExpenseCategory category = categoryRegistry.getExpenseCategories().get(0);
+        mockMvc.perform(put("/transactions/currency/rates").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"fromCurrency\":\"EUR\",\"toCurrency\":\"CZK\",\"date\":\"2024-03-01\",\"rate\":25.30}]"))
+                .andExpect(status().isNoContent());
+        String categoryJson = "\"expenseCategory\":{\"id\":" + category.getId() + ",\"categoryName\":\"" + category.getCategoryName() + "\"}";
+        mockMvc.perform(post("/transactions/expenses/add-expense").param("userId", String.valueOf(otherUserId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":10,\"currency\":\"EUR\",\"name\":\"Museum\",\"transactionDate\":\"2024-03-02\"," + categoryJson + "}"))
+                .andExpect(status().isCreated());
+        int expenseId = jdbcTemplate.queryForObject("SELECT id FROM transaction WHERE user_id = ?", Integer.class, otherUserId);
+        String uri = "/transactions/expenses/" + expenseId;
+        mockMvc.perform(get(uri).param("userId", String.valueOf(otherUserId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(253.0))
+                .andExpect(jsonPath("$.originalAmount").value(10.0))
+                .andExpect(jsonPath("$.currency").value("EUR"));
+        mockMvc.perform(get("/transactions/all").param("userId", String.valueOf(otherUserId)))
+                .andExpect(jsonPath("$[0].originalAmount").value(10.0))
+                .andExpect(jsonPath("$[0].currency").value("EUR"));
+
+        // Act; an update without currency and original amount, then one sending back what it read with an edited original amount
+        mockMvc.perform(put(uri).param("userId", String.valueOf(otherUserId)).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":20,\"name\":\"Museum\",\"transactionDate\":\"2024-03-02\",\"version\":0," + categoryJson + "}"))
+                .andExpect(status().isOk());
+        Map<String, Object> afterFirst = jdbcTemplate.queryForMap(
+                "SELECT amount, original_amount, currency FROM transaction WHERE id = ?", expenseId);
+        mockMvc.perform(put(uri).param("userId", String.valueOf(otherUserId)).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":506,\"originalAmount\":12,\"currency\":\"EUR\",\"name\":\"Museum\"," +
+                                "\"transactionDate\":\"2024-03-02\",\"version\":1," + categoryJson + "}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertEquals(506.0f, ((Number) afterFirst.get("amount")).floatValue());
+        assertEquals(20.0f, ((Number) afterFirst.get("original_amount")).floatValue());
+        assertEquals("EUR", afterFirst.get("currency"));
+        mockMvc.perform(get(uri).param("userId", String.valueOf(otherUserId)))
+                .andExpect(jsonPath("$.amount").value(303.6))
+                .andExpect(jsonPath("$.originalAmount").value(12.0))
+                .andExpect(jsonPath("$.currency").value("EUR"));
+    }
+
+    @Test
+    public void testTopStatisticsFromTheLedgerMatchTheDatabase() throws Exception {
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        LocalDate to = LocalDate.of(2023, 12, 31);
+        List<TransactionRow> largest = ledgerEntryRepository.findLargestByUserId(USER_ID, TransactionType.EXPENSE,
+                from, to, Limit.of(3));
+        List<CategoryTotal> categories = new ArrayList<>(ledgerEntryRepository.sumAmountByCategory(USER_ID,
+                TransactionType.EXPENSE, from, to));
+        categories.sort(Comparator.comparingDouble(CategoryTotal::getTotal).reversed());
+        assertEquals(3, largest.size());
+
+        mockMvc.perform(get("/transactions/stats/top?userId=" + USER_ID + "&k=3&from=" + from + "&to=" + to))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories.length()").value(3))
+                .andExpect(jsonPath("$.categories[0].categoryId").value(categories.get(0).getCategoryId()))
+                .andExpect(jsonPath("$.transactions[0].id").value(largest.get(0).getId()))
+                .andExpect(jsonPath("$.transactions[1].id").value(largest.get(1).getId()))
+                .andExpect(jsonPath("$.transactions[2].id").value(largest.get(2).getId()));
+    }
+
+    @Test
+    public void testNdjsonStreamsTheWholeHistoryWithOneQuery() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String body = mockMvc.perform(get("/transactions/expenses/all_expenses_asc").param("userId", String.valueOf(USER_ID))
+                        .accept(NdjsonWriter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(CATEGORIES * ROWS_PER_CATEGORY, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"name\":\"Expense 0\""), lines[0]);
+        assertTrue(lines[lines.length - 1].contains("\"id\":" + expenseId), lines[lines.length - 1]);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testListedCategoriesAreFetchedWithTheRows() throws Exception {
+        mockMvc.perform(get("/transactions/expenses/all_expenses_desc").param("userId", String.valueOf(USER_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(CATEGORIES * ROWS_PER_CATEGORY))
+                .andExpect(jsonPath("$[0].expenseCategory.categoryName").exists());
+    }
+
+    private Expense expense(int userId) {
+        Expense expense = new Expense();
+        expense.setUserId(userId);
+        expense.setAmount(5);
+        expense.setName("Conditional");
+        expense.setTransactionDate(LocalDate.of(2023, 6, 1));
+        expense.setExpenseCategory(categoryRegistry.getExpenseCategories().get(0));
+        return expense;
+    }
+
+    private Expense expense(int userId, float amount, LocalDate date) {
+        Expense expense = expense(userId);
+        expense.setAmount(amount);
+        expense.setTransactionDate(date);
+        return expense;
+    }
+
+    private Income income(int userId, float amount, LocalDate date, IncomeCategory category) {
+        Income income = new Income();
+        income.setUserId(userId);
+        income.setAmount(amount);
+        income.setName("Balance");
+        income.setTransactionDate(date);
+        income.setIncomeCategory(category);
+        return income;
+    }
+
+    private void assertStatements(long expected, String uri) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get(uri).param("userId", String.valueOf(USER_ID)))
+                .andExpect(status().isOk());
+
+        assertEquals(expected, statistics.getPrepareStatementCount(), uri + " prepared an unexpected number of statements");
+    }
+}
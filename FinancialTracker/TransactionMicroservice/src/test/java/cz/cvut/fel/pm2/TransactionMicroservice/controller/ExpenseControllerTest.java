@@ -1,14 +1,25 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.controller;
 
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BudgetStatus;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BulkSelection;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionSearchCriteria;
 import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseDTO;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
 import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseRepository;
 import cz.cvut.fel.pm2.TransactionMicroservice.service.ExpenseService;
-import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseCategoryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BudgetService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BulkIngestService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.CategoryRegistry;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.ExportService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +27,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -23,7 +35,9 @@ import java.time.LocalDate;
 import java.util.Optional;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,11 +52,23 @@ public class ExpenseControllerTest {
     private ExpenseService expenseService;
 
     @MockBean
-    private ExpenseCategoryRepository expenseCategoryRepository;
+    private UserDataVersionService userDataVersionService;
+
+    @MockBean
+    private CategoryRegistry categoryRegistry;
 
     @MockBean
     private ExpenseRepository expenseRepository;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private BulkIngestService bulkIngestService;
+
+    @MockBean
+    private BudgetService budgetService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -54,8 +80,8 @@ public class ExpenseControllerTest {
         expenseCategory.setId(1L);
         expenseCategory.setCategoryName("Food");
 
-        // Mock the repository to return the expenseCategory
-        when(expenseCategoryRepository.findById(Math.toIntExact(expenseCategory.getId())))
+        // Mock the registry to return the expenseCategory
+        when(categoryRegistry.findExpenseCategory(expenseCategory.getId()))
                 .thenReturn(Optional.of(expenseCategory));
 
         ExpenseDTO expenseDTO = new ExpenseDTO();
@@ -76,6 +102,37 @@ public class ExpenseControllerTest {
                 .andExpect(content().string(""));
     }
 
+    @Test
+    public void testAddExpense_ReturnsBudgetStatus() throws Exception {
+        // Arrange
+        int userId = 1;
+        ExpenseCategory expenseCategory = new ExpenseCategory();
+        expenseCategory.setId(1L);
+        expenseCategory.setCategoryName("Food");
+        when(categoryRegistry.findExpenseCategory(expenseCategory.getId()))
+                .thenReturn(Optional.of(expenseCategory));
+
+        LocalDate today = LocalDate.now();
+        ExpenseDTO expenseDTO = new ExpenseDTO();
+        expenseDTO.setAmount(100.0f);
+        expenseDTO.setName("Groceries");
+        expenseDTO.setTransactionDate(today);
+        expenseDTO.setExpenseCategory(expenseCategory);
+        when(budgetService.getStatus(userId, 1L, today))
+                .thenReturn(Optional.of(new BudgetStatus(1L, today.withDayOfMonth(1), 250.0, 300.0)));
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/add-expense")
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(expenseDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.spent").value(300.0))
+                .andExpect(jsonPath("$.remaining").value(-50.0))
+                .andExpect(jsonPath("$.overspent").value(true));
+        verify(expenseService).createExpense(any(Expense.class));
+    }
+
     @Test
     public void testAddExpense_InvalidDate() throws Exception {
         // Arrange
@@ -84,8 +141,8 @@ public class ExpenseControllerTest {
         expenseCategory.setId(1L);
         expenseCategory.setCategoryName("Food");
 
-        // Mock the repository to return the expenseCategory
-        when(expenseCategoryRepository.findById(Math.toIntExact(expenseCategory.getId())))
+        // Mock the registry to return the expenseCategory
+        when(categoryRegistry.findExpenseCategory(expenseCategory.getId()))
                 .thenReturn(Optional.of(expenseCategory));
 
         ExpenseDTO expenseDTO = new ExpenseDTO();
@@ -104,6 +161,33 @@ public class ExpenseControllerTest {
                 .andExpect(content().string("Transaction date must be between 2000 and the current date"));
     }
 
+    @Test
+    public void testAddExpense_UnknownCategory() throws Exception {
+        // Arrange
+        int userId = 1;
+        ExpenseCategory expenseCategory = new ExpenseCategory();
+        expenseCategory.setId(99L);
+        expenseCategory.setCategoryName("Unknown");
+
+        when(categoryRegistry.findExpenseCategory(99L)).thenReturn(Optional.empty());
+
+        ExpenseDTO expenseDTO = new ExpenseDTO();
+        expenseDTO.setAmount(100.0f);
+        expenseDTO.setName("Groceries");
+        expenseDTO.setTransactionDate(LocalDate.now());
+        expenseDTO.setExpenseCategory(expenseCategory);
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/add-expense")
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(expenseDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid expenseCategory id"));
+
+        verify(expenseService, never()).createExpense(any(Expense.class));
+    }
+
     @Test
     public void testUpdateExpense_Success() throws Exception {
         // Arrange
@@ -121,12 +205,10 @@ public class ExpenseControllerTest {
         updatedExpense.setTransactionDate(LocalDate.now());
         updatedExpense.setExpenseCategory(expenseCategory);
         updatedExpense.setUserId(userId);
-
-        // Mock expenseRepository.existsById(id) to return true
-        when(expenseRepository.existsById(expenseId)).thenReturn(true);
+        updatedExpense.setVersion(3L);
 
         // Mock the updateExpense method
-        doNothing().when(expenseService).updateExpense(any(Expense.class), eq(userId));
+        when(expenseService.updateExpense(any(Expense.class), eq(userId))).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(put("/transactions/expenses/{id}", expenseId)
@@ -138,16 +220,69 @@ public class ExpenseControllerTest {
     }
 
     @Test
-    public void testDeleteExpense_Success() throws Exception {
+    public void testUpdateExpense_VersionConflict() throws Exception {
         // Arrange
         int userId = 1;
         int expenseId = 1;
 
-        // Mock expenseRepository.existsById(id) to return true
-        when(expenseRepository.existsById(expenseId)).thenReturn(true);
+        ExpenseCategory expenseCategory = new ExpenseCategory();
+        expenseCategory.setId(1L);
+        expenseCategory.setCategoryName("Food");
+
+        Expense updatedExpense = new Expense();
+        updatedExpense.setAmount(150.0f);
+        updatedExpense.setName("Updated Expense");
+        updatedExpense.setTransactionDate(LocalDate.now());
+        updatedExpense.setExpenseCategory(expenseCategory);
+        updatedExpense.setVersion(2L);
+
+        when(expenseService.updateExpense(any(Expense.class), eq(userId)))
+                .thenThrow(new OptimisticLockingFailureException("Expense with id 1 was changed since version 2"));
+
+        // Act & Assert
+        mockMvc.perform(put("/transactions/expenses/{id}", expenseId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedExpense)))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Expense with id 1 was changed since version 2"));
+    }
+
+    @Test
+    public void testUpdateExpense_NotFoundOrWithoutVersion() throws Exception {
+        // Arrange
+        int userId = 1;
+        int expenseId = 99;
+
+        Expense updatedExpense = new Expense();
+        updatedExpense.setAmount(150.0f);
+        updatedExpense.setName("Updated Expense");
+
+        when(expenseService.updateExpense(any(Expense.class), eq(userId))).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(put("/transactions/expenses/{id}", expenseId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedExpense)))
+                .andExpect(status().isPreconditionRequired());
+
+        updatedExpense.setVersion(0L);
+        mockMvc.perform(put("/transactions/expenses/{id}", expenseId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedExpense)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testDeleteExpense_Success() throws Exception {
+        // Arrange
+        int userId = 1;
+        int expenseId = 1;
 
         // Mock the deleteExpense method
-        doNothing().when(expenseService).deleteExpense(expenseId, userId);
+        when(expenseService.deleteExpense(expenseId, userId)).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(delete("/transactions/expenses/{id}", expenseId)
@@ -162,8 +297,8 @@ public class ExpenseControllerTest {
         int userId = 1;
         int expenseId = 1;
 
-        // Mock expenseRepository.existsById(id) to return false
-        when(expenseRepository.existsById(expenseId)).thenReturn(false);
+        // The user has no expense with this id
+        when(expenseService.deleteExpense(expenseId, userId)).thenReturn(false);
 
         // Act & Assert
         mockMvc.perform(delete("/transactions/expenses/{id}", expenseId)
@@ -181,26 +316,16 @@ public class ExpenseControllerTest {
         expenseCategory.setId(1L);
         expenseCategory.setCategoryName("Food");
 
-        Expense expense1 = new Expense();
-        expense1.setId(1);
-        expense1.setAmount(100.0f);
-        expense1.setName("Expense 1");
-        expense1.setTransactionDate(LocalDate.now());
-        expense1.setExpenseCategory(expenseCategory);
-        expense1.setUserId(userId);
+        ExpenseRow expense1 = new ExpenseRow(1, userId, "Expense 1", 100.0f, 100.0f, "CZK", LocalDate.now(),
+                expenseCategory.getId(), expenseCategory.getCategoryName(), 0L);
 
-        Expense expense2 = new Expense();
-        expense2.setId(2);
-        expense2.setAmount(200.0f);
-        expense2.setName("Expense 2");
-        expense2.setTransactionDate(LocalDate.now());
-        expense2.setExpenseCategory(expenseCategory);
-        expense2.setUserId(userId);
+        ExpenseRow expense2 = new ExpenseRow(2, userId, "Expense 2", 200.0f, 200.0f, "CZK", LocalDate.now(),
+                expenseCategory.getId(), expenseCategory.getCategoryName(), 0L);
 
-        List<Expense> expenses = Arrays.asList(expense1, expense2);
+        List<ExpenseRow> expenses = Arrays.asList(expense1, expense2);
 
         // Mock the service to return the expenses list
-        when(expenseService.getAllExpensesDescendingOrder(userId)).thenReturn(expenses);
+        when(expenseService.getExpensesPageDescending(userId, null, 100)).thenReturn(KeysetPage.of(expenses, 100, KeysetCursor::of));
 
         // Act & Assert
         mockMvc.perform(get("/transactions/expenses/all_expenses_desc")
@@ -212,4 +337,246 @@ public class ExpenseControllerTest {
                 .andExpect(jsonPath("$[1].id").value(expense2.getId()))
                 .andExpect(jsonPath("$[1].name").value(expense2.getName()));
     }
+
+    @Test
+    public void testGetAllExpensesDesc_NextCursor() throws Exception {
+        // Arrange
+        int userId = 1;
+
+        ExpenseCategory expenseCategory = new ExpenseCategory();
+        expenseCategory.setId(1L);
+        expenseCategory.setCategoryName("Food");
+
+        ExpenseRow expense1 = new ExpenseRow(7, userId, "Expense 1", 100.0f, 100.0f, "CZK", LocalDate.of(2024, 3, 1),
+                expenseCategory.getId(), expenseCategory.getCategoryName(), 0L);
+
+        ExpenseRow expense2 = new ExpenseRow(5, userId, "Expense 2", 200.0f, 200.0f, "CZK", LocalDate.of(2024, 2, 1),
+                expenseCategory.getId(), expenseCategory.getCategoryName(), 0L);
+
+        // The service fetched one row more than requested, so another page exists
+        KeysetPage<ExpenseRow> page = KeysetPage.of(Arrays.asList(expense1, expense2), 1, KeysetCursor::of);
+        String nextCursor = new KeysetCursor(expense1.getTransactionDate(), expense1.getId()).encode();
+        when(expenseService.getExpensesPageDescending(userId, null, 1)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/expenses/all_expenses_desc")
+                        .param("userId", String.valueOf(userId))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, nextCursor))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(expense1.getId()));
+    }
+
+    @Test
+    public void testGetAllExpensesDesc_InvalidCursor() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/expenses/all_expenses_desc")
+                        .param("userId", "1")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+
+        verifyNoInteractions(expenseService);
+    }
+
+    @Test
+    public void testGetAllExpensesDesc_LimitTooLarge() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/expenses/all_expenses_desc")
+                        .param("userId", "1")
+                        .param("limit", String.valueOf(KeysetPage.MAX_LIMIT + 1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    public void testExportToExcel() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/expenses/export/excel")
+                        .param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=expenses.xlsx"));
+
+        verify(exportService).exportExpensesToExcel(eq(1), any());
+        verify(expenseService, never()).getExpensesPageDescending(anyInt(), any(), anyInt());
+    }
+
+    @Test
+    public void testAddBulkExpenses_Success() throws Exception {
+        // Arrange
+        ExpenseCategory expenseCategory = new ExpenseCategory();
+        expenseCategory.setId(1L);
+        expenseCategory.setCategoryName("Food");
+
+        ExpenseDTO expenseDTO = new ExpenseDTO();
+        expenseDTO.setAmount(100.0f);
+        expenseDTO.setName("Groceries");
+        expenseDTO.setTransactionDate(LocalDate.now());
+        expenseDTO.setExpenseCategory(expenseCategory);
+
+        when(bulkIngestService.ingestExpenses(eq(1), anyList())).thenReturn(2);
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/bulk")
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(expenseDTO, expenseDTO))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.inserted").value(2));
+    }
+
+    @Test
+    public void testAddBulkExpenses_InvalidRow() throws Exception {
+        // Arrange
+        when(bulkIngestService.ingestExpenses(eq(1), anyList()))
+                .thenThrow(new IllegalArgumentException("Row 0: invalid category id"));
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/bulk")
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"Groceries\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Row 0: invalid category id"));
+    }
+
+    @Test
+    public void testSearchExpenses_CombinesFilters() throws Exception {
+        // Arrange
+        ExpenseRow expense = new ExpenseRow(1, 1, "Weekly expense", 120.0f, 120.0f, "CZK", LocalDate.of(2024, 3, 8), 2L, "Food", 0L);
+        when(expenseService.searchExpenses(any(TransactionSearchCriteria.class), isNull(), eq(10)))
+                .thenReturn(KeysetPage.of(List.of(expense), 10, KeysetCursor::of));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/expenses/search")
+                        .param("userId", "1")
+                        .param("categoryId", "2", "3")
+                        .param("minAmount", "100")
+                        .param("maxAmount", "200")
+                        .param("fromDate", "2024-03-01")
+                        .param("toDate", "2024-03-31")
+                        .param("name", " weekly ")
+                        .param("sort", "asc")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        ArgumentCaptor<TransactionSearchCriteria> criteria = ArgumentCaptor.forClass(TransactionSearchCriteria.class);
+        verify(expenseService).searchExpenses(criteria.capture(), isNull(), eq(10));
+        assertEquals(1, criteria.getValue().getUserId());
+        assertEquals(Set.of(2L, 3L), criteria.getValue().getCategoryIds());
+        assertEquals(100.0f, criteria.getValue().getMinAmount());
+        assertEquals(200.0f, criteria.getValue().getMaxAmount());
+        assertEquals(LocalDate.of(2024, 3, 1), criteria.getValue().getFromDate());
+        assertEquals(LocalDate.of(2024, 3, 31), criteria.getValue().getToDate());
+        assertEquals("weekly", criteria.getValue().getName());
+        assertTrue(criteria.getValue().isAscending());
+    }
+
+    @Test
+    public void testGetExpensesByCategory_PagedThroughSearch() throws Exception {
+        // Arrange
+        ExpenseCategory expenseCategory = new ExpenseCategory();
+        expenseCategory.setId(2L);
+        expenseCategory.setCategoryName("Food");
+        ExpenseRow expense = new ExpenseRow(5, 1, "Lunch", 12.0f, 12.0f, "CZK", LocalDate.of(2024, 3, 8), 2L, "Food", 0L);
+        ExpenseRow following = new ExpenseRow(4, 1, "Dinner", 30.0f, 30.0f, "CZK", LocalDate.of(2024, 3, 7), 2L, "Food", 0L);
+        when(categoryRegistry.findExpenseCategory(2L)).thenReturn(Optional.of(expenseCategory));
+        when(expenseService.searchExpenses(any(TransactionSearchCriteria.class), isNull(), eq(1)))
+                .thenReturn(KeysetPage.of(List.of(expense, following), 1, KeysetCursor::of));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/expenses/expenses-by-category/2")
+                        .param("userId", "1")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, KeysetCursor.of(expense).encode()))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(5));
+
+        ArgumentCaptor<TransactionSearchCriteria> criteria = ArgumentCaptor.forClass(TransactionSearchCriteria.class);
+        verify(expenseService).searchExpenses(criteria.capture(), isNull(), eq(1));
+        assertEquals(1, criteria.getValue().getUserId());
+        assertEquals(Set.of(2L), criteria.getValue().getCategoryIds());
+        assertFalse(criteria.getValue().isAscending());
+    }
+
+    @Test
+    public void testSearchExpenses_InvalidAmountRange() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/expenses/search")
+                        .param("userId", "1")
+                        .param("minAmount", "200")
+                        .param("maxAmount", "100"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+
+        verifyNoInteractions(expenseService);
+    }
+
+    @Test
+    public void testSearchExpenses_InvalidSort() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/expenses/search")
+                        .param("userId", "1")
+                        .param("sort", "sideways"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+
+        verifyNoInteractions(expenseService);
+    }
+
+    @Test
+    public void testDeleteBulkExpenses_Success() throws Exception {
+        // Arrange
+        ArgumentCaptor<BulkSelection> selection = ArgumentCaptor.forClass(BulkSelection.class);
+        when(expenseService.deleteExpenses(eq(1), selection.capture())).thenReturn(2);
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/bulk-delete")
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [3, 4], \"fromDate\": \"2024-01-01\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertEquals(List.of(3, 4), selection.getValue().getIds());
+        assertEquals(LocalDate.of(2024, 1, 1), selection.getValue().getFromDate());
+    }
+
+    @Test
+    public void testDeleteBulkExpenses_RejectedSelection() throws Exception {
+        // Arrange
+        when(expenseService.deleteExpenses(eq(1), any(BulkSelection.class)))
+                .thenThrow(new IllegalArgumentException("At least one filter is required"));
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/bulk-delete")
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("At least one filter is required"));
+    }
+
+    @Test
+    public void testRecategorizeBulkExpenses_Success() throws Exception {
+        // Arrange
+        ArgumentCaptor<BulkSelection> selection = ArgumentCaptor.forClass(BulkSelection.class);
+        when(expenseService.moveExpensesToCategory(eq(1), selection.capture(), eq(5L))).thenReturn(3);
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/expenses/bulk-recategorize")
+                        .param("userId", "1")
+                        .param("categoryId", "5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryIds\": [2], \"maxAmount\": 50}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(3));
+
+        assertEquals(Set.of(2L), selection.getValue().getCategoryIds());
+        assertEquals(50f, selection.getValue().getMaxAmount());
+    }
 }
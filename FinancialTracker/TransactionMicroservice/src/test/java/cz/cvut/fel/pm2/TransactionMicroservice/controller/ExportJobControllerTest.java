@@ -0,0 +1,115 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportFormat;
+import cz.cvut.fel.pm2.TransactionMicroservice.export.ExportJob;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.ExportJobService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportJobController.class)
+public class ExportJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportJobService exportJobService;
+
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void testSubmitExport_Accepted() throws Exception {
+        // Arrange
+        ExportJob job = new ExportJob("job-1", 1, TransactionType.EXPENSE, ExportFormat.PDF, Instant.now());
+        when(exportJobService.submit(1, TransactionType.EXPENSE, ExportFormat.PDF)).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/exports")
+                        .param("userId", "1")
+                        .param("type", "EXPENSE")
+                        .param("format", "PDF"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    public void testSubmitExport_QueueFull() throws Exception {
+        // Arrange
+        when(exportJobService.submit(1, TransactionType.INCOME, ExportFormat.EXCEL))
+                .thenThrow(new RejectedExecutionException());
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/exports")
+                        .param("userId", "1")
+                        .param("type", "INCOME")
+                        .param("format", "EXCEL"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void testGetExportStatus_NotFound() throws Exception {
+        // Arrange
+        when(exportJobService.getJob("job-1", 2)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/exports/job-1")
+                        .param("userId", "2"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Export job not found"));
+    }
+
+    @Test
+    public void testDownloadExport_NotCompleted() throws Exception {
+        // Arrange
+        ExportJob job = new ExportJob("job-1", 1, TransactionType.EXPENSE, ExportFormat.PDF, Instant.now());
+        job.markRunning();
+        when(exportJobService.getJob("job-1", 1)).thenReturn(Optional.of(job));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/exports/job-1/download")
+                        .param("userId", "1"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testDownloadExport_Completed() throws Exception {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("job-1.pdf"), "report");
+        ExportJob job = new ExportJob("job-1", 1, TransactionType.INCOME, ExportFormat.PDF, Instant.now());
+        job.markCompleted(file, Instant.now());
+        when(exportJobService.getJob("job-1", 1)).thenReturn(Optional.of(job));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/exports/job-1/download")
+                        .param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=incomes.pdf"))
+                .andExpect(content().string("report"));
+    }
+}
@@ -1,21 +1,32 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.controller;
 
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BulkSelection;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.IncomeRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionSearchCriteria;
 import cz.cvut.fel.pm2.TransactionMicroservice.dto.IncomeDTO;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.Income;
 import cz.cvut.fel.pm2.TransactionMicroservice.entity.IncomeCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.AmountCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
 import cz.cvut.fel.pm2.TransactionMicroservice.service.IncomeService;
-import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeCategoryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BulkIngestService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.CategoryRegistry;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.ExportService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
 import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeRepository;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -23,7 +34,9 @@ import java.time.LocalDate;
 import java.util.Optional;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,11 +51,20 @@ public class IncomeControllerTest {
     private IncomeService incomeService;
 
     @MockBean
-    private IncomeCategoryRepository incomeCategoryRepository;
+    private UserDataVersionService userDataVersionService;
+
+    @MockBean
+    private CategoryRegistry categoryRegistry;
 
     @MockBean
     private IncomeRepository incomeRepository;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private BulkIngestService bulkIngestService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -54,8 +76,8 @@ public class IncomeControllerTest {
         incomeCategory.setId(1L);
         incomeCategory.setCategoryName("Salary");
 
-        // Mock the repository to return the incomeCategory
-        when(incomeCategoryRepository.findById(Math.toIntExact(incomeCategory.getId())))
+        // Mock the registry to return the incomeCategory
+        when(categoryRegistry.findIncomeCategory(incomeCategory.getId()))
                 .thenReturn(Optional.of(incomeCategory));
 
         IncomeDTO incomeDTO = new IncomeDTO();
@@ -84,8 +106,8 @@ public class IncomeControllerTest {
         incomeCategory.setId(1L);
         incomeCategory.setCategoryName("Salary");
 
-        // Mock the repository to return the incomeCategory
-        when(incomeCategoryRepository.findById(Math.toIntExact(incomeCategory.getId())))
+        // Mock the registry to return the incomeCategory
+        when(categoryRegistry.findIncomeCategory(incomeCategory.getId()))
                 .thenReturn(Optional.of(incomeCategory));
 
         IncomeDTO incomeDTO = new IncomeDTO();
@@ -121,12 +143,10 @@ public class IncomeControllerTest {
         updatedIncome.setTransactionDate(LocalDate.now());
         updatedIncome.setIncomeCategory(incomeCategory);
         updatedIncome.setUserId(userId);
-
-        // Mock incomeRepository.existsById(id) to return true
-        when(incomeRepository.existsById(incomeId)).thenReturn(true);
+        updatedIncome.setVersion(3L);
 
         // Mock the updateIncome method
-        doNothing().when(incomeService).updateIncome(any(Income.class), eq(userId));
+        when(incomeService.updateIncome(any(Income.class), eq(userId))).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(put("/transactions/incomes/{id}", incomeId)
@@ -138,16 +158,69 @@ public class IncomeControllerTest {
     }
 
     @Test
-    public void testDeleteIncome_Success() throws Exception {
+    public void testUpdateIncome_VersionConflict() throws Exception {
         // Arrange
         int userId = 1;
         int incomeId = 1;
 
-        // Mock incomeRepository.existsById(id) to return true
-        when(incomeRepository.existsById(incomeId)).thenReturn(true);
+        IncomeCategory incomeCategory = new IncomeCategory();
+        incomeCategory.setId(1L);
+        incomeCategory.setCategoryName("Salary");
+
+        Income updatedIncome = new Income();
+        updatedIncome.setAmount(1500.0f);
+        updatedIncome.setName("Updated Salary");
+        updatedIncome.setTransactionDate(LocalDate.now());
+        updatedIncome.setIncomeCategory(incomeCategory);
+        updatedIncome.setVersion(2L);
+
+        when(incomeService.updateIncome(any(Income.class), eq(userId)))
+                .thenThrow(new OptimisticLockingFailureException("Income with id 1 was changed since version 2"));
+
+        // Act & Assert
+        mockMvc.perform(put("/transactions/incomes/{id}", incomeId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedIncome)))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Income with id 1 was changed since version 2"));
+    }
+
+    @Test
+    public void testUpdateIncome_NotFoundOrWithoutVersion() throws Exception {
+        // Arrange
+        int userId = 1;
+        int incomeId = 99;
+
+        Income updatedIncome = new Income();
+        updatedIncome.setAmount(1500.0f);
+        updatedIncome.setName("Updated Salary");
+
+        when(incomeService.updateIncome(any(Income.class), eq(userId))).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(put("/transactions/incomes/{id}", incomeId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedIncome)))
+                .andExpect(status().isPreconditionRequired());
+
+        updatedIncome.setVersion(0L);
+        mockMvc.perform(put("/transactions/incomes/{id}", incomeId)
+                        .param("userId", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedIncome)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testDeleteIncome_Success() throws Exception {
+        // Arrange
+        int userId = 1;
+        int incomeId = 1;
 
         // Mock the deleteIncome method
-        doNothing().when(incomeService).deleteIncome(incomeId, userId);
+        when(incomeService.deleteIncome(incomeId, userId)).thenReturn(true);
 
         // Act & Assert
         mockMvc.perform(delete("/transactions/incomes/{id}", incomeId)
@@ -162,8 +235,8 @@ public class IncomeControllerTest {
         int userId = 1;
         int incomeId = 1;
 
-        // Mock incomeRepository.existsById(id) to return false
-        when(incomeRepository.existsById(incomeId)).thenReturn(false);
+        // The user has no income with this id
+        when(incomeService.deleteIncome(incomeId, userId)).thenReturn(false);
 
         // Act & Assert
         mockMvc.perform(delete("/transactions/incomes/{id}", incomeId)
@@ -182,16 +255,11 @@ public class IncomeControllerTest {
         incomeCategory.setId(1L);
         incomeCategory.setCategoryName("Salary");
 
-        Income income = new Income();
-        income.setId(incomeId);
-        income.setAmount(1000.0f);
-        income.setName("Monthly Salary");
-        income.setTransactionDate(LocalDate.now());
-        income.setIncomeCategory(incomeCategory);
-        income.setUserId(userId);
+        IncomeRow income = new IncomeRow(incomeId, userId, "Monthly Salary", 1000.0f, 1000.0f, "CZK", LocalDate.now(),
+                incomeCategory.getId(), incomeCategory.getCategoryName(), 0L);
 
         // Mock the service method
-        when(incomeService.getIncomeById(incomeId, userId)).thenReturn(income);
+        when(incomeService.getIncomeRowById(incomeId, userId)).thenReturn(income);
 
         // Act & Assert
         mockMvc.perform(get("/transactions/incomes/{id}", incomeId)
@@ -208,7 +276,7 @@ public class IncomeControllerTest {
         int incomeId = 1;
 
         // Mock the service method to return null
-        when(incomeService.getIncomeById(incomeId, userId)).thenReturn(null);
+        when(incomeService.getIncomeRowById(incomeId, userId)).thenReturn(null);
 
         // Act & Assert
         mockMvc.perform(get("/transactions/incomes/{id}", incomeId)
@@ -226,26 +294,16 @@ public class IncomeControllerTest {
         incomeCategory.setId(1L);
         incomeCategory.setCategoryName("Salary");
 
-        Income income1 = new Income();
-        income1.setId(1);
-        income1.setAmount(1000.0f);
-        income1.setName("Income 1");
-        income1.setTransactionDate(LocalDate.now());
-        income1.setIncomeCategory(incomeCategory);
-        income1.setUserId(userId);
+        IncomeRow income1 = new IncomeRow(1, userId, "Income 1", 1000.0f, 1000.0f, "CZK", LocalDate.now(),
+                incomeCategory.getId(), incomeCategory.getCategoryName(), 0L);
 
-        Income income2 = new Income();
-        income2.setId(2);
-        income2.setAmount(2000.0f);
-        income2.setName("Income 2");
-        income2.setTransactionDate(LocalDate.now());
-        income2.setIncomeCategory(incomeCategory);
-        income2.setUserId(userId);
+        IncomeRow income2 = new IncomeRow(2, userId, "Income 2", 2000.0f, 2000.0f, "CZK", LocalDate.now(),
+                incomeCategory.getId(), incomeCategory.getCategoryName(), 0L);
 
-        List<Income> incomes = Arrays.asList(income1, income2);
+        List<IncomeRow> incomes = Arrays.asList(income1, income2);
 
         // Mock the service method
-        when(incomeService.getAllExpensesDescendingOrder(userId)).thenReturn(incomes);
+        when(incomeService.getIncomesPageDescending(userId, null, 100)).thenReturn(KeysetPage.of(incomes, 100, KeysetCursor::of));
 
         // Act & Assert
         mockMvc.perform(get("/transactions/incomes/all_incomes_desc")
@@ -269,26 +327,17 @@ public class IncomeControllerTest {
         incomeCategory.setId(1L);
         incomeCategory.setCategoryName("Salary");
 
-        Income income1 = new Income();
-        income1.setId(1);
-        income1.setAmount(1000.0f);
-        income1.setName("Income 1");
-        income1.setTransactionDate(LocalDate.now());
-        income1.setIncomeCategory(incomeCategory);
-        income1.setUserId(userId);
+        IncomeRow income1 = new IncomeRow(1, userId, "Income 1", 1000.0f, 1000.0f, "CZK", LocalDate.now(),
+                incomeCategory.getId(), incomeCategory.getCategoryName(), 0L);
 
-        Income income2 = new Income();
-        income2.setId(2);
-        income2.setAmount(1200.0f);
-        income2.setName("Income 2");
-        income2.setTransactionDate(LocalDate.now());
-        income2.setIncomeCategory(incomeCategory);
-        income2.setUserId(userId);
+        IncomeRow income2 = new IncomeRow(2, userId, "Income 2", 1200.0f, 1200.0f, "CZK", LocalDate.now(),
+                incomeCategory.getId(), incomeCategory.getCategoryName(), 0L);
 
-        List<Income> incomes = Arrays.asList(income1, income2);
+        List<IncomeRow> incomes = Arrays.asList(income1, income2);
 
         // Mock the service method
-        when(incomeService.filterIncomesByAmountRange(userId, fromAmount, toAmount)).thenReturn(incomes);
+        when(incomeService.filterIncomesByAmountRange(userId, fromAmount, toAmount, null, 100))
+                .thenReturn(KeysetPage.of(incomes, 100, AmountCursor::of));
 
         // Act & Assert
         mockMvc.perform(get("/transactions/incomes/filter-by-amount")
@@ -296,11 +345,33 @@ public class IncomeControllerTest {
                         .param("to", String.valueOf(toAmount))
                         .param("userId", String.valueOf(userId)))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$.length()").value(incomes.size()))
                 .andExpect(jsonPath("$[0].amount").value(income1.getAmount()))
                 .andExpect(jsonPath("$[1].amount").value(income2.getAmount()));
     }
 
+    @Test
+    public void testFilterIncomesByAmountRange_OpenEndedNextPage() throws Exception {
+        // Arrange
+        IncomeRow income = new IncomeRow(2, 1, "Income 2", 1200.0f, 1200.0f, "CZK", LocalDate.now(), 1L, "Salary", 0L);
+        IncomeRow following = new IncomeRow(3, 1, "Income 3", 1300.0f, 1300.0f, "CZK", LocalDate.now(), 1L, "Salary", 0L);
+        AmountCursor cursor = new AmountCursor(1000.0f, 1);
+        when(incomeService.filterIncomesByAmountRange(eq(1), eq(500.0f), eq(Float.MAX_VALUE), any(AmountCursor.class), eq(1)))
+                .thenReturn(KeysetPage.of(List.of(income, following), 1, AmountCursor::of));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/incomes/filter-by-amount")
+                        .param("from", "500")
+                        .param("userId", "1")
+                        .param("limit", "1")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, AmountCursor.of(income).encode()))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2));
+    }
+
     @Test
     public void testFilterIncomesByAmountRange_InvalidRange() throws Exception {
         // Arrange
@@ -354,4 +425,127 @@ public class IncomeControllerTest {
                 .andExpect(jsonPath("$[0].categoryName").value("Salary"))
                 .andExpect(jsonPath("$[1].categoryName").value("Investment"));
     }
+
+    @Test
+    public void testExportToPDF() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/incomes/export/pdf")
+                        .param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=incomes.pdf"));
+
+        verify(exportService).exportIncomesToPdf(eq(1), any());
+    }
+
+    @Test
+    public void testSearchIncomes_CombinesFilters() throws Exception {
+        // Arrange
+        IncomeRow income = new IncomeRow(1, 1, "Weekly income", 120.0f, 120.0f, "CZK", LocalDate.of(2024, 3, 8), 2L, "Salary", 0L);
+        when(incomeService.searchIncomes(any(TransactionSearchCriteria.class), isNull(), eq(10)))
+                .thenReturn(KeysetPage.of(List.of(income), 10, KeysetCursor::of));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/incomes/search")
+                        .param("userId", "1")
+                        .param("categoryId", "2", "3")
+                        .param("minAmount", "100")
+                        .param("maxAmount", "200")
+                        .param("fromDate", "2024-03-01")
+                        .param("toDate", "2024-03-31")
+                        .param("name", " weekly ")
+                        .param("sort", "asc")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        ArgumentCaptor<TransactionSearchCriteria> criteria = ArgumentCaptor.forClass(TransactionSearchCriteria.class);
+        verify(incomeService).searchIncomes(criteria.capture(), isNull(), eq(10));
+        assertEquals(1, criteria.getValue().getUserId());
+        assertEquals(Set.of(2L, 3L), criteria.getValue().getCategoryIds());
+        assertEquals(100.0f, criteria.getValue().getMinAmount());
+        assertEquals(200.0f, criteria.getValue().getMaxAmount());
+        assertEquals(LocalDate.of(2024, 3, 1), criteria.getValue().getFromDate());
+        assertEquals(LocalDate.of(2024, 3, 31), criteria.getValue().getToDate());
+        assertEquals("weekly", criteria.getValue().getName());
+        assertTrue(criteria.getValue().isAscending());
+    }
+
+    @Test
+    public void testSearchIncomes_InvalidAmountRange() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/incomes/search")
+                        .param("userId", "1")
+                        .param("minAmount", "200")
+                        .param("maxAmount", "100"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+
+        verifyNoInteractions(incomeService);
+    }
+
+    @Test
+    public void testSearchIncomes_InvalidSort() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/incomes/search")
+                        .param("userId", "1")
+                        .param("sort", "sideways"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+
+        verifyNoInteractions(incomeService);
+    }
+
+    @Test
+    public void testDeleteBulkIncomes_Success() throws Exception {
+        // Arrange
+        ArgumentCaptor<BulkSelection> selection = ArgumentCaptor.forClass(BulkSelection.class);
+        when(incomeService.deleteIncomes(eq(1), selection.capture())).thenReturn(2);
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/incomes/bulk-delete")
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [3, 4], \"fromDate\": \"2024-01-01\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertEquals(List.of(3, 4), selection.getValue().getIds());
+        assertEquals(LocalDate.of(2024, 1, 1), selection.getValue().getFromDate());
+    }
+
+    @Test
+    public void testDeleteBulkIncomes_RejectedSelection() throws Exception {
+        // Arrange
+        when(incomeService.deleteIncomes(eq(1), any(BulkSelection.class)))
+                .thenThrow(new IllegalArgumentException("At least one filter is required"));
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/incomes/bulk-delete")
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("At least one filter is required"));
+    }
+
+    @Test
+    public void testRecategorizeBulkIncomes_Success() throws Exception {
+        // Arrange
+        ArgumentCaptor<BulkSelection> selection = ArgumentCaptor.forClass(BulkSelection.class);
+        when(incomeService.moveIncomesToCategory(eq(1), selection.capture(), eq(5L))).thenReturn(3);
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/incomes/bulk-recategorize")
+                        .param("userId", "1")
+                        .param("categoryId", "5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryIds\": [2], \"maxAmount\": 50}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(3));
+
+        assertEquals(Set.of(2L), selection.getValue().getCategoryIds());
+        assertEquals(50f, selection.getValue().getMaxAmount());
+    }
 }
@@ -0,0 +1,81 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.RecurringTemplate;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.RecurringTemplateService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RecurringTemplateController.class)
+public class RecurringTemplateControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RecurringTemplateService templateService;
+
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
+    @Test
+    public void testAddTemplate_Created() throws Exception {
+        // Arrange
+        RecurringTemplate saved = new RecurringTemplate();
+        saved.setId(7L);
+        saved.setNextDate(LocalDate.of(2024, 1, 31));
+        when(templateService.createTemplate(eq(1), any(RecurringTemplate.class))).thenReturn(saved);
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/recurring/add-template")
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"EXPENSE\",\"name\":\"Rent\",\"amount\":500,\"categoryId\":1," +
+                                "\"frequency\":\"MONTHLY\",\"startDate\":\"2024-01-31\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.nextDate").value("2024-01-31"));
+    }
+
+    @Test
+    public void testAddTemplate_Invalid() throws Exception {
+        // Arrange
+        when(templateService.createTemplate(eq(1), any(RecurringTemplate.class)))
+                .thenThrow(new IllegalArgumentException("Invalid category id"));
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/recurring/add-template")
+                        .param("userId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"INCOME\",\"name\":\"Salary\",\"amount\":300,\"categoryId\":99," +
+                                "\"frequency\":\"WEEKLY\",\"startDate\":\"2024-04-01\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid category id"));
+    }
+
+    @Test
+    public void testDeleteTemplate_NotFound() throws Exception {
+        // Arrange
+        when(templateService.deleteTemplate(7L, 1)).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(delete("/transactions/recurring/7").param("userId", "1"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,229 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.controller;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.CategoryTotal;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.MonthlySummaryDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TopStatisticsDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.StatisticsService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StatisticsController.class)
+public class StatisticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StatisticsService statisticsService;
+
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
+    @Test
+    public void testGetMonthlySummary_Success() throws Exception {
+        // Arrange
+        int userId = 1;
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 2, 29);
+
+        MonthlySummaryDTO january = new MonthlySummaryDTO("2024-01");
+        january.setIncome(1000.0);
+        january.setExpense(250.0);
+
+        MonthlySummaryDTO february = new MonthlySummaryDTO("2024-02");
+        february.setExpense(80.0);
+
+        List<MonthlySummaryDTO> summary = Arrays.asList(january, february);
+
+        // Mock the service method
+        when(statisticsService.getMonthlySummary(userId, from, to)).thenReturn(summary);
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/monthly")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].month").value("2024-01"))
+                .andExpect(jsonPath("$[0].income").value(1000.0))
+                .andExpect(jsonPath("$[0].expense").value(250.0))
+                .andExpect(jsonPath("$[1].month").value("2024-02"))
+                .andExpect(jsonPath("$[1].income").value(0.0));
+    }
+
+    @Test
+    public void testGetMonthlySummary_DefaultRange() throws Exception {
+        // Arrange
+        int userId = 1;
+        when(statisticsService.getMonthlySummary(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/monthly")
+                        .param("userId", String.valueOf(userId)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+
+        verify(statisticsService).getMonthlySummary(userId, LocalDate.of(2000, 1, 1), YearMonth.now().atEndOfMonth());
+    }
+
+    @Test
+    public void testGetMonthlySummary_InvalidRange() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/monthly")
+                        .param("userId", "1")
+                        .param("from", "2024-03-01")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+
+        verify(statisticsService, never()).getMonthlySummary(anyInt(), any(), any());
+    }
+
+    @Test
+    public void testGetCategoryTotals_Success() throws Exception {
+        // Arrange
+        int userId = 1;
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        List<CategoryTotal> totals = List.of(new CategoryTotal(2L, 300.0, 3L), new CategoryTotal(1L, 45.5, 1L));
+
+        when(statisticsService.getCategoryTotals(userId, TransactionType.INCOME, from, to)).thenReturn(totals);
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/categories")
+                        .param("userId", String.valueOf(userId))
+                        .param("type", "INCOME")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].categoryId").value(2))
+                .andExpect(jsonPath("$[0].total").value(300.0))
+                .andExpect(jsonPath("$[0].count").value(3))
+                .andExpect(jsonPath("$[1].categoryId").value(1));
+    }
+
+    @Test
+    public void testGetCategoryTotals_DefaultsToExpenses() throws Exception {
+        // Arrange
+        when(statisticsService.getCategoryTotals(eq(1), any(TransactionType.class), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/categories")
+                        .param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+
+        verify(statisticsService).getCategoryTotals(1, TransactionType.EXPENSE, LocalDate.of(2000, 1, 1), YearMonth.now().atEndOfMonth());
+    }
+
+    @Test
+    public void testGetCategoryTotals_InvalidRange() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/categories")
+                        .param("userId", "1")
+                        .param("from", "2024-03-01")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+
+        verifyNoInteractions(statisticsService);
+    }
+
+    @Test
+    public void testGetMonthlySummary_NotModified() throws Exception {
+        // Arrange
+        int userId = 1;
+        String eTag = "\"7-" + YearMonth.now() + "\"";
+        when(userDataVersionService.settledVersion(userId)).thenReturn(OptionalLong.of(7));
+        when(statisticsService.getMonthlySummary(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/monthly").param("userId", String.valueOf(userId)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", eTag));
+        mockMvc.perform(get("/transactions/stats/monthly").param("userId", String.valueOf(userId))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(statisticsService, times(1)).getMonthlySummary(eq(userId), any(LocalDate.class), any(LocalDate.class));
+
+        when(userDataVersionService.settledVersion(userId)).thenReturn(OptionalLong.of(8));
+        mockMvc.perform(get("/transactions/stats/monthly").param("userId", String.valueOf(userId))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"8-" + YearMonth.now() + "\""));
+    }
+
+    @Test
+    public void testGetMonthlySummary_NoETagWhileWriteInFlight() throws Exception {
+        // Arrange
+        int userId = 1;
+        when(userDataVersionService.settledVersion(userId)).thenReturn(OptionalLong.empty());
+        when(statisticsService.getMonthlySummary(eq(userId), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/monthly").param("userId", String.valueOf(userId))
+                        .header("If-None-Match", "\"7-" + YearMonth.now() + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    public void testGetTop_Success() throws Exception {
+        // Arrange
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        TransactionRow rent = new TransactionRow(9, 1, TransactionType.EXPENSE, 800f, 800f, "CZK", LocalDate.of(2024, 1, 3), "Rent", 4L);
+        when(statisticsService.getTop(1, TransactionType.EXPENSE, from, to, 3))
+                .thenReturn(new TopStatisticsDTO(List.of(new CategoryTotal(4L, 800.0, 1L)), List.of(rent)));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/top")
+                        .param("userId", "1")
+                        .param("k", "3")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[0].categoryId").value(4))
+                .andExpect(jsonPath("$.categories[0].total").value(800.0))
+                .andExpect(jsonPath("$.transactions[0].name").value("Rent"));
+    }
+
+    @Test
+    public void testGetTop_InvalidLimit() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/stats/top")
+                        .param("userId", "1")
+                        .param("k", "0"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(statisticsService);
+    }
+}
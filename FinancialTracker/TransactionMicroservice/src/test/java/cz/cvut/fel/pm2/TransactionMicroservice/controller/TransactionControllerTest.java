@@ -1,9 +1,15 @@
 package cz.cvut.fel.pm2.TransactionMicroservice.controller;
 
-import cz.cvut.fel.pm2.TransactionMicroservice.entity.Transaction;
-import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
-import cz.cvut.fel.pm2.TransactionMicroservice.entity.Income;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.BalancePoint;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.KeysetPage;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.BalanceService;
 import cz.cvut.fel.pm2.TransactionMicroservice.service.TransactionService;
+import cz.cvut.fel.pm2.TransactionMicroservice.service.UserDataVersionService;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.AmountCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.NdjsonWriter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -14,12 +20,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +45,12 @@ public class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private UserDataVersionService userDataVersionService;
+
+    @MockBean
+    private BalanceService balanceService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -42,13 +60,7 @@ public class TransactionControllerTest {
         int userId = 1;
         int transactionId = 1;
 
-        // Use an instance of Expense or Income
-        Expense transaction = new Expense();
-        transaction.setId(transactionId);
-        transaction.setAmount(500.0f);
-        transaction.setName("Test Transaction");
-        transaction.setTransactionDate(LocalDate.now());
-        transaction.setUserId(userId);
+        TransactionRow transaction = new TransactionRow(transactionId, userId, TransactionType.EXPENSE, 500.0f, 500.0f, "CZK", LocalDate.now(), "Test Transaction", 1L);
 
         // Mock the service method
         when(transactionService.getTransactionById(transactionId, userId)).thenReturn(transaction);
@@ -83,25 +95,14 @@ public class TransactionControllerTest {
         // Arrange
         int userId = 1;
 
-        // Create instances of Expense and Income
-        Expense transaction1 = new Expense();
-        transaction1.setId(1);
-        transaction1.setAmount(100.0f);
-        transaction1.setName("Expense 1");
-        transaction1.setTransactionDate(LocalDate.now());
-        transaction1.setUserId(userId);
+        TransactionRow transaction1 = new TransactionRow(1, userId, TransactionType.EXPENSE, 100.0f, 100.0f, "CZK", LocalDate.now(), "Expense 1", 1L);
 
-        Income transaction2 = new Income();
-        transaction2.setId(2);
-        transaction2.setAmount(200.0f);
-        transaction2.setName("Income 1");
-        transaction2.setTransactionDate(LocalDate.now());
-        transaction2.setUserId(userId);
+        TransactionRow transaction2 = new TransactionRow(2, userId, TransactionType.INCOME, 200.0f, 200.0f, "CZK", LocalDate.now(), "Income 1", 1L);
 
-        List<Transaction> transactions = Arrays.asList(transaction1, transaction2);
+        List<TransactionRow> transactions = Arrays.asList(transaction1, transaction2);
 
         // Mock the service method
-        when(transactionService.getAllExpensesDescendingOrder(userId)).thenReturn(transactions);
+        when(transactionService.getTransactionsPageDescending(userId, null, 100)).thenReturn(KeysetPage.of(transactions, 100, KeysetCursor::of));
 
         // Act & Assert
         mockMvc.perform(get("/transactions/all_transactions_desc")
@@ -110,6 +111,8 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.length()").value(transactions.size()))
                 .andExpect(jsonPath("$[0].id").value(transaction1.getId()))
                 .andExpect(jsonPath("$[0].name").value(transaction1.getName()))
+                .andExpect(jsonPath("$[0].type").value("EXPENSE"))
+                .andExpect(jsonPath("$[1].type").value("INCOME"))
                 .andExpect(jsonPath("$[1].id").value(transaction2.getId()))
                 .andExpect(jsonPath("$[1].name").value(transaction2.getName()));
     }
@@ -119,24 +122,14 @@ public class TransactionControllerTest {
         // Arrange
         int userId = 1;
 
-        Expense transaction1 = new Expense();
-        transaction1.setId(1);
-        transaction1.setAmount(100.0f);
-        transaction1.setName("Expense 1");
-        transaction1.setTransactionDate(LocalDate.now());
-        transaction1.setUserId(userId);
+        TransactionRow transaction1 = new TransactionRow(1, userId, TransactionType.EXPENSE, 100.0f, 100.0f, "CZK", LocalDate.now(), "Expense 1", 1L);
 
-        Income transaction2 = new Income();
-        transaction2.setId(2);
-        transaction2.setAmount(200.0f);
-        transaction2.setName("Income 1");
-        transaction2.setTransactionDate(LocalDate.now());
-        transaction2.setUserId(userId);
+        TransactionRow transaction2 = new TransactionRow(2, userId, TransactionType.INCOME, 200.0f, 200.0f, "CZK", LocalDate.now(), "Income 1", 1L);
 
-        List<Transaction> transactions = Arrays.asList(transaction1, transaction2);
+        List<TransactionRow> transactions = Arrays.asList(transaction1, transaction2);
 
         // Mock the service method
-        when(transactionService.getAllExpensesAscendingOrder(userId)).thenReturn(transactions);
+        when(transactionService.getTransactionsPageAscending(userId, null, 100)).thenReturn(KeysetPage.of(transactions, 100, KeysetCursor::of));
 
         // Act & Assert
         mockMvc.perform(get("/transactions/all_transactions_asc")
@@ -154,24 +147,14 @@ public class TransactionControllerTest {
         // Arrange
         int userId = 1;
 
-        Expense transaction1 = new Expense();
-        transaction1.setId(1);
-        transaction1.setAmount(100.0f);
-        transaction1.setName("Expense 1");
-        transaction1.setTransactionDate(LocalDate.now());
-        transaction1.setUserId(userId);
+        TransactionRow transaction1 = new TransactionRow(1, userId, TransactionType.EXPENSE, 100.0f, 100.0f, "CZK", LocalDate.now(), "Expense 1", 1L);
 
-        Income transaction2 = new Income();
-        transaction2.setId(2);
-        transaction2.setAmount(200.0f);
-        transaction2.setName("Income 1");
-        transaction2.setTransactionDate(LocalDate.now());
-        transaction2.setUserId(userId);
+        TransactionRow transaction2 = new TransactionRow(2, userId, TransactionType.INCOME, 200.0f, 200.0f, "CZK", LocalDate.now(), "Income 1", 1L);
 
-        List<Transaction> transactions = Arrays.asList(transaction1, transaction2);
+        List<TransactionRow> transactions = Arrays.asList(transaction1, transaction2);
 
         // Mock the service method
-        when(transactionService.getAllTransactions(userId)).thenReturn(transactions);
+        when(transactionService.getTransactionsPageDescending(userId, null, 100)).thenReturn(KeysetPage.of(transactions, 100, KeysetCursor::of));
 
         // Act & Assert
         mockMvc.perform(get("/transactions/all")
@@ -184,37 +167,118 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$[1].name").value(transaction2.getName()));
     }
 
+    @Test
+    public void testStreamAllTransactions_Ndjson() throws Exception {
+        // Arrange
+        int userId = 1;
+        TransactionRow transaction1 = new TransactionRow(1, userId, TransactionType.EXPENSE, 100.0f, 100.0f, "CZK", LocalDate.of(2024, 2, 1), "Expense 1", 1L);
+        TransactionRow transaction2 = new TransactionRow(2, userId, TransactionType.INCOME, 200.0f, 200.0f, "CZK", LocalDate.of(2024, 1, 1), "Income 1", 1L);
+        when(transactionService.writeTransactions(eq(userId), eq(true), any(NdjsonWriter.class)))
+                .thenAnswer(invocation -> invocation.getArgument(2, NdjsonWriter.class).writeAll(Stream.of(transaction1, transaction2)));
+
+        // Act
+        String body = mockMvc.perform(get("/transactions/all")
+                        .param("userId", String.valueOf(userId))
+                        .accept(NdjsonWriter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NdjsonWriter.MEDIA_TYPE))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Expense 1", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals("2024-01-01", objectMapper.readTree(lines[1]).get("transactionDate").asText());
+        verify(transactionService, never()).getTransactionsPageDescending(anyInt(), any(), anyInt());
+    }
+
+    @Test
+    public void testStreamTransactionsAsc_Gzip() throws Exception {
+        // Arrange
+        int userId = 1;
+        TransactionRow transaction = new TransactionRow(1, userId, TransactionType.EXPENSE, 100.0f, 100.0f, "CZK", LocalDate.of(2024, 2, 1), "Expense 1", 1L);
+        when(transactionService.writeTransactions(eq(userId), eq(false), any(NdjsonWriter.class)))
+                .thenAnswer(invocation -> invocation.getArgument(2, NdjsonWriter.class).writeAll(Stream.of(transaction)));
+
+        // Act
+        byte[] body = mockMvc.perform(get("/transactions/all_transactions_asc")
+                        .param("userId", String.valueOf(userId))
+                        .accept(NdjsonWriter.MEDIA_TYPE)
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String line = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(line.endsWith("\n"));
+            assertEquals(1, objectMapper.readTree(line).get("id").asInt());
+        }
+    }
+
+    @Test
+    public void testGetAllTransactions_AnyAcceptGetsJsonPage() throws Exception {
+        // Arrange
+        int userId = 1;
+        when(transactionService.getTransactionsPageDescending(userId, null, 100)).thenReturn(KeysetPage.of(List.of(), 100, KeysetCursor::of));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/all")
+                        .param("userId", String.valueOf(userId))
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(0));
+        verify(transactionService, never()).writeTransactions(anyInt(), anyBoolean(), any());
+    }
+
     @Test
     public void testFilterTransactionsByAmountRange_Success() throws Exception {
         // Arrange
         float fromAmount = 50.0f;
         float toAmount = 150.0f;
 
-        Expense transaction1 = new Expense();
-        transaction1.setId(1);
-        transaction1.setAmount(100.0f);
-        transaction1.setName("Expense 1");
-        transaction1.setTransactionDate(LocalDate.now());
+        TransactionRow transaction1 = new TransactionRow(1, 1, TransactionType.EXPENSE, 100.0f, 100.0f, "CZK", LocalDate.now(), "Expense 1", 1L);
+        TransactionRow transaction2 = new TransactionRow(2, 1, TransactionType.INCOME, 150.0f, 150.0f, "CZK", LocalDate.now(), "Income 1", 1L);
 
-        Income transaction2 = new Income();
-        transaction2.setId(2);
-        transaction2.setAmount(150.0f);
-        transaction2.setName("Income 1");
-        transaction2.setTransactionDate(LocalDate.now());
+        List<TransactionRow> transactions = Arrays.asList(transaction1, transaction2);
 
-        List<Transaction> transactions = Arrays.asList(transaction1, transaction2);
-
-        // Mock the service method
-        when(transactionService.filterTransactionsByAmountRange(fromAmount, toAmount)).thenReturn(transactions);
+        // Mock the service method; one more row than the limit signals a following page
+        when(transactionService.filterTransactionsByAmountRange(1, fromAmount, toAmount, null, 1))
+                .thenReturn(KeysetPage.of(transactions, 1, AmountCursor::of));
 
         // Act & Assert
         mockMvc.perform(get("/transactions/filter-by-amount")
                         .param("from", String.valueOf(fromAmount))
-                        .param("to", String.valueOf(toAmount)))
+                        .param("to", String.valueOf(toAmount))
+                        .param("userId", "1")
+                        .param("limit", "1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(transactions.size()))
-                .andExpect(jsonPath("$[0].amount").value(transaction1.getAmount()))
-                .andExpect(jsonPath("$[1].amount").value(transaction2.getAmount()));
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, AmountCursor.of(transaction1).encode()))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].amount").value(transaction1.getAmount()));
+    }
+
+    @Test
+    public void testFilterTransactionsByAmountRange_NextPage() throws Exception {
+        // Arrange
+        TransactionRow transaction = new TransactionRow(2, 1, TransactionType.INCOME, 150.0f, 150.0f, "CZK", LocalDate.now(), "Income 1", 1L);
+        AmountCursor cursor = new AmountCursor(100.0f, 1);
+        when(transactionService.filterTransactionsByAmountRange(eq(1), eq(50.0f), eq(150.0f), any(AmountCursor.class), eq(1)))
+                .thenReturn(KeysetPage.of(List.of(transaction), 1, AmountCursor::of));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/filter-by-amount")
+                        .param("from", "50")
+                        .param("to", "150")
+                        .param("userId", "1")
+                        .param("limit", "1")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].id").value(2));
     }
 
     @Test
@@ -226,8 +290,81 @@ public class TransactionControllerTest {
         // Act & Assert
         mockMvc.perform(get("/transactions/filter-by-amount")
                         .param("from", String.valueOf(fromAmount))
-                        .param("to", String.valueOf(toAmount)))
+                        .param("to", String.valueOf(toAmount))
+                        .param("userId", "1"))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("[]")); // Since the controller returns an empty list
     }
+
+    @Test
+    public void testFilterTransactionsByAmountRange_RequiresUser() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/filter-by-amount")
+                        .param("from", "0")
+                        .param("to", "100"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    public void testSearchTransactionsByName_Success() throws Exception {
+        // Arrange
+        TransactionRow transaction = new TransactionRow(3, 1, TransactionType.EXPENSE, 42.0f, 42.0f, "CZK", LocalDate.now(), "Weekly groceries", 1L);
+        when(transactionService.searchByName(1, "grocer", TransactionType.EXPENSE, 20)).thenReturn(List.of(transaction));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/search-by-name")
+                        .param("userId", "1")
+                        .param("q", "grocer")
+                        .param("type", "EXPENSE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Weekly groceries"));
+    }
+
+    @Test
+    public void testSearchTransactionsByName_BlankQuery() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/search-by-name")
+                        .param("userId", "1")
+                        .param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("[]"));
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    public void testGetRunningBalance_Success() throws Exception {
+        // Arrange
+        int userId = 1;
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        when(balanceService.getRunningBalance(userId, from, to)).thenReturn(List.of(
+                new BalancePoint(from, 800.0), new BalancePoint(LocalDate.of(2024, 3, 15), 749.5)));
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions/balance")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2024-03-01")
+                        .param("to", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].date").value("2024-03-01"))
+                .andExpect(jsonPath("$[0].balance").value(800.0))
+                .andExpect(jsonPath("$[1].balance").value(749.5));
+    }
+
+    @Test
+    public void testGetRunningBalance_InvalidRange() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/balance")
+                        .param("userId", "1")
+                        .param("from", "2024-04-01")
+                        .param("to", "2024-03-31"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.length()").value(0));
+        verify(balanceService, never()).getRunningBalance(anyInt(), any(), any());
+    }
 }
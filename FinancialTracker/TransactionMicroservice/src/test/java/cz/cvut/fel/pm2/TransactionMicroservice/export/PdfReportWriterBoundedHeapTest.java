@@ -0,0 +1,55 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.export;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExportRow;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes a one million row PDF export under the fixed heap of the {@code bounded-heap} surefire execution (see pom.xml).
+ * An implementation holding all rows in memory fails this test with an {@link OutOfMemoryError}.
+ */
+@Tag("bounded-heap")
+public class PdfReportWriterBoundedHeapTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Test
+    public void testWriteMillionRows_BoundedHeap() throws Exception {
+        // Arrange
+        CountingOutputStream out = new CountingOutputStream();
+        LocalDate start = LocalDate.of(2000, 1, 1);
+
+        // Act
+        try (ReportWriter writer = new PdfReportWriter(out, "Expenses Report")) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.writeRow(new ExportRow(i, "Expense " + i, (float) (i % 1000), (float) (i % 1000), "CZK", start.plusDays(i % 9000), "Food"));
+            }
+            writer.finish();
+        }
+
+        // Assert
+        assertTrue(out.count > 0);
+        Runtime runtime = Runtime.getRuntime();
+        assertTrue(runtime.maxMemory() <= 256L * 1024 * 1024, "Test must run with a bounded heap");
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.EmbeddedPostgresTest;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExpenseRow;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares loading a user's expenses as managed entities with loading them as {@link ExpenseRow} projections.
+ * Both variants run the same statement shape in their own transaction; the allocated bytes of the calling thread
+ * and the elapsed time are measured over several iterations after a warm-up. The allocation counter is specific to
+ * HotSpot and the ratio depends on JIT and GC behaviour, so the test only runs with the {@code benchmarks} profile.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProjectionBenchmarkTest extends EmbeddedPostgresTest {
+
+    private static final int USER_ID = 7;
+    private static final int ROWS = 20_000;
+    private static final int CATEGORIES = 20;
+    private static final int WARM_UP = 3;
+    private static final int ITERATIONS = 5;
+    private static final String ENTITY_QUERY =
+            "SELECT e FROM Expense e JOIN FETCH e.expenseCategory WHERE e.userId = :userId ORDER BY e.transactionDate DESC, e.id DESC";
+
+    private static boolean seeded;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO expense_category (expense_category_name) " +
+                "SELECT 'Expense category ' || g FROM generate_series(1, ?) g", CATEGORIES);
+        jdbcTemplate.update("INSERT INTO transaction (id, user_id, amount, name, transaction_date, original_amount, currency) " +
+                "SELECT g, ?, (g % 5000) / 10.0, 'Expense ' || g, DATE '2020-01-01' + g % 1800, (g % 5000) / 10.0, 'CZK' " +
+                "FROM generate_series(1, ?) g", USER_ID, ROWS);
+        jdbcTemplate.update("INSERT INTO expense (id, expense_category_id) " +
+                "SELECT g, g % ? + 1 FROM generate_series(1, ?) g", CATEGORIES, ROWS);
+        jdbcTemplate.execute("ANALYZE");
+        seeded = true;
+    }
+
+    @Test
+    public void testRowProjectionAllocatesLessThanEntities() {
+        Measurement entities = measure(() -> entityManager.createQuery(ENTITY_QUERY, Expense.class)
+                .setParameter("userId", USER_ID)
+                .setMaxResults(ROWS)
+                .getResultList());
+        Measurement rows = measure(() -> expenseRepository.findPageByUserIdDesc(USER_ID, Limit.of(ROWS)));
+
+        assertTrue(rows.bytes() < entities.bytes() * 0.75,
+                "Projection allocated " + rows.bytes() + " bytes in " + rows.millis() + " ms per load, entities "
+                        + entities.bytes() + " bytes in " + entities.millis() + " ms");
+    }
+
+    /**
+     * Runs a load in its own transaction, so the entity variant also pays for the flush and dirty check at commit.
+     */
+    private Measurement measure(Supplier<List<?>> load) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < WARM_UP; i++) {
+            assertEquals(ROWS, transactionTemplate.execute(status -> load.get()).size());
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            transactionTemplate.execute(status -> load.get());
+        }
+        long elapsed = System.nanoTime() - started;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new Measurement(bytes / ITERATIONS, elapsed / 1e6 / ITERATIONS);
+    }
+
+    private record Measurement(long bytes, double millis) {
+    }
+}
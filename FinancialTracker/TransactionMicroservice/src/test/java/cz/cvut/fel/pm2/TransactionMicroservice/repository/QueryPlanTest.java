@@ -0,0 +1,368 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.EmbeddedPostgresTest;
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.TransactionSearchCriteria;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.IncomeCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.util.KeysetCursor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks on a seeded PostgreSQL database that the SQL generated for each repository query is planned with an index
+ * on the large tables. The SQL and its bound parameters are captured from the JDBC driver and replayed with EXPLAIN.
+ */
+@DataJpaTest
+@Import({TransactionSearchRepository.class, BalanceCheckpointRepository.class, RecurringGenerationRepository.class,
+        BudgetRepository.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class QueryPlanTest extends EmbeddedPostgresTest {
+
+    private static final int USERS = 2_000;
+    private static final int TRANSACTIONS = 1_000_000;
+    private static final int CATEGORIES = 100;
+    private static final int USER_ID = 42;
+    private static final Pattern LARGE_TABLE =
+            Pattern.compile(" on (transaction|expense|income|user_month_rollup|ledger_entry|user_balance_checkpoint|recurring_template)\\b");
+    private static final Pattern LARGE_TABLE_SEQ_SCAN =
+            Pattern.compile("Seq Scan on (transaction|expense|income|user_month_rollup|ledger_entry|user_balance_checkpoint|recurring_template)\\b");
+
+    private static final List<CapturedStatement> capturedStatements = new CopyOnWriteArrayList<>();
+    private static boolean seeded;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private IncomeRepository incomeRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserMonthRollupRepository rollupRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private TransactionSearchRepository searchRepository;
+
+    @Autowired
+    private BalanceCheckpointRepository balanceRepository;
+
+    @Autowired
+    private RecurringGenerationRepository recurringRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO expense_category (expense_category_name) " +
+                "SELECT 'Expense category ' || g FROM generate_series(1, ?) g", CATEGORIES);
+        jdbcTemplate.update("INSERT INTO income_category (income_category_name) " +
+                "SELECT 'Income category ' || g FROM generate_series(1, ?) g", CATEGORIES);
+        jdbcTemplate.update("INSERT INTO transaction (id, user_id, amount, name, transaction_date, original_amount, currency) " +
+                "SELECT g, g % ? + 1, (g % 5000) / 10.0, 'Transaction ' || g, DATE '2020-01-01' + g % 1800, (g % 5000) / 10.0, 'CZK' " +
+                "FROM generate_series(1, ?) g", USERS, TRANSACTIONS);
+        jdbcTemplate.update("INSERT INTO expense (id, expense_category_id) " +
+                "SELECT g, g % ? + 1 FROM generate_series(1, ?, 2) g", CATEGORIES, TRANSACTIONS);
+        jdbcTemplate.update("INSERT INTO income (id, income_category_id) " +
+                "SELECT g, g % ? + 1 FROM generate_series(2, ?, 2) g", CATEGORIES, TRANSACTIONS);
+        jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('transaction', 'id'), " + TRANSACTIONS + ")");
+        jdbcTemplate.update("INSERT INTO ledger_entry (id, user_id, type, amount, transaction_date, name, category_id, original_amount, currency) " +
+                "SELECT t.id, t.user_id, CASE WHEN t.id % 2 = 1 THEN 'EXPENSE' ELSE 'INCOME' END, t.amount, t.transaction_date, t.name, t.id % ? + 1, t.original_amount, t.currency " +
+                "FROM transaction t", CATEGORIES);
+        jdbcTemplate.update("INSERT INTO user_month_rollup (user_id, month, category_type, category_id, income_sum, expense_sum, transaction_count) " +
+                "SELECT u, DATE '2020-01-01' + m * INTERVAL '1 month', 'EXPENSE', c, 0, 10, 1 " +
+                "FROM generate_series(1, ?) u, generate_series(0, 59) m, generate_series(1, 3) c", USERS);
+        jdbcTemplate.update("INSERT INTO user_balance_checkpoint (user_id, month, balance_cents) " +
+                "SELECT u, DATE '2020-01-01' + m * INTERVAL '1 month', m * 100 " +
+                "FROM generate_series(1, ?) u, generate_series(1, 59) m", USERS);
+        jdbcTemplate.update("INSERT INTO user_budget (user_id, category_id, monthly_limit) " +
+                "SELECT u, c, 100 FROM generate_series(1, ?) u, generate_series(1, 3) c", USERS);
+        jdbcTemplate.update("INSERT INTO recurring_template (user_id, type, name, amount, currency, category_id, frequency, start_date, next_date, occurrences) " +
+                "SELECT g % ? + 1, 'EXPENSE', 'Template ' || g, 10, 'CZK', g % ? + 1, 'MONTHLY', DATE '2020-01-01', DATE '2020-01-01' + g % 1800, 0 " +
+                "FROM generate_series(1, ?) g", USERS, CATEGORIES, TRANSACTIONS / 5);
+        jdbcTemplate.execute("ANALYZE");
+        seeded = true;
+    }
+
+    @Test
+    public void testExpenseRepositoryQueriesUseIndexes() {
+        ExpenseCategory category = new ExpenseCategory();
+        category.setId(7L);
+        LocalDate date = LocalDate.of(2022, 6, 1);
+
+        assertFilterUsesIndex("findByExpenseCategory", "ix_expense_category", () -> expenseRepository.findByExpenseCategory(category));
+        assertUsesIndex("findByIdAndUserId", () -> expenseRepository.findByIdAndUserId(1001, USER_ID));
+        assertUsesIndex("findRowByIdAndUserId", () -> expenseRepository.findRowByIdAndUserId(1001, USER_ID));
+        assertUsesIndex("findAmountPageByUserId", () -> expenseRepository.findAmountPageByUserId(USER_ID, 10f, 20f, Limit.of(101)));
+        assertUsesIndex("findAmountPageByUserIdAfter", () -> expenseRepository.findAmountPageByUserIdAfter(USER_ID, Float.MAX_VALUE, 15f, 50_000, Limit.of(101)));
+        assertUsesIndex("findPageByUserIdDesc", () -> expenseRepository.findPageByUserIdDesc(USER_ID, Limit.of(101)));
+        assertUsesIndex("findPageByUserIdDescAfter", () -> expenseRepository.findPageByUserIdDescAfter(USER_ID, date, 50_000, Limit.of(101)));
+        assertUsesIndex("findPageByUserIdAsc", () -> expenseRepository.findPageByUserIdAsc(USER_ID, Limit.of(101)));
+        assertUsesIndex("findPageByUserIdAscAfter", () -> expenseRepository.findPageByUserIdAscAfter(USER_ID, date, 50_000, Limit.of(101)));
+        assertUsesIndex("sumAmountByMonthAndCategory", () -> expenseRepository.sumAmountByMonthAndCategory(USER_ID));
+        assertUsesIndex("streamExportRows", () -> expenseRepository.streamExportRows(USER_ID).forEach(row -> { }));
+    }
+
+    @Test
+    public void testIncomeRepositoryQueriesUseIndexes() {
+        IncomeCategory category = new IncomeCategory();
+        category.setId(7L);
+        LocalDate date = LocalDate.of(2022, 6, 1);
+
+        assertFilterUsesIndex("findByIncomeCategory", "ix_income_category", () -> incomeRepository.findByIncomeCategory(category));
+        assertUsesIndex("findByIdAndUserId", () -> incomeRepository.findByIdAndUserId(1002, USER_ID));
+        assertUsesIndex("findRowByIdAndUserId", () -> incomeRepository.findRowByIdAndUserId(1002, USER_ID));
+        assertUsesIndex("findAmountPageByUserId", () -> incomeRepository.findAmountPageByUserId(USER_ID, 10f, 20f, Limit.of(101)));
+        assertUsesIndex("findAmountPageByUserIdAfter", () -> incomeRepository.findAmountPageByUserIdAfter(USER_ID, Float.MAX_VALUE, 15f, 50_000, Limit.of(101)));
+        assertUsesIndex("findPageByUserIdDesc", () -> incomeRepository.findPageByUserIdDesc(USER_ID, Limit.of(101)));
+        assertUsesIndex("findPageByUserIdDescAfter", () -> incomeRepository.findPageByUserIdDescAfter(USER_ID, date, 50_000, Limit.of(101)));
+        assertUsesIndex("findPageByUserIdAsc", () -> incomeRepository.findPageByUserIdAsc(USER_ID, Limit.of(101)));
+        assertUsesIndex("findPageByUserIdAscAfter", () -> incomeRepository.findPageByUserIdAscAfter(USER_ID, date, 50_000, Limit.of(101)));
+        assertUsesIndex("sumAmountByMonthAndCategory", () -> incomeRepository.sumAmountByMonthAndCategory(USER_ID));
+        assertUsesIndex("streamExportRows", () -> incomeRepository.streamExportRows(USER_ID).forEach(row -> { }));
+    }
+
+    @Test
+    public void testSearchQueriesUseIndexes() {
+        KeysetCursor after = new KeysetCursor(LocalDate.of(2022, 6, 1), 50_000);
+        TransactionSearchCriteria userOnly = TransactionSearchCriteria.of(USER_ID, null, null, null, null, null, null, "desc");
+        TransactionSearchCriteria allFilters = TransactionSearchCriteria.of(USER_ID, Set.of(2L, 4L, 6L), 10f, 400f,
+                LocalDate.of(2021, 1, 1), LocalDate.of(2023, 12, 31), "transaction 1", "asc");
+
+        assertUsesIndex("searchExpenses(userId)", () -> searchRepository.searchExpenses(userOnly, null, 101));
+        assertUsesIndex("searchExpenses(userId, after)", () -> searchRepository.searchExpenses(userOnly, after, 101));
+        assertUsesIndex("searchExpenses(all filters)", () -> searchRepository.searchExpenses(allFilters, after, 101));
+        assertUsesIndex("searchIncomes(userId)", () -> searchRepository.searchIncomes(userOnly, null, 101));
+        assertUsesIndex("searchIncomes(all filters)", () -> searchRepository.searchIncomes(allFilters, after, 101));
+    }
+
+    @Test
+    public void testTransactionRepositoryQueriesUseIndexes() {
+        assertUsesIndex("existsById", () -> transactionRepository.existsById(1001));
+        assertUsesIndex("findByIdAndUserId", () -> transactionRepository.findByIdAndUserId(1001, USER_ID));
+        // findDistinctUserIds reads every row by design and is only used by the nightly reconciliation
+    }
+
+    @Test
+    public void testLedgerEntryRepositoryQueriesReadOneTable() {
+        LocalDate date = LocalDate.of(2022, 6, 1);
+
+        assertReadsOneTable("findByIdAndUserId", () -> ledgerEntryRepository.findByIdAndUserId(1001, USER_ID));
+        assertReadsOneTable("findAllByUserIdAndIdIn", () -> ledgerEntryRepository.findAllByUserIdAndIdIn(USER_ID, List.of(1001, 3001, 5001)));
+        assertReadsOneTable("findAmountPageByUserId", () -> ledgerEntryRepository.findAmountPageByUserId(USER_ID, 10f, 400f, Limit.of(101)));
+        assertReadsOneTable("findAmountPageByUserIdAfter", () -> ledgerEntryRepository.findAmountPageByUserIdAfter(USER_ID, 400f, 120.5f, 50_000, Limit.of(101)));
+        assertReadsOneTable("findPageByUserIdDesc", () -> ledgerEntryRepository.findPageByUserIdDesc(USER_ID, Limit.of(101)));
+        assertReadsOneTable("findPageByUserIdDescAfter", () -> ledgerEntryRepository.findPageByUserIdDescAfter(USER_ID, date, 50_000, Limit.of(101)));
+        assertReadsOneTable("findPageByUserIdAsc", () -> ledgerEntryRepository.findPageByUserIdAsc(USER_ID, Limit.of(101)));
+        assertReadsOneTable("findPageByUserIdAscAfter", () -> ledgerEntryRepository.findPageByUserIdAscAfter(USER_ID, date, 50_000, Limit.of(101)));
+        assertReadsOneTable("sumAmountByMonth", () -> ledgerEntryRepository.sumAmountByMonth(USER_ID, TransactionType.EXPENSE,
+                LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31)));
+        assertReadsOneTable("sumAmountByCategory", () -> ledgerEntryRepository.sumAmountByCategory(USER_ID, TransactionType.EXPENSE,
+                LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31)));
+        assertReadsOneTable("sumAmountByCategory(limit)", () -> ledgerEntryRepository.sumAmountByCategory(USER_ID, TransactionType.EXPENSE,
+                LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31), Limit.of(5)));
+        assertReadsOneTable("findLargestByUserId", () -> ledgerEntryRepository.findLargestByUserId(USER_ID, TransactionType.EXPENSE,
+                LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31), Limit.of(5)));
+    }
+
+    @Test
+    public void testRollupRepositoryQueriesUseIndexes() {
+        LocalDate from = LocalDate.of(2021, 1, 1);
+        LocalDate to = LocalDate.of(2021, 12, 1);
+
+        assertUsesIndex("applyDelta", () -> rollupRepository.applyDelta(USER_ID, from, "EXPENSE", 1L, 0, 5, 1));
+        assertUsesIndex("findAllByUserId", () -> rollupRepository.findAllByUserId(USER_ID));
+        assertUsesIndex("deleteAllByUserId", () -> rollupRepository.deleteAllByUserId(USER_ID));
+        assertUsesIndex("sumIncomeByMonth", () -> rollupRepository.sumIncomeByMonth(USER_ID, from, to));
+        assertUsesIndex("sumExpenseByMonth", () -> rollupRepository.sumExpenseByMonth(USER_ID, from, to));
+        assertUsesIndex("BudgetRepository.findStatuses", () -> budgetRepository.findStatuses(USER_ID, from));
+        assertUsesIndex("BudgetRepository.findStatus", () -> budgetRepository.findStatus(USER_ID, 2L, from));
+        // findDistinctUserIds reads every row by design and is only used by the nightly reconciliation
+    }
+
+    @Test
+    public void testBalanceCheckpointQueriesUseIndexes() {
+        LocalDate from = LocalDate.of(2022, 6, 10);
+        LocalDate to = LocalDate.of(2022, 6, 30);
+
+        assertUsesIndex("findLatest", () -> balanceRepository.findLatest(USER_ID));
+        assertUsesIndex("sumNetByMonth", () -> balanceRepository.sumNetByMonth(USER_ID, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 1)));
+        assertUsesIndex("shiftAfter", () -> balanceRepository.shiftAfter(
+                List.of(new BalanceCheckpointRepository.Shift(USER_ID, from, 100))));
+        assertUsesIndex("findCheckpointAndDailyNets", () -> balanceRepository.findCheckpointAndDailyNets(USER_ID, from, to));
+    }
+
+    @Test
+    public void testRecurringGenerationQueriesUseIndexes() {
+        RecurringGenerationRepository.GenerationRange range = RecurringGenerationRepository.GenerationRange.of(USER_ID, USER_ID + 20);
+
+        assertUsesIndex("claimDue", () -> recurringRepository.claimDue(range, LocalDate.of(2022, 6, 1), 500));
+        assertUsesIndex("claimDue(after)", () -> recurringRepository.claimDue(
+                new RecurringGenerationRepository.GenerationRange(USER_ID, USER_ID + 20, USER_ID + 10, 5_000, false), LocalDate.of(2022, 6, 1), 500));
+        // findDueUserRange reads every row by design and runs once per generation run
+    }
+
+    /**
+     * Checks that no statement issued by a repository call scans a large table.
+     * Lookups in the small category tables are cheap either way and are not checked.
+     */
+    private void assertUsesIndex(String query, Runnable repositoryCall) {
+        for (String plan : explainAll(query, repositoryCall)) {
+            assertFalse(LARGE_TABLE_SEQ_SCAN.matcher(plan).find(), query + " scans a large table:\n" + plan);
+            assertTrue(plan.contains("Index"), query + " uses no index:\n" + plan);
+        }
+    }
+
+    /**
+     * Checks that every statement issued by a repository call is an index scan of a single table.
+     */
+    private void assertReadsOneTable(String query, Runnable repositoryCall) {
+        for (String plan : explainAll(query, repositoryCall)) {
+            assertFalse(LARGE_TABLE_SEQ_SCAN.matcher(plan).find(), query + " scans a large table:\n" + plan);
+            assertTrue(plan.contains("Index"), query + " uses no index:\n" + plan);
+            assertFalse(plan.contains("Join") || plan.contains("Nested Loop"), query + " joins tables:\n" + plan);
+        }
+    }
+
+    /**
+     * Checks that the filter of a query returning a fixed share of all rows is answered by the given index.
+     * Joining such a share to the parent table may legitimately be done with a full scan.
+     */
+    private void assertFilterUsesIndex(String query, String index, Runnable repositoryCall) {
+        for (String plan : explainAll(query, repositoryCall)) {
+            assertTrue(plan.contains(index), query + " does not use " + index + ":\n" + plan);
+        }
+    }
+
+    /**
+     * Runs a repository call in a rolled back transaction and explains every statement it issued against a large table.
+     */
+    private List<String> explainAll(String query, Runnable repositoryCall) {
+        capturedStatements.clear();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            repositoryCall.run();
+            status.setRollbackOnly();
+        });
+        List<CapturedStatement> statements = new ArrayList<>(capturedStatements);
+        assertFalse(statements.isEmpty(), query + " issued no statement");
+
+        List<String> plans = new ArrayList<>();
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            if (LARGE_TABLE.matcher(plan).find()) {
+                plans.add(plan);
+            }
+        }
+        assertFalse(plans.isEmpty(), query + " issued no statement against a large table");
+        return plans;
+    }
+
+    private String explain(CapturedStatement statement) {
+        List<String> lines = jdbcTemplate.query("EXPLAIN " + statement.sql(), ps -> {
+            for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                ps.setObject(parameter.getKey(), parameter.getValue());
+            }
+        }, (rs, rowNum) -> rs.getString(1));
+        return String.join("\n", lines);
+    }
+
+    private record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    /**
+     * Wraps the data source so every prepared statement records its SQL and bound parameters when executed.
+     */
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        private static final Map<Object, String> statementSql = new ConcurrentHashMap<>();
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        private static <T> T wrap(Class<T> type, T target) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+                String name = method.getName();
+                if (target instanceof PreparedStatement && name.startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                }
+                if (target instanceof PreparedStatement && name.startsWith("execute") && (args == null || args.length == 0)) {
+                    capturedStatements.add(new CapturedStatement(statementSql.get(target), new TreeMap<>(parameters)));
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection) {
+                    return wrap(Connection.class, connection);
+                }
+                if (result instanceof PreparedStatement preparedStatement && name.equals("prepareStatement")) {
+                    statementSql.put(preparedStatement, (String) args[0]);
+                    return wrap(PreparedStatement.class, preparedStatement);
+                }
+                return result;
+            });
+            return type.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that every query declared on a repository of per-user data is scoped to one user,
+ * looks rows up by primary key, or is explicitly marked {@link CrossTenant}, and that every {@link CrossTenant}
+ * method is one {@code TenantScopeGuard} intercepts.
+ */
+public class RepositoryTenantScopeTest {
+
+    @Test
+    public void testRepositoryMethodsAreScopedToOneUser() throws ClassNotFoundException {
+        List<String> unscoped = new ArrayList<>();
+        int checkedRepositories = 0;
+        for (Class<?> repository : findRepositories()) {
+            Class<?> domainType = ResolvableType.forClass(repository).as(Repository.class).resolveGeneric(0);
+            if (domainType == null || ReflectionUtils.findField(domainType, "userId") == null) {
+                continue;
+            }
+            checkedRepositories++;
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!method.isSynthetic() && !method.isDefault() && !isScoped(method)) {
+                    unscoped.add(repository.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+
+        assertTrue(checkedRepositories >= 5, "Expected to find the repositories of per-user data");
+        assertTrue(unscoped.isEmpty(), "Repository methods without a userId parameter or @CrossTenant: " + unscoped);
+    }
+
+    @Test
+    public void testCrossTenantMethodsAreGuarded() throws ClassNotFoundException {
+        List<String> unguarded = new ArrayList<>();
+        int annotatedMethods = 0;
+        for (Class<?> type : findTypes((reader, factory) -> true, false)) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(CrossTenant.class)) {
+                    continue;
+                }
+                annotatedMethods++;
+                if (!isGuarded(type, method)) {
+                    unguarded.add(type.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+
+        assertTrue(annotatedMethods > 0, "Expected to find @CrossTenant methods");
+        assertTrue(unguarded.isEmpty(), "@CrossTenant methods TenantScopeGuard does not intercept: " + unguarded);
+    }
+
+    /**
+     * Mirrors the beans the guard proxies: Spring Data repositories of entities with a {@code userId}, and
+     * {@code @Repository} classes whose public, non-final methods a class proxy can intercept.
+     */
+    private static boolean isGuarded(Class<?> type, Method method) {
+        if (Repository.class.isAssignableFrom(type)) {
+            Class<?> domainType = ResolvableType.forClass(type).as(Repository.class).resolveGeneric(0);
+            return domainType != null && ReflectionUtils.findField(domainType, "userId") != null;
+        }
+        int modifiers = method.getModifiers();
+        return AnnotatedElementUtils.hasAnnotation(type, org.springframework.stereotype.Repository.class)
+                && Modifier.isPublic(modifiers) && !Modifier.isFinal(modifiers) && !Modifier.isStatic(modifiers)
+                && !Modifier.isFinal(type.getModifiers());
+    }
+
+    private static boolean isScoped(Method method) {
+        if (method.isAnnotationPresent(CrossTenant.class) || method.getName().endsWith("ById")) {
+            return true;
+        }
+        for (Parameter parameter : method.getParameters()) {
+            Param param = parameter.getAnnotation(Param.class);
+            if ("userId".equals(param != null ? param.value() : parameter.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Class<?>> findRepositories() throws ClassNotFoundException {
+        return findTypes(new AssignableTypeFilter(Repository.class), true);
+    }
+
+    private static List<Class<?>> findTypes(TypeFilter filter, boolean interfacesOnly) throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(org.springframework.beans.factory.annotation.AnnotatedBeanDefinition beanDefinition) {
+                return !interfacesOnly || beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(filter);
+
+        List<Class<?>> types = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(RepositoryTenantScopeTest.class.getPackageName())) {
+            types.add(Class.forName(candidate.getBeanClassName()));
+        }
+        return types;
+    }
+}
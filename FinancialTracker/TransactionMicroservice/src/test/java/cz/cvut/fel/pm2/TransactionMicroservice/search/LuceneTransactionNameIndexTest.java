@@ -0,0 +1,137 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.search;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.TransactionType;
+import cz.cvut.fel.pm2.TransactionMicroservice.event.TransactionSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LuceneTransactionNameIndexTest {
+
+    private LuceneTransactionNameIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new LuceneTransactionNameIndex();
+        index.rebuild(Stream.of(
+                expense(1, 1, "Weekly groceries"),
+                expense(2, 1, "Grocery delivery"),
+                expense(3, 1, "Restaurant dinner"),
+                income(4, 1, "Salary October"),
+                expense(5, 2, "Weekly groceries"),
+                expense(6, 1, "Rental car")));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    public void testSearch_ExactWordRanksFirst() {
+        index.upsert(List.of(expense(7, 1, "Rent")));
+
+        assertEquals(List.of(7, 6), index.search(1, "rent", null, 10));
+    }
+
+    @Test
+    public void testSearch_Prefix() {
+        assertEquals(List.of(3), index.search(1, "resta", null, 10));
+        assertEquals(2, index.search(1, "grocer", null, 10).size());
+    }
+
+    @Test
+    public void testSearch_Typo() {
+        assertEquals(List.of(4), index.search(1, "salry", null, 10));
+    }
+
+    @Test
+    public void testSearch_AllWordsMustMatch() {
+        assertEquals(List.of(1), index.search(1, "weekly groc", null, 10));
+        assertTrue(index.search(1, "weekly salary", null, 10).isEmpty());
+    }
+
+    @Test
+    public void testSearch_ScopedToUserAndType() {
+        assertEquals(List.of(5), index.search(2, "groceries", null, 10));
+        assertTrue(index.search(1, "salary", TransactionType.EXPENSE, 10).isEmpty());
+        assertEquals(List.of(4), index.search(1, "salary", TransactionType.INCOME, 10));
+    }
+
+    @Test
+    public void testSearch_BlankQuery() {
+        assertTrue(index.search(1, "  ", null, 10).isEmpty());
+        assertTrue(index.search(1, null, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testUpsertAndDelete() {
+        // Act
+        index.upsert(List.of(expense(3, 1, "Cinema tickets"), expense(6, 1, "Cinema snacks")));
+        index.delete(List.of(1));
+
+        // Assert
+        assertEquals(List.of(2), index.search(1, "grocer", null, 10));
+        assertTrue(index.search(1, "restaurant", null, 10).isEmpty());
+        assertEquals(2, index.search(1, "cinema", null, 10).size());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    public void testRebuildReplacesContent() {
+        // Act
+        long indexed = index.rebuild(Stream.of(expense(7, 1, "Rent")));
+
+        // Assert
+        assertEquals(1, indexed);
+        assertEquals(1, index.size());
+        assertTrue(index.search(1, "groceries", null, 10).isEmpty());
+        assertEquals(List.of(7), index.search(1, "rent", null, 10));
+    }
+
+    @Test
+    public void testSearchInALargeIndexStaysWithinTheUser() {
+        // Arrange
+        String[] words = {"groceries", "rent", "fuel", "restaurant", "pharmacy", "cinema", "electricity", "insurance"};
+        index.rebuild(IntStream.range(0, 200_000)
+                .mapToObj(i -> expense(i, i % 500, words[i % words.length] + " " + words[(i / 7) % words.length] + " " + i)));
+
+        // Act
+        List<Integer> ids = index.search(7, "restaur", null, 20);
+
+        // Assert
+        assertEquals(20, ids.size());
+        for (int id : ids) {
+            assertEquals(7, id % 500);
+            assertTrue(words[id % words.length].equals("restaurant") || words[(id / 7) % words.length].equals("restaurant"));
+        }
+    }
+
+    @Test
+    public void testReplaceUserKeepsOtherUsers() {
+        // Act
+        index.replaceUser(1, List.of(expense(1, 1, "Weekly vegetables"), expense(8, 1, "Groceries abroad")));
+
+        // Assert
+        assertEquals(List.of(8), index.search(1, "groceries", null, 10));
+        assertTrue(index.search(1, "salary", null, 10).isEmpty());
+        assertEquals(List.of(5), index.search(2, "groceries", null, 10));
+        assertEquals(3, index.size());
+    }
+
+    private static TransactionSnapshot expense(int id, int userId, String name) {
+        return new TransactionSnapshot(id, userId, TransactionType.EXPENSE, 1L, 10f, LocalDate.of(2024, 1, 1), name);
+    }
+
+    private static TransactionSnapshot income(int id, int userId, String name) {
+        return new TransactionSnapshot(id, userId, TransactionType.INCOME, 1L, 10f, LocalDate.of(2024, 1, 1), name);
+    }
+}
@@ -0,0 +1,114 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.ExpenseCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.IncomeCategory;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.ExpenseCategoryRepository;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.IncomeCategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CategoryRegistryTest {
+
+    private ExpenseCategoryRepository expenseCategoryRepository;
+    private IncomeCategoryRepository incomeCategoryRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private CategoryRegistry categoryRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        expenseCategoryRepository = mock(ExpenseCategoryRepository.class);
+        incomeCategoryRepository = mock(IncomeCategoryRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(expenseCategoryRepository.findAll()).thenReturn(List.of(expenseCategory(2L, "Rent"), expenseCategory(1L, "Food")));
+        when(incomeCategoryRepository.findAll()).thenReturn(List.of(incomeCategory(1L, "Salary")));
+
+        categoryRegistry = new CategoryRegistry(expenseCategoryRepository, incomeCategoryRepository, meterRegistry);
+        categoryRegistry.reload();
+    }
+
+    @Test
+    public void testLookupsAndListsAreServedFromMemory() {
+        // Act
+        Optional<ExpenseCategory> food = categoryRegistry.findExpenseCategory(1L);
+        List<ExpenseCategory> expenseCategories = categoryRegistry.getExpenseCategories();
+        Optional<IncomeCategory> salary = categoryRegistry.findIncomeCategory(1L);
+
+        // Assert
+        assertEquals("Food", food.orElseThrow().getCategoryName());
+        assertEquals(List.of(1L, 2L), expenseCategories.stream().map(ExpenseCategory::getId).toList());
+        assertEquals("Salary", salary.orElseThrow().getCategoryName());
+        verify(expenseCategoryRepository, never()).findById(anyInt());
+        verify(incomeCategoryRepository, never()).findById(anyInt());
+        assertEquals(1.0, lookups("expense", "hit"));
+        assertEquals(1.0, lookups("income", "hit"));
+        assertEquals(1.0, meterRegistry.get("transactions.categories.reloads").counter().count());
+    }
+
+    @Test
+    public void testMissFallsBackToDatabaseAndKeepsTheCategory() {
+        // Arrange
+        when(expenseCategoryRepository.findById(3)).thenReturn(Optional.of(expenseCategory(3L, "Travel")));
+
+        // Act
+        Optional<ExpenseCategory> first = categoryRegistry.findExpenseCategory(3L);
+        Optional<ExpenseCategory> second = categoryRegistry.findExpenseCategory(3L);
+
+        // Assert
+        assertEquals("Travel", first.orElseThrow().getCategoryName());
+        assertTrue(second.isPresent());
+        verify(expenseCategoryRepository, times(1)).findById(3);
+        assertEquals(1.0, lookups("expense", "miss"));
+        assertEquals(1.0, lookups("expense", "hit"));
+        assertEquals(3, categoryRegistry.getExpenseCategories().size());
+    }
+
+    @Test
+    public void testUnknownCategoryIsNotCached() {
+        // Arrange
+        when(expenseCategoryRepository.findById(99)).thenReturn(Optional.empty());
+
+        // Act
+        Optional<ExpenseCategory> category = categoryRegistry.findExpenseCategory(99L);
+
+        // Assert
+        assertTrue(category.isEmpty());
+        assertEquals(2, categoryRegistry.getExpenseCategories().size());
+    }
+
+    @Test
+    public void testRegisteredCategoryIsListedWithoutReload() {
+        // Act
+        categoryRegistry.registerIncomeCategory(incomeCategory(5L, "Bonus"));
+
+        // Assert
+        assertEquals(List.of("Salary", "Bonus"),
+                categoryRegistry.getIncomeCategories().stream().map(IncomeCategory::getCategoryName).toList());
+        verify(incomeCategoryRepository, times(1)).findAll();
+    }
+
+    private double lookups(String type, String result) {
+        return meterRegistry.get("transactions.categories.lookups").tag("type", type).tag("result", result).counter().count();
+    }
+
+    private static ExpenseCategory expenseCategory(long id, String name) {
+        ExpenseCategory category = new ExpenseCategory();
+        category.setId(id);
+        category.setCategoryName(name);
+        return category;
+    }
+
+    private static IncomeCategory incomeCategory(long id, String name) {
+        IncomeCategory category = new IncomeCategory();
+        category.setId(id);
+        category.setCategoryName(name);
+        return category;
+    }
+}
@@ -0,0 +1,94 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.entity.Expense;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.CurrencyRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CurrencyServiceTest {
+
+    private static final LocalDate FRIDAY = LocalDate.of(2024, 3, 1);
+
+    private CurrencyService currencyService;
+
+    @BeforeEach
+    public void setUp() {
+        CurrencyRepository currencyRepository = mock(CurrencyRepository.class);
+        when(currencyRepository.findBaseCurrency(anyInt())).thenReturn(Optional.empty());
+        ExchangeRateRegistry exchangeRateRegistry = mock(ExchangeRateRegistry.class);
+        when(exchangeRateRegistry.findRate("EUR", "CZK", FRIDAY)).thenReturn(Optional.of(new BigDecimal("25.30")));
+
+        currencyService = new CurrencyService(currencyRepository, exchangeRateRegistry, "CZK");
+    }
+
+    @Test
+    public void testApplyBaseAmount_WithoutCurrencyKeepsTheAmount() {
+        // Arrange
+        Expense expense = expense(120f, null, null);
+
+        // Act
+        currencyService.applyBaseAmount(expense);
+
+        // Assert
+        assertEquals("CZK", expense.getCurrency());
+        assertEquals(120f, expense.getOriginalAmount());
+        assertEquals(120f, expense.getAmount());
+    }
+
+    @Test
+    public void testApplyBaseAmount_WithoutOriginalAmountConvertsTheAmount() {
+        // Arrange
+        Expense expense = expense(10f, null, "eur");
+
+        // Act
+        currencyService.applyBaseAmount(expense);
+
+        // Assert
+        assertEquals("EUR", expense.getCurrency());
+        assertEquals(10f, expense.getOriginalAmount());
+        assertEquals(253f, expense.getAmount());
+    }
+
+    @Test
+    public void testApplyBaseAmount_ConvertsTheOriginalAmountOverAStaleAmount() {
+        // Arrange; an update sending back the amount it read together with an edited original amount
+        Expense foreign = expense(253f, 12f, "EUR");
+        Expense base = expense(253f, 300f, "CZK");
+
+        // Act
+        currencyService.applyBaseAmount(foreign);
+        currencyService.applyBaseAmount(base);
+
+        // Assert
+        assertEquals(303.6f, foreign.getAmount());
+        assertEquals(300f, base.getAmount());
+    }
+
+    @Test
+    public void testApplyBaseAmount_WithoutRateIsRejected() {
+        // Arrange
+        Expense expense = expense(10f, 10f, "GBP");
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> currencyService.applyBaseAmount(expense));
+        assertEquals("No GBP/CZK exchange rate on or before " + FRIDAY, e.getMessage());
+    }
+
+    private Expense expense(float amount, Float originalAmount, String currency) {
+        Expense expense = new Expense();
+        expense.setUserId(1);
+        expense.setAmount(amount);
+        expense.setOriginalAmount(originalAmount);
+        expense.setCurrency(currency);
+        expense.setTransactionDate(FRIDAY);
+        return expense;
+    }
+}
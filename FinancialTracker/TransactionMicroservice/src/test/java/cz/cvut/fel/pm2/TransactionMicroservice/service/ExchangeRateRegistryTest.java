@@ -0,0 +1,77 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import cz.cvut.fel.pm2.TransactionMicroservice.dto.ExchangeRateDTO;
+import cz.cvut.fel.pm2.TransactionMicroservice.repository.CurrencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ExchangeRateRegistryTest {
+
+    private static final LocalDate FRIDAY = LocalDate.of(2024, 3, 1);
+
+    private CurrencyRepository currencyRepository;
+    private ExchangeRateRegistry registry;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        currencyRepository = mock(CurrencyRepository.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("EUR");
+        when(rs.getString(2)).thenReturn("CZK");
+        when(rs.getObject(3, LocalDate.class)).thenReturn(FRIDAY);
+        when(rs.getBigDecimal(4)).thenReturn(new BigDecimal("25.30"));
+        doAnswer(invocation -> {
+            invocation.getArgument(0, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(currencyRepository).forEachRate(any());
+
+        registry = new ExchangeRateRegistry(currencyRepository, "CZK", new SimpleMeterRegistry());
+        registry.reload();
+    }
+
+    @Test
+    public void testLookupTakesTheLatestRateOnOrBeforeTheDay() {
+        // Arrange
+        registry.register(List.of(rate("EUR", "CZK", FRIDAY.plusDays(3), "25.10")));
+
+        // Act & Assert
+        assertEquals(Optional.empty(), registry.findRate("EUR", "CZK", FRIDAY.minusDays(1)));
+        assertEquals(new BigDecimal("25.30"), registry.findRate("EUR", "CZK", FRIDAY.plusDays(2)).orElseThrow());
+        assertEquals(new BigDecimal("25.10"), registry.findRate("EUR", "CZK", FRIDAY.plusDays(3)).orElseThrow());
+        assertEquals(BigDecimal.ONE, registry.findRate("USD", "USD", FRIDAY).orElseThrow());
+        assertEquals(1, registry.pairCount());
+        verify(currencyRepository, times(1)).forEachRate(any());
+    }
+
+    @Test
+    public void testInverseAndCrossRates() {
+        // Arrange
+        registry.register(List.of(rate("USD", "CZK", FRIDAY, "23.00")));
+
+        // Act
+        BigDecimal czkToEur = registry.findRate("CZK", "EUR", FRIDAY).orElseThrow();
+        BigDecimal eurToUsd = registry.findRate("EUR", "USD", FRIDAY).orElseThrow();
+
+        // Assert
+        assertEquals(1 / 25.30, czkToEur.doubleValue(), 1e-12);
+        assertEquals(25.30 / 23.00, eurToUsd.doubleValue(), 1e-12);
+        assertTrue(registry.findRate("EUR", "GBP", FRIDAY).isEmpty());
+    }
+
+    private static ExchangeRateDTO rate(String from, String to, LocalDate date, String rate) {
+        return new ExchangeRateDTO(from, to, date, new BigDecimal(rate));
+    }
+}
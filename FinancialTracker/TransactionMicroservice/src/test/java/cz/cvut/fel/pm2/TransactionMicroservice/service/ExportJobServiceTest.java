@@ -0,0 +1,45 @@
+package cz.cvut.fel.pm2.TransactionMicroservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExportJobServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testPrepareDirectoryOnlyDeletesJobFiles() throws Exception {
+        // Arrange
+        Files.writeString(directory.resolve("4f1c.part"), "partial");
+        Files.writeString(directory.resolve("4f1c.xlsx"), "excel");
+        Files.writeString(directory.resolve("9a2b.pdf"), "pdf");
+        Files.writeString(directory.resolve("notes.txt"), "unrelated");
+        Files.createDirectory(directory.resolve("archive.pdf"));
+        ExportJobService exportJobService = new ExportJobService(mock(ExportService.class), new SimpleMeterRegistry(),
+                1, 1, directory, Duration.ofHours(1));
+
+        // Act
+        try {
+            exportJobService.prepareDirectory();
+        } finally {
+            exportJobService.shutdown();
+        }
+
+        // Assert
+        assertFalse(Files.exists(directory.resolve("4f1c.part")));
+        assertFalse(Files.exists(directory.resolve("4f1c.xlsx")));
+        assertFalse(Files.exists(directory.resolve("9a2b.pdf")));
+        assertTrue(Files.exists(directory.resolve("notes.txt")));
+        assertTrue(Files.isDirectory(directory.resolve("archive.pdf")));
+    }
+}
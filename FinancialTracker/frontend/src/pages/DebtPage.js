@@ -44,7 +44,8 @@ function DebtPage() {
                 amount: data.amount,
                 dueDate: data.dueDate,
                 nameOfPersonToGiveBack: data.nameOfPersonToGiveBack,
-                interestRate: data.interestRate
+                interestRate: data.interestRate,
+                version: data.version
             });
         } catch (error) {
             console.error('Error fetching debt:', error);
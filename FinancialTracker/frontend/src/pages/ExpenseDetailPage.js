@@ -7,9 +7,9 @@ import styles from './ExpenseDetailPage.module.css';
 function ExpenseDetailPage() {
     const { id } = useParams();
     const { userId, isLoggedIn } = useAuth();
-    const [expense, setExpense] = useState({ amount: '', name: '', transactionDate: '', expenseCategory: { id: '', categoryName: '' } });
+    const [expense, setExpense] = useState({ amount: '', originalAmount: '', currency: '', name: '', transactionDate: '', expenseCategory: { id: '', categoryName: '' } });
     const [categories, setCategories] = useState([]);
-    const [formExpense, setFormExpense] = useState({ amount: '', name: '', transactionDate: '', expenseCategory: { id: '', categoryName: '' } });
+    const [formExpense, setFormExpense] = useState({ amount: '', originalAmount: '', currency: '', name: '', transactionDate: '', expenseCategory: { id: '', categoryName: '' } });
     const navigate = useNavigate();
 
     useEffect(() => {
@@ -88,7 +88,7 @@ function ExpenseDetailPage() {
             <h2 className={styles.pageTitle}>Expense Details</h2>
             <div className={styles.expenseInfo}>
                 <p><strong>Name:</strong> {expense.name}</p>
-                <p><strong>Amount:</strong> ${expense.amount}</p>
+                <p><strong>Amount:</strong> {expense.originalAmount} {expense.currency}</p>
                 <p><strong>Date:</strong> {new Date(expense.transactionDate).toLocaleDateString()}</p>
                 <p><strong>Category:</strong> {expense.expenseCategory.categoryName}</p>
             </div>
@@ -103,9 +103,9 @@ function ExpenseDetailPage() {
                 />
                 <input
                     type="number"
-                    name="amount"
-                    placeholder="Amount"
-                    value={formExpense.amount}
+                    name="originalAmount"
+                    placeholder={`Amount (${formExpense.currency})`}
+                    value={formExpense.originalAmount}
                     onChange={handleExpenseChange}
                     className={styles.inputField}
                 />
@@ -49,7 +49,7 @@ function GoalPage() {
             const data = text ? JSON.parse(text) : null;
             if (data) {
                 setGoal(data);
-                setUpdatedGoal({ name: data.name, amount: data.amount });
+                setUpdatedGoal({ name: data.name, amount: data.amount, version: data.version });
             } else {
                 console.error('No data found for goal');
             }
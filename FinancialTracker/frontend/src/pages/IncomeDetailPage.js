@@ -7,7 +7,7 @@ import styles from './IncomePage.module.css';
 function IncomeDetailsPage() {
     const { id } = useParams();
     const { userId, isLoggedIn } = useAuth();
-    const [income, setIncome] = useState({ amount: '', name: '', transactionDate: '', incomeCategory: { id: '', categoryName: '' } });
+    const [income, setIncome] = useState({ amount: '', originalAmount: '', currency: '', name: '', transactionDate: '', incomeCategory: { id: '', categoryName: '' } });
     const [categories, setCategories] = useState([]);
     const [errorMessage, setErrorMessage] = useState('');
     const navigate = useNavigate();
@@ -55,7 +55,7 @@ function IncomeDetailsPage() {
     };
 
     const updateIncome = async () => {
-        if (!income.name || !income.amount || !income.transactionDate || !income.incomeCategory.id) {
+        if (!income.name || !income.originalAmount || !income.transactionDate || !income.incomeCategory.id) {
             setErrorMessage('Please fill out all fields before submitting.');
             return;
         }
@@ -102,9 +102,9 @@ function IncomeDetailsPage() {
                 />
                 <input
                     type="number"
-                    name="amount"
-                    placeholder="Amount"
-                    value={income.amount}
+                    name="originalAmount"
+                    placeholder={`Amount (${income.currency})`}
+                    value={income.originalAmount}
                     onChange={handleIncomeChange}
                     className={styles.inputField}
                 />
@@ -127,7 +127,7 @@ function IncomeDetailsPage() {
             <h3 className={styles.addIncomeTitle}>Income Details</h3>
             <div className={styles.incomeDetails}>
                 <p><strong>Name:</strong> {income.name}</p>
-                <p><strong>Amount:</strong> ${income.amount}</p>
+                <p><strong>Amount:</strong> {income.originalAmount} {income.currency}</p>
                 <p><strong>Transaction Date:</strong> {new Date(income.transactionDate).toLocaleDateString()}</p>
                 <p><strong>Category:</strong> {income.incomeCategory.categoryName}</p>
             </div>
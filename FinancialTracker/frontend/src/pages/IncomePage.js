@@ -7,12 +7,15 @@ import styles from './IncomePage.module.css';
 function IncomePage() {
     const { userId, isLoggedIn } = useAuth();
     const [incomes, setIncomes] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [categories, setCategories] = useState([]);
     const [newIncome, setNewIncome] = useState({ amount: '', name: '', transactionDate: '', incomeCategory: { id: '', categoryName: '' } });
     const [categoryName, setCategoryName] = useState('');
     const [sortOrder, setSortOrder] = useState('desc'); // default sorting order
     const [filterCategory, setFilterCategory] = useState('');
     const [filterAmount, setFilterAmount] = useState({ from: '', to: '' });
+    const [filterDate, setFilterDate] = useState({ from: '', to: '' });
+    const [filterName, setFilterName] = useState('');
     const navigate = useNavigate();
 
     useEffect(() => {
@@ -20,7 +23,7 @@ function IncomePage() {
             fetchIncomes();
             fetchCategories();
         }
-    }, [userId, sortOrder, filterCategory, filterAmount]);
+    }, [userId, sortOrder, filterCategory, filterAmount, filterDate, filterName]);
 
     if (!isLoggedIn) {
         return (
@@ -33,21 +36,26 @@ function IncomePage() {
         );
     }
 
-    const fetchIncomes = async () => {
-        let url = `http://localhost:8080/transactions/incomes/all_incomes_${sortOrder}?userId=${userId}`;
-        if (filterCategory) {
-            url = `http://localhost:8080/transactions/incomes/incomes-by-category/${filterCategory}?userId=${userId}`;
-        } else if (filterAmount.from || filterAmount.to) {
-            const from = filterAmount.from || 0;
-            const to = filterAmount.to || Number.MAX_VALUE;
-            url = `http://localhost:8080/transactions/incomes/filter-by-amount?from=${from}&to=${to}&userId=${userId}`;
-        }
+    // Fetches the first page, or the page after the cursor which is appended to the rows already shown
+    const fetchIncomes = async (cursor = null) => {
+        // All filters are combined by the server in a single query
+        const params = new URLSearchParams({ userId, sort: sortOrder });
+        if (filterCategory) params.append('categoryId', filterCategory);
+        if (filterAmount.from) params.append('minAmount', filterAmount.from);
+        if (filterAmount.to) params.append('maxAmount', filterAmount.to);
+        if (filterDate.from) params.append('fromDate', filterDate.from);
+        if (filterDate.to) params.append('toDate', filterDate.to);
+        if (filterName) params.append('name', filterName);
+        if (cursor) params.append('cursor', cursor);
+        const url = `http://localhost:8080/transactions/incomes/search?${params}`;
 
         try {
             const response = await fetch(url);
             if (!response.ok) throw new Error('Error fetching incomes');
             const data = await response.json();
-            setIncomes(data);
+            // The server returns one page at a time; the header carries the cursor of the next one
+            setIncomes((prev) => (cursor ? [...prev, ...data] : data));
+            setNextCursor(response.headers.get('X-Next-Cursor'));
         } catch (error) {
             console.error('Error fetching incomes:', error);
         }
@@ -142,13 +150,10 @@ function IncomePage() {
 
     const handleSortChange = (e) => {
         setSortOrder(e.target.value);
-        setFilterCategory('');
-        setFilterAmount({ from: '', to: '' });
     };
 
     const handleCategoryFilterChange = (e) => {
         setFilterCategory(e.target.value);
-        setFilterAmount({ from: '', to: '' });
     };
 
     const handleAmountFilterChange = (e) => {
@@ -157,13 +162,33 @@ function IncomePage() {
             ...prev,
             [name]: value,
         }));
-        setFilterCategory('');
+    };
+
+    const handleDateFilterChange = (e) => {
+        const { name, value } = e.target;
+        setFilterDate((prev) => ({
+            ...prev,
+            [name]: value,
+        }));
     };
 
     const exportData = async (format) => {
-        const url = `http://localhost:8080/transactions/incomes/export/${format}?userId=${userId}`;
+        const jobsUrl = 'http://localhost:8080/transactions/exports';
         try {
-            const response = await fetch(url);
+            // The export is rendered in the background; poll the job until its file is ready
+            const submitResponse = await fetch(`${jobsUrl}?userId=${userId}&type=INCOME&format=${format.toUpperCase()}`, { method: 'POST' });
+            if (!submitResponse.ok) throw new Error('Error exporting data');
+            let job = await submitResponse.json();
+
+            while (job.status === 'QUEUED' || job.status === 'RUNNING') {
+                await new Promise((resolve) => setTimeout(resolve, 1000));
+                const statusResponse = await fetch(`${jobsUrl}/${job.id}?userId=${userId}`);
+                if (!statusResponse.ok) throw new Error('Error exporting data');
+                job = await statusResponse.json();
+            }
+            if (job.status !== 'COMPLETED') throw new Error('Error exporting data');
+
+            const response = await fetch(`${jobsUrl}/${job.id}/download?userId=${userId}`);
             if (!response.ok) throw new Error('Error exporting data');
 
             const blob = await response.blob();
@@ -193,7 +218,7 @@ function IncomePage() {
                     <option value="desc">Descending</option>
                     <option value="asc">Ascending</option>
                 </select>
-                <select onChange={handleCategoryFilterChange} value={filterCategory} disabled={!!filterAmount.from || !!filterAmount.to} className={styles.inputField}>
+                <select onChange={handleCategoryFilterChange} value={filterCategory} className={styles.inputField}>
                     <option value="">All Categories</option>
                     {categories.map(category => (
                         <option key={category.id} value={category.id}>{category.categoryName}</option>
@@ -206,7 +231,6 @@ function IncomePage() {
                     value={filterAmount.from}
                     onChange={handleAmountFilterChange}
                     className={styles.inputField}
-                    disabled={!!filterCategory}
                 />
                 <input
                     type="number"
@@ -215,7 +239,27 @@ function IncomePage() {
                     value={filterAmount.to}
                     onChange={handleAmountFilterChange}
                     className={styles.inputField}
-                    disabled={!!filterCategory}
+                />
+                <input
+                    type="date"
+                    name="from"
+                    value={filterDate.from}
+                    onChange={handleDateFilterChange}
+                    className={styles.inputField}
+                />
+                <input
+                    type="date"
+                    name="to"
+                    value={filterDate.to}
+                    onChange={handleDateFilterChange}
+                    className={styles.inputField}
+                />
+                <input
+                    type="text"
+                    placeholder="Name contains"
+                    value={filterName}
+                    onChange={(e) => setFilterName(e.target.value)}
+                    className={styles.inputField}
                 />
             </div>
             <ul className={styles.incomeList}>
@@ -238,6 +282,11 @@ function IncomePage() {
                     </li>
                 ))}
             </ul>
+            {nextCursor && (
+                <button onClick={() => fetchIncomes(nextCursor)} className={styles.addButton}>
+                    Load more
+                </button>
+            )}
             <h3 className={styles.addIncomeTitle}>Add a New Income</h3>
             <div className={styles.form}>
                 <input
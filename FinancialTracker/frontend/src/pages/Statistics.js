@@ -21,8 +21,6 @@ import {
 function Statistics() {
     const { userId, isLoggedIn } = useAuth();
     const navigate = useNavigate();
-    const [expenses, setExpenses] = useState([]);
-    const [incomes, setIncomes] = useState([]);
     const [chartData, setChartData] = useState([]);
 
     useEffect(() => {
@@ -45,65 +43,20 @@ function Statistics() {
 
     const fetchData = async () => {
         try {
-            const [expensesResponse, incomesResponse] = await Promise.all([
-                fetch(`http://localhost:8080/transactions/expenses/all_expenses_desc?userId=${userId}`),
-                fetch(`http://localhost:8080/transactions/incomes/all_incomes_desc?userId=${userId}`),
-            ]);
+            const response = await fetch(`http://localhost:8080/transactions/stats/monthly?userId=${userId}`);
 
-            if (!expensesResponse.ok || !incomesResponse.ok) {
+            if (!response.ok) {
                 throw new Error('Failed to fetch data');
             }
 
-            const [expensesData, incomesData] = await Promise.all([
-                expensesResponse.json(),
-                incomesResponse.json(),
-            ]);
-
-            setExpenses(expensesData);
-            setIncomes(incomesData);
-
-            processChartData(expensesData, incomesData);
+            // The server already returns one { month, income, expense } row per month, ordered by month
+            const monthlyData = await response.json();
+            setChartData(monthlyData);
         } catch (error) {
             console.error('Error fetching data:', error);
         }
     };
 
-    const processChartData = (expensesData, incomesData) => {
-        // Combine incomes and expenses by month
-        const dataMap = {};
-
-        expensesData.forEach((expense) => {
-            const date = new Date(expense.transactionDate);
-            const month = `${date.getFullYear()}-${(date.getMonth() + 1)
-                .toString()
-                .padStart(2, '0')}`;
-
-            if (!dataMap[month]) {
-                dataMap[month] = { month, income: 0, expense: 0 };
-            }
-            dataMap[month].expense += expense.amount;
-        });
-
-        incomesData.forEach((income) => {
-            const date = new Date(income.transactionDate);
-            const month = `${date.getFullYear()}-${(date.getMonth() + 1)
-                .toString()
-                .padStart(2, '0')}`;
-
-            if (!dataMap[month]) {
-                dataMap[month] = { month, income: 0, expense: 0 };
-            }
-            dataMap[month].income += income.amount;
-        });
-
-        // Convert dataMap to array and sort by month
-        const chartDataArray = Object.values(dataMap).sort(
-            (a, b) => new Date(a.month) - new Date(b.month)
-        );
-
-        setChartData(chartDataArray);
-    };
-
     return (
         <div className={styles.container}>
             <Header />